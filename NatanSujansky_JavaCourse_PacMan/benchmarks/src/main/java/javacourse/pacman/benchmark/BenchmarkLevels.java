@@ -0,0 +1,117 @@
+package javacourse.pacman.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javacourse.pacman.model.level.LevelGenerator;
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Helper class that provides levels of increasing size for the benchmarks. The
+ * bundled level is referred to by its resource name (e.g. "level1"), a number
+ * denotes a synthetic square grid of that size, and "maze" followed by a number
+ * (e.g. "maze1000") a square level of that size made by LevelGenerator.
+ *
+ * @author Natan
+ *
+ */
+public final class BenchmarkLevels {
+
+    /**
+     * Number of ghosts placed in synthetic levels unless requested otherwise
+     */
+    public static final int DEFAULT_NUM_OF_GHOSTS = 4;
+
+    /**
+     * Seed used for the games and inputs of all benchmarks, so that every run
+     * measures the same games
+     */
+    public static final long SEED = 42L;
+
+    private BenchmarkLevels() {
+    }
+
+    /**
+     * Loads the level denoted by the given benchmark parameter
+     *
+     * @param level either the name of a bundled level or the size of a synthetic
+     *              level
+     * @return LevelLayout object for the requested level
+     * @throws IOException in case the level cannot be read
+     */
+    public static LevelLayout load(String level) throws IOException {
+        return load(level, DEFAULT_NUM_OF_GHOSTS);
+    }
+
+    /**
+     * Loads the level denoted by the given benchmark parameter
+     *
+     * @param level       the name of a bundled level, the size of a synthetic
+     *                    level or the size of a generated maze
+     * @param numOfGhosts number of ghosts placed in a synthetic level or a
+     *                    generated maze, ignored for bundled levels
+     * @return LevelLayout object for the requested level
+     * @throws IOException in case the level cannot be read
+     */
+    public static LevelLayout load(String level, int numOfGhosts) throws IOException {
+        if (level.startsWith("level")) {
+            return new LevelLayout(level, "/levels/" + level + ".txt");
+        }
+        if (level.startsWith("maze")) {
+            int size = Integer.parseInt(level.substring("maze".length()));
+            return LevelGenerator.generate(level, size, size, numOfGhosts, SEED);
+        }
+        int size = Integer.parseInt(level);
+        return new LevelLayout(level, new ByteArrayInputStream(generate(size, numOfGhosts)));
+    }
+
+    /**
+     * Generates a square level in the level file format. Interior cells with both
+     * coordinates even are walls and every other cell holds a small dot, which
+     * keeps the whole maze connected. The middle row has a tunnel through the
+     * border, Pac-Man starts in the top left corner and ghosts are placed in the
+     * middle rows.
+     *
+     * @param size        width and height of the level
+     * @param numOfGhosts number of ghosts to place
+     * @return level content encoded in UTF-8
+     * @throws IllegalArgumentException if the ghosts do not fit into the level
+     */
+    public static byte[] generate(int size, int numOfGhosts) {
+        char[][] cells = new char[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                boolean isBorder = i == 0 || j == 0 || i == size - 1 || j == size - 1;
+                cells[i][j] = isBorder || (i % 2 == 0 && j % 2 == 0) ? 'W' : 'S';
+            }
+        }
+        int middleRow = (size / 2) | 1;
+        cells[middleRow][0] = 'E';
+        cells[middleRow][size - 1] = 'E';
+        cells[1][1] = 'P';
+        cells[1][size - 2] = 'B';
+        cells[size - 2][1] = 'B';
+        cells[size - 2][size - 2] = 'B';
+
+        int row = middleRow;
+        int column = 3;
+        for (int k = 0; k < numOfGhosts; k++) {
+            if (column >= size - 1) {
+                row += 2;
+                column = 3;
+            }
+            if (row >= size - 1) {
+                throw new IllegalArgumentException(numOfGhosts + " ghosts do not fit into a level of size " + size);
+            }
+            cells[row][column] = 'G';
+            column += 2;
+        }
+
+        StringBuilder builder = new StringBuilder(size * (size + 1));
+        for (char[] line : cells) {
+            builder.append(line).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,31 @@
+package javacourse.pacman.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line options
+ * and always enables the GC profiler, so that every result is reported both in
+ * ops/s and in bytes allocated per operation (gc.alloc.rate.norm).
+ *
+ * @author Natan
+ *
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Main method that runs the benchmarks
+     *
+     * @param args JMH command line options, e.g. a benchmark name filter
+     * @throws RunnerException            in case a benchmark fails to run
+     * @throws CommandLineOptionException in case the options cannot be parsed
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build())
+                .run();
+    }
+}
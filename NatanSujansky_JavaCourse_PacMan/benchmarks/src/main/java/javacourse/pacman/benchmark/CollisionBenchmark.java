@@ -0,0 +1,87 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.model.GhostStorage;
+import javacourse.pacman.model.model.GhostTable;
+import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.model.PacManSprite;
+
+/**
+ * Compares finding the ghosts in Pac-Man's cell by comparing the coordinates of
+ * every ghost, as the model did before, with the lookup in the model's
+ * occupancy index. The cost of the scan grows with the number of ghosts, while
+ * the lookup only depends on the ghosts in the cell.
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final String LEVEL = "201";
+
+    @Param({ "100", "1000", "4000" })
+    private int ghosts;
+
+    private PacManModel model;
+
+    /**
+     * Generates the level and prepares the model
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        model = new PacManModel(GhostStorage.ARRAYS);
+        model.initializeNewGame(BenchmarkLevels.load(LEVEL, ghosts), BenchmarkLevels.SEED);
+    }
+
+    /**
+     * Counts the living ghosts in Pac-Man's cell by looking at every ghost
+     *
+     * @return number of ghosts in Pac-Man's cell
+     */
+    @Benchmark
+    public int scanGhosts() {
+        PacManSprite pacMan = model.getPacMan();
+        GhostTable ghostTable = model.getGhostTable();
+        int numOfGhosts = 0;
+        for (int i = 0; i < ghostTable.size(); i++) {
+            if (!ghostTable.isGhostDead(i) && ghostTable.getRowIndex(i) == pacMan.getRowIndex()
+                    && ghostTable.getColumnIndex(i) == pacMan.getColumnIndex()) {
+                numOfGhosts++;
+            }
+        }
+        return numOfGhosts;
+    }
+
+    /**
+     * Counts the living ghosts in Pac-Man's cell through the occupancy index
+     *
+     * @return number of ghosts in Pac-Man's cell
+     */
+    @Benchmark
+    public int occupancyIndex() {
+        PacManSprite pacMan = model.getPacMan();
+        return model.getNumberOfGhostsAt(pacMan.getRowIndex(), pacMan.getColumnIndex());
+    }
+}
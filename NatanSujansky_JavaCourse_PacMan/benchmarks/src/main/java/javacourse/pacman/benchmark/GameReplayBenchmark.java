@@ -0,0 +1,79 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Measures a whole game: model initialization followed by game updates driven by
+ * a fixed input sequence, until the game is over or MAX_TICKS updates were made
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameReplayBenchmark {
+
+    /**
+     * Upper bound of game updates in one replayed game
+     */
+    private static final int MAX_TICKS = 2_000;
+
+    @Param({ "level1", "100", "500", "1000" })
+    private String level;
+
+    private LevelLayout levelLayout;
+
+    private PacManModel model;
+
+    private MovementDirection[] inputs;
+
+    /**
+     * Loads the level and prepares the Pac-Man inputs
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        levelLayout = BenchmarkLevels.load(level);
+        model = new PacManModel();
+        inputs = TickBenchmark.createInputs(new Random(BenchmarkLevels.SEED));
+    }
+
+    /**
+     * Plays one game
+     *
+     * @return number of game updates made
+     */
+    @Benchmark
+    public int replay() {
+        model.initializeNewGame(levelLayout, BenchmarkLevels.SEED);
+        int ticks = 0;
+        while (!model.isGameOver() && ticks < MAX_TICKS) {
+            model.updateGameStatus(inputs[ticks & (TickBenchmark.NUM_OF_INPUTS - 1)]);
+            ticks++;
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,116 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.GhostSprite;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Measures the movement of all ghosts in a level for one game update, including
+ * the lookup of valid movement directions for each ghost. The set based lookup
+ * the model used originally is compared with the precomputed exit masks.
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GhostMovementBenchmark {
+
+    @Param({ "100", "1000" })
+    private String level;
+
+    @Param({ "4", "64", "1024" })
+    private int numOfGhosts;
+
+    private LevelLayout levelLayout;
+
+    private List<GhostSprite> ghosts;
+
+    /**
+     * Loads the level and creates the ghosts
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        levelLayout = BenchmarkLevels.load(level, numOfGhosts);
+        PacManModel model = new PacManModel();
+        model.initializeNewGame(levelLayout, BenchmarkLevels.SEED);
+        ghosts = model.getGhosts();
+    }
+
+    /**
+     * Moves every ghost once
+     *
+     * @return list of moved ghosts
+     */
+    @Benchmark
+    public List<GhostSprite> moveGhosts() {
+        for (GhostSprite ghost : ghosts) {
+            ghost.ghostMove(getValidMovementDirections(ghost), MovementDirection.NONE, false);
+        }
+        return ghosts;
+    }
+
+    /**
+     * Moves every ghost once, using the exit masks precomputed by the LevelLayout
+     *
+     * @return list of moved ghosts
+     */
+    @Benchmark
+    public List<GhostSprite> moveGhostsWithExitMasks() {
+        for (GhostSprite ghost : ghosts) {
+            ghost.ghostMove(levelLayout.getExitMask(ghost.getRowIndex(), ghost.getColumnIndex()),
+                    MovementDirection.NONE, false);
+        }
+        return ghosts;
+    }
+
+    /**
+     * Copy of the set based valid movement direction lookup that PacManModel
+     * originally performed for each ghost
+     */
+    private Set<MovementDirection> getValidMovementDirections(GhostSprite ghost) {
+        Set<MovementDirection> validDirections = EnumSet.noneOf(MovementDirection.class);
+        int height = levelLayout.getLevelHeight();
+        int width = levelLayout.getLevelWidth();
+        int row = ghost.getRowIndex();
+        int column = ghost.getColumnIndex();
+        if (!levelLayout.isWall(row - 1 < 0 ? height - 1 : row - 1, column)) {
+            validDirections.add(MovementDirection.UP);
+        }
+        if (!levelLayout.isWall(row + 1 >= height ? 0 : row + 1, column)) {
+            validDirections.add(MovementDirection.DOWN);
+        }
+        if (!levelLayout.isWall(row, column - 1 < 0 ? width - 1 : column - 1)) {
+            validDirections.add(MovementDirection.LEFT);
+        }
+        if (!levelLayout.isWall(row, column + 1 >= width ? 0 : column + 1)) {
+            validDirections.add(MovementDirection.RIGHT);
+        }
+        return validDirections;
+    }
+}
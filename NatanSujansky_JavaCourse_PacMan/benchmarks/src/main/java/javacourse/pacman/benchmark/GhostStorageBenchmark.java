@@ -0,0 +1,99 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.GhostStorage;
+import javacourse.pacman.model.model.GhostTable;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Compares the ghost storages of PacManModel on a large level with many ghosts:
+ * a game update, and a pass over the ghost table as done by the renderers every
+ * frame. When the game ends the model is restarted, as in TickBenchmark.
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GhostStorageBenchmark {
+
+    private static final String LEVEL = "201";
+
+    @Param({ "100", "1000", "4000" })
+    private int ghosts;
+
+    @Param({ "SPRITES", "ARRAYS" })
+    private GhostStorage storage;
+
+    private PacManModel model;
+
+    private MovementDirection[] inputs;
+
+    private int inputIndex;
+
+    /**
+     * Generates the level and prepares the model and the Pac-Man inputs
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        LevelLayout levelLayout = BenchmarkLevels.load(LEVEL, ghosts);
+        model = new PacManModel(storage);
+        model.initializeNewGame(levelLayout, BenchmarkLevels.SEED);
+        inputs = TickBenchmark.createInputs(new Random(BenchmarkLevels.SEED));
+    }
+
+    /**
+     * Performs one game update
+     *
+     * @return updated model
+     */
+    @Benchmark
+    public PacManModel tick() {
+        if (model.isGameOver()) {
+            model.restartGame();
+        }
+        model.updateGameStatus(inputs[inputIndex++ & (TickBenchmark.NUM_OF_INPUTS - 1)]);
+        return model;
+    }
+
+    /**
+     * Reads the position and state of every ghost through the ghost table
+     *
+     * @return checksum of the read values
+     */
+    @Benchmark
+    public long readGhostTable() {
+        GhostTable ghostTable = model.getGhostTable();
+        long checksum = 0;
+        for (int i = 0; i < ghostTable.size(); i++) {
+            checksum += ghostTable.getRowIndex(i) * 31L + ghostTable.getColumnIndex(i);
+            if (ghostTable.isGhostDead(i)) {
+                checksum++;
+            }
+        }
+        return checksum;
+    }
+}
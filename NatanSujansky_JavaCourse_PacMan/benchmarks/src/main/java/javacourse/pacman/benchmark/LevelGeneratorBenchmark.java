@@ -0,0 +1,47 @@
+package javacourse.pacman.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelGenerator;
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Measures generation of square mazes by LevelGenerator, including the
+ * validation of the resulting LevelLayout. The parallel speed-up is seen by
+ * running it with different numbers of cores available to the JVM.
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LevelGeneratorBenchmark {
+
+    @Param({ "100", "1000", "4000" })
+    private int size;
+
+    /**
+     * Generates a maze
+     *
+     * @return generated level
+     */
+    @Benchmark
+    public LevelLayout generate() {
+        return LevelGenerator.generate("Maze", size, size, BenchmarkLevels.DEFAULT_NUM_OF_GHOSTS, BenchmarkLevels.SEED);
+    }
+}
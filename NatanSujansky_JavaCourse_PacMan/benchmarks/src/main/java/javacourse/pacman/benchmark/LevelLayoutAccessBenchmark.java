@@ -0,0 +1,124 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelCellComponent;
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Compares reading every cell of a level through the decoded LevelLayout grid
+ * against the original lookup, which split the level line and scanned the enum
+ * values on every call
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelLayoutAccessBenchmark {
+
+    private LevelLayout levelLayout;
+
+    /**
+     * Level lines in the format that the original implementation kept them in
+     */
+    private String[] levelLines;
+
+    /**
+     * Loads the bundled level both ways
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        try (InputStream inputStream = LevelLayout.class.getResourceAsStream("/levels/level1.txt")) {
+            String fileContent = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            levelLines = Arrays.stream(fileContent.split("\r?\n")).map(x -> x.replaceAll(" ", ""))
+                    .map(x -> x.replaceAll("#.*", "").trim()).filter(x -> !x.isEmpty()).toArray(String[]::new);
+        }
+    }
+
+    /**
+     * Reads every cell through the original string splitting path
+     *
+     * @return number of walls, so that the work cannot be eliminated
+     */
+    @Benchmark
+    public int legacyStringSplitScan() {
+        int walls = 0;
+        for (int i = 0; i < levelLines.length; i++) {
+            for (int j = 0; j < levelLines[i].length(); j++) {
+                if (legacyGetComponent(i, j) == LevelCellComponent.WALL) {
+                    walls++;
+                }
+            }
+        }
+        return walls;
+    }
+
+    /**
+     * Reads every cell through LevelLayout.getComponent
+     *
+     * @return number of walls, so that the work cannot be eliminated
+     */
+    @Benchmark
+    public int decodedGetComponentScan() {
+        int walls = 0;
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                if (levelLayout.getComponent(i, j) == LevelCellComponent.WALL) {
+                    walls++;
+                }
+            }
+        }
+        return walls;
+    }
+
+    /**
+     * Reads every cell through LevelLayout.isWall
+     *
+     * @return number of walls, so that the work cannot be eliminated
+     */
+    @Benchmark
+    public int decodedIsWallScan() {
+        int walls = 0;
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                if (levelLayout.isWall(i, j)) {
+                    walls++;
+                }
+            }
+        }
+        return walls;
+    }
+
+    /**
+     * Copy of the cell lookup that LevelLayout used before the level was decoded
+     * into a grid
+     */
+    private LevelCellComponent legacyGetComponent(int rowIndex, int columnIndex) {
+        String cellValue = levelLines[rowIndex].split("")[columnIndex];
+        return Arrays.stream(LevelCellComponent.values()).filter(cellVal -> cellVal.cellValue.equals(cellValue))
+                .findFirst().orElseThrow(() -> new IllegalArgumentException(cellValue + " is not a valid value."));
+    }
+}
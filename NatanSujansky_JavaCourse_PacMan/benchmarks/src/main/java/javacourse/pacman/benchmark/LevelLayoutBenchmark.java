@@ -0,0 +1,94 @@
+package javacourse.pacman.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelCompiler;
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Measures construction of a LevelLayout, i.e. parsing and validating the level
+ * content
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelLayoutBenchmark {
+
+    @Param({ "level1", "100", "500", "1000" })
+    private String level;
+
+    /**
+     * Level content, read into memory so that only parsing is measured
+     */
+    private byte[] levelContent;
+
+    /**
+     * The same level in the compiled format, held in a direct buffer like a
+     * memory-mapped file
+     */
+    private ByteBuffer compiledLevel;
+
+    /**
+     * Reads the level content
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        if (level.startsWith("level")) {
+            try (InputStream inputStream = LevelLayout.class.getResourceAsStream("/levels/" + level + ".txt")) {
+                levelContent = inputStream.readAllBytes();
+            }
+        } else {
+            levelContent = BenchmarkLevels.generate(Integer.parseInt(level), BenchmarkLevels.DEFAULT_NUM_OF_GHOSTS);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        LevelCompiler.compile(construct(), outputStream);
+        compiledLevel = ByteBuffer.allocateDirect(outputStream.size());
+        compiledLevel.put(outputStream.toByteArray()).flip();
+    }
+
+    /**
+     * Parses and validates the level
+     *
+     * @return constructed LevelLayout
+     * @throws IOException never, the content is read from memory
+     */
+    @Benchmark
+    public LevelLayout construct() throws IOException {
+        return new LevelLayout(level, new ByteArrayInputStream(levelContent));
+    }
+
+    /**
+     * Loads and validates the compiled level
+     *
+     * @return loaded LevelLayout
+     */
+    @Benchmark
+    public LevelLayout loadCompiled() {
+        return LevelCompiler.load(level, compiledLevel.duplicate());
+    }
+}
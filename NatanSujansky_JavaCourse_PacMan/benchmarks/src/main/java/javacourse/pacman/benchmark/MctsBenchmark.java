@@ -0,0 +1,109 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.simulation.MctsPacManAgent;
+
+/**
+ * Measures the Monte Carlo tree search autopilot playing headless games with a
+ * short time budget per decision. Besides the decisions per second, the
+ * "rollouts" counter reports the rollouts per second summed over all worker
+ * threads, which is the figure that scales with the number of cores.
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MctsBenchmark {
+
+    @Param({ "level1", "100" })
+    private String level;
+
+    @Param({ "1", "4" })
+    private int parallelism;
+
+    private PacManModel model;
+
+    private PacManModel.Snapshot startSnapshot;
+
+    private MctsPacManAgent agent;
+
+    /**
+     * Rollouts performed by the autopilot, reported by JMH per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RolloutCounter {
+
+        public long rollouts;
+
+        /**
+         * Resets the counter before every iteration
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            rollouts = 0;
+        }
+    }
+
+    /**
+     * Loads the level and creates the autopilot
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        LevelLayout levelLayout = BenchmarkLevels.load(level);
+        model = new PacManModel();
+        model.initializeNewGame(levelLayout, BenchmarkLevels.SEED);
+        startSnapshot = model.snapshot();
+        agent = new MctsPacManAgent(parallelism, 10, 40, BenchmarkLevels.SEED);
+    }
+
+    /**
+     * Shuts the worker threads of the autopilot down
+     */
+    @TearDown
+    public void tearDown() {
+        agent.close();
+    }
+
+    /**
+     * Lets the autopilot decide the next direction and performs the game update
+     *
+     * @param counter counter the rollouts of the decision are added to
+     * @return updated model
+     */
+    @Benchmark
+    public PacManModel decideAndTick(RolloutCounter counter) {
+        if (model.isGameOver()) {
+            model.restore(startSnapshot);
+        }
+        model.updateGameStatus(agent.chooseDirection(model));
+        counter.rollouts += agent.getLastRollouts();
+        return model;
+    }
+}
@@ -0,0 +1,84 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.GhostStorage;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Measures starting a new game on a level: restarting a model that has already
+ * played the level, and initializing a new model as a batch runner does for
+ * every game
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestartBenchmark {
+
+    @Param({ "level1", "100", "500", "1000" })
+    private String level;
+
+    @Param({ "SPRITES", "ARRAYS" })
+    private GhostStorage storage;
+
+    private LevelLayout levelLayout;
+
+    private PacManModel model;
+
+    private long seed;
+
+    /**
+     * Loads the level and plays it once in the reused model
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        levelLayout = BenchmarkLevels.load(level);
+        model = new PacManModel(storage);
+        model.initializeNewGame(levelLayout, BenchmarkLevels.SEED);
+    }
+
+    /**
+     * Starts a new game with a new seed in the reused model
+     *
+     * @return restarted model
+     */
+    @Benchmark
+    public PacManModel restart() {
+        model.initializeNewGame(levelLayout, seed++);
+        return model;
+    }
+
+    /**
+     * Starts a new game with a new seed in a new model
+     *
+     * @return new model
+     */
+    @Benchmark
+    public PacManModel newModel() {
+        PacManModel newModel = new PacManModel(storage);
+        newModel.initializeNewGame(levelLayout, seed++);
+        return newModel;
+    }
+}
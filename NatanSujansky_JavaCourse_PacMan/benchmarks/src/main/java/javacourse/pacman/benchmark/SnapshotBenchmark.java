@@ -0,0 +1,91 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Measures a game update followed by a snapshot of the model, as taken by a
+ * rewind feature every update, and restoring a snapshot, as done by a search
+ * before every simulated game. Run with "-prof gc" to see the allocation per
+ * operation, which should not grow with the level size.
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({ "level1", "100", "500", "1000" })
+    private String level;
+
+    private PacManModel model;
+
+    private PacManModel.Snapshot startSnapshot;
+
+    private MovementDirection[] inputs;
+
+    private int inputIndex;
+
+    /**
+     * Loads the level and prepares the model and the Pac-Man inputs
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        LevelLayout levelLayout = BenchmarkLevels.load(level);
+        model = new PacManModel();
+        model.initializeNewGame(levelLayout, BenchmarkLevels.SEED);
+        startSnapshot = model.snapshot();
+        inputs = TickBenchmark.createInputs(new Random(BenchmarkLevels.SEED));
+    }
+
+    /**
+     * Performs one game update and takes a snapshot of the result
+     *
+     * @return snapshot of the updated model
+     */
+    @Benchmark
+    public PacManModel.Snapshot tickAndSnapshot() {
+        if (model.isGameOver()) {
+            model.restore(startSnapshot);
+        }
+        model.updateGameStatus(inputs[inputIndex++ & (TickBenchmark.NUM_OF_INPUTS - 1)]);
+        return model.snapshot();
+    }
+
+    /**
+     * Restores the snapshot taken at the start of the game and performs one game
+     * update
+     *
+     * @return updated model
+     */
+    @Benchmark
+    public PacManModel restoreAndTick() {
+        model.restore(startSnapshot);
+        model.updateGameStatus(inputs[inputIndex++ & (TickBenchmark.NUM_OF_INPUTS - 1)]);
+        return model;
+    }
+}
@@ -0,0 +1,100 @@
+package javacourse.pacman.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Measures a single call of PacManModel.updateGameStatus. When the game ends the
+ * model is restarted, so the restart cost is included in a small fraction of the
+ * operations.
+ *
+ * @author Natan
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark {
+
+    /**
+     * Number of pre-generated Pac-Man inputs, has to be a power of two
+     */
+    static final int NUM_OF_INPUTS = 1024;
+
+    @Param({ "level1", "100", "500", "1000" })
+    private String level;
+
+    private PacManModel model;
+
+    private MovementDirection[] inputs;
+
+    private int inputIndex;
+
+    /**
+     * Loads the level and prepares the model and the Pac-Man inputs
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        LevelLayout levelLayout = BenchmarkLevels.load(level);
+        model = new PacManModel();
+        model.initializeNewGame(levelLayout, BenchmarkLevels.SEED);
+        inputs = createInputs(new Random(BenchmarkLevels.SEED));
+    }
+
+    /**
+     * Performs one game update
+     *
+     * @return updated model
+     */
+    @Benchmark
+    public PacManModel tick() {
+        if (model.isGameOver()) {
+            model.restartGame();
+        }
+        model.updateGameStatus(inputs[inputIndex++ & (NUM_OF_INPUTS - 1)]);
+        return model;
+    }
+
+    /**
+     * Helper method that creates a sequence of Pac-Man inputs. Each direction is
+     * held for several updates, similar to a player holding an arrow key.
+     *
+     * @param random source of the directions
+     * @return array of NUM_OF_INPUTS directions
+     */
+    static MovementDirection[] createInputs(Random random) {
+        MovementDirection[] directions = { MovementDirection.UP, MovementDirection.DOWN, MovementDirection.LEFT,
+                MovementDirection.RIGHT };
+        MovementDirection[] inputs = new MovementDirection[NUM_OF_INPUTS];
+        MovementDirection current = directions[0];
+        for (int i = 0; i < NUM_OF_INPUTS; i++) {
+            if (i % 8 == 0) {
+                current = directions[random.nextInt(directions.length)];
+            }
+            inputs[i] = current;
+        }
+        return inputs;
+    }
+}
@@ -1,34 +1,69 @@
 package javacourse.pacman.controller;
 
 import java.io.IOException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import javacourse.pacman.general.ApplicationAction;
+import javacourse.pacman.general.GameProperties;
 import javacourse.pacman.model.level.LevelLayout;
 import javacourse.pacman.model.model.MovementDirection;
 import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.model.Sprite;
+import javacourse.pacman.model.replay.ReplayRecorder;
+import javacourse.pacman.model.simulation.MctsPacManAgent;
+import javacourse.pacman.server.GameClient;
+import javacourse.pacman.view.PacManCanvasView;
 import javacourse.pacman.view.PacManGridView;
-import javafx.application.Platform;
+import javacourse.pacman.view.PacManView;
+import javafx.animation.AnimationTimer;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
 
 /**
  * Class that handles KeyEvents and moves Pac-Man in the requested direction. It
  * also handles periodic updates of the game model and will update the view with
  * the new model state, which gives the game the appearance of fluidity.
  *
+ * The game runs on a fixed-timestep loop driven by an AnimationTimer on the
+ * JavaFX application thread. Elapsed time is accumulated and the model is
+ * updated once per Sprite.MILLISECONDS_PER_GAME_UPDATE, independent of the
+ * frame rate, while the view is rendered at most once per frame with sprites
+ * interpolated between their previous and current cells.
+ *
+ * If a replay directory is defined in the game properties, the inputs of every
+ * game are recorded and saved as a replay when the game ends, is restarted or
+ * is closed.
+ *
+ * Pressing A hands Pac-Man over to a Monte Carlo tree search autopilot. The
+ * search for the next game update runs on worker threads while the current one
+ * is rendered, so the application thread never waits for it; if the search is
+ * late, Pac-Man keeps his direction.
+ *
+ * A game started by startOnlineGame() is hosted by a GameServer instead. The
+ * game loop then sends the pressed direction to the server and renders the
+ * game updates received from it; nothing is ticked locally.
+ *
  * @author Natan
  *
  */
 public class GameBoardController implements EventHandler<KeyEvent> {
 
+    /**
+     * Number of game updates simulated by a rollout of the autopilot
+     */
+    private static final int AUTOPILOT_ROLLOUT_DEPTH = 40;
+
     @FXML
     private Label scoreLabel, resultLabel, nameLabel;
 
@@ -36,14 +71,52 @@ public class GameBoardController implements EventHandler<KeyEvent> {
     private GridPane gridPane;
 
     @FXML
-    private PacManGridView gridView;
+    private StackPane viewPane;
+
+    private PacManView gridView;
 
     private long score;
     private String gameResult;
     private KeyCode key;
     private PacManModel model;
     private LevelLayout levelLayout;
-    private final ScheduledExecutorService scheduler;
+    private final GameLoop gameLoop;
+
+    /**
+     * Recorder of the current game, or null if the games are not recorded
+     */
+    private ReplayRecorder replayRecorder;
+
+    /**
+     * Autopilot, created when it is first switched on
+     */
+    private MctsPacManAgent autopilot;
+
+    /**
+     * Direction being searched for by the autopilot, or null if no search is
+     * running
+     */
+    private CompletableFuture<MovementDirection> autopilotMove;
+
+    /**
+     * Number of game updates performed when the running autopilot search started,
+     * its result is discarded if the game has moved on since
+     */
+    private long autopilotMoveUpdate;
+
+    private long numOfGameUpdates;
+
+    /**
+     * Client of the server hosting the game, or null if the game is played locally
+     */
+    private GameClient gameClient;
+
+    /**
+     * Latest direction sent to the server
+     */
+    private MovementDirection sentDirection;
+
+    private int numOfWelcomes;
 
     private Consumer<ApplicationAction> applicationControl;
 
@@ -51,7 +124,7 @@ public class GameBoardController implements EventHandler<KeyEvent> {
      * Constructor method for GameBoardController class
      */
     public GameBoardController() {
-        scheduler = Executors.newScheduledThreadPool(1);
+        gameLoop = new GameLoop();
     }
 
     @Override
@@ -62,7 +135,8 @@ public class GameBoardController implements EventHandler<KeyEvent> {
 
     /**
      * Method that prepares model and view for the new game, and starts the periodic
-     * game update
+     * game update. The view is created according to the renderer defined in the
+     * game properties.
      *
      * @param pacManModel
      * @throws IOException in case there is an I/O error when loading image
@@ -71,28 +145,45 @@ public class GameBoardController implements EventHandler<KeyEvent> {
     public void startGame(PacManModel pacManModel) throws IOException {
         model = pacManModel;
         levelLayout = model.getLevelLayout();
+        gridView = createView();
+        viewPane.getChildren().setAll(gridView.getNode());
         gridView.initializeGrid(model);
         nameLabel.setText(levelLayout.getLevelName());
-        scheduler.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                Platform.runLater(new Runnable() {
-
-                    @Override
-                    public void run() {
-                        updateGame();
-                    }
-                });
-            }
-        }, 0, 200, TimeUnit.MILLISECONDS);
+        startRecording();
+        gameLoop.start();
+    }
+
+    /**
+     * Method that prepares model and view for a game hosted by a server, and
+     * starts rendering the game updates received from it
+     *
+     * @param client client connected to the session of the game
+     * @throws IOException in case there is an I/O error when loading image
+     *                     resources
+     */
+    public void startOnlineGame(GameClient client) throws IOException {
+        gameClient = client;
+        numOfWelcomes = client.getNumberOfWelcomes();
+        startGame(client.getModel());
     }
 
     /**
      * Method that stops the game and cleans-up resources that required cleaning up
      */
     public void closeGame() {
-        scheduler.shutdownNow();
+        gameLoop.stop();
+        if (gameClient != null) {
+            try {
+                gameClient.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        saveReplay();
         gridView.update();
+        if (autopilot != null) {
+            autopilot.close();
+        }
     }
 
     /**
@@ -106,37 +197,140 @@ public class GameBoardController implements EventHandler<KeyEvent> {
     }
 
     /**
-     * Helper method used for updating the game
+     * Helper method that creates the view for the renderer defined in the game
+     * properties
+     *
+     * @return new PacManView object
+     * @throws IOException in case there is an I/O error when loading image
+     *                     resources
+     */
+    private PacManView createView() throws IOException {
+        GameProperties gameProperties = GameProperties.getGameProperties();
+        switch (gameProperties.getRenderer()) {
+        case CANVAS:
+            return new PacManCanvasView((int) gameProperties.getCellDimension());
+        case GRID:
+        default:
+            return new PacManGridView();
+        }
+    }
+
+    /**
+     * Helper method that starts recording the game the model has just started, in
+     * case a replay directory is defined
+     */
+    private void startRecording() {
+        replayRecorder = gameClient == null && GameProperties.getGameProperties().getReplayDirectory() != null
+                ? new ReplayRecorder(model)
+                : null;
+    }
+
+    /**
+     * Helper method that saves the recorded game into the replay directory, unless
+     * nothing has been recorded. A replay is saved only once.
+     */
+    private void saveReplay() {
+        if (replayRecorder == null || replayRecorder.getNumberOfTicks() == 0) {
+            return;
+        }
+        Path replayDirectory = GameProperties.getGameProperties().getReplayDirectory();
+        String fileName = levelLayout.getLevelName().replaceAll("[^A-Za-z0-9_-]", "_") + "-" + model.getSeed() + "-"
+                + System.currentTimeMillis() + ".pmr";
+        try {
+            Files.createDirectories(replayDirectory);
+            try (OutputStream outputStream = Files.newOutputStream(replayDirectory.resolve(fileName))) {
+                replayRecorder.toReplay().writeTo(outputStream);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        replayRecorder = null;
+    }
+
+    /**
+     * Helper method that performs a single game update with the given direction
+     * and records it. Once the game is over, its replay is saved.
+     *
+     * @param direction MovementDirection enum value passed to the model
+     */
+    private void updateModel(MovementDirection direction) {
+        if (model.isGameOver()) {
+            return;
+        }
+        if (replayRecorder != null) {
+            replayRecorder.record(direction);
+        }
+        model.updateGameStatus(direction);
+        numOfGameUpdates++;
+        if (model.isGameOver()) {
+            saveReplay();
+        }
+    }
+
+    /**
+     * Helper method that takes the direction the autopilot has found for the
+     * current game update
+     *
+     * @return found direction, or Pac-Man's current direction if the search hasn't
+     *         finished in time
+     */
+    private MovementDirection takeAutopilotMove() {
+        MovementDirection direction = null;
+        if (autopilotMove != null && autopilotMove.isDone()) {
+            if (autopilotMoveUpdate == numOfGameUpdates && !autopilotMove.isCompletedExceptionally()) {
+                direction = autopilotMove.join();
+            }
+            autopilotMove = null;
+        }
+        return direction != null && direction != MovementDirection.NONE ? direction
+                : model.getPacMan().getMovementDirection();
+    }
+
+    /**
+     * Helper method that starts the autopilot search for the next game update,
+     * unless the game is over or a search is still running
+     */
+    private void startAutopilotSearch() {
+        if (model.isGameOver() || autopilotMove != null) {
+            return;
+        }
+        if (autopilot == null) {
+            GameProperties gameProperties = GameProperties.getGameProperties();
+            autopilot = new MctsPacManAgent(gameProperties.getAutopilotThreads(),
+                    gameProperties.getAutopilotTimeBudgetMs(), AUTOPILOT_ROLLOUT_DEPTH, System.nanoTime());
+        }
+        autopilotMove = autopilot.chooseDirectionAsync(model);
+        autopilotMoveUpdate = numOfGameUpdates;
+    }
+
+    /**
+     * Helper method used for updating the game model by a single game update. The
+     * view is rendered separately by the game loop.
      */
     private void updateGame() {
         if (key != null) {
             switch (key) {
             case UP:
-                if (!model.isGameOver()) {
-                    model.updateGameStatus(MovementDirection.UP);
-                    gridView.update();
-                }
+                updateModel(MovementDirection.UP);
                 break;
             case DOWN:
-                if (!model.isGameOver()) {
-                    model.updateGameStatus(MovementDirection.DOWN);
-                    gridView.update();
-                }
+                updateModel(MovementDirection.DOWN);
                 break;
             case LEFT:
-                if (!model.isGameOver()) {
-                    model.updateGameStatus(MovementDirection.LEFT);
-                    gridView.update();
-                }
+                updateModel(MovementDirection.LEFT);
                 break;
             case RIGHT:
-                if (!model.isGameOver()) {
-                    model.updateGameStatus(MovementDirection.RIGHT);
-                    gridView.update();
-                }
+                updateModel(MovementDirection.RIGHT);
+                break;
+            case A:
+                updateModel(takeAutopilotMove());
+                startAutopilotSearch();
                 break;
             case G:
-                model.restartGame();
+                saveReplay();
+                model.restartGame(new SplittableRandom().nextLong());
+                numOfGameUpdates++;
+                startRecording();
                 resultLabel.setText(null);
                 gridView.initializeGrid(model);
                 break;
@@ -150,14 +344,189 @@ public class GameBoardController implements EventHandler<KeyEvent> {
                 applicationControl.accept(ApplicationAction.OPEN_MAIN_MENU);
                 break;
             default:
-                model.updateGameStatus(model.getPacMan().getMovementDirection());
-                gridView.update();
+                updateModel(model.getPacMan().getMovementDirection());
+            }
+            updateLabels();
+        }
+    }
+
+    /**
+     * Helper method that sends the pressed key to the server hosting the game and
+     * applies the game updates received from it
+     *
+     * @return number of received game updates
+     * @throws IOException in case the connection to the server fails
+     */
+    private int updateOnlineGame() throws IOException {
+        if (key != null) {
+            switch (key) {
+            case UP:
+                sendDirection(MovementDirection.UP);
+                break;
+            case DOWN:
+                sendDirection(MovementDirection.DOWN);
+                break;
+            case LEFT:
+                sendDirection(MovementDirection.LEFT);
+                break;
+            case RIGHT:
+                sendDirection(MovementDirection.RIGHT);
+                break;
+            case G:
+                gameClient.sendRestart();
+                sentDirection = null;
+                key = null;
+                break;
+            case P:
+                // The server resumes the game with the next direction sent
+                if (sentDirection != null) {
+                    gameClient.sendPause();
+                    sentDirection = null;
+                }
+                break;
+            case ESCAPE:
+                applicationControl.accept(ApplicationAction.EXIT_GAME);
+                return 0;
+            case M:
+                applicationControl.accept(ApplicationAction.OPEN_MAIN_MENU);
+                return 0;
+            default:
+                // The server keeps moving Pac-Man in the latest direction
+                break;
+            }
+        }
+        int gameUpdates = gameClient.poll();
+        if (gameClient.getNumberOfWelcomes() != numOfWelcomes) {
+            numOfWelcomes = gameClient.getNumberOfWelcomes();
+            resultLabel.setText(null);
+            gridView.initializeGrid(model);
+        }
+        if (gameUpdates > 0) {
+            updateLabels();
+        }
+        return gameUpdates;
+    }
+
+    private void sendDirection(MovementDirection direction) throws IOException {
+        if (direction != sentDirection) {
+            gameClient.sendInput(direction);
+            sentDirection = direction;
+        }
+    }
+
+    /**
+     * Helper method that shows the score and the outcome of the game
+     */
+    private void updateLabels() {
+        score = model.getGameScore();
+        scoreLabel.setText("Score: " + score);
+        if (model.isGameOver()) {
+            gameResult = model.isPlayerVictorious() ? "YOU WIN!" : "YOU LOSE!";
+            resultLabel.setText(gameResult);
+        }
+    }
+
+    /**
+     * Fixed-timestep game loop. The model is updated in whole game updates as the
+     * accumulated frame time allows, and the view is rendered with the leftover
+     * fraction of a game update as interpolation.
+     */
+    private final class GameLoop extends AnimationTimer {
+
+        private final long nanosPerGameUpdate = TimeUnit.MILLISECONDS.toNanos(Sprite.MILLISECONDS_PER_GAME_UPDATE);
+
+        /**
+         * Longest frame time that is accounted for, so the game doesn't try to catch
+         * up after the application has been stalled
+         */
+        private final long maxFrameNanos = TimeUnit.MILLISECONDS.toNanos(250);
+
+        /**
+         * Largest number of game updates performed within one frame
+         */
+        private static final int MAX_GAME_UPDATES_PER_FRAME = 5;
+
+        private final long minRenderIntervalNanos = TimeUnit.SECONDS.toNanos(1)
+                / Math.max(1, GameProperties.getGameProperties().getFramesPerSecond());
+
+        private long lastFrameNanos;
+        private long lastRenderNanos;
+        private long accumulatedNanos;
+        private boolean isRunning;
+
+        @Override
+        public void start() {
+            lastFrameNanos = -1;
+            accumulatedNanos = nanosPerGameUpdate;
+            isRunning = true;
+            super.start();
+        }
+
+        @Override
+        public void stop() {
+            isRunning = false;
+            super.stop();
+        }
+
+        @Override
+        public void handle(long now) {
+            if (gameClient != null) {
+                handleOnline(now);
+                return;
+            }
+            if (lastFrameNanos >= 0) {
+                accumulatedNanos += Math.min(now - lastFrameNanos, maxFrameNanos);
+            }
+            lastFrameNanos = now;
+
+            int gameUpdates = 0;
+            while (accumulatedNanos >= nanosPerGameUpdate && gameUpdates < MAX_GAME_UPDATES_PER_FRAME) {
+                updateGame();
+                if (!isRunning) {
+                    // The game has been closed by the update
+                    return;
+                }
+                accumulatedNanos -= nanosPerGameUpdate;
+                gameUpdates++;
+            }
+            if (accumulatedNanos >= nanosPerGameUpdate) {
+                accumulatedNanos %= nanosPerGameUpdate;
+            }
+
+            if (gameUpdates > 0 || now - lastRenderNanos >= minRenderIntervalNanos) {
+                lastRenderNanos = now;
+                boolean isPaused = key == KeyCode.P || model.isGameOver();
+                gridView.update(isPaused ? 1.0 : (double) accumulatedNanos / nanosPerGameUpdate);
+            }
+        }
+
+        /**
+         * Helper method that renders a game hosted by a server. Sprites are
+         * interpolated by the time passed since the latest received game update.
+         *
+         * @param now timestamp of the current frame in nanoseconds
+         */
+        private void handleOnline(long now) {
+            int gameUpdates;
+            try {
+                gameUpdates = updateOnlineGame();
+            } catch (IOException | IllegalStateException e) {
+                e.printStackTrace();
+                applicationControl.accept(ApplicationAction.OPEN_MAIN_MENU);
+                return;
+            }
+            if (!isRunning) {
+                // The game has been closed by the update
+                return;
+            }
+            if (gameUpdates > 0) {
+                lastFrameNanos = now;
             }
-            score = model.getGameScore();
-            scoreLabel.setText("Score: " + score);
-            if (model.isGameOver()) {
-                gameResult = model.isPlayerVictorious() ? "YOU WIN!" : "YOU LOSE!";
-                resultLabel.setText(gameResult);
+            if (gameUpdates > 0 || now - lastRenderNanos >= minRenderIntervalNanos) {
+                lastRenderNanos = now;
+                double interpolation = lastFrameNanos < 0 || model.isGameOver() ? 1.0
+                        : Math.min(1.0, (double) (now - lastFrameNanos) / nanosPerGameUpdate);
+                gridView.update(interpolation);
             }
         }
     }
@@ -1,17 +1,11 @@
 package javacourse.pacman.controller;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javacourse.pacman.general.ApplicationAction;
+import javacourse.pacman.model.level.LevelRepository;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -39,9 +33,7 @@ public class MainMenuController implements Initializable {
     @FXML
     private ComboBox<String> levelSelectBox;
 
-    private Map<String, String> levelPathMap;
-
-    private static final String LEVEL_PATH_REGEX = "(.*) ### (.*)";
+    private final LevelRepository levelRepository;
 
     private String selectedLevel;
 
@@ -50,20 +42,14 @@ public class MainMenuController implements Initializable {
     /**
      * Constructor method for MainMenuController class
      *
-     * @throws IOException in case there is an error during reading of the
-     *                     level_list.txt resource file
+     * @param levelRepository repository providing the levels that can be selected
      */
-    public MainMenuController() throws IOException {
-        levelPathMap = new LinkedHashMap<>();
+    public MainMenuController(LevelRepository levelRepository) {
+        this.levelRepository = levelRepository;
     }
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        try {
-            getLevelPaths();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
         levelSelectBox.setButtonCell(new ListCell<String>() {
             @Override
             public void updateItem(String item, boolean empty) {
@@ -78,7 +64,7 @@ public class MainMenuController implements Initializable {
         });
         levelSelectBox.getStyleClass().add("center-aligned");
         levelSelectBox.getItems().clear();
-        levelSelectBox.getItems().addAll(levelPathMap.keySet());
+        levelSelectBox.getItems().addAll(levelRepository.getLevelNames());
         levelSelectBox.getSelectionModel().selectFirst();
         selectedLevel = levelSelectBox.getItems().get(0);
         levelSelectBox.setOnAction(event -> {
@@ -93,7 +79,7 @@ public class MainMenuController implements Initializable {
      * @return selected level name paired with its file path in String format
      */
     public Pair<String, String> getSelectedLevel() {
-        Pair<String, String> pair = new Pair<>(selectedLevel, levelPathMap.get(selectedLevel));
+        Pair<String, String> pair = new Pair<>(selectedLevel, levelRepository.getLevelPath(selectedLevel));
         return pair;
     }
 
@@ -114,6 +100,7 @@ public class MainMenuController implements Initializable {
                         + "When a big dot is eaten, Pac-Man gets powered-up and is able to eat ghosts for a short time (during this time "
                         + "ghosts turn blue and run away from Pac-Man). If a ghost touches Pac-Man while not powered-up, the game is over.\n"
                         + "Additional controls:\n" + "G     - game restart\n" + "P     - pause game\n"
+                        + "A     - autopilot (any arrow key takes over again)\n"
                         + "Esc  - exit game\n" + "M    - open main menu");
 
         alert.showAndWait();
@@ -133,29 +120,4 @@ public class MainMenuController implements Initializable {
     public void registerApplicationControl(Consumer<ApplicationAction> applicationControl) {
         this.applicationControl = applicationControl;
     }
-
-    private void getLevelPaths() throws IOException {
-        String fileContent;
-        try (InputStream inputStream = getClass().getResourceAsStream("/level_list.txt")) {
-            fileContent = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw e;
-        }
-
-        String[] lines = fileContent.split("\r?\n");
-        for (String line : lines) {
-            if (line.isEmpty()) {
-                continue;
-            } else {
-                Matcher levelPathMatcher = Pattern.compile(LEVEL_PATH_REGEX).matcher(line);
-                if (!levelPathMatcher.matches()) {
-                    throw new IllegalStateException("Level list resource file not in correct format!");
-                } else {
-                    levelPathMap.put(levelPathMatcher.group(1), levelPathMatcher.group(2));
-                }
-            }
-        }
-    }
-
 }
@@ -2,6 +2,9 @@ package javacourse.pacman.general;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.EnumMap;
 import java.util.Properties;
 
@@ -15,7 +18,10 @@ public class GameProperties {
      */
     private enum GamePropertyNames {
         CELL_SIZE_PROPERTY("cell_size"), FRAMES_PER_SECOND("frames_per_second"),
-        GHOST_DEATH_BLINK_START_MS("ghost_death_blink_start_ms");
+        GHOST_DEATH_BLINK_START_MS("ghost_death_blink_start_ms"), RENDERER("renderer"),
+        LEVEL_CACHE_SIZE("level_cache_size"), LEVEL_PRE_WARM("level_pre_warm"),
+        REPLAY_DIRECTORY("replay_directory"), AUTOPILOT_TIME_BUDGET_MS("autopilot_time_budget_ms"),
+        AUTOPILOT_THREADS("autopilot_threads"), SERVER_ADDRESS("server_address");
 
         private final String nameString;
 
@@ -70,7 +76,8 @@ public class GameProperties {
     }
 
     /**
-     * @return amount of frames/updates per second that the game should perform
+     * @return maximum amount of frames per second that the view should render. The
+     *         game model is updated at a fixed rate regardless of this value.
      */
     public int getFramesPerSecond() {
         return Integer.parseInt(gamePropertiesMap.get(GamePropertyNames.FRAMES_PER_SECOND));
@@ -84,6 +91,73 @@ public class GameProperties {
         return Integer.parseInt(gamePropertiesMap.get(GamePropertyNames.GHOST_DEATH_BLINK_START_MS));
     }
 
+    /**
+     * @return renderer used for drawing the game board
+     */
+    public RendererType getRenderer() {
+        return RendererType.fromPropertyValue(gamePropertiesMap.get(GamePropertyNames.RENDERER));
+    }
+
+    /**
+     * @return maximum number of parsed levels kept in memory
+     */
+    public int getLevelCacheSize() {
+        return Integer.parseInt(gamePropertiesMap.get(GamePropertyNames.LEVEL_CACHE_SIZE));
+    }
+
+    /**
+     * @return true if the listed levels should be parsed in the background at
+     *         startup, false otherwise
+     */
+    public boolean isLevelPreWarmEnabled() {
+        return Boolean.parseBoolean(gamePropertiesMap.get(GamePropertyNames.LEVEL_PRE_WARM));
+    }
+
+    /**
+     * @return directory the played games are saved to as replays, or null if the
+     *         games should not be recorded
+     */
+    public Path getReplayDirectory() {
+        String replayDirectory = gamePropertiesMap.get(GamePropertyNames.REPLAY_DIRECTORY).trim();
+        return replayDirectory.isEmpty() ? null : Paths.get(replayDirectory);
+    }
+
+    /**
+     * @return amount of milliseconds the autopilot searches for the direction of a
+     *         single game update
+     */
+    public int getAutopilotTimeBudgetMs() {
+        return Integer.parseInt(gamePropertiesMap.get(GamePropertyNames.AUTOPILOT_TIME_BUDGET_MS));
+    }
+
+    /**
+     * @return number of threads the autopilot searches on, all available
+     *         processors if the property is not positive
+     */
+    public int getAutopilotThreads() {
+        int autopilotThreads = Integer.parseInt(gamePropertiesMap.get(GamePropertyNames.AUTOPILOT_THREADS));
+        return autopilotThreads > 0 ? autopilotThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return address of the game server the games are played on, or null if the
+     *         games should be played locally
+     * @throws IllegalArgumentException if the address is not in the host:port
+     *                                  format
+     */
+    public InetSocketAddress getServerAddress() {
+        String serverAddress = gamePropertiesMap.get(GamePropertyNames.SERVER_ADDRESS).trim();
+        if (serverAddress.isEmpty()) {
+            return null;
+        }
+        int portSeparator = serverAddress.lastIndexOf(':');
+        if (portSeparator <= 0) {
+            throw new IllegalArgumentException("Server address must be in the host:port format!");
+        }
+        return new InetSocketAddress(serverAddress.substring(0, portSeparator),
+                Integer.parseInt(serverAddress.substring(portSeparator + 1)));
+    }
+
     /**
      * Used to verify that the property exists in the property file.
      *
@@ -0,0 +1,44 @@
+package javacourse.pacman.general;
+
+/**
+ * Enum class that defines the available renderers of the Pac-Man game board
+ *
+ * @author Natan
+ *
+ */
+public enum RendererType {
+    /**
+     * GridPane with one node per level cell, suitable for small levels
+     */
+    GRID("grid"),
+    /**
+     * Single Canvas with a cached wall layer, suitable for very large levels
+     */
+    CANVAS("canvas");
+
+    /**
+     * Name of the renderer as used in the property file
+     */
+    public final String propertyValue;
+
+    RendererType(String propertyValue) {
+        this.propertyValue = propertyValue;
+    }
+
+    /**
+     * Used to get RendererType corresponding to the specified property value
+     *
+     * @param propertyValue renderer name as used in the property file
+     * @return renderer type corresponding to the given value
+     *
+     * @throws IllegalArgumentException if propertyValue is not a valid renderer
+     */
+    public static RendererType fromPropertyValue(String propertyValue) {
+        for (RendererType rendererType : values()) {
+            if (rendererType.propertyValue.equals(propertyValue.trim())) {
+                return rendererType;
+            }
+        }
+        throw new IllegalArgumentException(propertyValue + " is not a valid renderer.");
+    }
+}
@@ -1,12 +1,17 @@
 package javacourse.pacman.main_app;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.SplittableRandom;
 
 import javacourse.pacman.controller.GameBoardController;
 import javacourse.pacman.controller.MainMenuController;
 import javacourse.pacman.general.ApplicationAction;
+import javacourse.pacman.general.GameProperties;
 import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.level.LevelRepository;
 import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.server.GameClient;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -23,6 +28,7 @@ public class MainApplication extends Application {
 
     private PacManModel model;
     private LevelLayout levelLayout;
+    private LevelRepository levelRepository;
     private Stage stage;
     private Scene menuScene;
     private Scene gameScene;
@@ -32,6 +38,11 @@ public class MainApplication extends Application {
     @Override
     public void start(Stage primaryStage) throws Exception {
         stage = primaryStage;
+        GameProperties gameProperties = GameProperties.getGameProperties();
+        levelRepository = new LevelRepository("/level_list.txt", gameProperties.getLevelCacheSize());
+        if (gameProperties.isLevelPreWarmEnabled()) {
+            levelRepository.preWarm();
+        }
         initMainMenu();
         stage.setScene(menuScene);
         menuScene.getWindow().setX(0);
@@ -49,7 +60,7 @@ public class MainApplication extends Application {
      */
     private void initMainMenu() throws IOException {
         FXMLLoader menuLoader = new FXMLLoader(getClass().getResource("/fxml/pacman_menu.fxml"));
-        menuController = new MainMenuController();
+        menuController = new MainMenuController(levelRepository);
         menuLoader.setController(menuController);
         Parent root = menuLoader.load();
         menuScene = new Scene(root);
@@ -72,8 +83,21 @@ public class MainApplication extends Application {
         gameScene.setOnKeyPressed(event -> gameController.handle(event));
         stage.setOnCloseRequest(event -> performAction(ApplicationAction.EXIT_GAME));
 
-        levelLayout = new LevelLayout(menuController.getSelectedLevel().getKey(),
-                menuController.getSelectedLevel().getValue());
+        String levelName = menuController.getSelectedLevel().getKey();
+        InetSocketAddress serverAddress = GameProperties.getGameProperties().getServerAddress();
+        if (serverAddress != null) {
+            try {
+                GameClient gameClient = GameClient.createSession(serverAddress, levelName,
+                        new SplittableRandom().nextLong());
+                model = gameClient.getModel();
+                gameController.startOnlineGame(gameClient);
+                return;
+            } catch (IOException e) {
+                System.err.println("Failed to connect to the game server " + serverAddress + ", playing locally");
+                e.printStackTrace();
+            }
+        }
+        levelLayout = levelRepository.getLevel(levelName);
         model = new PacManModel();
         model.initializeNewGame(levelLayout);
         gameController.startGame(model);
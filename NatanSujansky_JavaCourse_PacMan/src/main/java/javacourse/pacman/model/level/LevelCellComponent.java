@@ -65,6 +65,35 @@ public enum LevelCellComponent {
                 () -> new IllegalArgumentException(cellValue + " is not a valid level cell component value."));
     }
 
+    /**
+     * Used to get LevelCellComponent corresponding to the specified cell
+     * character. Unlike {@link #fromCellValue(String)}, this method does not
+     * allocate and is intended for use in level parsing.
+     *
+     * @param cellValue cell value as character
+     * @return cell value corresponding to the given character
+     *
+     * @throws IllegalArgumentException if cellValue character is invalid
+     */
+    public static LevelCellComponent fromCellValue(char cellValue) {
+        switch (cellValue) {
+        case 'E':
+            return EMPTY;
+        case 'S':
+            return SMALL_DOT;
+        case 'B':
+            return BIG_DOT;
+        case 'W':
+            return WALL;
+        case 'G':
+            return GHOST_START;
+        case 'P':
+            return PACMAN_START;
+        default:
+            throw new IllegalArgumentException(cellValue + " is not a valid level cell component value.");
+        }
+    }
+
     /**
      * @return Set of valid character cell components.
      */
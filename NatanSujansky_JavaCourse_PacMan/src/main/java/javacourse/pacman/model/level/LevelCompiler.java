@@ -0,0 +1,184 @@
+package javacourse.pacman.model.level;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class that converts levels into a compact binary format and loads them back.
+ * A compiled level starts with a header of big-endian integers: magic number,
+ * format version, level height, level width, number of ghosts, number of small
+ * dots and number of big dots. The header is followed by the cells in
+ * row-major order, packed two per byte as 4-bit LevelCellComponent ordinals,
+ * the first cell of each pair in the high nibble.
+ *
+ * Compiled levels are loaded by memory-mapping the file, so no text is decoded
+ * and the only heap allocation proportional to the level size is the cell grid
+ * of the resulting LevelLayout.
+ *
+ * @author Natan
+ *
+ */
+public final class LevelCompiler {
+
+    /**
+     * Magic number of compiled level files, "PMLV" in ASCII
+     */
+    private static final int MAGIC_NUMBER = 0x504D4C56;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Size of the header in bytes
+     */
+    private static final int HEADER_SIZE = 7 * Integer.BYTES;
+
+    private LevelCompiler() {
+    }
+
+    /**
+     * Method that writes the given level in the compiled format
+     *
+     * @param levelLayout  level to compile
+     * @param outputStream stream the compiled level is written to, it is not
+     *                     closed
+     * @throws IOException in case there is an I/O error during writing
+     */
+    public static void compile(LevelLayout levelLayout, OutputStream outputStream) throws IOException {
+        DataOutputStream dataStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+        dataStream.writeInt(MAGIC_NUMBER);
+        dataStream.writeInt(FORMAT_VERSION);
+        dataStream.writeInt(levelLayout.getLevelHeight());
+        dataStream.writeInt(levelLayout.getLevelWidth());
+        dataStream.writeInt(levelLayout.getNumberOfGhosts());
+        dataStream.writeInt(levelLayout.getNumberOfSmallDots());
+        dataStream.writeInt(levelLayout.getNumberOfBigDots());
+        int packedCells = 0;
+        boolean isHighNibble = true;
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                int ordinal = levelLayout.getComponent(i, j).ordinal();
+                if (isHighNibble) {
+                    packedCells = ordinal << 4;
+                } else {
+                    dataStream.writeByte(packedCells | ordinal);
+                }
+                isHighNibble = !isHighNibble;
+            }
+        }
+        if (!isHighNibble) {
+            dataStream.writeByte(packedCells);
+        }
+        dataStream.flush();
+    }
+
+    /**
+     * Method that reads a level in the text format and writes it in the compiled
+     * format
+     *
+     * @param levelFile    path to the level in the text format
+     * @param compiledFile path the compiled level is written to
+     * @throws IOException in case there is an I/O error during reading or writing
+     */
+    public static void compile(Path levelFile, Path compiledFile) throws IOException {
+        LevelLayout levelLayout;
+        try (InputStream inputStream = Files.newInputStream(levelFile)) {
+            levelLayout = new LevelLayout(levelFile.getFileName().toString(), inputStream);
+        }
+        try (OutputStream outputStream = Files.newOutputStream(compiledFile)) {
+            compile(levelLayout, outputStream);
+        }
+    }
+
+    /**
+     * Method that loads a compiled level by memory-mapping the given file
+     *
+     * @param name         level name
+     * @param compiledFile path to the compiled level
+     * @return LevelLayout object of the compiled level
+     * @throws IOException              in case the file cannot be read
+     * @throws IllegalArgumentException in case the file is not a valid compiled
+     *                                  level
+     */
+    public static LevelLayout load(String name, Path compiledFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(compiledFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return load(name, buffer);
+        }
+    }
+
+    /**
+     * Method that loads a compiled level from the given buffer, starting at its
+     * position
+     *
+     * @param name   level name
+     * @param buffer buffer holding the compiled level
+     * @return LevelLayout object of the compiled level
+     * @throws IllegalArgumentException in case the buffer does not hold a valid
+     *                                  compiled level
+     */
+    public static LevelLayout load(String name, ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC_NUMBER) {
+            throw new IllegalArgumentException("Not a compiled level file!");
+        }
+        if (buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported compiled level version!");
+        }
+        int levelHeight = buffer.getInt();
+        int levelWidth = buffer.getInt();
+        int numOfGhosts = buffer.getInt();
+        int numOfSmallDots = buffer.getInt();
+        int numOfBigDots = buffer.getInt();
+        if (levelHeight < 0 || levelWidth < 0 || (long) levelHeight * levelWidth > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Compiled level dimensions are invalid!");
+        }
+        int numOfCells = levelHeight * levelWidth;
+        if (buffer.remaining() < (numOfCells + 1) / 2) {
+            throw new IllegalArgumentException("Compiled level file is truncated!");
+        }
+        byte[] cells = new byte[numOfCells];
+        int cellIndex = 0;
+        while (cellIndex + 1 < numOfCells) {
+            int packedCells = buffer.get();
+            cells[cellIndex++] = (byte) ((packedCells >> 4) & 0xF);
+            cells[cellIndex++] = (byte) (packedCells & 0xF);
+        }
+        if (cellIndex < numOfCells) {
+            cells[cellIndex] = (byte) ((buffer.get() >> 4) & 0xF);
+        }
+        LevelLayout levelLayout = new LevelLayout(name, levelHeight, levelWidth, cells);
+        if (levelLayout.getNumberOfGhosts() != numOfGhosts || levelLayout.getNumberOfSmallDots() != numOfSmallDots
+                || levelLayout.getNumberOfBigDots() != numOfBigDots) {
+            throw new IllegalArgumentException("Compiled level header does not match its cells!");
+        }
+        return levelLayout;
+    }
+
+    /**
+     * Command line entry point that compiles a level. Usage: LevelCompiler
+     * &lt;level.txt&gt; &lt;compiled level&gt;
+     *
+     * @param args path to the level in the text format and path of the compiled
+     *             level
+     * @throws IOException in case there is an I/O error during reading or writing
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LevelCompiler <level.txt> <compiled level>");
+            System.exit(1);
+        }
+        long startNanos = System.nanoTime();
+        compile(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Compiled " + args[0] + " into " + args[1] + " in "
+                + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,584 @@
+package javacourse.pacman.model.level;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Class that generates Pac-Man style mazes of arbitrary size, e.g. for stress
+ * tests and benchmark corpora. The maze is mirror symmetric around the middle
+ * column: the left half is generated and copied into the right half. Corridors
+ * run along the odd rows and columns, which makes them one cell wide, and dead
+ * ends are removed where possible, so the maze has loops like the hand-written
+ * levels. Rows chosen as tunnels lead through the left and right border.
+ *
+ * The left half is split into square tiles that are generated in parallel.
+ * Every tile carves its own corridors with a generator seeded by the level seed
+ * and the tile position, while the corridors crossing the tile borders are
+ * decided by a hash of their position, so neighbouring tiles agree on them
+ * without any coordination. The generated level is therefore the same for the
+ * same seed regardless of the number of threads, and every tile is connected
+ * to its neighbours, which keeps the whole maze connected.
+ *
+ * Pac-Man starts below the middle of the level and the ghosts are placed
+ * around the middle, in pairs mirrored like the rest of the maze.
+ *
+ * @author Natan
+ *
+ */
+public final class LevelGenerator {
+
+    /**
+     * Width and height of a tile in cells, an even number so that tile borders
+     * fall on wall rows and columns
+     */
+    static final int TILE_SIZE = 128;
+
+    private static final int MINIMUM_LEVEL_DIMENSION = 10;
+
+    /**
+     * One in TUNNEL_ODDS corridor rows leads through the side borders, in
+     * addition to the middle row
+     */
+    private static final int TUNNEL_ODDS = 16;
+
+    /**
+     * One in BOUNDARY_EDGE_ODDS corridors crossing a tile border is open, in
+     * addition to the one every tile border is guaranteed to have
+     */
+    private static final int BOUNDARY_EDGE_ODDS = 4;
+
+    /**
+     * One in SEAM_ODDS corridor rows crosses the middle of the level if the two
+     * halves don't share a corridor column, in addition to the middle row
+     */
+    private static final int SEAM_ODDS = 4;
+
+    private static final byte EMPTY = (byte) LevelCellComponent.EMPTY.ordinal();
+    private static final byte SMALL_DOT = (byte) LevelCellComponent.SMALL_DOT.ordinal();
+    private static final byte BIG_DOT = (byte) LevelCellComponent.BIG_DOT.ordinal();
+    private static final byte WALL = (byte) LevelCellComponent.WALL.ordinal();
+    private static final byte GHOST_START = (byte) LevelCellComponent.GHOST_START.ordinal();
+    private static final byte PACMAN_START = (byte) LevelCellComponent.PACMAN_START.ordinal();
+
+    /**
+     * Kinds of hashed decisions, mixed into the hash so they are independent
+     */
+    private static final int TILE_SEED = 0;
+    private static final int GUARANTEED_VERTICAL_EDGE = 1;
+    private static final int VERTICAL_EDGE = 2;
+    private static final int GUARANTEED_HORIZONTAL_EDGE = 3;
+    private static final int HORIZONTAL_EDGE = 4;
+    private static final int TUNNEL = 5;
+    private static final int SEAM = 6;
+
+    private final long seed;
+
+    private final int levelHeight;
+
+    private final int levelWidth;
+
+    /**
+     * Last column of the left half, the column the level is mirrored around if
+     * the width is odd
+     */
+    private final int middleColumn;
+
+    /**
+     * Last corridor row, the rows below it are walls
+     */
+    private final int lastNodeRow;
+
+    /**
+     * Last corridor column of the left half. The columns between it and its
+     * mirror image are walls, apart from the rows crossing the middle.
+     */
+    private final int lastNodeColumn;
+
+    /**
+     * Corridor row in the middle of the level, which always has a tunnel
+     */
+    private final int middleRow;
+
+    /**
+     * Ordinal of the LevelCellComponent of every cell, in row-major order
+     */
+    private final byte[] cells;
+
+    /**
+     * Helper constructor that computes the geometry of the maze
+     */
+    private LevelGenerator(int levelHeight, int levelWidth, long seed) {
+        this.seed = seed;
+        this.levelHeight = levelHeight;
+        this.levelWidth = levelWidth;
+        this.middleColumn = (levelWidth - 1) / 2;
+        this.lastNodeRow = (levelHeight - 2) % 2 == 1 ? levelHeight - 2 : levelHeight - 3;
+        int nodeColumn = middleColumn % 2 == 1 ? middleColumn : middleColumn - 1;
+        if (levelWidth - 1 - nodeColumn == nodeColumn + 1) {
+            // A corridor column next to its own mirror image would form a corridor two cells wide
+            nodeColumn -= 2;
+        }
+        this.lastNodeColumn = nodeColumn;
+        this.middleRow = Math.min(lastNodeRow, (levelHeight / 2) | 1);
+        this.cells = new byte[levelHeight * levelWidth];
+    }
+
+    /**
+     * Method that generates a level, using all available cores
+     *
+     * @param name        level name
+     * @param levelHeight height of the level in cells
+     * @param levelWidth  width of the level in cells
+     * @param numOfGhosts number of ghosts placed in the level
+     * @param seed        seed of the level, the same seed and dimensions always
+     *                    give the same level
+     * @return generated level
+     * @throws IllegalArgumentException in case the level is smaller than the
+     *                                  minimum dimension, too large to be stored,
+     *                                  or the ghosts do not fit into it
+     */
+    public static LevelLayout generate(String name, int levelHeight, int levelWidth, int numOfGhosts, long seed) {
+        if (levelHeight < MINIMUM_LEVEL_DIMENSION) {
+            throw new IllegalArgumentException("Level height cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
+        }
+        if (levelWidth < MINIMUM_LEVEL_DIMENSION) {
+            throw new IllegalArgumentException("Level width cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
+        }
+        if ((long) levelHeight * levelWidth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Level is too large!");
+        }
+        if (numOfGhosts < 1) {
+            throw new IllegalArgumentException("Level must define at least one ghost!");
+        }
+        LevelGenerator generator = new LevelGenerator(levelHeight, levelWidth, seed);
+        int numOfTileRows = (levelHeight + TILE_SIZE - 1) / TILE_SIZE;
+        int numOfTileColumns = (generator.middleColumn + TILE_SIZE) / TILE_SIZE;
+        IntStream.range(0, numOfTileRows * numOfTileColumns).parallel()
+                .forEach(tileIndex -> generator.generateTile(tileIndex / numOfTileColumns,
+                        tileIndex % numOfTileColumns));
+        generator.placeSprites(numOfGhosts);
+        return new LevelLayout(name, levelHeight, levelWidth, generator.cells);
+    }
+
+    /**
+     * Method that writes the given level in the text format of the level resource
+     * files, one row per line
+     *
+     * @param levelLayout level to write
+     * @param writer      writer the level is written to, it is flushed but not
+     *                    closed
+     * @throws IOException in case there is an I/O error during writing
+     */
+    public static void write(LevelLayout levelLayout, Writer writer) throws IOException {
+        BufferedWriter bufferedWriter = new BufferedWriter(writer);
+        char[] row = new char[levelLayout.getLevelWidth()];
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = levelLayout.getComponent(i, j).cellValue.charAt(0);
+            }
+            bufferedWriter.write(row);
+            bufferedWriter.newLine();
+        }
+        bufferedWriter.flush();
+    }
+
+    /**
+     * Helper method that generates the cells of one tile of the left half and
+     * their mirror images
+     *
+     * @param tileRow    row of the tile
+     * @param tileColumn column of the tile
+     */
+    private void generateTile(int tileRow, int tileColumn) {
+        Tile tile = new Tile(tileRow * TILE_SIZE, tileColumn * TILE_SIZE);
+        tile.carve();
+        for (int i = tile.firstRow; i < tile.endRow; i++) {
+            int rowOffset = i * levelWidth;
+            for (int j = tile.firstColumn; j < tile.endColumn; j++) {
+                byte cell = tile.getCell(i, j);
+                cells[rowOffset + j] = cell;
+                cells[rowOffset + levelWidth - 1 - j] = cell;
+            }
+        }
+        if (tile.numOfNodes() > 0) {
+            int bigDotNode = tile.random.nextInt(tile.numOfNodes());
+            int rowIndex = tile.getNodeRow(bigDotNode);
+            int columnIndex = tile.getNodeColumn(bigDotNode);
+            cells[rowIndex * levelWidth + columnIndex] = BIG_DOT;
+            cells[rowIndex * levelWidth + levelWidth - 1 - columnIndex] = BIG_DOT;
+        }
+    }
+
+    /**
+     * Helper method that places Pac-Man below the middle of the level and the
+     * ghosts on the corridor cells closest to the middle
+     *
+     * @param numOfGhosts number of ghosts to place
+     * @throws IllegalArgumentException in case the ghosts do not fit into the
+     *                                  level
+     */
+    private void placeSprites(int numOfGhosts) {
+        int pacManRow = middleRow + 4 <= lastNodeRow ? middleRow + 4 : middleRow - 4;
+        cells[pacManRow * levelWidth + lastNodeColumn] = PACMAN_START;
+        int numOfPlacedGhosts = 0;
+        for (int distance = 0; numOfPlacedGhosts < numOfGhosts; distance += 2) {
+            if (middleRow - distance < 1 && middleRow + distance > lastNodeRow) {
+                throw new IllegalArgumentException(numOfGhosts + " ghosts do not fit into the level!");
+            }
+            for (int side = 0; side < 2 && numOfPlacedGhosts < numOfGhosts; side++) {
+                int rowIndex = side == 0 ? middleRow - distance : middleRow + distance;
+                if (rowIndex < 1 || rowIndex > lastNodeRow || (side == 1 && distance == 0)) {
+                    continue;
+                }
+                for (int j = lastNodeColumn; j >= 1 && numOfPlacedGhosts < numOfGhosts; j -= 2) {
+                    numOfPlacedGhosts += placeGhost(rowIndex, j);
+                    if (numOfPlacedGhosts < numOfGhosts && levelWidth - 1 - j != j) {
+                        numOfPlacedGhosts += placeGhost(rowIndex, levelWidth - 1 - j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 1 if the ghost was placed, 0 if the cell is Pac-Man's
+     */
+    private int placeGhost(int rowIndex, int columnIndex) {
+        int cellIndex = rowIndex * levelWidth + columnIndex;
+        if (cells[cellIndex] == PACMAN_START) {
+            return 0;
+        }
+        cells[cellIndex] = GHOST_START;
+        return 1;
+    }
+
+    /**
+     * Helper method that decides whether a corridor row leads through the side
+     * borders
+     */
+    private boolean isTunnelRow(int rowIndex) {
+        return rowIndex == middleRow || Math.floorMod(hash(TUNNEL, rowIndex, 0), TUNNEL_ODDS) == 0;
+    }
+
+    /**
+     * Helper method that decides whether a corridor row crosses the walls between
+     * the two halves
+     */
+    private boolean isSeamRow(int rowIndex) {
+        return rowIndex == middleRow || Math.floorMod(hash(SEAM, rowIndex, 0), SEAM_ODDS) == 0;
+    }
+
+    /**
+     * Helper method that decides whether the corridor crossing a horizontal tile
+     * border is open. Every border segment between two tiles has one guaranteed
+     * corridor.
+     *
+     * @param rowIndex    row of the tile border
+     * @param columnIndex corridor column
+     * @return true if the cell on the border is open
+     */
+    private boolean isVerticalBoundaryEdgeOpen(int rowIndex, int columnIndex) {
+        int segmentStart = columnIndex / TILE_SIZE * TILE_SIZE;
+        int numOfNodes = (Math.min(segmentStart + TILE_SIZE, lastNodeColumn + 1) - segmentStart) / 2;
+        int guaranteedColumn = segmentStart + 1
+                + 2 * Math.floorMod(hash(GUARANTEED_VERTICAL_EDGE, rowIndex, segmentStart), numOfNodes);
+        return columnIndex == guaranteedColumn
+                || Math.floorMod(hash(VERTICAL_EDGE, rowIndex, columnIndex), BOUNDARY_EDGE_ODDS) == 0;
+    }
+
+    /**
+     * Helper method that decides whether the corridor crossing a vertical tile
+     * border is open. Every border segment between two tiles has one guaranteed
+     * corridor.
+     *
+     * @param rowIndex    corridor row
+     * @param columnIndex column of the tile border
+     * @return true if the cell on the border is open
+     */
+    private boolean isHorizontalBoundaryEdgeOpen(int rowIndex, int columnIndex) {
+        int segmentStart = rowIndex / TILE_SIZE * TILE_SIZE;
+        int numOfNodes = (Math.min(segmentStart + TILE_SIZE, lastNodeRow + 1) - segmentStart) / 2;
+        int guaranteedRow = segmentStart + 1
+                + 2 * Math.floorMod(hash(GUARANTEED_HORIZONTAL_EDGE, segmentStart, columnIndex), numOfNodes);
+        return rowIndex == guaranteedRow
+                || Math.floorMod(hash(HORIZONTAL_EDGE, rowIndex, columnIndex), BOUNDARY_EDGE_ODDS) == 0;
+    }
+
+    /**
+     * Helper method that hashes a decision of the given kind at the given
+     * position, using the finalizer of the SplitMix generator
+     */
+    private long hash(int kind, int first, int second) {
+        long z = seed + 0x9e3779b97f4a7c15L * (((long) kind << 58) ^ ((long) first << 29) ^ second);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Rectangle of the left half that is generated by one task. Its corridor
+     * cells at odd coordinates are the nodes of a grid graph, connected through
+     * the cells between them.
+     */
+    private final class Tile {
+
+        private final int firstRow;
+        private final int firstColumn;
+        private final int endRow;
+        private final int endColumn;
+
+        private final int numOfNodeRows;
+        private final int numOfNodeColumns;
+
+        /**
+         * Open flags of the corridors between every node and its right and lower
+         * neighbour inside the tile
+         */
+        private final boolean[] rightEdges;
+        private final boolean[] downEdges;
+
+        private final SplittableRandom random;
+
+        private Tile(int firstRow, int firstColumn) {
+            this.firstRow = firstRow;
+            this.firstColumn = firstColumn;
+            this.endRow = Math.min(firstRow + TILE_SIZE, levelHeight);
+            this.endColumn = Math.min(firstColumn + TILE_SIZE, middleColumn + 1);
+            this.numOfNodeRows = Math.max(0, (Math.min(endRow, lastNodeRow + 1) - firstRow) / 2);
+            this.numOfNodeColumns = Math.max(0, (Math.min(endColumn, lastNodeColumn + 1) - firstColumn) / 2);
+            this.rightEdges = new boolean[numOfNodes()];
+            this.downEdges = new boolean[numOfNodes()];
+            this.random = new SplittableRandom(hash(TILE_SEED, firstRow, firstColumn));
+        }
+
+        private int numOfNodes() {
+            return numOfNodeRows * numOfNodeColumns;
+        }
+
+        private int getNodeRow(int node) {
+            return firstRow + 1 + 2 * (node / numOfNodeColumns);
+        }
+
+        private int getNodeColumn(int node) {
+            return firstColumn + 1 + 2 * (node % numOfNodeColumns);
+        }
+
+        /**
+         * Method that carves a random spanning tree of the nodes with a depth-first
+         * search, and then opens another corridor at every dead end where possible
+         */
+        private void carve() {
+            int numOfNodes = numOfNodes();
+            if (numOfNodes == 0) {
+                return;
+            }
+            boolean[] visited = new boolean[numOfNodes];
+            int[] stack = new int[numOfNodes];
+            int[] adjacentNodes = new int[4];
+            int[] neighbours = new int[4];
+            int stackSize = 0;
+            stack[stackSize++] = random.nextInt(numOfNodes);
+            visited[stack[0]] = true;
+            while (stackSize > 0) {
+                int node = stack[stackSize - 1];
+                int numOfNeighbours = 0;
+                for (int neighbour : getNeighbours(node, adjacentNodes)) {
+                    if (neighbour >= 0 && !visited[neighbour]) {
+                        neighbours[numOfNeighbours++] = neighbour;
+                    }
+                }
+                if (numOfNeighbours == 0) {
+                    stackSize--;
+                    continue;
+                }
+                int neighbour = neighbours[random.nextInt(numOfNeighbours)];
+                setEdge(node, neighbour);
+                visited[neighbour] = true;
+                stack[stackSize++] = neighbour;
+            }
+
+            for (int node = 0; node < numOfNodes; node++) {
+                if (getDegree(node) != 1) {
+                    continue;
+                }
+                // Closed corridors to other dead ends are preferred, which removes two dead ends at once
+                int numOfCandidates = 0;
+                int numOfDeadEnds = 0;
+                for (int neighbour : getNeighbours(node, adjacentNodes)) {
+                    if (neighbour >= 0 && !isEdgeOpen(node, neighbour)) {
+                        if (getDegree(neighbour) == 1) {
+                            neighbours[numOfCandidates++] = neighbours[numOfDeadEnds];
+                            neighbours[numOfDeadEnds++] = neighbour;
+                        } else {
+                            neighbours[numOfCandidates++] = neighbour;
+                        }
+                    }
+                }
+                if (numOfCandidates > 0) {
+                    setEdge(node, neighbours[random.nextInt(numOfDeadEnds > 0 ? numOfDeadEnds : numOfCandidates)]);
+                }
+            }
+        }
+
+        /**
+         * Helper method that fills the given array with the neighbours of a node
+         * inside the tile, -1 where there is none
+         */
+        private int[] getNeighbours(int node, int[] neighbours) {
+            int i = node / numOfNodeColumns;
+            int j = node % numOfNodeColumns;
+            neighbours[0] = i > 0 ? node - numOfNodeColumns : -1;
+            neighbours[1] = i < numOfNodeRows - 1 ? node + numOfNodeColumns : -1;
+            neighbours[2] = j > 0 ? node - 1 : -1;
+            neighbours[3] = j < numOfNodeColumns - 1 ? node + 1 : -1;
+            return neighbours;
+        }
+
+        private void setEdge(int node, int neighbour) {
+            if (neighbour == node + 1) {
+                rightEdges[node] = true;
+            } else if (neighbour == node - 1) {
+                rightEdges[neighbour] = true;
+            } else if (neighbour > node) {
+                downEdges[node] = true;
+            } else {
+                downEdges[neighbour] = true;
+            }
+        }
+
+        private boolean isEdgeOpen(int node, int neighbour) {
+            if (neighbour == node + 1) {
+                return rightEdges[node];
+            } else if (neighbour == node - 1) {
+                return rightEdges[neighbour];
+            } else if (neighbour > node) {
+                return downEdges[node];
+            }
+            return downEdges[neighbour];
+        }
+
+        /**
+         * Helper method that counts the open corridors of a node, including the ones
+         * crossing the tile borders, the tunnels and the middle of the level
+         */
+        private int getDegree(int node) {
+            int i = node / numOfNodeColumns;
+            int j = node % numOfNodeColumns;
+            int rowIndex = getNodeRow(node);
+            int columnIndex = getNodeColumn(node);
+            int degree = 0;
+            boolean isLeftOpen;
+            if (j > 0) {
+                isLeftOpen = rightEdges[node - 1];
+            } else if (firstColumn == 0) {
+                isLeftOpen = isTunnelRow(rowIndex);
+            } else {
+                isLeftOpen = isHorizontalBoundaryEdgeOpen(rowIndex, firstColumn);
+            }
+            degree += isLeftOpen ? 1 : 0;
+            if (j < numOfNodeColumns - 1) {
+                degree += rightEdges[node] ? 1 : 0;
+            } else if (columnIndex == lastNodeColumn) {
+                // A shared middle column continues into the mirrored left corridor
+                degree += (columnIndex == middleColumn && levelWidth % 2 == 1 ? isLeftOpen : isSeamRow(rowIndex)) ? 1
+                        : 0;
+            } else {
+                degree += isHorizontalBoundaryEdgeOpen(rowIndex, endColumn) ? 1 : 0;
+            }
+            if (i > 0) {
+                degree += downEdges[node - numOfNodeColumns] ? 1 : 0;
+            } else if (firstRow > 0) {
+                degree += isVerticalBoundaryEdgeOpen(firstRow, columnIndex) ? 1 : 0;
+            }
+            if (i < numOfNodeRows - 1) {
+                degree += downEdges[node] ? 1 : 0;
+            } else if (rowIndex < lastNodeRow) {
+                degree += isVerticalBoundaryEdgeOpen(endRow, columnIndex) ? 1 : 0;
+            }
+            return degree;
+        }
+
+        /**
+         * Helper method that decides the component of a cell of the tile
+         */
+        private byte getCell(int rowIndex, int columnIndex) {
+            if (rowIndex == 0 || rowIndex > lastNodeRow) {
+                return WALL;
+            }
+            boolean isOddRow = rowIndex % 2 == 1;
+            if (columnIndex == 0) {
+                return isOddRow && isTunnelRow(rowIndex) ? EMPTY : WALL;
+            }
+            if (columnIndex > lastNodeColumn) {
+                return isOddRow && isSeamRow(rowIndex) ? SMALL_DOT : WALL;
+            }
+            boolean isOddColumn = columnIndex % 2 == 1;
+            if (isOddRow == isOddColumn) {
+                return isOddRow ? SMALL_DOT : WALL;
+            }
+            boolean isOpen;
+            if (isOddRow) {
+                if (columnIndex == firstColumn) {
+                    isOpen = isHorizontalBoundaryEdgeOpen(rowIndex, columnIndex);
+                } else {
+                    int node = (rowIndex - firstRow - 1) / 2 * numOfNodeColumns + (columnIndex - firstColumn - 2) / 2;
+                    isOpen = rightEdges[node];
+                }
+            } else {
+                if (rowIndex == firstRow) {
+                    isOpen = isVerticalBoundaryEdgeOpen(rowIndex, columnIndex);
+                } else {
+                    int node = (rowIndex - firstRow - 2) / 2 * numOfNodeColumns + (columnIndex - firstColumn - 1) / 2;
+                    isOpen = downEdges[node];
+                }
+            }
+            return isOpen ? SMALL_DOT : WALL;
+        }
+    }
+
+    /**
+     * Command line entry point that generates a level. A path ending with ".txt"
+     * is written in the text format, any other path in the compiled format of
+     * LevelCompiler. Usage: LevelGenerator &lt;height&gt; &lt;width&gt;
+     * &lt;number of ghosts&gt; &lt;seed&gt; &lt;output path&gt;
+     *
+     * @param args dimensions, number of ghosts and seed of the level and the path
+     *             it is written to
+     * @throws IOException in case there is an I/O error during writing
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("Usage: LevelGenerator <height> <width> <number of ghosts> <seed> <output path>");
+            System.exit(1);
+        }
+        long startNanos = System.nanoTime();
+        Path outputPath = Paths.get(args[4]);
+        LevelLayout levelLayout = generate(outputPath.getFileName().toString(), Integer.parseInt(args[0]),
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]));
+        long generatedNanos = System.nanoTime();
+        try (OutputStream outputStream = Files.newOutputStream(outputPath)) {
+            if (args[4].endsWith(".txt")) {
+                try (Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+                    write(levelLayout, writer);
+                }
+            } else {
+                LevelCompiler.compile(levelLayout, outputStream);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw e;
+        }
+        System.out.println("Generated " + args[0] + "x" + args[1] + " level in "
+                + (generatedNanos - startNanos) / 1_000_000 + " ms and wrote it to " + args[4] + " in "
+                + (System.nanoTime() - generatedNanos) / 1_000_000 + " ms");
+    }
+}
@@ -2,9 +2,12 @@ package javacourse.pacman.model.level;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.stream.Collectors;
+
+import javacourse.pacman.model.model.MovementDirection;
 
 /**
  * Class that serves as level layout descriptor for the pacman game
@@ -30,9 +33,61 @@ public final class LevelLayout {
     private static final int NUM_OF_PACMEN = 1;
 
     /**
-     * 'Map' of the level in string array format
+     * Cached values of the LevelCellComponent enum, indexed by ordinal
+     */
+    private static final LevelCellComponent[] CELL_COMPONENTS = LevelCellComponent.values();
+
+    /**
+     * Ordinal value of the WALL component, as stored in the cell grid
+     */
+    private static final byte WALL_ORDINAL = (byte) LevelCellComponent.WALL.ordinal();
+
+    /**
+     * Ordinal value of the PACMAN_START component, as stored in the cell grid
+     */
+    private static final byte PACMAN_ORDINAL = (byte) LevelCellComponent.PACMAN_START.ordinal();
+
+    /**
+     * Number of characters read from the level definition at once
+     */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Decoded 'map' of the level. Each cell is stored as the ordinal of its
+     * LevelCellComponent, in row-major order.
+     */
+    private byte[] cells;
+
+    /**
+     * Movement mask of every cell, in row-major order. A bit is set for each
+     * direction in which the neighbouring cell, wrapped around the level borders,
+     * is not a wall.
+     */
+    private byte[] exitMasks;
+
+    /**
+     * Column indices of the walls of every row in ascending order, the rows
+     * following one another
+     */
+    private int[] rowWalls;
+
+    /**
+     * Position in rowWalls at which the walls of every row start, with one extra
+     * entry marking the end of the last row
+     */
+    private int[] rowWallStarts;
+
+    /**
+     * Row indices of the walls of every column in ascending order, the columns
+     * following one another
      */
-    private final String[] levelLines;
+    private int[] columnWalls;
+
+    /**
+     * Position in columnWalls at which the walls of every column start, with one
+     * extra entry marking the end of the last column
+     */
+    private int[] columnWallStarts;
 
     /**
      * Width of the level in cells as unit
@@ -71,8 +126,79 @@ public final class LevelLayout {
      */
     public LevelLayout(String name, String levelPath) throws IOException {
         this.levelName = name;
-        levelLines = getLevelFileLines(levelPath);
-        verifyLevelFormat(levelLines);
+        try (InputStream inputStream = getClass().getResourceAsStream(levelPath)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("No resource found on the provided path: " + levelPath);
+            }
+            parseLevel(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    /**
+     * Constructor method for the LevelLayout class. It reads the level definition
+     * from the provided stream, using the same format and rules as the level
+     * resource files. The stream is not closed.
+     *
+     * @param name        level name
+     * @param levelStream stream providing the level definition in UTF-8
+     * @throws IOException in case provided stream cannot be read
+     */
+    public LevelLayout(String name, InputStream levelStream) throws IOException {
+        this(name, new InputStreamReader(levelStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Constructor method for the LevelLayout class. It reads the level definition
+     * from the provided reader, using the same format and rules as the level
+     * resource files. The level is parsed while it is being read, so apart from the
+     * cell grid only a single row is held in memory. The reader is not closed.
+     *
+     * @param name        level name
+     * @param levelReader reader providing the level definition
+     * @throws IOException in case provided reader cannot be read
+     */
+    public LevelLayout(String name, Reader levelReader) throws IOException {
+        this.levelName = name;
+        parseLevel(levelReader);
+    }
+
+    /**
+     * Constructor method for the LevelLayout class that uses an already decoded
+     * cell grid, e.g. one read from a compiled level file. The grid is validated
+     * by the same rules as the level resource files.
+     *
+     * @param name        level name
+     * @param levelHeight height of the level in cells
+     * @param levelWidth  width of the level in cells
+     * @param cells       ordinal of the LevelCellComponent of every cell, in
+     *                    row-major order, which is not copied
+     * @throws IllegalArgumentException in case given level is incorrectly defined
+     */
+    LevelLayout(String name, int levelHeight, int levelWidth, byte[] cells) {
+        this.levelName = name;
+        if (levelHeight < MINIMUM_LEVEL_DIMENSION) {
+            throw new IllegalArgumentException("Level height cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
+        }
+        if (levelWidth < MINIMUM_LEVEL_DIMENSION) {
+            throw new IllegalArgumentException("Level width cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
+        }
+        if (cells.length != levelHeight * levelWidth) {
+            throw new IllegalArgumentException("Level must be rectangular!");
+        }
+        int numOfPacMen = 0;
+        for (byte cell : cells) {
+            if (cell < 0 || cell >= CELL_COMPONENTS.length) {
+                throw new IllegalArgumentException("Unknown level cell component: " + cell);
+            }
+            numOfPacMen += countCell(cell);
+        }
+        this.levelHeight = levelHeight;
+        this.levelWidth = levelWidth;
+        this.cells = cells;
+        verifyCells(numOfPacMen);
     }
 
     /**
@@ -148,84 +274,231 @@ public final class LevelLayout {
             throw new IndexOutOfBoundsException("columnIndex out of bounds!");
         }
 
-        return LevelCellComponent.fromCellValue(levelLines[rowIndex].split("")[columnIndex]);
+        return CELL_COMPONENTS[cells[rowIndex * levelWidth + columnIndex]];
     }
 
     /**
-     * Helper method that is used for formatting the file content of the level
-     * layout file on the given path
+     * Method for checking whether the cell at the specified coordinates is a wall.
+     * Top left corner has both row and column index equal to 0.
      *
-     * @param levelPath path to the resource file defining the level layout
-     * @return 'Map' of the level in string array format
-     * @throws IOException in case there is an I/O error during reading of the given
-     *                     file content
+     * @param rowIndex    number of the row where wanted element is located
+     * @param columnIndex number of the column where wanted element is located
+     * @return true if the cell at the given coordinates is a wall, false otherwise
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level layout
      */
-    private String[] getLevelFileLines(String levelPath) throws IOException {
-        String fileContent;
-        try (InputStream inputStream = getClass().getResourceAsStream(levelPath)) {
-            if (inputStream == null) {
-                throw new IllegalArgumentException("No resource found on the provided path: " + levelPath);
-            }
-            fileContent = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw e;
+    public boolean isWall(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= levelHeight) {
+            throw new IndexOutOfBoundsException("rowIndex out of bounds!");
+        }
+        if (columnIndex < 0 || columnIndex >= levelWidth) {
+            throw new IndexOutOfBoundsException("columnIndex out of bounds!");
         }
 
-        String[] lines = fileContent.split("\r?\n");
-        fileContent = Arrays.stream(lines).map(x -> x.replaceAll(" ", "")).map(x -> x.replaceAll("#.*", "").trim())
-                .filter(x -> !x.isEmpty()).collect(Collectors.joining("\n"));
+        return cells[rowIndex * levelWidth + columnIndex] == WALL_ORDINAL;
+    }
 
-        return fileContent.split("\r?\n");
+    /**
+     * Method for fetching the movement mask of the cell at the specified
+     * coordinates. A bit, as given by MovementDirection.getMask(), is set for each
+     * direction in which a sprite can move from the cell. Neighbours across the
+     * level border are the cells on the opposite side.
+     *
+     * @param rowIndex    number of the row where wanted element is located
+     * @param columnIndex number of the column where wanted element is located
+     * @return movement mask of the cell
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level layout
+     */
+    public int getExitMask(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= levelHeight) {
+            throw new IndexOutOfBoundsException("rowIndex out of bounds!");
+        }
+        if (columnIndex < 0 || columnIndex >= levelWidth) {
+            throw new IndexOutOfBoundsException("columnIndex out of bounds!");
+        }
+
+        return exitMasks[rowIndex * levelWidth + columnIndex];
     }
 
     /**
-     * Helper method that checks if given level map conforms to the rules of the
-     * game
+     * Method that checks whether the target cell can be seen from the source cell,
+     * i.e. whether both lie in the same row or column with no wall between them.
+     * The line of sight continues across the level borders, the same way sprites
+     * move through the tunnels.
      *
-     * @param levelLines 'Map' of the level in string array format
-     * @throws IllegalArgumentException in case given level map is incorrectly
-     *                                  defined
+     * @param fromRowIndex    first coordinate of the source cell
+     * @param fromColumnIndex second coordinate of the source cell
+     * @param toRowIndex      first coordinate of the target cell
+     * @param toColumnIndex   second coordinate of the target cell
+     * @return MovementDirection enum value leading from the source cell towards the
+     *         visible target cell, or NONE if the target is not visible or both
+     *         cells are the same
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level layout
      */
-    private void verifyLevelFormat(String[] levelLines) {
-        if (levelLines.length < MINIMUM_LEVEL_DIMENSION) {
-            throw new IllegalArgumentException("Level height cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
-        } else {
-            levelHeight = levelLines.length;
+    public MovementDirection getLineOfSightDirection(int fromRowIndex, int fromColumnIndex, int toRowIndex,
+            int toColumnIndex) {
+        if (fromRowIndex < 0 || fromRowIndex >= levelHeight || toRowIndex < 0 || toRowIndex >= levelHeight) {
+            throw new IndexOutOfBoundsException("rowIndex out of bounds!");
         }
-        levelWidth = levelLines[0].length();
-        if (levelWidth < MINIMUM_LEVEL_DIMENSION) {
-            throw new IllegalArgumentException("Level width cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
+        if (fromColumnIndex < 0 || fromColumnIndex >= levelWidth || toColumnIndex < 0
+                || toColumnIndex >= levelWidth) {
+            throw new IndexOutOfBoundsException("columnIndex out of bounds!");
+        }
+
+        if (fromRowIndex == toRowIndex && fromColumnIndex == toColumnIndex) {
+            return MovementDirection.NONE;
+        }
+        if (fromRowIndex == toRowIndex) {
+            int sight = getLineOfSight(rowWalls, rowWallStarts[fromRowIndex], rowWallStarts[fromRowIndex + 1],
+                    levelWidth, fromColumnIndex, toColumnIndex);
+            if (sight != 0) {
+                return sight > 0 ? MovementDirection.RIGHT : MovementDirection.LEFT;
+            }
+        } else if (fromColumnIndex == toColumnIndex) {
+            int sight = getLineOfSight(columnWalls, columnWallStarts[fromColumnIndex],
+                    columnWallStarts[fromColumnIndex + 1], levelHeight, fromRowIndex, toRowIndex);
+            if (sight != 0) {
+                return sight > 0 ? MovementDirection.DOWN : MovementDirection.UP;
+            }
         }
+        return MovementDirection.NONE;
+    }
 
+    /**
+     * Helper method that reads the level definition and decodes it into the cell
+     * grid in a single pass. Spaces are ignored, '#' starts a comment running to
+     * the end of the line, other whitespace is ignored only at the ends of a line,
+     * and lines left empty are skipped. Each line is kept only until it has been
+     * checked and decoded, so the errors are reported in the same order as if the
+     * whole level was checked at once: height, width, the first non-rectangular
+     * row, invalid component or second Pac-Man in reading order, and then the
+     * component counts.
+     *
+     * @param reader reader providing the level definition
+     * @throws IOException              in case there is an I/O error during reading
+     *                                  of the given reader
+     * @throws IllegalArgumentException in case the level is incorrectly defined
+     */
+    private void parseLevel(Reader reader) throws IOException {
+        char[] readBuffer = new char[READ_BUFFER_SIZE];
+        char[] row = new char[64];
+        int rowLength = 0;
+        boolean isComment = false;
+        byte[] parsedCells = new byte[READ_BUFFER_SIZE];
+        int numOfRows = 0;
         int numOfPacMen = 0;
-        for (int i = 0; i < levelHeight; i++) {
-            if (levelLines[i].length() != levelWidth) {
-                throw new IllegalArgumentException("Level must be rectangular!");
+        int width = 0;
+        IllegalArgumentException rowError = null;
+
+        boolean isEndOfInput = false;
+        while (!isEndOfInput) {
+            int numOfChars = reader.read(readBuffer);
+            if (numOfChars < 0) {
+                // terminate the last line in case it has no line break
+                isEndOfInput = true;
+                readBuffer[0] = '\n';
+                numOfChars = 1;
             }
-            for (String symbol : levelLines[i].split("")) {
-                switch (LevelCellComponent.fromCellValue(symbol)) {
-                case PACMAN_START:
-                    numOfPacMen++;
-                    if (numOfPacMen > NUM_OF_PACMEN) {
-                        throw new IllegalArgumentException("There can only be one Pac-Man!");
+            for (int k = 0; k < numOfChars; k++) {
+                char character = readBuffer[k];
+                if (character == '\n') {
+                    isComment = false;
+                    while (rowLength > 0 && row[rowLength - 1] <= ' ') {
+                        rowLength--;
+                    }
+                    if (rowLength == 0) {
+                        continue;
+                    }
+                    if (numOfRows == 0) {
+                        width = rowLength;
+                    }
+                    if (rowError == null && rowLength != width) {
+                        rowError = new IllegalArgumentException("Level must be rectangular!");
+                    }
+                    if (rowError == null) {
+                        if ((numOfRows + 1) * width > parsedCells.length) {
+                            parsedCells = Arrays.copyOf(parsedCells,
+                                    Math.max((numOfRows + 1) * width, parsedCells.length + parsedCells.length / 2));
+                        }
+                        try {
+                            for (int j = 0; j < width; j++) {
+                                byte cell = (byte) LevelCellComponent.fromCellValue(row[j]).ordinal();
+                                parsedCells[numOfRows * width + j] = cell;
+                                numOfPacMen += countCell(cell);
+                                if (numOfPacMen > NUM_OF_PACMEN) {
+                                    throw new IllegalArgumentException("There can only be one Pac-Man!");
+                                }
+                            }
+                        } catch (IllegalArgumentException e) {
+                            rowError = e;
+                        }
                     }
-                    break;
-                case SMALL_DOT:
-                    numOfSmallDots++;
-                    break;
-                case BIG_DOT:
-                    numOfBigDots++;
-                    break;
-                case GHOST_START:
-                    numOfGhosts++;
-                    break;
-                default:
-                    break;
+                    numOfRows++;
+                    rowLength = 0;
+                } else if (isComment || character == '#') {
+                    isComment = true;
+                } else if (character != ' ' && (rowLength > 0 || character > ' ')) {
+                    if (rowLength == row.length) {
+                        row = Arrays.copyOf(row, row.length * 2);
+                    }
+                    row[rowLength++] = character;
                 }
             }
         }
-        if (numOfPacMen != 1) {
+
+        if (numOfRows < MINIMUM_LEVEL_DIMENSION) {
+            throw new IllegalArgumentException("Level height cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
+        }
+        if (width < MINIMUM_LEVEL_DIMENSION) {
+            throw new IllegalArgumentException("Level width cannot be less than " + MINIMUM_LEVEL_DIMENSION + "!");
+        }
+        if (rowError != null) {
+            throw rowError;
+        }
+        levelHeight = numOfRows;
+        levelWidth = width;
+        cells = parsedCells.length == numOfRows * width ? parsedCells
+                : Arrays.copyOf(parsedCells, numOfRows * width);
+        verifyCells(numOfPacMen);
+    }
+
+    /**
+     * Helper method that adds the given cell to the component counts
+     *
+     * @param cell ordinal of the LevelCellComponent of the cell
+     * @return 1 if the cell is the Pac-Man start, 0 otherwise
+     */
+    private int countCell(byte cell) {
+        switch (CELL_COMPONENTS[cell]) {
+        case SMALL_DOT:
+            numOfSmallDots++;
+            break;
+        case BIG_DOT:
+            numOfBigDots++;
+            break;
+        case GHOST_START:
+            numOfGhosts++;
+            break;
+        default:
+            break;
+        }
+        return cell == PACMAN_ORDINAL ? 1 : 0;
+    }
+
+    /**
+     * Helper method that checks that the counted components conform to the rules
+     * of the game and precomputes the movement and sight data
+     *
+     * @param numOfPacMen number of Pac-Man starts in the level
+     * @throws IllegalArgumentException in case the level is incorrectly defined
+     */
+    private void verifyCells(int numOfPacMen) {
+        if (numOfPacMen > NUM_OF_PACMEN) {
+            throw new IllegalArgumentException("There can only be one Pac-Man!");
+        }
+        if (numOfPacMen != NUM_OF_PACMEN) {
             throw new IllegalArgumentException("Level must define one Pac-Man!");
         }
         if (numOfSmallDots == 0) {
@@ -234,5 +507,113 @@ public final class LevelLayout {
         if (numOfGhosts == 0) {
             throw new IllegalArgumentException("Level must define at least one ghost!");
         }
+        computeExitMasks();
+        computeSightWalls();
+    }
+
+    /**
+     * Helper method that computes the movement mask of every cell from the decoded
+     * cell grid
+     */
+    private void computeExitMasks() {
+        exitMasks = new byte[cells.length];
+        for (int i = 0; i < levelHeight; i++) {
+            int upRow = i - 1 < 0 ? levelHeight - 1 : i - 1;
+            int downRow = i + 1 >= levelHeight ? 0 : i + 1;
+            for (int j = 0; j < levelWidth; j++) {
+                int leftColumn = j - 1 < 0 ? levelWidth - 1 : j - 1;
+                int rightColumn = j + 1 >= levelWidth ? 0 : j + 1;
+                int mask = 0;
+                if (cells[upRow * levelWidth + j] != WALL_ORDINAL) {
+                    mask |= MovementDirection.UP.getMask();
+                }
+                if (cells[downRow * levelWidth + j] != WALL_ORDINAL) {
+                    mask |= MovementDirection.DOWN.getMask();
+                }
+                if (cells[i * levelWidth + leftColumn] != WALL_ORDINAL) {
+                    mask |= MovementDirection.LEFT.getMask();
+                }
+                if (cells[i * levelWidth + rightColumn] != WALL_ORDINAL) {
+                    mask |= MovementDirection.RIGHT.getMask();
+                }
+                exitMasks[i * levelWidth + j] = (byte) mask;
+            }
+        }
+    }
+
+    /**
+     * Helper method that collects the wall positions of every row and every column
+     * of the decoded cell grid
+     */
+    private void computeSightWalls() {
+        int numOfWalls = 0;
+        for (byte cell : cells) {
+            if (cell == WALL_ORDINAL) {
+                numOfWalls++;
+            }
+        }
+        rowWalls = new int[numOfWalls];
+        rowWallStarts = new int[levelHeight + 1];
+        int wall = 0;
+        for (int i = 0; i < levelHeight; i++) {
+            rowWallStarts[i] = wall;
+            for (int j = 0; j < levelWidth; j++) {
+                if (cells[i * levelWidth + j] == WALL_ORDINAL) {
+                    rowWalls[wall++] = j;
+                }
+            }
+        }
+        rowWallStarts[levelHeight] = wall;
+        columnWalls = new int[numOfWalls];
+        columnWallStarts = new int[levelWidth + 1];
+        wall = 0;
+        for (int j = 0; j < levelWidth; j++) {
+            columnWallStarts[j] = wall;
+            for (int i = 0; i < levelHeight; i++) {
+                if (cells[i * levelWidth + j] == WALL_ORDINAL) {
+                    columnWalls[wall++] = i;
+                }
+            }
+        }
+        columnWallStarts[levelWidth] = wall;
+    }
+
+    /**
+     * Helper method that checks whether two different cells of one row or column
+     * see each other. The cells before the first wall and after the last wall
+     * form a single segment running across the level border, so their positions
+     * are compared as if the line continued past its end.
+     *
+     * @param walls      wall positions of all rows or all columns
+     * @param firstWall  position in walls of the first wall of the line
+     * @param endWall    position in walls after the last wall of the line
+     * @param length     number of cells in the line
+     * @param fromIndex  index of the source cell within the line
+     * @param toIndex    index of the target cell within the line
+     * @return positive number if the target is visible further along the line,
+     *         negative number if it is visible back along the line, 0 if it is not
+     *         visible
+     */
+    private static int getLineOfSight(int[] walls, int firstWall, int endWall, int length, int fromIndex,
+            int toIndex) {
+        int fromSegment = Arrays.binarySearch(walls, firstWall, endWall, fromIndex);
+        int toSegment = Arrays.binarySearch(walls, firstWall, endWall, toIndex);
+        if (fromSegment >= 0 || toSegment >= 0) {
+            return 0;
+        }
+        // Insertion points, i.e. the position of the first wall after each cell
+        fromSegment = -fromSegment - 1;
+        toSegment = -toSegment - 1;
+        if (firstWall == endWall) {
+            return Integer.compare(toIndex, fromIndex);
+        }
+        boolean fromWraps = fromSegment == firstWall || fromSegment == endWall;
+        boolean toWraps = toSegment == firstWall || toSegment == endWall;
+        if (fromWraps && toWraps) {
+            int lastWall = walls[endWall - 1];
+            return Integer.compare(toIndex > lastWall ? toIndex : toIndex + length,
+                    fromIndex > lastWall ? fromIndex : fromIndex + length);
+        }
+        return fromSegment == toSegment ? Integer.compare(toIndex, fromIndex) : 0;
     }
 }
@@ -0,0 +1,220 @@
+package javacourse.pacman.model.level;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class that provides the levels listed in a level list resource file. Each
+ * line of the level list has the format "level name ### level resource path".
+ *
+ * Levels are parsed when they are first requested and kept in a cache holding
+ * at most the given number of levels, evicting the least recently used one. As
+ * LevelLayout objects are immutable, the same object is returned for as long
+ * as the level stays cached. A level requested by several threads at once is
+ * parsed only once, the other threads wait for the result.
+ *
+ * @author Natan
+ *
+ */
+public final class LevelRepository {
+
+    private static final Pattern LEVEL_PATH_PATTERN = Pattern.compile("(.*) ### (.*)");
+
+    /**
+     * Resource path of each level, in the order of the level list
+     */
+    private final Map<String, String> levelPaths;
+
+    /**
+     * Cached levels in access order. A level is cached as a task, so that it can
+     * be put into the cache before it is parsed.
+     */
+    private final Map<String, FutureTask<LevelLayout>> levelCache;
+
+    /**
+     * Maximum number of cached levels
+     */
+    private final int cacheCapacity;
+
+    /**
+     * Constructor method for the LevelRepository class. It reads the level list,
+     * the levels themselves are not parsed yet.
+     *
+     * @param levelListPath path to the level list resource file
+     * @param cacheCapacity maximum number of cached levels
+     * @throws IOException              in case the level list cannot be read
+     * @throws IllegalArgumentException in case the capacity is not positive or no
+     *                                  resource is found on the provided path
+     * @throws IllegalStateException    in case the level list is not in the
+     *                                  correct format
+     */
+    public LevelRepository(String levelListPath, int cacheCapacity) throws IOException {
+        if (cacheCapacity < 1) {
+            throw new IllegalArgumentException("Level cache capacity must be positive!");
+        }
+        this.cacheCapacity = cacheCapacity;
+        levelPaths = new LinkedHashMap<>();
+        levelCache = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FutureTask<LevelLayout>> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+        readLevelList(levelListPath);
+    }
+
+    /**
+     * Getter method for the names of the listed levels
+     *
+     * @return unmodifiable list of the level names, in the order of the level list
+     */
+    public List<String> getLevelNames() {
+        return Collections.unmodifiableList(new ArrayList<>(levelPaths.keySet()));
+    }
+
+    /**
+     * Getter method for the resource path of the level
+     *
+     * @param levelName name of the level
+     * @return resource path of the level, or null if no such level is listed
+     */
+    public String getLevelPath(String levelName) {
+        return levelPaths.get(levelName);
+    }
+
+    /**
+     * Method that provides the level with the given name, parsing it only if it
+     * isn't cached
+     *
+     * @param levelName name of the level
+     * @return LevelLayout object of the level
+     * @throws IOException              in case the level resource cannot be read
+     * @throws IllegalArgumentException in case the level is not listed or is
+     *                                  incorrectly defined
+     */
+    public LevelLayout getLevel(String levelName) throws IOException {
+        FutureTask<LevelLayout> levelTask;
+        boolean isParsedHere = false;
+        synchronized (levelCache) {
+            levelTask = levelCache.get(levelName);
+            if (levelTask == null) {
+                String levelPath = levelPaths.get(levelName);
+                if (levelPath == null) {
+                    throw new IllegalArgumentException("Level not found in the level list: " + levelName);
+                }
+                levelTask = new FutureTask<>(() -> new LevelLayout(levelName, levelPath));
+                levelCache.put(levelName, levelTask);
+                isParsedHere = true;
+            }
+        }
+        if (isParsedHere) {
+            levelTask.run();
+        }
+
+        try {
+            return levelTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for level: " + levelName);
+        } catch (ExecutionException e) {
+            // failed levels are not cached, so that they can be requested again
+            synchronized (levelCache) {
+                levelCache.remove(levelName, levelTask);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException("Unexpected level parsing failure!", cause);
+            }
+        }
+    }
+
+    /**
+     * Method that checks whether the level with the given name is currently
+     * cached, either parsed or being parsed
+     *
+     * @param levelName name of the level
+     * @return true if the level is cached, false otherwise
+     */
+    public boolean isCached(String levelName) {
+        synchronized (levelCache) {
+            return levelCache.containsKey(levelName);
+        }
+    }
+
+    /**
+     * Method that starts parsing the listed levels in a background daemon thread,
+     * in the order of the level list and no more than fit into the cache. Levels
+     * that fail to load are reported and skipped.
+     *
+     * @return started thread
+     */
+    public Thread preWarm() {
+        Thread preWarmThread = new Thread(() -> {
+            int numOfLevels = 0;
+            for (String levelName : levelPaths.keySet()) {
+                if (numOfLevels++ == cacheCapacity) {
+                    break;
+                }
+                try {
+                    getLevel(levelName);
+                } catch (IOException | IllegalArgumentException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, "Level pre-warm");
+        preWarmThread.setDaemon(true);
+        preWarmThread.start();
+        return preWarmThread;
+    }
+
+    /**
+     * Helper method that reads the level names and paths from the level list
+     *
+     * @param levelListPath path to the level list resource file
+     * @throws IOException in case the level list cannot be read
+     */
+    private void readLevelList(String levelListPath) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(levelListPath)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("No resource found on the provided path: " + levelListPath);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            Matcher levelPathMatcher = LEVEL_PATH_PATTERN.matcher("");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                levelPathMatcher.reset(line);
+                if (!levelPathMatcher.matches()) {
+                    throw new IllegalStateException("Level list resource file not in correct format!");
+                }
+                levelPaths.put(levelPathMatcher.group(1), levelPathMatcher.group(2));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package javacourse.pacman.model.model;
+
+/**
+ * Class that keeps track of the level cells whose appearance changed, either
+ * because their static component changed (e.g. a dot was eaten) or because a
+ * sprite entered or left them. Every cell is recorded at most once, so the size
+ * of the set is bounded by the level area.
+ *
+ * @author Natan
+ *
+ */
+public final class CellChangeSet {
+
+    private final int levelWidth;
+
+    /**
+     * One bit per cell, set when the cell is already recorded
+     */
+    private final long[] changedFlags;
+
+    /**
+     * Packed indices (row * width + column) of the recorded cells, in recording
+     * order
+     */
+    private int[] changedCells;
+
+    private int size;
+
+    /**
+     * Constructor for CellChangeSet class
+     *
+     * @param levelHeight height of the level in cells
+     * @param levelWidth  width of the level in cells
+     */
+    CellChangeSet(int levelHeight, int levelWidth) {
+        this.levelWidth = levelWidth;
+        this.changedFlags = new long[(levelHeight * levelWidth + 63) >>> 6];
+        this.changedCells = new int[16];
+    }
+
+    /**
+     * Method used for recording a changed cell. Recording a cell again has no
+     * effect.
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     */
+    void add(int rowIndex, int columnIndex) {
+        int cellIndex = rowIndex * levelWidth + columnIndex;
+        long bit = 1L << cellIndex;
+        if ((changedFlags[cellIndex >>> 6] & bit) != 0) {
+            return;
+        }
+        changedFlags[cellIndex >>> 6] |= bit;
+        if (size == changedCells.length) {
+            int[] grownCells = new int[size * 2];
+            System.arraycopy(changedCells, 0, grownCells, 0, size);
+            changedCells = grownCells;
+        }
+        changedCells[size++] = cellIndex;
+    }
+
+    /**
+     * Method used for forgetting all recorded cells
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            changedFlags[changedCells[i] >>> 6] = 0L;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return number of recorded cells
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter method for the row of a recorded cell
+     *
+     * @param index position of the cell in the set, from 0 to size() - 1
+     * @return first coordinate of the cell
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the set
+     */
+    public int getRowIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index out of bounds!");
+        }
+        return changedCells[index] / levelWidth;
+    }
+
+    /**
+     * Getter method for the column of a recorded cell
+     *
+     * @param index position of the cell in the set, from 0 to size() - 1
+     * @return second coordinate of the cell
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the set
+     */
+    public int getColumnIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index out of bounds!");
+        }
+        return changedCells[index] % levelWidth;
+    }
+}
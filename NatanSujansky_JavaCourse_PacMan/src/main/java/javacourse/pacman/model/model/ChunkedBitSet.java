@@ -0,0 +1,267 @@
+package javacourse.pacman.model.model;
+
+/**
+ * Bitset split into chunks of WORDS_PER_CHUNK words that are copied on write.
+ * The chunks are grouped into pages of CHUNKS_PER_PAGE chunks, referenced from
+ * a root table. Sharing the bitset hands out the root table without copying
+ * anything, and the first write to a chunk after that copies only the root
+ * table, the page and the written chunk. Snapshots taken every game update
+ * therefore share all pages and chunks that haven't changed since the previous
+ * snapshot, and the first write after a snapshot copies one page and one chunk
+ * besides the root table, which has one reference per 32768 bits.
+ *
+ * @author Natan
+ *
+ */
+final class ChunkedBitSet {
+
+    /**
+     * Number of words in a chunk, 512 bits
+     */
+    static final int WORDS_PER_CHUNK = 8;
+
+    private static final int CHUNK_SHIFT = 3;
+
+    /**
+     * Number of chunks in a page
+     */
+    static final int CHUNKS_PER_PAGE = 64;
+
+    private static final int PAGE_SHIFT = 6;
+
+    private final int numOfWords;
+
+    /**
+     * Pages of chunks of the bitset, the last page and chunk may be partially used
+     */
+    private long[][][] pages;
+
+    /**
+     * Flag denoting whether the root table has been handed out by share() or taken
+     * over by restore() since it was last copied
+     */
+    private boolean isTableShared;
+
+    /**
+     * Version in which every page was copied. A page whose version differs from
+     * the current one may be referenced from outside and must not be modified.
+     */
+    private final long[] pageVersions;
+
+    /**
+     * Version in which every chunk was copied, in the same sense as pageVersions
+     */
+    private final long[] chunkVersions;
+
+    /**
+     * Current version, incremented every time the chunks are shared
+     */
+    private long version;
+
+    /**
+     * Constructor for ChunkedBitSet class, with all bits cleared
+     *
+     * @param numOfWords number of 64-bit words of the bitset
+     */
+    ChunkedBitSet(int numOfWords) {
+        this.numOfWords = numOfWords;
+        int numOfChunks = (numOfWords + WORDS_PER_CHUNK - 1) >>> CHUNK_SHIFT;
+        int numOfPages = (numOfChunks + CHUNKS_PER_PAGE - 1) >>> PAGE_SHIFT;
+        pages = new long[numOfPages][][];
+        for (int i = 0; i < numOfPages; i++) {
+            pages[i] = new long[Math.min(CHUNKS_PER_PAGE, numOfChunks - (i << PAGE_SHIFT))][WORDS_PER_CHUNK];
+        }
+        pageVersions = new long[numOfPages];
+        chunkVersions = new long[numOfChunks];
+    }
+
+    /**
+     * @return number of 64-bit words of the bitset
+     */
+    int getNumberOfWords() {
+        return numOfWords;
+    }
+
+    /**
+     * Getter method for a whole word of the bitset
+     *
+     * @param wordIndex index of the word
+     * @return bits index * 64 to index * 64 + 63
+     */
+    long getWord(int wordIndex) {
+        int chunkIndex = wordIndex >>> CHUNK_SHIFT;
+        long[] chunk = pages[chunkIndex >>> PAGE_SHIFT][chunkIndex & (CHUNKS_PER_PAGE - 1)];
+        return chunk[wordIndex & (WORDS_PER_CHUNK - 1)];
+    }
+
+    /**
+     * @param bitIndex index of the bit
+     * @return true if the bit is set, false otherwise
+     */
+    boolean get(int bitIndex) {
+        return (getWord(bitIndex >>> 6) & (1L << bitIndex)) != 0;
+    }
+
+    /**
+     * Method used for setting a bit. The chunk is copied only if the bit changes.
+     *
+     * @param bitIndex index of the bit
+     * @return true if the bit was cleared before, false otherwise
+     */
+    boolean set(int bitIndex) {
+        int wordIndex = bitIndex >>> 6;
+        long bit = 1L << bitIndex;
+        if ((getWord(wordIndex) & bit) != 0) {
+            return false;
+        }
+        getWritableChunk(wordIndex >>> CHUNK_SHIFT)[wordIndex & (WORDS_PER_CHUNK - 1)] |= bit;
+        return true;
+    }
+
+    /**
+     * Method used for clearing a bit. The chunk is copied only if the bit changes.
+     *
+     * @param bitIndex index of the bit
+     * @return true if the bit was set before, false otherwise
+     */
+    boolean clear(int bitIndex) {
+        int wordIndex = bitIndex >>> 6;
+        long bit = 1L << bitIndex;
+        if ((getWord(wordIndex) & bit) == 0) {
+            return false;
+        }
+        getWritableChunk(wordIndex >>> CHUNK_SHIFT)[wordIndex & (WORDS_PER_CHUNK - 1)] &= ~bit;
+        return true;
+    }
+
+    /**
+     * Method used for replacing all bits with the given ones
+     *
+     * @param words words of the bitset, which are copied, or null to clear all bits
+     */
+    void copyFrom(long[] words) {
+        for (int i = 0; i < chunkVersions.length; i++) {
+            long[] chunk = getWritableChunk(i);
+            for (int j = 0; j < WORDS_PER_CHUNK; j++) {
+                int wordIndex = (i << CHUNK_SHIFT) + j;
+                chunk[j] = words != null && wordIndex < numOfWords ? words[wordIndex] : 0L;
+            }
+        }
+    }
+
+    /**
+     * Method used for copying all bits out a whole chunk at a time
+     *
+     * @param words array of at least getNumberOfWords() words the bits are
+     *              copied into
+     */
+    void copyTo(long[] words) {
+        for (int i = 0; i < chunkVersions.length; i++) {
+            long[] chunk = pages[i >>> PAGE_SHIFT][i & (CHUNKS_PER_PAGE - 1)];
+            int wordIndex = i << CHUNK_SHIFT;
+            System.arraycopy(chunk, 0, words, wordIndex, Math.min(WORDS_PER_CHUNK, numOfWords - wordIndex));
+        }
+    }
+
+    /**
+     * @return number of set bits
+     */
+    int cardinality() {
+        int numOfBits = 0;
+        for (long[][] page : pages) {
+            for (long[] chunk : page) {
+                for (long word : chunk) {
+                    numOfBits += Long.bitCount(word);
+                }
+            }
+        }
+        return numOfBits;
+    }
+
+    /**
+     * Method that hands out the current pages without copying them. The returned
+     * pages and chunks are never modified by this bitset afterwards.
+     *
+     * @return root table of the bitset, which must not be modified
+     */
+    long[][][] share() {
+        isTableShared = true;
+        version++;
+        return pages;
+    }
+
+    /**
+     * Method that takes over pages previously handed out by share() of a bitset
+     * with the same number of words. The pages stay shared and are copied on
+     * write.
+     *
+     * @param sharedPages root table returned by share()
+     */
+    void restore(long[][][] sharedPages) {
+        pages = sharedPages;
+        isTableShared = true;
+        version++;
+    }
+
+    /**
+     * Method that finds the next bit in which this bitset differs from the given
+     * shared pages. Pages and chunks that are shared by both are skipped without
+     * being compared.
+     *
+     * @param otherPages root table returned by share()
+     * @param fromIndex  first bit index that is compared
+     * @return index of the first differing bit at or after fromIndex, or -1 if
+     *         there is none
+     */
+    int nextDifference(long[][][] otherPages, int fromIndex) {
+        int wordIndex = fromIndex >>> 6;
+        long mask = -1L << fromIndex;
+        while (wordIndex < numOfWords) {
+            int chunkIndex = wordIndex >>> CHUNK_SHIFT;
+            int pageIndex = chunkIndex >>> PAGE_SHIFT;
+            long[] chunk = pages[pageIndex][chunkIndex & (CHUNKS_PER_PAGE - 1)];
+            long[] otherChunk = otherPages[pageIndex][chunkIndex & (CHUNKS_PER_PAGE - 1)];
+            if (pages[pageIndex] == otherPages[pageIndex]) {
+                wordIndex = (pageIndex + 1) << (PAGE_SHIFT + CHUNK_SHIFT);
+            } else if (chunk == otherChunk) {
+                wordIndex = (chunkIndex + 1) << CHUNK_SHIFT;
+            } else {
+                int chunkWord = wordIndex & (WORDS_PER_CHUNK - 1);
+                long difference = (chunk[chunkWord] ^ otherChunk[chunkWord]) & mask;
+                if (difference != 0) {
+                    return (wordIndex << 6) + Long.numberOfTrailingZeros(difference);
+                }
+                wordIndex++;
+            }
+            mask = -1L;
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method that provides a chunk that may be modified, copying the root
+     * table, the page and the chunk if they are shared
+     *
+     * @param chunkIndex index of the chunk
+     * @return chunk owned by this bitset
+     */
+    private long[] getWritableChunk(int chunkIndex) {
+        if (isTableShared) {
+            pages = pages.clone();
+            isTableShared = false;
+        }
+        int pageIndex = chunkIndex >>> PAGE_SHIFT;
+        long[][] page = pages[pageIndex];
+        if (pageVersions[pageIndex] != version) {
+            page = page.clone();
+            pages[pageIndex] = page;
+            pageVersions[pageIndex] = version;
+        }
+        int pageChunk = chunkIndex & (CHUNKS_PER_PAGE - 1);
+        if (chunkVersions[chunkIndex] != version) {
+            page[pageChunk] = page[pageChunk].clone();
+            chunkVersions[chunkIndex] = version;
+        }
+        return page[pageChunk];
+    }
+}
@@ -0,0 +1,210 @@
+package javacourse.pacman.model.model;
+
+import java.util.Arrays;
+
+/**
+ * Scheduler of the timed events of a Pac-Man game, such as the end of
+ * Pac-Man's power-up or the respawn of a ghost. It counts the game updates and
+ * keeps every pending event in a hashed timing wheel: an array of slots indexed
+ * by the game update the event is due in, each holding a linked list of
+ * events. Advancing to the next game update only visits the events of one
+ * slot, so a game update costs time in proportion to the events due, not to
+ * the number of sprites with a timer.
+ *
+ * Events are identified by small non-negative integers chosen by the owner,
+ * e.g. one per sprite, and are stored in parallel arrays without any
+ * allocation per event. An identifier has at most one pending event.
+ *
+ * @author Natan
+ *
+ */
+final class EventScheduler {
+
+    /**
+     * Number of slots of the timing wheel. Events due further ahead stay in their
+     * slot for more than one revolution.
+     */
+    private static final int NUM_OF_SLOTS = 64;
+
+    private static final int SLOT_MASK = NUM_OF_SLOTS - 1;
+
+    /**
+     * Value of the link arrays denoting no event, and of the deadline array
+     * denoting an event that isn't scheduled
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Handler of the events that have become due
+     */
+    @FunctionalInterface
+    interface EventHandler {
+
+        /**
+         * @param eventId identifier of the event that is due
+         */
+        void handleEvent(int eventId);
+    }
+
+    /**
+     * First event of every slot, or NONE
+     */
+    private final int[] slotHeads;
+
+    /**
+     * Game update every event is due in, or NONE
+     */
+    private long[] deadlines;
+
+    private int[] nextEvents;
+    private int[] previousEvents;
+
+    /**
+     * Events taken out of a slot before their handlers are invoked
+     */
+    private int[] dueEvents;
+
+    private long currentTick;
+
+    /**
+     * Constructor for EventScheduler class
+     *
+     * @param capacity expected number of event identifiers, the scheduler grows
+     *                 when a larger identifier is scheduled
+     */
+    EventScheduler(int capacity) {
+        capacity = Math.max(1, capacity);
+        slotHeads = new int[NUM_OF_SLOTS];
+        Arrays.fill(slotHeads, NONE);
+        deadlines = new long[capacity];
+        Arrays.fill(deadlines, NONE);
+        nextEvents = new int[capacity];
+        previousEvents = new int[capacity];
+        dueEvents = new int[capacity];
+    }
+
+    /**
+     * @return number of game updates the scheduler has been advanced by since it
+     *         was created or reset
+     */
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Method that schedules an event, replacing the pending event with the same
+     * identifier
+     *
+     * @param eventId      identifier of the event
+     * @param deadlineTick game update the event is due in, at least the next one
+     * @throws IllegalArgumentException in case the deadline is not in the future
+     */
+    void schedule(int eventId, long deadlineTick) {
+        if (deadlineTick <= currentTick) {
+            throw new IllegalArgumentException("Event deadline must be in the future!");
+        }
+        if (eventId >= deadlines.length) {
+            grow(eventId + 1);
+        }
+        cancel(eventId);
+        int slotIndex = (int) deadlineTick & SLOT_MASK;
+        deadlines[eventId] = deadlineTick;
+        previousEvents[eventId] = NONE;
+        nextEvents[eventId] = slotHeads[slotIndex];
+        if (slotHeads[slotIndex] != NONE) {
+            previousEvents[slotHeads[slotIndex]] = eventId;
+        }
+        slotHeads[slotIndex] = eventId;
+    }
+
+    /**
+     * Method that cancels the pending event with the given identifier, if there
+     * is one
+     *
+     * @param eventId identifier of the event
+     */
+    void cancel(int eventId) {
+        if (!isScheduled(eventId)) {
+            return;
+        }
+        int previousEvent = previousEvents[eventId];
+        int nextEvent = nextEvents[eventId];
+        if (previousEvent != NONE) {
+            nextEvents[previousEvent] = nextEvent;
+        } else {
+            slotHeads[(int) deadlines[eventId] & SLOT_MASK] = nextEvent;
+        }
+        if (nextEvent != NONE) {
+            previousEvents[nextEvent] = previousEvent;
+        }
+        deadlines[eventId] = NONE;
+    }
+
+    /**
+     * @param eventId identifier of the event
+     * @return true if an event with the identifier is pending
+     */
+    boolean isScheduled(int eventId) {
+        return eventId < deadlines.length && deadlines[eventId] != NONE;
+    }
+
+    /**
+     * @param eventId identifier of the event
+     * @return game update the pending event is due in
+     * @throws IllegalStateException in case no event with the identifier is
+     *                               pending
+     */
+    long getDeadline(int eventId) {
+        if (!isScheduled(eventId)) {
+            throw new IllegalStateException("Event is not scheduled!");
+        }
+        return deadlines[eventId];
+    }
+
+    /**
+     * Method that advances the scheduler to the next game update and passes the
+     * events due in it to the handler. The events are no longer pending when their
+     * handler is invoked, so the handler may schedule them again.
+     *
+     * @param handler handler of the due events
+     */
+    void advance(EventHandler handler) {
+        currentTick++;
+        int slotIndex = (int) currentTick & SLOT_MASK;
+        // The handler may grow the scheduler, which replaces the dueEvents array
+        int[] events = dueEvents;
+        int numOfDueEvents = 0;
+        int eventId = slotHeads[slotIndex];
+        while (eventId != NONE) {
+            int nextEvent = nextEvents[eventId];
+            if (deadlines[eventId] <= currentTick) {
+                cancel(eventId);
+                events[numOfDueEvents++] = eventId;
+            }
+            eventId = nextEvent;
+        }
+        for (int i = 0; i < numOfDueEvents; i++) {
+            handler.handleEvent(events[i]);
+        }
+    }
+
+    /**
+     * Method that cancels all pending events and sets the game update count back
+     * to zero
+     */
+    void reset() {
+        Arrays.fill(slotHeads, NONE);
+        Arrays.fill(deadlines, NONE);
+        currentTick = 0;
+    }
+
+    private void grow(int capacity) {
+        capacity = Math.max(capacity, deadlines.length * 2);
+        int oldCapacity = deadlines.length;
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        Arrays.fill(deadlines, oldCapacity, capacity, NONE);
+        nextEvents = Arrays.copyOf(nextEvents, capacity);
+        previousEvents = Arrays.copyOf(previousEvents, capacity);
+        dueEvents = new int[capacity];
+    }
+}
@@ -0,0 +1,307 @@
+package javacourse.pacman.model.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Ghost storage that keeps the state of all ghosts in parallel primitive
+ * arrays, one element per ghost. Game updates walk the arrays in a single pass
+ * and no object is allocated per ghost. The ghosts follow the same rules and
+ * make the same random choices as GhostSprite objects created with the same
+ * generators.
+ *
+ * @author Natan
+ *
+ */
+final class GhostArrays implements GhostStore {
+
+    private static final MovementDirection[] DIRECTIONS = MovementDirection.values();
+
+    /**
+     * Value of the directions array for ghosts that haven't moved yet
+     */
+    private static final byte NO_DIRECTION = GhostStates.NO_DIRECTION;
+
+    private final LevelLayout levelLayout;
+
+    private final int deathTimeMs;
+
+    /**
+     * Scheduler the respawns of the ghosts are registered with
+     */
+    private final EventScheduler eventScheduler;
+
+    /**
+     * Identifier of the respawn event of the first ghost, the following ghosts use
+     * the following identifiers
+     */
+    private final int firstEventId;
+
+    private int size;
+
+    private int[] rowIndices;
+    private int[] columnIndices;
+    private int[] previousRowIndices;
+    private int[] previousColumnIndices;
+    private int[] startingRowIndices;
+    private int[] startingColumnIndices;
+
+    /**
+     * Ordinal of the MovementDirection every ghost is moving in, or NO_DIRECTION
+     */
+    private byte[] directions;
+
+    private boolean[] deadFlags;
+
+    /**
+     * Game update of the scheduler in which every ghost was last killed
+     */
+    private long[] deathStartTicks;
+
+    /**
+     * Random states of the ghosts, advanced the same way as in GhostSprite
+     */
+    private long[] randomStates;
+
+    /**
+     * Constructor for GhostArrays class
+     *
+     * @param levelLayout    level the ghosts move in
+     * @param deathTimeMs    amount of time ghosts stay dead after being eaten by
+     *                       Pac-Man (in milliseconds)
+     * @param capacity       expected number of ghosts
+     * @param eventScheduler scheduler the respawns of the ghosts are registered
+     *                       with
+     * @param firstEventId   identifier of the respawn event of the first ghost
+     */
+    GhostArrays(LevelLayout levelLayout, int deathTimeMs, int capacity, EventScheduler eventScheduler,
+            int firstEventId) {
+        this.levelLayout = levelLayout;
+        this.deathTimeMs = deathTimeMs;
+        this.eventScheduler = eventScheduler;
+        this.firstEventId = firstEventId;
+        capacity = Math.max(1, capacity);
+        rowIndices = new int[capacity];
+        columnIndices = new int[capacity];
+        previousRowIndices = new int[capacity];
+        previousColumnIndices = new int[capacity];
+        startingRowIndices = new int[capacity];
+        startingColumnIndices = new int[capacity];
+        directions = new byte[capacity];
+        deadFlags = new boolean[capacity];
+        deathStartTicks = new long[capacity];
+        randomStates = new long[capacity];
+    }
+
+    /**
+     * Method used for adding a ghost at its starting position
+     *
+     * @param startingRowIndex    first coordinate of the starting position
+     * @param startingColumnIndex second coordinate of the starting position
+     * @param random              random generator the state of the ghost
+     *                            generator is taken from
+     */
+    void add(int startingRowIndex, int startingColumnIndex, SplittableRandom random) {
+        if (size == rowIndices.length) {
+            int capacity = size * 2;
+            rowIndices = Arrays.copyOf(rowIndices, capacity);
+            columnIndices = Arrays.copyOf(columnIndices, capacity);
+            previousRowIndices = Arrays.copyOf(previousRowIndices, capacity);
+            previousColumnIndices = Arrays.copyOf(previousColumnIndices, capacity);
+            startingRowIndices = Arrays.copyOf(startingRowIndices, capacity);
+            startingColumnIndices = Arrays.copyOf(startingColumnIndices, capacity);
+            directions = Arrays.copyOf(directions, capacity);
+            deadFlags = Arrays.copyOf(deadFlags, capacity);
+            deathStartTicks = Arrays.copyOf(deathStartTicks, capacity);
+            randomStates = Arrays.copyOf(randomStates, capacity);
+        }
+        rowIndices[size] = startingRowIndex;
+        columnIndices[size] = startingColumnIndex;
+        previousRowIndices[size] = startingRowIndex;
+        previousColumnIndices[size] = startingColumnIndex;
+        startingRowIndices[size] = startingRowIndex;
+        startingColumnIndices[size] = startingColumnIndex;
+        directions[size] = NO_DIRECTION;
+        randomStates[size] = random.nextLong();
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getRowIndex(int index) {
+        checkIndex(index);
+        return rowIndices[index];
+    }
+
+    @Override
+    public int getColumnIndex(int index) {
+        checkIndex(index);
+        return columnIndices[index];
+    }
+
+    @Override
+    public int getPreviousRowIndex(int index) {
+        checkIndex(index);
+        return previousRowIndices[index];
+    }
+
+    @Override
+    public int getPreviousColumnIndex(int index) {
+        checkIndex(index);
+        return previousColumnIndices[index];
+    }
+
+    @Override
+    public boolean isGhostDead(int index) {
+        checkIndex(index);
+        return deadFlags[index];
+    }
+
+    @Override
+    public long getRemainingDeathTime(int index) {
+        if (!isGhostDead(index)) {
+            return 0L;
+        }
+        return deathTimeMs - getGhostDeathUpdateCounter(index) * Sprite.MILLISECONDS_PER_GAME_UPDATE;
+    }
+
+    @Override
+    public long getGhostDeathUpdateCounter(int index) {
+        if (!isGhostDead(index)) {
+            return 0L;
+        }
+        return eventScheduler.getCurrentTick() - deathStartTicks[index];
+    }
+
+    @Override
+    public void rememberPositions() {
+        System.arraycopy(rowIndices, 0, previousRowIndices, 0, size);
+        System.arraycopy(columnIndices, 0, previousColumnIndices, 0, size);
+    }
+
+    @Override
+    public void respawnGhost(int index) {
+        checkIndex(index);
+        deadFlags[index] = false;
+    }
+
+    @Override
+    public void ghostMove(int index, int validMovementMask, MovementDirection pacManDirection,
+            boolean isGhostEatingModeActive) {
+        checkIndex(index);
+        byte currentDirection = directions[index];
+        randomStates[index] += GhostSprite.RANDOM_GAMMA;
+        MovementDirection direction = GhostSprite.chooseDirection(validMovementMask, pacManDirection,
+                isGhostEatingModeActive, currentDirection == NO_DIRECTION ? null : DIRECTIONS[currentDirection],
+                GhostSprite.getRandomBits(randomStates[index]));
+        if (direction == MovementDirection.NONE) {
+            return;
+        }
+        directions[index] = (byte) direction.ordinal();
+        int rowIndex = rowIndices[index];
+        int columnIndex = columnIndices[index];
+        if ((levelLayout.getExitMask(rowIndex, columnIndex) & direction.getMask()) == 0) {
+            return;
+        }
+        switch (direction) {
+        case UP:
+            rowIndices[index] = rowIndex == 0 ? levelLayout.getLevelHeight() - 1 : rowIndex - 1;
+            break;
+        case DOWN:
+            rowIndices[index] = rowIndex == levelLayout.getLevelHeight() - 1 ? 0 : rowIndex + 1;
+            break;
+        case LEFT:
+            columnIndices[index] = columnIndex == 0 ? levelLayout.getLevelWidth() - 1 : columnIndex - 1;
+            break;
+        case RIGHT:
+            columnIndices[index] = columnIndex == levelLayout.getLevelWidth() - 1 ? 0 : columnIndex + 1;
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Override
+    public void killGhost(int index) {
+        checkIndex(index);
+        if (!deadFlags[index]) {
+            deadFlags[index] = true;
+            startDeathTimer(index, 0L);
+        }
+        rowIndices[index] = startingRowIndices[index];
+        columnIndices[index] = startingColumnIndices[index];
+    }
+
+    @Override
+    public void reset(SplittableRandom random) {
+        System.arraycopy(startingRowIndices, 0, rowIndices, 0, size);
+        System.arraycopy(startingColumnIndices, 0, columnIndices, 0, size);
+        System.arraycopy(startingRowIndices, 0, previousRowIndices, 0, size);
+        System.arraycopy(startingColumnIndices, 0, previousColumnIndices, 0, size);
+        Arrays.fill(directions, 0, size, NO_DIRECTION);
+        Arrays.fill(deadFlags, 0, size, false);
+        for (int i = 0; i < size; i++) {
+            eventScheduler.cancel(firstEventId + i);
+            randomStates[i] = random.split().nextLong();
+        }
+    }
+
+    @Override
+    public GhostStates captureState() {
+        GhostStates states = new GhostStates(size);
+        System.arraycopy(rowIndices, 0, states.rowIndices, 0, size);
+        System.arraycopy(columnIndices, 0, states.columnIndices, 0, size);
+        System.arraycopy(previousRowIndices, 0, states.previousRowIndices, 0, size);
+        System.arraycopy(previousColumnIndices, 0, states.previousColumnIndices, 0, size);
+        System.arraycopy(directions, 0, states.directions, 0, size);
+        System.arraycopy(deadFlags, 0, states.deadFlags, 0, size);
+        for (int i = 0; i < size; i++) {
+            states.deathUpdateCounters[i] = getGhostDeathUpdateCounter(i);
+        }
+        System.arraycopy(randomStates, 0, states.randomStates, 0, size);
+        return states;
+    }
+
+    @Override
+    public void restoreState(GhostStates states) {
+        System.arraycopy(states.rowIndices, 0, rowIndices, 0, size);
+        System.arraycopy(states.columnIndices, 0, columnIndices, 0, size);
+        System.arraycopy(states.previousRowIndices, 0, previousRowIndices, 0, size);
+        System.arraycopy(states.previousColumnIndices, 0, previousColumnIndices, 0, size);
+        System.arraycopy(states.directions, 0, directions, 0, size);
+        System.arraycopy(states.deadFlags, 0, deadFlags, 0, size);
+        System.arraycopy(states.randomStates, 0, randomStates, 0, size);
+        for (int i = 0; i < size; i++) {
+            if (deadFlags[i]) {
+                startDeathTimer(i, states.deathUpdateCounters[i]);
+            } else {
+                eventScheduler.cancel(firstEventId + i);
+            }
+        }
+    }
+
+    /**
+     * Helper method that registers the respawn of a ghost with the scheduler
+     *
+     * @param index             index of the ghost
+     * @param numOfDeathUpdates game updates the ghost has already spent as dead
+     */
+    private void startDeathTimer(int index, long numOfDeathUpdates) {
+        long currentTick = eventScheduler.getCurrentTick();
+        deathStartTicks[index] = currentTick - numOfDeathUpdates;
+        long respawnTick = deathStartTicks[index] + Sprite.getNumberOfGameUpdates(deathTimeMs);
+        eventScheduler.schedule(firstEventId + index, Math.max(respawnTick, currentTick + 1));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Ghost index out of bounds!");
+        }
+    }
+}
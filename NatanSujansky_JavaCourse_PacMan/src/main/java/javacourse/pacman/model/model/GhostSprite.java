@@ -1,7 +1,7 @@
 package javacourse.pacman.model.model;
 
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import javacourse.pacman.model.level.LevelLayout;
 
@@ -13,6 +13,8 @@ import javacourse.pacman.model.level.LevelLayout;
  */
 public class GhostSprite extends Sprite {
 
+    private static final MovementDirection[] DIRECTIONS = MovementDirection.values();
+
     /**
      * Integer variable denoting the amount of time Ghost will spend inactive after
      * being eaten before respawning back to its starting position
@@ -25,10 +27,23 @@ public class GhostSprite extends Sprite {
     private boolean isDead;
 
     /**
-     * From ghost's perspective, one game update equals one call of
-     * preMovementUpdate() method
+     * Scheduler the respawn of the ghost is registered with. A ghost used on its
+     * own has a scheduler of its own, advanced by preMovementUpdate(), which is
+     * replaced by the scheduler of the model the ghost is part of.
+     */
+    private EventScheduler eventScheduler;
+
+    private boolean isSchedulerOwned;
+
+    /**
+     * Identifier of the event that respawns the ghost
+     */
+    private int respawnEventId;
+
+    /**
+     * Game update of the scheduler in which the ghost was last killed
      */
-    private long numOfGameUpdatesWhileDead;
+    private long deathStartTick;
 
     /**
      * First variable used to keep track of the starting position of the ghost
@@ -41,9 +56,17 @@ public class GhostSprite extends Sprite {
     private int startingColumnIndex;
 
     /**
-     * Random object used for choosing ghost direction
+     * Increment of the random state on every move, the golden ratio constant of
+     * the SplitMix generator
+     */
+    static final long RANDOM_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * State of the generator used for choosing ghost direction. The whole
+     * generator is a single long, so the ghost state can be saved and restored
+     * without touching any shared object.
      */
-    private Random random;
+    private long randomState;
 
     /**
      * Constructor for GhostSprite class
@@ -58,30 +81,140 @@ public class GhostSprite extends Sprite {
      */
     public GhostSprite(String name, int deathTimeMs, int startingRowIndex, int startingColumnIndex,
             LevelLayout levelLayout) {
+        this(name, deathTimeMs, startingRowIndex, startingColumnIndex, levelLayout, new SplittableRandom());
+    }
+
+    /**
+     * Constructor for GhostSprite class with a provided random generator. Ghosts
+     * created with equally seeded generators make the same decisions.
+     *
+     * @param name                name of the GhostSprite
+     * @param deathTimeMs         amount of time ghost can be dead/inactive after
+     *                            being eaten by Pac-Man (in milliseconds)
+     * @param startingRowIndex    first coordinate of the starting position
+     * @param startingColumnIndex second coordinate of the starting position
+     * @param levelLayout         LevelLayout object that describes the level where
+     *                            ghost sprite will exist
+     * @param random              random generator used only by this ghost
+     */
+    public GhostSprite(String name, int deathTimeMs, int startingRowIndex, int startingColumnIndex,
+            LevelLayout levelLayout, SplittableRandom random) {
         super(name, startingRowIndex, startingColumnIndex, levelLayout);
         this.startingRowIndex = startingRowIndex;
         this.startingColumnIndex = startingColumnIndex;
         this.deathTimeMs = deathTimeMs;
-        this.random = new Random();
+        this.randomState = random.nextLong();
+        this.eventScheduler = new EventScheduler(1);
+        this.isSchedulerOwned = true;
     }
 
     @Override
     public void preMovementUpdate() {
-        if (isGhostDead()) {
-            numOfGameUpdatesWhileDead++;
-            if (getRemainingDeathTime() <= 0L) {
-                isDead = false;
-                numOfGameUpdatesWhileDead = 0;
-            }
+        if (isSchedulerOwned) {
+            eventScheduler.advance(eventId -> respawn());
+        }
+    }
+
+    /**
+     * Method used by the model for driving the death timer by its own scheduler,
+     * after which preMovementUpdate() does nothing
+     *
+     * @param eventScheduler scheduler of the model
+     * @param respawnEventId identifier of the event that respawns the ghost
+     */
+    void attachScheduler(EventScheduler eventScheduler, int respawnEventId) {
+        long numOfDeathUpdates = getGhostDeathUpdateCounter();
+        this.eventScheduler.cancel(this.respawnEventId);
+        this.eventScheduler = eventScheduler;
+        this.respawnEventId = respawnEventId;
+        this.isSchedulerOwned = false;
+        if (isDead) {
+            startDeathTimer(numOfDeathUpdates);
         }
     }
 
+    /**
+     * Method invoked by the scheduler once the death time of the ghost has run
+     * out, which brings it back to life at its starting position
+     */
+    void respawn() {
+        isDead = false;
+    }
+
+    /**
+     * Helper method that registers the respawn of the ghost with the scheduler
+     *
+     * @param numOfDeathUpdates game updates the ghost has already spent as dead
+     */
+    private void startDeathTimer(long numOfDeathUpdates) {
+        deathStartTick = eventScheduler.getCurrentTick() - numOfDeathUpdates;
+        long respawnTick = deathStartTick + getNumberOfGameUpdates(deathTimeMs);
+        eventScheduler.schedule(respawnEventId, Math.max(respawnTick, eventScheduler.getCurrentTick() + 1));
+    }
+
+    /**
+     * Method used by the model on game restart, which brings the ghost back to
+     * life at its starting position with a new random generator
+     *
+     * @param random random generator the state of the ghost generator is taken
+     *               from
+     */
+    void reset(SplittableRandom random) {
+        resetPosition(startingRowIndex, startingColumnIndex);
+        isDead = false;
+        eventScheduler.cancel(respawnEventId);
+        this.randomState = random.nextLong();
+    }
+
+    /**
+     * Method used for copying the state of the ghost into a snapshot of all
+     * ghosts
+     *
+     * @param states state of all ghosts
+     * @param index  index of the ghost in the states
+     */
+    void captureState(GhostStates states, int index) {
+        states.rowIndices[index] = getRowIndex();
+        states.columnIndices[index] = getColumnIndex();
+        states.previousRowIndices[index] = getPreviousRowIndex();
+        states.previousColumnIndices[index] = getPreviousColumnIndex();
+        MovementDirection direction = getMovementDirection();
+        states.directions[index] = direction == null ? GhostStates.NO_DIRECTION : (byte) direction.ordinal();
+        states.deadFlags[index] = isDead;
+        states.deathUpdateCounters[index] = getGhostDeathUpdateCounter();
+        states.randomStates[index] = randomState;
+    }
+
+    /**
+     * Method used for bringing back the state of the ghost from a snapshot of all
+     * ghosts
+     *
+     * @param states state of all ghosts
+     * @param index  index of the ghost in the states
+     */
+    void restoreState(GhostStates states, int index) {
+        byte direction = states.directions[index];
+        restorePosition(states.rowIndices[index], states.columnIndices[index], states.previousRowIndices[index],
+                states.previousColumnIndices[index],
+                direction == GhostStates.NO_DIRECTION ? null : DIRECTIONS[direction]);
+        isDead = states.deadFlags[index];
+        if (isDead) {
+            startDeathTimer(states.deathUpdateCounters[index]);
+        } else {
+            eventScheduler.cancel(respawnEventId);
+        }
+        randomState = states.randomStates[index];
+    }
+
     /**
      * Method used for killing the ghost, which starts a death timer. After it
      * expires, ghost will respawn at its starting position.
      */
     public void killGhost() {
-        isDead = true;
+        if (!isDead) {
+            isDead = true;
+            startDeathTimer(0L);
+        }
         setPosition(startingRowIndex, startingColumnIndex);
     }
 
@@ -96,33 +229,29 @@ public class GhostSprite extends Sprite {
 
     /**
      * Method that is used for fetching the remaining time ghost needs to spend in
-     * dead state
+     * dead state. It is derived from the game update the ghost was killed in, so
+     * it takes constant time.
      *
-     * @return time left in dead state, in milliseconds
-     * @throws IllegalStateException if method is called while not in dead state
+     * @return time left in dead state, in milliseconds, or 0 if the ghost is alive
      */
     public long getRemainingDeathTime() {
         if (!isGhostDead()) {
-            throw new IllegalStateException("Ghost is currently not dead!");
-        } else {
-            return deathTimeMs - numOfGameUpdatesWhileDead * MILLISECONDS_PER_GAME_UPDATE;
+            return 0L;
         }
+        return deathTimeMs - getGhostDeathUpdateCounter() * MILLISECONDS_PER_GAME_UPDATE;
     }
 
     /**
-     * Method that returns the amount of game updates ghost has spent as dead. One
-     * game update corresponds to one call of preMovementUpdate() method.
+     * Method that returns the amount of game updates ghost has spent as dead
      *
      * @return amount of game updates that have passed since last time ghost was
-     *         killed
-     * @throws IllegalStateException if method is called while not in dead state
+     *         killed, or 0 if the ghost is alive
      */
     public long getGhostDeathUpdateCounter() {
         if (!isGhostDead()) {
-            throw new IllegalStateException("Ghost is currently not dead!");
-        } else {
-            return numOfGameUpdatesWhileDead;
+            return 0L;
         }
+        return eventScheduler.getCurrentTick() - deathStartTick;
     }
 
     /**
@@ -139,28 +268,78 @@ public class GhostSprite extends Sprite {
      */
     public void ghostMove(Set<MovementDirection> validMovementDirections, MovementDirection pacManDirection,
             boolean isGhostEatingModeActive) {
+        ghostMove(MovementDirection.toMask(validMovementDirections), pacManDirection, isGhostEatingModeActive);
+    }
+
+    /**
+     * Method used to move ghost in some direction. Ghost itself can decide based on
+     * the provided (or stored) information in which direction it should move.
+     * Random choices are made among the valid directions in their declaration
+     * order, so the same seed gives the same moves as the set based overload.
+     *
+     * @param validMovementMask       movement mask of the directions which are
+     *                                valid respective to ghost's current position
+     *                                in the level
+     * @param pacManDirection         direction of Pac-Man in case it is directly
+     *                                visible to the ghost, otherwise NONE
+     * @param isGhostEatingModeActive flag denoting whether Pac-Man is currently
+     *                                powered-up or not
+     */
+    public void ghostMove(int validMovementMask, MovementDirection pacManDirection, boolean isGhostEatingModeActive) {
+        randomState += RANDOM_GAMMA;
+        MovementDirection direction = chooseDirection(validMovementMask, pacManDirection, isGhostEatingModeActive,
+                getMovementDirection(), getRandomBits(randomState));
+        if (direction != MovementDirection.NONE) {
+            move(direction);
+        }
+    }
+
+    /**
+     * Helper method that holds the ghost decision rules, shared by the ghost
+     * sprites and the array based ghost storage
+     *
+     * @param validMovementMask       movement mask of the directions which are
+     *                                valid respective to ghost's current position
+     * @param pacManDirection         direction of Pac-Man in case it is visible or
+     *                                chased by the ghost, otherwise NONE
+     * @param isGhostEatingModeActive flag denoting whether Pac-Man is currently
+     *                                powered-up or not
+     * @param currentDirection        direction the ghost is currently moving in,
+     *                                may be null
+     * @param randomBits              random value of the ghost for this move
+     * @return direction the ghost should move in, or NONE if it should stay
+     */
+    static MovementDirection chooseDirection(int validMovementMask, MovementDirection pacManDirection,
+            boolean isGhostEatingModeActive, MovementDirection currentDirection, int randomBits) {
         if (!pacManDirection.equals(MovementDirection.NONE)) {
             if (!isGhostEatingModeActive) {
-                move(pacManDirection);
-                return;
-            } else if (validMovementDirections.size() > 1) {
-                validMovementDirections.removeIf(x -> x.equals(pacManDirection));
-            }
-        } else {
-            if (validMovementDirections.contains(getMovementDirection())) {
-                move(getMovementDirection());
-                return;
+                return pacManDirection;
+            } else if (Integer.bitCount(validMovementMask) > 1) {
+                validMovementMask &= ~pacManDirection.getMask();
             }
+        } else if (currentDirection != null && (validMovementMask & currentDirection.getMask()) != 0) {
+            return currentDirection;
         }
-        int setSize = validMovementDirections.size();
-        int enumIndex = random.nextInt(setSize);
-        int i = 0;
-        for (MovementDirection direction : validMovementDirections) {
-            if (i == enumIndex) {
-                move(direction);
-                return;
-            }
-            i++;
+        if (validMovementMask == 0) {
+            return MovementDirection.NONE;
+        }
+        int remainingMask = validMovementMask;
+        int choice = (int) (((randomBits & 0xFFFFFFFFL) * Integer.bitCount(validMovementMask)) >>> 32);
+        for (int i = choice; i > 0; i--) {
+            remainingMask &= remainingMask - 1;
         }
+        return MovementDirection.fromMaskBit(Integer.lowestOneBit(remainingMask));
+    }
+
+    /**
+     * Helper method that turns the random state of a ghost into 32 random bits,
+     * using the output function of the SplitMix generator
+     *
+     * @param randomState random state after it has been advanced for the move
+     * @return random bits for the move
+     */
+    static int getRandomBits(long randomState) {
+        long bits = (randomState ^ (randomState >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((bits ^ (bits >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
     }
 }
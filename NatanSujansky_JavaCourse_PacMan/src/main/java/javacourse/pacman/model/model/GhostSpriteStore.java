@@ -0,0 +1,117 @@
+package javacourse.pacman.model.model;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Ghost storage holding one GhostSprite object per ghost
+ *
+ * @author Natan
+ *
+ */
+final class GhostSpriteStore implements GhostStore {
+
+    private final List<GhostSprite> ghosts;
+
+    /**
+     * Constructor for GhostSpriteStore class
+     *
+     * @param ghosts list of ghost sprites, which is not copied
+     */
+    GhostSpriteStore(List<GhostSprite> ghosts) {
+        this.ghosts = ghosts;
+    }
+
+    /**
+     * @return list of ghost sprites backing this storage
+     */
+    List<GhostSprite> getGhosts() {
+        return ghosts;
+    }
+
+    @Override
+    public int size() {
+        return ghosts.size();
+    }
+
+    @Override
+    public int getRowIndex(int index) {
+        return ghosts.get(index).getRowIndex();
+    }
+
+    @Override
+    public int getColumnIndex(int index) {
+        return ghosts.get(index).getColumnIndex();
+    }
+
+    @Override
+    public int getPreviousRowIndex(int index) {
+        return ghosts.get(index).getPreviousRowIndex();
+    }
+
+    @Override
+    public int getPreviousColumnIndex(int index) {
+        return ghosts.get(index).getPreviousColumnIndex();
+    }
+
+    @Override
+    public boolean isGhostDead(int index) {
+        return ghosts.get(index).isGhostDead();
+    }
+
+    @Override
+    public long getRemainingDeathTime(int index) {
+        return ghosts.get(index).getRemainingDeathTime();
+    }
+
+    @Override
+    public long getGhostDeathUpdateCounter(int index) {
+        return ghosts.get(index).getGhostDeathUpdateCounter();
+    }
+
+    @Override
+    public void rememberPositions() {
+        for (GhostSprite ghost : ghosts) {
+            ghost.rememberPosition();
+        }
+    }
+
+    @Override
+    public void respawnGhost(int index) {
+        ghosts.get(index).respawn();
+    }
+
+    @Override
+    public void ghostMove(int index, int validMovementMask, MovementDirection pacManDirection,
+            boolean isGhostEatingModeActive) {
+        ghosts.get(index).ghostMove(validMovementMask, pacManDirection, isGhostEatingModeActive);
+    }
+
+    @Override
+    public void killGhost(int index) {
+        ghosts.get(index).killGhost();
+    }
+
+    @Override
+    public void reset(SplittableRandom random) {
+        for (GhostSprite ghost : ghosts) {
+            ghost.reset(random.split());
+        }
+    }
+
+    @Override
+    public GhostStates captureState() {
+        GhostStates states = new GhostStates(ghosts.size());
+        for (int i = 0; i < ghosts.size(); i++) {
+            ghosts.get(i).captureState(states, i);
+        }
+        return states;
+    }
+
+    @Override
+    public void restoreState(GhostStates states) {
+        for (int i = 0; i < ghosts.size(); i++) {
+            ghosts.get(i).restoreState(states, i);
+        }
+    }
+}
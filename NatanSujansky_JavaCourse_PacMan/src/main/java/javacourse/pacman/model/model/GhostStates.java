@@ -0,0 +1,59 @@
+package javacourse.pacman.model.model;
+
+/**
+ * Class that holds a copy of the state of all ghosts, in parallel arrays with
+ * one element per ghost. It is independent of the ghost storage, so the states
+ * captured from one kind of storage can be restored into the other.
+ *
+ * @author Natan
+ *
+ */
+final class GhostStates {
+
+    /**
+     * Value of the directions array for ghosts that haven't moved yet
+     */
+    static final byte NO_DIRECTION = -1;
+
+    final int[] rowIndices;
+    final int[] columnIndices;
+    final int[] previousRowIndices;
+    final int[] previousColumnIndices;
+
+    /**
+     * Ordinal of the MovementDirection every ghost is moving in, or NO_DIRECTION
+     */
+    final byte[] directions;
+
+    final boolean[] deadFlags;
+
+    /**
+     * Game updates every ghost has spent as dead since it was last killed
+     */
+    final long[] deathUpdateCounters;
+
+    final long[] randomStates;
+
+    /**
+     * Constructor for GhostStates class
+     *
+     * @param numOfGhosts number of ghosts whose state is held
+     */
+    GhostStates(int numOfGhosts) {
+        rowIndices = new int[numOfGhosts];
+        columnIndices = new int[numOfGhosts];
+        previousRowIndices = new int[numOfGhosts];
+        previousColumnIndices = new int[numOfGhosts];
+        directions = new byte[numOfGhosts];
+        deadFlags = new boolean[numOfGhosts];
+        deathUpdateCounters = new long[numOfGhosts];
+        randomStates = new long[numOfGhosts];
+    }
+
+    /**
+     * @return number of ghosts whose state is held
+     */
+    int size() {
+        return rowIndices.length;
+    }
+}
@@ -0,0 +1,21 @@
+package javacourse.pacman.model.model;
+
+/**
+ * Enum describing how a PacManModel stores its ghosts
+ *
+ * @author Natan
+ *
+ */
+public enum GhostStorage {
+    /**
+     * One GhostSprite object per ghost, available through
+     * PacManModel.getGhosts()
+     */
+    SPRITES,
+    /**
+     * Parallel primitive arrays holding the state of all ghosts, meant for levels
+     * with hundreds or thousands of ghosts. Games played with the same seed and
+     * inputs are identical to the ones played with SPRITES.
+     */
+    ARRAYS
+}
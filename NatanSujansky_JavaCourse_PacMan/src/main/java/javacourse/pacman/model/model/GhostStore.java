@@ -0,0 +1,75 @@
+package javacourse.pacman.model.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Mutable ghost storage used by PacManModel. Every implementation follows the
+ * ghost rules of GhostSprite.
+ *
+ * @author Natan
+ *
+ */
+interface GhostStore extends GhostTable {
+
+    /**
+     * Method invoked by the model at the start of every game update, which
+     * remembers the ghost positions. The death timers are not advanced here, they
+     * are driven by the event scheduler of the model.
+     */
+    void rememberPositions();
+
+    /**
+     * Method invoked when the respawn event of a dead ghost becomes due, which
+     * brings the ghost back to life at its starting position
+     *
+     * @param index index of the ghost
+     */
+    void respawnGhost(int index);
+
+    /**
+     * Method used to move the ghost with the given index, as described by
+     * GhostSprite.ghostMove()
+     *
+     * @param index                   index of the ghost
+     * @param validMovementMask       movement mask of the directions which are
+     *                                valid respective to ghost's current position
+     * @param pacManDirection         direction of Pac-Man in case it is visible or
+     *                                chased by the ghost, otherwise NONE
+     * @param isGhostEatingModeActive flag denoting whether Pac-Man is currently
+     *                                powered-up or not
+     */
+    void ghostMove(int index, int validMovementMask, MovementDirection pacManDirection,
+            boolean isGhostEatingModeActive);
+
+    /**
+     * Method used for killing the ghost with the given index, which moves it to its
+     * starting position and registers its respawn with the event scheduler
+     *
+     * @param index index of the ghost
+     */
+    void killGhost(int index);
+
+    /**
+     * Method used on game restart, which brings all ghosts back to life at their
+     * starting positions. The ghosts receive generators split from the given one
+     * in index order, the same way they did when they were created.
+     *
+     * @param random generator the ghost generators are split from
+     */
+    void reset(SplittableRandom random);
+
+    /**
+     * Method used for taking a snapshot of the ghosts
+     *
+     * @return copy of the state of all ghosts
+     */
+    GhostStates captureState();
+
+    /**
+     * Method used for bringing back the state of the ghosts captured from a
+     * storage of the same ghosts
+     *
+     * @param states state of all ghosts returned by captureState()
+     */
+    void restoreState(GhostStates states);
+}
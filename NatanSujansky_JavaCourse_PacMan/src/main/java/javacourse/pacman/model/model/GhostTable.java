@@ -0,0 +1,69 @@
+package javacourse.pacman.model.model;
+
+/**
+ * Read-only view of the ghosts of a Pac-Man game, indexed from 0 to size() - 1
+ * in the order the ghosts appear in the level. The view is live: it reflects the
+ * current state of the ghosts without copying them, so it is meant to be read
+ * by renderers between game updates.
+ *
+ * @author Natan
+ *
+ */
+public interface GhostTable {
+
+    /**
+     * @return number of ghosts in the game
+     */
+    int size();
+
+    /**
+     * @param index index of the ghost
+     * @return current row the ghost is located in
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the table
+     */
+    int getRowIndex(int index);
+
+    /**
+     * @param index index of the ghost
+     * @return current column the ghost is located in
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the table
+     */
+    int getColumnIndex(int index);
+
+    /**
+     * @param index index of the ghost
+     * @return row the ghost was located in before the latest game update
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the table
+     */
+    int getPreviousRowIndex(int index);
+
+    /**
+     * @param index index of the ghost
+     * @return column the ghost was located in before the latest game update
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the table
+     */
+    int getPreviousColumnIndex(int index);
+
+    /**
+     * @param index index of the ghost
+     * @return true if the ghost is currently dead, false otherwise
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the table
+     */
+    boolean isGhostDead(int index);
+
+    /**
+     * @param index index of the ghost
+     * @return time left in dead state, in milliseconds, or 0 if the ghost is
+     *         alive
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the table
+     */
+    long getRemainingDeathTime(int index);
+
+    /**
+     * @param index index of the ghost
+     * @return amount of game updates that have passed since the ghost was last
+     *         killed, or 0 if the ghost is alive
+     * @throws IndexOutOfBoundsException in case index is out of bounds of the table
+     */
+    long getGhostDeathUpdateCounter(int index);
+}
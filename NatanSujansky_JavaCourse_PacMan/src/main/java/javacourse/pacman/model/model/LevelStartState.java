@@ -0,0 +1,156 @@
+package javacourse.pacman.model.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Class that holds the state of a level at the start of a game: the dots, as
+ * bitsets indexed by the packed cell index, and the starting positions of the
+ * sprites. It is computed once per LevelLayout and shared by all models playing
+ * that level, so restarting a game only copies it instead of walking the level
+ * layout again.
+ *
+ * @author Natan
+ *
+ */
+final class LevelStartState {
+
+    /**
+     * Start states of the levels that are still in use, keyed by the identity of
+     * their LevelLayout
+     */
+    private static final Map<LevelLayout, LevelStartState> START_STATES = new WeakHashMap<>();
+
+    private final int levelHeight;
+
+    private final int levelWidth;
+
+    /**
+     * Small dots at the start of the game, never modified
+     */
+    private final long[] smallDots;
+
+    /**
+     * Big dots at the start of the game, never modified
+     */
+    private final long[] bigDots;
+
+    private final int pacManRowIndex;
+
+    private final int pacManColumnIndex;
+
+    /**
+     * Starting positions of the ghosts, in row-major order of the level
+     */
+    private final int[] ghostRowIndices;
+
+    private final int[] ghostColumnIndices;
+
+    /**
+     * Method that provides the start state of the given level, computing it only
+     * if it isn't known yet
+     *
+     * @param levelLayout level whose start state is requested
+     * @return start state of the level
+     */
+    static LevelStartState of(LevelLayout levelLayout) {
+        synchronized (START_STATES) {
+            LevelStartState startState = START_STATES.get(levelLayout);
+            if (startState == null) {
+                startState = new LevelStartState(levelLayout);
+                START_STATES.put(levelLayout, startState);
+            }
+            return startState;
+        }
+    }
+
+    /**
+     * Constructor for LevelStartState class
+     *
+     * @param levelLayout level whose start state is computed
+     */
+    private LevelStartState(LevelLayout levelLayout) {
+        levelHeight = levelLayout.getLevelHeight();
+        levelWidth = levelLayout.getLevelWidth();
+        smallDots = new long[RemainingDots.getNumberOfWords(levelHeight, levelWidth)];
+        bigDots = new long[smallDots.length];
+        int pacManRow = -1;
+        int pacManColumn = -1;
+        int numOfGhosts = 0;
+        int[] ghostRows = new int[Math.max(1, levelLayout.getNumberOfGhosts())];
+        int[] ghostColumns = new int[ghostRows.length];
+        for (int i = 0; i < levelHeight; i++) {
+            for (int j = 0; j < levelWidth; j++) {
+                int cellIndex = i * levelWidth + j;
+                switch (levelLayout.getComponent(i, j)) {
+                case PACMAN_START:
+                    pacManRow = i;
+                    pacManColumn = j;
+                    break;
+                case GHOST_START:
+                    if (numOfGhosts == ghostRows.length) {
+                        ghostRows = Arrays.copyOf(ghostRows, numOfGhosts * 2);
+                        ghostColumns = Arrays.copyOf(ghostColumns, numOfGhosts * 2);
+                    }
+                    ghostRows[numOfGhosts] = i;
+                    ghostColumns[numOfGhosts] = j;
+                    numOfGhosts++;
+                    break;
+                case BIG_DOT:
+                    bigDots[cellIndex >>> 6] |= 1L << cellIndex;
+                    break;
+                case SMALL_DOT:
+                    smallDots[cellIndex >>> 6] |= 1L << cellIndex;
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+        pacManRowIndex = pacManRow;
+        pacManColumnIndex = pacManColumn;
+        ghostRowIndices = Arrays.copyOf(ghostRows, numOfGhosts);
+        ghostColumnIndices = Arrays.copyOf(ghostColumns, numOfGhosts);
+    }
+
+    /**
+     * Method that puts the dots at the start of the game into the given remaining
+     * dots
+     *
+     * @param remainingDots remaining dots of a game on this level
+     */
+    void copyDots(RemainingDots remainingDots) {
+        remainingDots.reset(smallDots, bigDots);
+    }
+
+    int getLevelHeight() {
+        return levelHeight;
+    }
+
+    int getLevelWidth() {
+        return levelWidth;
+    }
+
+    int getPacManRowIndex() {
+        return pacManRowIndex;
+    }
+
+    int getPacManColumnIndex() {
+        return pacManColumnIndex;
+    }
+
+    int getNumberOfGhosts() {
+        return ghostRowIndices.length;
+    }
+
+    int getGhostRowIndex(int index) {
+        return ghostRowIndices[index];
+    }
+
+    int getGhostColumnIndex(int index) {
+        return ghostColumnIndices[index];
+    }
+}
@@ -1,8 +1,47 @@
 package javacourse.pacman.model.model;
 
+import java.util.Set;
+
 public enum MovementDirection {
     UP, DOWN, LEFT, RIGHT, NONE;
 
+    /**
+     * Cached values of the enum, indexed by ordinal
+     */
+    private static final MovementDirection[] VALUES = values();
+
+    /**
+     * @return bit representing this direction in a movement mask, 0 for NONE
+     */
+    public int getMask() {
+        return this == NONE ? 0 : 1 << ordinal();
+    }
+
+    /**
+     * Used to get the direction represented by the given single bit of a movement
+     * mask
+     *
+     * @param maskBit movement mask with exactly one bit set
+     * @return MovementDirection value represented by the bit
+     */
+    public static MovementDirection fromMaskBit(int maskBit) {
+        return VALUES[Integer.numberOfTrailingZeros(maskBit)];
+    }
+
+    /**
+     * Used to convert a set of directions into a movement mask
+     *
+     * @param directions set of MovementDirection values
+     * @return movement mask with the bits of all given directions set
+     */
+    public static int toMask(Set<MovementDirection> directions) {
+        int mask = 0;
+        for (MovementDirection direction : directions) {
+            mask |= direction.getMask();
+        }
+        return mask;
+    }
+
     /**
      * @return opposite MovementDirection value
      */
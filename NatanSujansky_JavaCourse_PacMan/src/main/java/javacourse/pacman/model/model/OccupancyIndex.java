@@ -0,0 +1,121 @@
+package javacourse.pacman.model.model;
+
+import java.util.Arrays;
+
+/**
+ * Class that keeps track of the ghosts located in every level cell, so that the
+ * ghosts in a given cell are found without looking at the other ghosts. Each
+ * cell holds the head of a doubly linked list of ghost indices, stored in
+ * primitive arrays, and moving a ghost between cells takes constant time.
+ *
+ * @author Natan
+ *
+ */
+final class OccupancyIndex {
+
+    /**
+     * Value used for the end of a list and for empty cells
+     */
+    static final int NO_GHOST = -1;
+
+    private final int levelWidth;
+
+    /**
+     * First ghost located in every cell, in row-major order
+     */
+    private final int[] cellHeads;
+
+    private int[] nextGhosts;
+
+    private int[] previousGhosts;
+
+    /**
+     * Packed index (row * width + column) of the cell every ghost is recorded in
+     */
+    private int[] ghostCells;
+
+    /**
+     * Constructor for OccupancyIndex class
+     *
+     * @param levelHeight height of the level in cells
+     * @param levelWidth  width of the level in cells
+     */
+    OccupancyIndex(int levelHeight, int levelWidth) {
+        this.levelWidth = levelWidth;
+        this.cellHeads = new int[levelHeight * levelWidth];
+        this.ghostCells = new int[0];
+        Arrays.fill(cellHeads, NO_GHOST);
+    }
+
+    /**
+     * Method that records the current positions of all given ghosts, replacing
+     * the recorded ones
+     *
+     * @param ghosts view of the ghosts
+     */
+    void rebuild(GhostTable ghosts) {
+        for (int ghostCell : ghostCells) {
+            cellHeads[ghostCell] = NO_GHOST;
+        }
+        int numOfGhosts = ghosts.size();
+        nextGhosts = new int[numOfGhosts];
+        previousGhosts = new int[numOfGhosts];
+        ghostCells = new int[numOfGhosts];
+        for (int i = 0; i < numOfGhosts; i++) {
+            insert(i, ghosts.getRowIndex(i) * levelWidth + ghosts.getColumnIndex(i));
+        }
+    }
+
+    /**
+     * Method that records the new position of the given ghost
+     *
+     * @param ghostIndex  index of the ghost
+     * @param rowIndex    first coordinate of the new position
+     * @param columnIndex second coordinate of the new position
+     */
+    void moveGhost(int ghostIndex, int rowIndex, int columnIndex) {
+        int cellIndex = rowIndex * levelWidth + columnIndex;
+        if (ghostCells[ghostIndex] == cellIndex) {
+            return;
+        }
+        int previousGhost = previousGhosts[ghostIndex];
+        int nextGhost = nextGhosts[ghostIndex];
+        if (previousGhost == NO_GHOST) {
+            cellHeads[ghostCells[ghostIndex]] = nextGhost;
+        } else {
+            nextGhosts[previousGhost] = nextGhost;
+        }
+        if (nextGhost != NO_GHOST) {
+            previousGhosts[nextGhost] = previousGhost;
+        }
+        insert(ghostIndex, cellIndex);
+    }
+
+    /**
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return index of the first ghost recorded in the cell, or NO_GHOST
+     */
+    int getFirstGhost(int rowIndex, int columnIndex) {
+        return cellHeads[rowIndex * levelWidth + columnIndex];
+    }
+
+    /**
+     * @param ghostIndex index of a ghost
+     * @return index of the next ghost recorded in the same cell, or NO_GHOST
+     */
+    int getNextGhost(int ghostIndex) {
+        return nextGhosts[ghostIndex];
+    }
+
+    private void insert(int ghostIndex, int cellIndex) {
+        int headGhost = cellHeads[cellIndex];
+        nextGhosts[ghostIndex] = headGhost;
+        previousGhosts[ghostIndex] = NO_GHOST;
+        if (headGhost != NO_GHOST) {
+            previousGhosts[headGhost] = ghostIndex;
+        }
+        cellHeads[cellIndex] = ghostIndex;
+        ghostCells[ghostIndex] = cellIndex;
+    }
+}
@@ -1,12 +1,12 @@
 package javacourse.pacman.model.model;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.SplittableRandom;
 
 import javacourse.pacman.model.level.LevelCellComponent;
 import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.pathfinding.DistanceField;
 
 /**
  * Class that connects level layout, game properties and sprites into a model of
@@ -26,10 +26,15 @@ public class PacManModel {
     private LevelLayout levelLayout;
 
     /**
-     * This map is used to keep track of the static (non-moving) elements of the
-     * level
+     * Cells Pac-Man has passed through, one bit per packed cell index. They are
+     * shown as EMPTY regardless of their component in the level layout.
      */
-    private LevelCellComponent[][] levelMap;
+    private ChunkedBitSet clearedCells;
+
+    /**
+     * Dots that haven't been eaten yet
+     */
+    private RemainingDots remainingDots;
 
     private boolean isGameOver;
 
@@ -41,16 +46,58 @@ public class PacManModel {
     private PacManSprite pacMan;
 
     /**
-     * List of ghost sprites currently present in the game
+     * Storage of the ghosts currently present in the game
      */
-    private List<GhostSprite> ghosts;
+    private GhostStore ghosts;
 
-    private int numOfBigDots;
+    /**
+     * Ghosts located in every cell of the level
+     */
+    private OccupancyIndex ghostOccupancy;
 
-    private int numOfSmallDots;
+    /**
+     * Scheduler of the timed events of the game: the end of Pac-Man's power-up,
+     * with the identifier PAC_MAN_EVENT_ID, and the respawn of every ghost, with
+     * the identifier FIRST_GHOST_EVENT_ID plus the ghost index
+     */
+    private EventScheduler eventScheduler;
+
+    /**
+     * Handler of the due events, kept so game updates don't allocate it
+     */
+    private final EventScheduler.EventHandler eventHandler = this::handleEvent;
+
+    /**
+     * Kind of storage used for the ghosts
+     */
+    private final GhostStorage ghostStorage;
 
     private long score;
 
+    /**
+     * Cells whose appearance changed since the last call of clearChangedCells()
+     */
+    private CellChangeSet changedCells;
+
+    /**
+     * Seed of the random generators used by the ghosts. Games with the same seed,
+     * level layout and Pac-Man inputs are identical.
+     */
+    private long seed;
+
+    /**
+     * Distances of the cells from Pac-Man, shared by all ghosts. It is created on
+     * first use and kept across restarts of the same level.
+     */
+    private DistanceField pacManDistanceField;
+
+    /**
+     * Start state of the current level. While the level stays the same, restarting
+     * the game copies it into the existing level map and resets the existing
+     * sprites.
+     */
+    private LevelStartState startState;
+
     private static final int SMALL_DOT_POINTS = 10;
     private static final int BIG_DOT_POINTS = 50;
     private static final int EAT_GHOST_POINTS = 100;
@@ -58,10 +105,30 @@ public class PacManModel {
     private static final int PACMAN_POWER_TIME_MS = 8_000;
     private static final int GHOST_DEAD_TIME_MS = 12_000;
 
+    private static final int PAC_MAN_EVENT_ID = 0;
+    private static final int FIRST_GHOST_EVENT_ID = 1;
+
     /**
-     * Constructor for the PacManModel class
+     * Largest number of moves between a ghost and Pac-Man at which the ghost
+     * follows the shortest path towards Pac-Man
+     */
+    private static final int GHOST_CHASE_DISTANCE = 8;
+
+    /**
+     * Constructor for the PacManModel class, with the ghosts stored as GhostSprite
+     * objects
      */
     public PacManModel() {
+        this(GhostStorage.SPRITES);
+    }
+
+    /**
+     * Constructor for the PacManModel class
+     *
+     * @param ghostStorage kind of storage used for the ghosts
+     */
+    public PacManModel(GhostStorage ghostStorage) {
+        this.ghostStorage = ghostStorage;
     }
 
     /**
@@ -70,12 +137,44 @@ public class PacManModel {
      * @param levelLayout object used as descriptor of level layout
      */
     public void initializeNewGame(LevelLayout levelLayout) {
+        initializeNewGame(levelLayout, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Method that initializes the new game using the provided level layout and
+     * random seed. Games initialized with the same layout and seed behave the same
+     * way given the same Pac-Man inputs.
+     *
+     * @param levelLayout object used as descriptor of level layout
+     * @param seed        seed of the random generators used by the ghosts
+     */
+    public void initializeNewGame(LevelLayout levelLayout, long seed) {
         this.levelLayout = levelLayout;
+        this.seed = seed;
         restartGame();
     }
 
     /**
-     * Method that re-initializes the game using the current level layout
+     * Method that re-initializes the game using the current level layout and a
+     * new random seed, so the ghosts behave differently than in the previous game
+     *
+     * @param seed seed of the random generators used by the ghosts
+     * @return LevelLayout object used for game setup
+     * @throws IllegalStateException in case there hasn't been a level layout
+     *                               provided yet
+     */
+    public LevelLayout restartGame(long seed) {
+        if (levelLayout == null) {
+            throw new IllegalStateException("No level layout defined yet!");
+        }
+        this.seed = seed;
+        return restartGame();
+    }
+
+    /**
+     * Method that re-initializes the game using the current level layout. The
+     * ghosts are re-seeded with the current seed, so a restarted game replays the
+     * same way as the original one.
      *
      * @return LevelLayout object used for game setup
      * @throws IllegalStateException in case there hasn't been a level layout
@@ -88,37 +187,122 @@ public class PacManModel {
         this.isGameOver = false;
         this.isPlayerVictorious = false;
         this.score = 0;
-        this.numOfBigDots = 0;
-        this.numOfSmallDots = 0;
-        this.ghosts = new ArrayList<>();
-        int levelHeight = levelLayout.getLevelHeight();
-        int levelWidth = levelLayout.getLevelWidth();
-        levelMap = new LevelCellComponent[levelHeight][levelWidth];
-        for (int i = 0; i < levelHeight; i++) {
-            for (int j = 0; j < levelWidth; j++) {
-                levelMap[i][j] = levelLayout.getComponent(i, j);
-                switch (levelLayout.getComponent(i, j)) {
-                case PACMAN_START:
-                    pacMan = SpriteFactory.createPacMan("Pac-Man", PACMAN_POWER_TIME_MS, i, j, levelLayout);
-                    break;
-                case GHOST_START:
-                    GhostSprite ghost = SpriteFactory.createGhost("Ghost", GHOST_DEAD_TIME_MS, i, j, levelLayout);
-                    ghosts.add(ghost);
-                    break;
-                case BIG_DOT:
-                    numOfBigDots++;
-                    break;
-                case SMALL_DOT:
-                    numOfSmallDots++;
-                    break;
-                default:
-                    break;
-                }
-            }
+        SplittableRandom random = new SplittableRandom(seed);
+        LevelStartState levelStartState = LevelStartState.of(levelLayout);
+        if (levelStartState != startState) {
+            startState = levelStartState;
+            createGameState(random);
+        } else {
+            changedCells.clear();
+            clearedCells.copyFrom(null);
+            eventScheduler.reset();
+            pacMan.reset(startState.getPacManRowIndex(), startState.getPacManColumnIndex());
+            ghosts.reset(random);
         }
+        startState.copyDots(remainingDots);
+        ghostOccupancy.rebuild(ghosts);
         return levelLayout;
     }
 
+    /**
+     * Helper method that allocates the level map and creates the sprites of a
+     * level that is played for the first time in this model
+     *
+     * @param random generator the ghost generators are split from
+     */
+    private void createGameState(SplittableRandom random) {
+        int levelHeight = startState.getLevelHeight();
+        int levelWidth = startState.getLevelWidth();
+        clearedCells = new ChunkedBitSet(RemainingDots.getNumberOfWords(levelHeight, levelWidth));
+        remainingDots = new RemainingDots(levelHeight, levelWidth);
+        changedCells = new CellChangeSet(levelHeight, levelWidth);
+        ghostOccupancy = new OccupancyIndex(levelHeight, levelWidth);
+        int numOfGhosts = startState.getNumberOfGhosts();
+        eventScheduler = new EventScheduler(FIRST_GHOST_EVENT_ID + numOfGhosts);
+        pacMan = SpriteFactory.createPacMan("Pac-Man", PACMAN_POWER_TIME_MS, startState.getPacManRowIndex(),
+                startState.getPacManColumnIndex(), levelLayout);
+        pacMan.attachScheduler(eventScheduler, PAC_MAN_EVENT_ID);
+        if (ghostStorage == GhostStorage.ARRAYS) {
+            GhostArrays ghostArrays = new GhostArrays(levelLayout, GHOST_DEAD_TIME_MS, numOfGhosts, eventScheduler,
+                    FIRST_GHOST_EVENT_ID);
+            for (int i = 0; i < numOfGhosts; i++) {
+                ghostArrays.add(startState.getGhostRowIndex(i), startState.getGhostColumnIndex(i), random.split());
+            }
+            ghosts = ghostArrays;
+        } else {
+            List<GhostSprite> ghostSprites = new ArrayList<>(numOfGhosts);
+            for (int i = 0; i < numOfGhosts; i++) {
+                GhostSprite ghost = SpriteFactory.createGhost("Ghost", GHOST_DEAD_TIME_MS,
+                        startState.getGhostRowIndex(i), startState.getGhostColumnIndex(i), levelLayout, random.split());
+                ghost.attachScheduler(eventScheduler, FIRST_GHOST_EVENT_ID + i);
+                ghostSprites.add(ghost);
+            }
+            ghosts = new GhostSpriteStore(ghostSprites);
+        }
+    }
+
+    /**
+     * Method that takes a snapshot of the current game: sprites, their timers,
+     * score and the dot state. The dot state is not copied, the snapshot shares it
+     * with the model and with the other snapshots, and the model copies only the
+     * chunks it changes afterwards. Taking a snapshot every game update therefore
+     * allocates in proportion to the number of ghosts and the eaten dots, not to
+     * the level size.
+     *
+     * @return snapshot of the current game
+     * @throws IllegalStateException in case there hasn't been a level layout
+     *                               provided yet
+     */
+    public Snapshot snapshot() {
+        if (levelLayout == null) {
+            throw new IllegalStateException("No level layout defined yet!");
+        }
+        return new Snapshot(this);
+    }
+
+    /**
+     * Method that brings the game back to the state of the given snapshot. The
+     * snapshot can be restored any number of times, into this or another model,
+     * regardless of the ghost storage. Cells that look different after the restore
+     * are recorded as changed.
+     *
+     * @param snapshot snapshot returned by snapshot()
+     * @throws IllegalArgumentException in case the snapshot is null
+     */
+    public void restore(Snapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Provided snapshot cannot be null!");
+        }
+        // The shared start state cache is locked, so it is looked up only on a level change
+        LevelStartState levelStartState = snapshot.levelLayout == levelLayout && startState != null ? startState
+                : LevelStartState.of(snapshot.levelLayout);
+        if (levelStartState != startState) {
+            levelLayout = snapshot.levelLayout;
+            startState = levelStartState;
+            createGameState(new SplittableRandom(snapshot.seed));
+        } else {
+            markSpriteCells();
+            for (int cellIndex = clearedCells.nextDifference(snapshot.clearedCellChunks, 0); cellIndex >= 0;
+                    cellIndex = clearedCells.nextDifference(snapshot.clearedCellChunks, cellIndex + 1)) {
+                changedCells.add(cellIndex / startState.getLevelWidth(), cellIndex % startState.getLevelWidth());
+            }
+        }
+        levelLayout = snapshot.levelLayout;
+        seed = snapshot.seed;
+        score = snapshot.score;
+        isGameOver = snapshot.isGameOver;
+        isPlayerVictorious = snapshot.isPlayerVictorious;
+        clearedCells.restore(snapshot.clearedCellChunks);
+        remainingDots.restore(snapshot.smallDotChunks, snapshot.bigDotChunks, snapshot.numOfSmallDots,
+                snapshot.numOfBigDots);
+        pacMan.restoreState(snapshot.pacManRowIndex, snapshot.pacManColumnIndex, snapshot.pacManPreviousRowIndex,
+                snapshot.pacManPreviousColumnIndex, snapshot.pacManDirection, snapshot.pacManPowerMode,
+                snapshot.pacManPowerModeUpdates);
+        ghosts.restoreState(snapshot.ghostStates);
+        ghostOccupancy.rebuild(ghosts);
+        markSpriteCells();
+    }
+
     /**
      * Getter method for the current levelLayout
      *
@@ -157,7 +341,26 @@ public class PacManModel {
         if (columnIndex < 0 || columnIndex >= levelLayout.getLevelWidth()) {
             throw new IndexOutOfBoundsException("columnIndex out of bounds!");
         }
-        return levelMap[rowIndex][columnIndex];
+        if (clearedCells.get(rowIndex * startState.getLevelWidth() + columnIndex)) {
+            return LevelCellComponent.EMPTY;
+        }
+        return levelLayout.getComponent(rowIndex, columnIndex);
+    }
+
+    /**
+     * Getter method for the dots that haven't been eaten yet. The dots are live
+     * and are reset on game restart. A dot is removed as soon as Pac-Man enters its
+     * cell, while componentAt() keeps showing it until Pac-Man leaves.
+     *
+     * @return remaining dots of the current game
+     * @throws IllegalStateException in case there hasn't been a level layout
+     *                               provided yet
+     */
+    public RemainingDots getRemainingDots() {
+        if (levelLayout == null) {
+            throw new IllegalStateException("No level layout defined yet!");
+        }
+        return remainingDots;
     }
 
     /**
@@ -179,16 +382,85 @@ public class PacManModel {
      *
      * @return list of ghost sprites currently used in the game
      * @throws IllegalStateException in case there hasn't been any ghosts defined
-     *                               yet
+     *                               yet, or the ghosts are stored in arrays
      */
     public List<GhostSprite> getGhosts() {
         if (ghosts == null) {
             throw new IllegalStateException("No ghosts defined yet!");
+        } else if (!(ghosts instanceof GhostSpriteStore)) {
+            throw new IllegalStateException("Ghosts are not stored as sprites!");
         } else {
-            return List.copyOf(ghosts);
+            return List.copyOf(((GhostSpriteStore) ghosts).getGhosts());
         }
     }
 
+    /**
+     * Getter method for the read-only view of the ghosts. Unlike getGhosts(), the
+     * view is not a copy and is available regardless of the ghost storage, so
+     * renderers can read it every frame.
+     *
+     * @return live view of the ghosts currently used in the game
+     * @throws IllegalStateException in case there hasn't been any ghosts defined
+     *                               yet
+     */
+    public GhostTable getGhostTable() {
+        if (ghosts == null) {
+            throw new IllegalStateException("No ghosts defined yet!");
+        }
+        return ghosts;
+    }
+
+    /**
+     * Method that counts the living ghosts located in the given cell. It only looks
+     * at the ghosts in that cell, regardless of the total number of ghosts.
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return number of ghosts in the cell that are not dead
+     * @throws IllegalStateException     in case there hasn't been a level layout
+     *                                   provided yet
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level layout
+     */
+    public int getNumberOfGhostsAt(int rowIndex, int columnIndex) {
+        if (levelLayout == null) {
+            throw new IllegalStateException("No level layout defined yet!");
+        }
+        if (rowIndex < 0 || rowIndex >= levelLayout.getLevelHeight()) {
+            throw new IndexOutOfBoundsException("rowIndex out of bounds!");
+        }
+        if (columnIndex < 0 || columnIndex >= levelLayout.getLevelWidth()) {
+            throw new IndexOutOfBoundsException("columnIndex out of bounds!");
+        }
+        int numOfGhosts = 0;
+        int ghostIndex = ghostOccupancy.getFirstGhost(rowIndex, columnIndex);
+        while (ghostIndex != OccupancyIndex.NO_GHOST) {
+            if (!ghosts.isGhostDead(ghostIndex)) {
+                numOfGhosts++;
+            }
+            ghostIndex = ghostOccupancy.getNextGhost(ghostIndex);
+        }
+        return numOfGhosts;
+    }
+
+    /**
+     * Getter method for the kind of storage used for the ghosts
+     *
+     * @return GhostStorage enum value
+     */
+    public GhostStorage getGhostStorage() {
+        return ghostStorage;
+    }
+
+    /**
+     * Getter method for the seed of the current game
+     *
+     * @return seed of the random generators used by the ghosts
+     */
+    public long getSeed() {
+        return seed;
+    }
+
     /**
      * Getter method for the isGameOver flag value
      *
@@ -223,37 +495,46 @@ public class PacManModel {
         if (isGameOver) {
             return;
         } else {
-            pacMan.preMovementUpdate();
-            for (GhostSprite ghost : ghosts) {
-                ghost.preMovementUpdate();
-            }
-            levelMap[pacMan.getRowIndex()][pacMan.getColumnIndex()] = LevelCellComponent.EMPTY;
-            pacMan.pacmanMove(desiredPacManMovementDirection, getValidMovementDirections(pacMan));
-            for (GhostSprite ghost : ghosts) {
-                checkGhostCollisions(ghost);
-                if (isGameOver) {
-                    return;
-                }
+            pacMan.rememberPosition();
+            ghosts.rememberPositions();
+            eventScheduler.advance(eventHandler);
+            int pacManRowIndex = pacMan.getRowIndex();
+            int pacManColumnIndex = pacMan.getColumnIndex();
+            clearedCells.set(pacManRowIndex * startState.getLevelWidth() + pacManColumnIndex);
+            changedCells.add(pacManRowIndex, pacManColumnIndex);
+            pacMan.pacmanMove(desiredPacManMovementDirection, getValidMovementMask(pacMan));
+            markSpriteCell(pacMan);
+            checkPacManCollisions();
+            if (isGameOver) {
+                return;
             }
-            if (levelMap[pacMan.getRowIndex()][pacMan.getColumnIndex()] == LevelCellComponent.BIG_DOT) {
-                numOfBigDots--;
+            if (remainingDots.removeBigDot(pacMan.getRowIndex(), pacMan.getColumnIndex())) {
                 score += BIG_DOT_POINTS;
                 pacMan.toggleGhostEatingMode();
-            }
-            if (levelMap[pacMan.getRowIndex()][pacMan.getColumnIndex()] == LevelCellComponent.SMALL_DOT) {
-                numOfSmallDots--;
+            } else if (remainingDots.removeSmallDot(pacMan.getRowIndex(), pacMan.getColumnIndex())) {
                 score += SMALL_DOT_POINTS;
             }
-            if (numOfBigDots == 0 && numOfSmallDots == 0) {
+            if (remainingDots.isEmpty()) {
                 isGameOver = true;
                 isPlayerVictorious = true;
                 return;
             }
-            for (GhostSprite ghost : ghosts) {
-                if (!ghost.isGhostDead()) {
-                    ghost.ghostMove(getValidMovementDirections(ghost), getDirectionTowardsPacMan(ghost),
-                            pacMan.isGhostEatingActive());
-                    checkGhostCollisions(ghost);
+            boolean isGhostEatingActive = pacMan.isGhostEatingActive();
+            int numOfGhosts = ghosts.size();
+            for (int i = 0; i < numOfGhosts; i++) {
+                if (!ghosts.isGhostDead(i)) {
+                    int ghostRowIndex = ghosts.getRowIndex(i);
+                    int ghostColumnIndex = ghosts.getColumnIndex(i);
+                    changedCells.add(ghostRowIndex, ghostColumnIndex);
+                    MovementDirection pacManDirection = getDirectionTowardsPacMan(ghostRowIndex, ghostColumnIndex);
+                    if (pacManDirection == MovementDirection.NONE) {
+                        pacManDirection = getPathDirectionTowardsPacMan(ghostRowIndex, ghostColumnIndex);
+                    }
+                    ghosts.ghostMove(i, levelLayout.getExitMask(ghostRowIndex, ghostColumnIndex), pacManDirection,
+                            isGhostEatingActive);
+                    ghostOccupancy.moveGhost(i, ghosts.getRowIndex(i), ghosts.getColumnIndex(i));
+                    markGhostCell(i);
+                    checkGhostCollisions(i);
                     if (isGameOver) {
                         return;
                     }
@@ -262,6 +543,20 @@ public class PacManModel {
         }
     }
 
+    /**
+     * Helper method invoked by the event scheduler for every event that becomes
+     * due at the start of a game update
+     *
+     * @param eventId identifier of the event
+     */
+    private void handleEvent(int eventId) {
+        if (eventId == PAC_MAN_EVENT_ID) {
+            pacMan.endGhostEatingMode();
+        } else {
+            ghosts.respawnGhost(eventId - FIRST_GHOST_EVENT_ID);
+        }
+    }
+
     /**
      * Getter method for the game score
      *
@@ -274,16 +569,97 @@ public class PacManModel {
         return score;
     }
 
+    /**
+     * Getter method for the set of cells whose appearance changed since the last
+     * call of clearChangedCells(). A cell is included if its component changed or
+     * if a sprite entered or left it. The set is live and is cleared on game
+     * restart.
+     *
+     * @return set of changed cells
+     * @throws IllegalStateException in case there hasn't been a level layout
+     *                               provided yet
+     */
+    public CellChangeSet getChangedCells() {
+        if (levelLayout == null) {
+            throw new IllegalStateException("No level layout defined yet!");
+        }
+        return changedCells;
+    }
+
+    /**
+     * Method used by the consumer of the changed cells (e.g. a view) to signal
+     * that all changes so far have been processed
+     *
+     * @throws IllegalStateException in case there hasn't been a level layout
+     *                               provided yet
+     */
+    public void clearChangedCells() {
+        if (levelLayout == null) {
+            throw new IllegalStateException("No level layout defined yet!");
+        }
+        changedCells.clear();
+    }
+
+    /**
+     * Helper method that records the cell the given sprite is located in as
+     * changed
+     *
+     * @param sprite Sprite object whose cell changed
+     */
+    private void markSpriteCell(Sprite sprite) {
+        changedCells.add(sprite.getRowIndex(), sprite.getColumnIndex());
+    }
+
+    /**
+     * Helper method that records the cells all sprites are located in as changed
+     */
+    private void markSpriteCells() {
+        markSpriteCell(pacMan);
+        for (int i = 0; i < ghosts.size(); i++) {
+            markGhostCell(i);
+        }
+    }
+
+    /**
+     * Helper method that records the cell the ghost with the given index is
+     * located in as changed
+     *
+     * @param ghostIndex index of the ghost in the ghost storage
+     */
+    private void markGhostCell(int ghostIndex) {
+        changedCells.add(ghosts.getRowIndex(ghostIndex), ghosts.getColumnIndex(ghostIndex));
+    }
+
+    /**
+     * Helper method that checks for collisions between Pac-Man and the ghosts in
+     * the cell Pac-Man has just moved to. Only the ghosts in that cell are looked
+     * at. Sprites move one at a time, so a ghost and Pac-Man heading towards each
+     * other always end up in the same cell rather than passing each other.
+     */
+    private void checkPacManCollisions() {
+        int ghostIndex = ghostOccupancy.getFirstGhost(pacMan.getRowIndex(), pacMan.getColumnIndex());
+        while (ghostIndex != OccupancyIndex.NO_GHOST && !isGameOver) {
+            // a killed ghost leaves the cell, so its successor is fetched first
+            int nextGhostIndex = ghostOccupancy.getNextGhost(ghostIndex);
+            checkGhostCollisions(ghostIndex);
+            ghostIndex = nextGhostIndex;
+        }
+    }
+
     /**
      * Helper method that checks for collisions between Pac-Man and given ghost and
      * updates game state accordingly
      *
-     * @param ghost given GhostSprite object
+     * @param ghostIndex index of the ghost in the ghost storage
      */
-    private void checkGhostCollisions(GhostSprite ghost) {
-        if (pacMan.hasSameCoordinates(ghost) && !ghost.isGhostDead()) {
+    private void checkGhostCollisions(int ghostIndex) {
+        if (!ghosts.isGhostDead(ghostIndex) && ghosts.getRowIndex(ghostIndex) == pacMan.getRowIndex()
+                && ghosts.getColumnIndex(ghostIndex) == pacMan.getColumnIndex()) {
             if (pacMan.isGhostEatingActive()) {
-                ghost.killGhost();
+                ghosts.killGhost(ghostIndex);
+                ghostOccupancy.moveGhost(ghostIndex, ghosts.getRowIndex(ghostIndex),
+                        ghosts.getColumnIndex(ghostIndex));
+                markGhostCell(ghostIndex);
                 score += EAT_GHOST_POINTS;
             } else {
                 isGameOver = true;
@@ -292,87 +668,143 @@ public class PacManModel {
     }
 
     /**
-     * Helper method used for calculation of valid movement directions respective to
+     * Helper method used for fetching the valid movement directions respective to
      * the given sprite current position
      *
      * @param sprite Sprite object for which valid movement directions are requested
-     * @return set of MovementDirection enum values that are valid for given
-     *         sprite's current position in the level layout
+     * @return movement mask of the directions that are valid for given sprite's
+     *         current position in the level layout
      */
-    private Set<MovementDirection> getValidMovementDirections(Sprite sprite) {
-        Set<MovementDirection> validDirections = new HashSet<>();
-        int wrappedRow;
-        int wrappedColumn;
-        wrappedRow = sprite.getRowIndex() - 1 < 0 ? levelLayout.getLevelHeight() - 1 : sprite.getRowIndex() - 1;
-        if (!levelLayout.getComponent(wrappedRow, sprite.getColumnIndex()).equals(LevelCellComponent.WALL)) {
-            validDirections.add(MovementDirection.UP);
-        }
-        wrappedRow = sprite.getRowIndex() + 1 >= levelLayout.getLevelHeight() ? 0 : sprite.getRowIndex() + 1;
-        if (!levelLayout.getComponent(wrappedRow, sprite.getColumnIndex()).equals(LevelCellComponent.WALL)) {
-            validDirections.add(MovementDirection.DOWN);
-        }
-        wrappedColumn = sprite.getColumnIndex() - 1 < 0 ? levelLayout.getLevelWidth() - 1 : sprite.getColumnIndex() - 1;
-        if (!levelLayout.getComponent(sprite.getRowIndex(), wrappedColumn).equals(LevelCellComponent.WALL)) {
-            validDirections.add(MovementDirection.LEFT);
-        }
-        wrappedColumn = sprite.getColumnIndex() + 1 >= levelLayout.getLevelWidth() ? 0 : sprite.getColumnIndex() + 1;
-        if (!levelLayout.getComponent(sprite.getRowIndex(), wrappedColumn).equals(LevelCellComponent.WALL)) {
-            validDirections.add(MovementDirection.RIGHT);
-        }
-        return validDirections;
+    private int getValidMovementMask(Sprite sprite) {
+        return levelLayout.getExitMask(sprite.getRowIndex(), sprite.getColumnIndex());
     }
 
     /**
      * Helper method that fetches the direction of PacMan respective to the given
-     * ghost, in case there are no walls between them
+     * ghost, in case there are no walls between them. Sight continues through the
+     * tunnels across the level borders.
      *
-     * @param ghost provided GhostSprite object for which PacMan direction is
-     *              requested
+     * @param ghostRowIndex    first coordinate of the ghost position
+     * @param ghostColumnIndex second coordinate of the ghost position
      * @return MovementDirection enum value denoting the direction of PacMan if
      *         visible to the given ghost, otherwise NONE
-     * @throws IllegalStateException in case method is called when PacMan and given
-     *                               ghost are sharing the same coordinates
-     */
-    private MovementDirection getDirectionTowardsPacMan(GhostSprite ghost) {
-        if (ghost.hasSameCoordinates(pacMan)) {
-            return MovementDirection.NONE;
-        }
-        int lesserIndex;
-        int greaterIndex;
-        boolean isWallBetween = false;
-        if (ghost.getRowIndex() == pacMan.getRowIndex()) {
-            lesserIndex = Math.min(ghost.getColumnIndex(), pacMan.getColumnIndex());
-            greaterIndex = Math.max(ghost.getColumnIndex(), pacMan.getColumnIndex());
-            for (int i = lesserIndex; i < greaterIndex; i++) {
-                if (levelLayout.getComponent(ghost.getRowIndex(), i).equals(LevelCellComponent.WALL)) {
-                    isWallBetween = true;
-                    break;
-                }
-            }
-            if (!isWallBetween) {
-                if (lesserIndex == ghost.getColumnIndex()) {
-                    return MovementDirection.RIGHT;
-                } else {
-                    return MovementDirection.LEFT;
-                }
-            }
-        } else if (ghost.getColumnIndex() == pacMan.getColumnIndex()) {
-            lesserIndex = Math.min(ghost.getRowIndex(), pacMan.getRowIndex());
-            greaterIndex = Math.max(ghost.getRowIndex(), pacMan.getRowIndex());
-            for (int i = lesserIndex; i < greaterIndex; i++) {
-                if (levelLayout.getComponent(i, ghost.getColumnIndex()).equals(LevelCellComponent.WALL)) {
-                    isWallBetween = true;
-                    break;
-                }
-            }
-            if (!isWallBetween) {
-                if (lesserIndex == ghost.getRowIndex()) {
-                    return MovementDirection.DOWN;
-                } else {
-                    return MovementDirection.UP;
-                }
-            }
+     */
+    private MovementDirection getDirectionTowardsPacMan(int ghostRowIndex, int ghostColumnIndex) {
+        return levelLayout.getLineOfSightDirection(ghostRowIndex, ghostColumnIndex, pacMan.getRowIndex(),
+                pacMan.getColumnIndex());
+    }
+
+    /**
+     * Helper method that fetches the first move of the shortest path from the
+     * given ghost to PacMan, in case PacMan is close enough to be chased. The
+     * distance field is only recomputed when PacMan has changed its cell.
+     *
+     * @param ghostRowIndex    first coordinate of the ghost position
+     * @param ghostColumnIndex second coordinate of the ghost position
+     * @return MovementDirection enum value denoting the first move towards PacMan
+     *         if PacMan is within GHOST_CHASE_DISTANCE moves, otherwise NONE
+     */
+    private MovementDirection getPathDirectionTowardsPacMan(int ghostRowIndex, int ghostColumnIndex) {
+        if (pacManDistanceField == null || pacManDistanceField.getLevelLayout() != levelLayout) {
+            pacManDistanceField = new DistanceField(levelLayout, GHOST_CHASE_DISTANCE);
+        }
+        pacManDistanceField.setTarget(pacMan.getRowIndex(), pacMan.getColumnIndex());
+        return pacManDistanceField.getDirectionTowardsTarget(ghostRowIndex, ghostColumnIndex);
+    }
+
+    /**
+     * Immutable snapshot of a game, taken by snapshot() and brought back by
+     * restore(). It shares the dot state with the model it was taken from.
+     *
+     * @author Natan
+     *
+     */
+    public static final class Snapshot {
+
+        private final LevelLayout levelLayout;
+
+        private final long seed;
+
+        private final long score;
+
+        private final boolean isGameOver;
+
+        private final boolean isPlayerVictorious;
+
+        private final int pacManRowIndex;
+        private final int pacManColumnIndex;
+        private final int pacManPreviousRowIndex;
+        private final int pacManPreviousColumnIndex;
+        private final MovementDirection pacManDirection;
+        private final boolean pacManPowerMode;
+        private final long pacManPowerModeUpdates;
+
+        private final GhostStates ghostStates;
+
+        /**
+         * Chunks of the bitsets of the model, which are never modified
+         */
+        private final long[][][] clearedCellChunks;
+        private final long[][][] smallDotChunks;
+        private final long[][][] bigDotChunks;
+
+        private final int numOfSmallDots;
+
+        private final int numOfBigDots;
+
+        /**
+         * Constructor for Snapshot class
+         *
+         * @param model model whose current game is captured
+         */
+        private Snapshot(PacManModel model) {
+            levelLayout = model.levelLayout;
+            seed = model.seed;
+            score = model.score;
+            isGameOver = model.isGameOver;
+            isPlayerVictorious = model.isPlayerVictorious;
+            PacManSprite pacMan = model.pacMan;
+            pacManRowIndex = pacMan.getRowIndex();
+            pacManColumnIndex = pacMan.getColumnIndex();
+            pacManPreviousRowIndex = pacMan.getPreviousRowIndex();
+            pacManPreviousColumnIndex = pacMan.getPreviousColumnIndex();
+            pacManDirection = pacMan.getMovementDirection();
+            pacManPowerMode = pacMan.isGhostEatingActive();
+            pacManPowerModeUpdates = pacManPowerMode ? pacMan.getGhostEatingUpdatesCounter() : 0L;
+            ghostStates = model.ghosts.captureState();
+            clearedCellChunks = model.clearedCells.share();
+            smallDotChunks = model.remainingDots.shareSmallDots();
+            bigDotChunks = model.remainingDots.shareBigDots();
+            numOfSmallDots = model.remainingDots.getNumberOfSmallDots();
+            numOfBigDots = model.remainingDots.getNumberOfBigDots();
+        }
+
+        /**
+         * @return level layout of the captured game
+         */
+        public LevelLayout getLevelLayout() {
+            return levelLayout;
+        }
+
+        /**
+         * @return seed of the captured game
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return score of the captured game
+         */
+        public long getGameScore() {
+            return score;
+        }
+
+        /**
+         * @return true if the captured game was over, false otherwise
+         */
+        public boolean isGameOver() {
+            return isGameOver;
         }
-        return MovementDirection.NONE;
     }
 }
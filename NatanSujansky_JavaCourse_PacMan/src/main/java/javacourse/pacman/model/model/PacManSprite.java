@@ -24,10 +24,24 @@ public class PacManSprite extends Sprite {
     private boolean powerMode;
 
     /**
-     * From Pac-Man's perspective, one game update equals one call of
-     * preMovementUpdate() method
+     * Scheduler the end of the powered-up mode is registered with. A sprite used
+     * on its own has a scheduler of its own, advanced by preMovementUpdate(), which
+     * is replaced by the scheduler of the model the sprite is part of.
      */
-    private long numOfGameUpdatesInPowerUpMode;
+    private EventScheduler eventScheduler;
+
+    private boolean isSchedulerOwned;
+
+    /**
+     * Identifier of the event that ends the powered-up mode
+     */
+    private int expiryEventId;
+
+    /**
+     * Game update of the scheduler in which Pac-Man last entered the powered-up
+     * mode
+     */
+    private long powerModeStartTick;
 
     /**
      * Constructor for PacManSprite class
@@ -44,25 +58,102 @@ public class PacManSprite extends Sprite {
             LevelLayout levelLayout) {
         super(name, startingRowIndex, startingColumnIndex, levelLayout);
         this.powerUpTimeMs = powerUpTimeMs;
+        this.eventScheduler = new EventScheduler(1);
+        this.isSchedulerOwned = true;
     }
 
     @Override
     public void preMovementUpdate() {
-        if (isGhostEatingActive()) {
-            numOfGameUpdatesInPowerUpMode++;
-            if (getRemainingGhostEatingTime() <= 0L) {
-                powerMode = false;
-                numOfGameUpdatesInPowerUpMode = 0;
-            }
+        if (isSchedulerOwned) {
+            eventScheduler.advance(eventId -> endGhostEatingMode());
         }
     }
 
     /**
-     * Method that is used for enabling the Pac-Man to eat ghosts temporarily, and
-     * disabling that mode as well
+     * Method used by the model for driving the powered-up mode by its own
+     * scheduler, after which preMovementUpdate() does nothing
+     *
+     * @param eventScheduler scheduler of the model
+     * @param expiryEventId  identifier of the event that ends the powered-up mode
+     */
+    void attachScheduler(EventScheduler eventScheduler, int expiryEventId) {
+        long numOfPowerModeUpdates = getGhostEatingUpdatesCounter();
+        this.eventScheduler.cancel(this.expiryEventId);
+        this.eventScheduler = eventScheduler;
+        this.expiryEventId = expiryEventId;
+        this.isSchedulerOwned = false;
+        if (powerMode) {
+            startGhostEatingTimer(numOfPowerModeUpdates);
+        }
+    }
+
+    /**
+     * Method invoked by the scheduler once the time in the powered-up mode has run
+     * out
+     */
+    void endGhostEatingMode() {
+        powerMode = false;
+    }
+
+    /**
+     * Method used by the model on game restart, which moves Pac-Man to the given
+     * starting position and ends the ghost eating mode
+     *
+     * @param startingRowIndex    first coordinate of the starting position
+     * @param startingColumnIndex second coordinate of the starting position
+     */
+    void reset(int startingRowIndex, int startingColumnIndex) {
+        resetPosition(startingRowIndex, startingColumnIndex);
+        powerMode = false;
+        eventScheduler.cancel(expiryEventId);
+    }
+
+    /**
+     * Method used for bringing back the state Pac-Man had in a snapshot of the
+     * game
+     *
+     * @param rowIndex              first coordinate of the position
+     * @param columnIndex           second coordinate of the position
+     * @param previousRowIndex      first coordinate of the previous position
+     * @param previousColumnIndex   second coordinate of the previous position
+     * @param direction             direction Pac-Man was moving in, may be null
+     * @param powerMode             flag denoting whether Pac-Man was powered-up
+     * @param numOfPowerModeUpdates game updates spent in the powered-up mode
+     */
+    void restoreState(int rowIndex, int columnIndex, int previousRowIndex, int previousColumnIndex,
+            MovementDirection direction, boolean powerMode, long numOfPowerModeUpdates) {
+        restorePosition(rowIndex, columnIndex, previousRowIndex, previousColumnIndex, direction);
+        this.powerMode = powerMode;
+        if (powerMode) {
+            startGhostEatingTimer(numOfPowerModeUpdates);
+        } else {
+            eventScheduler.cancel(expiryEventId);
+        }
+    }
+
+    /**
+     * Method that is used for enabling the Pac-Man to eat ghosts temporarily. The
+     * mode ends on its own once its time runs out, entering it again while it is
+     * active doesn't extend it.
      */
     public void toggleGhostEatingMode() {
-        powerMode = true;
+        if (!powerMode) {
+            powerMode = true;
+            startGhostEatingTimer(0L);
+        }
+    }
+
+    /**
+     * Helper method that registers the end of the powered-up mode with the
+     * scheduler
+     *
+     * @param numOfPowerModeUpdates game updates already spent in the powered-up
+     *                              mode
+     */
+    private void startGhostEatingTimer(long numOfPowerModeUpdates) {
+        powerModeStartTick = eventScheduler.getCurrentTick() - numOfPowerModeUpdates;
+        long expiryTick = powerModeStartTick + getNumberOfGameUpdates(powerUpTimeMs);
+        eventScheduler.schedule(expiryEventId, Math.max(expiryTick, eventScheduler.getCurrentTick() + 1));
     }
 
     /**
@@ -76,36 +167,31 @@ public class PacManSprite extends Sprite {
 
     /**
      * Method that returns the amount of time Pac-Man has remaining in ghost eating
-     * mode if it is active currently
+     * mode. It is derived from the game update the mode was entered in, so it
+     * takes constant time.
      *
-     * @return time left in powered-up mode, in milliseconds
-     * @throws IllegalStateException if method is called while not in powered-up
-     *                               mode
+     * @return time left in powered-up mode, in milliseconds, or 0 if the mode is
+     *         not active
      */
     public long getRemainingGhostEatingTime() {
         if (!isGhostEatingActive()) {
-            throw new IllegalStateException("Pac-Man is currently not in ghost eating mode!");
-        } else {
-            return powerUpTimeMs - numOfGameUpdatesInPowerUpMode * MILLISECONDS_PER_GAME_UPDATE;
+            return 0L;
         }
+        return powerUpTimeMs - getGhostEatingUpdatesCounter() * MILLISECONDS_PER_GAME_UPDATE;
     }
 
     /**
      * Method that returns the amount of game updates Pac-Man has spent in the ghost
-     * eating mode. One game update corresponds to one call of preMovementUpdate()
-     * method.
+     * eating mode
      *
      * @return amount of game updates that have passed since last time Pac-Man
-     *         entered powered-up mode
-     * @throws IllegalStateException if method is called while not in powered-up
-     *                               mode
+     *         entered powered-up mode, or 0 if the mode is not active
      */
     public long getGhostEatingUpdatesCounter() {
         if (!isGhostEatingActive()) {
-            throw new IllegalStateException("Pac-Man is currently not in ghost eating mode!");
-        } else {
-            return numOfGameUpdatesInPowerUpMode;
+            return 0L;
         }
+        return eventScheduler.getCurrentTick() - powerModeStartTick;
     }
 
     /**
@@ -118,7 +204,21 @@ public class PacManSprite extends Sprite {
      *                                in the level
      */
     public void pacmanMove(MovementDirection desiredDirection, Set<MovementDirection> validMovementDirections) {
-        if (validMovementDirections.contains(desiredDirection)) {
+        pacmanMove(desiredDirection, MovementDirection.toMask(validMovementDirections));
+    }
+
+    /**
+     * Method used to move PacMan in the desired direction
+     *
+     * @param desiredDirection  MovementDirection value requested from outside (i.e.
+     *                          player playing the game), can be null if there is
+     *                          no request yet
+     * @param validMovementMask movement mask of the directions which are valid
+     *                          respective to Pac-Man's current position in the
+     *                          level
+     */
+    public void pacmanMove(MovementDirection desiredDirection, int validMovementMask) {
+        if (desiredDirection != null && (validMovementMask & desiredDirection.getMask()) != 0) {
             move(desiredDirection);
         }
     }
@@ -0,0 +1,353 @@
+package javacourse.pacman.model.model;
+
+/**
+ * Class that keeps track of the dots Pac-Man hasn't eaten yet. Small and big
+ * dots are stored as bitsets with one bit per cell, indexed by the packed cell
+ * index (row * width + column), so a level needs only two bits of dot state per
+ * cell and the dots can be searched a whole word of cells at a time. The
+ * bitsets are copied on write in chunks, so snapshots of the dots share every
+ * chunk in which no dot has been eaten since.
+ *
+ * @author Natan
+ *
+ */
+public final class RemainingDots {
+
+    /**
+     * Value returned by findNearestDot() when there are no dots left
+     */
+    public static final int NO_DOT = -1;
+
+    private final int levelHeight;
+
+    private final int levelWidth;
+
+    private final ChunkedBitSet smallDots;
+
+    private final ChunkedBitSet bigDots;
+
+    private int numOfSmallDots;
+
+    private int numOfBigDots;
+
+    /**
+     * Constructor for RemainingDots class, with no dots
+     *
+     * @param levelHeight height of the level in cells
+     * @param levelWidth  width of the level in cells
+     */
+    RemainingDots(int levelHeight, int levelWidth) {
+        this.levelHeight = levelHeight;
+        this.levelWidth = levelWidth;
+        this.smallDots = new ChunkedBitSet(getNumberOfWords(levelHeight, levelWidth));
+        this.bigDots = new ChunkedBitSet(smallDots.getNumberOfWords());
+    }
+
+    /**
+     * Method used for computing the size of the bitsets of a level
+     *
+     * @param levelHeight height of the level in cells
+     * @param levelWidth  width of the level in cells
+     * @return number of words holding one bit per cell
+     */
+    static int getNumberOfWords(int levelHeight, int levelWidth) {
+        return (levelHeight * levelWidth + 63) >>> 6;
+    }
+
+    /**
+     * Method used for replacing all remaining dots with the given ones, e.g. on
+     * game restart. The dot counts are taken from the population count of the
+     * bitsets.
+     *
+     * @param smallDotWords bitset of the small dots, which is copied
+     * @param bigDotWords   bitset of the big dots, which is copied
+     */
+    void reset(long[] smallDotWords, long[] bigDotWords) {
+        smallDots.copyFrom(smallDotWords);
+        bigDots.copyFrom(bigDotWords);
+        numOfSmallDots = smallDots.cardinality();
+        numOfBigDots = bigDots.cardinality();
+    }
+
+    /**
+     * Method used for taking a snapshot of the small dots without copying them
+     *
+     * @return chunks of the small dot bitset, which must not be modified
+     */
+    long[][][] shareSmallDots() {
+        return smallDots.share();
+    }
+
+    /**
+     * Method used for taking a snapshot of the big dots without copying them
+     *
+     * @return chunks of the big dot bitset, which must not be modified
+     */
+    long[][][] shareBigDots() {
+        return bigDots.share();
+    }
+
+    /**
+     * Method used for bringing back the dots of a snapshot of the same level
+     *
+     * @param smallDotChunks chunks returned by shareSmallDots()
+     * @param bigDotChunks   chunks returned by shareBigDots()
+     * @param numOfSmallDots number of small dots in the snapshot
+     * @param numOfBigDots   number of big dots in the snapshot
+     */
+    void restore(long[][][] smallDotChunks, long[][][] bigDotChunks, int numOfSmallDots, int numOfBigDots) {
+        smallDots.restore(smallDotChunks);
+        bigDots.restore(bigDotChunks);
+        this.numOfSmallDots = numOfSmallDots;
+        this.numOfBigDots = numOfBigDots;
+    }
+
+    /**
+     * Method used for copying the small dots in bulk, e.g. for sending them over
+     * the network
+     *
+     * @param words array the bitset of the small dots is copied into, one bit per
+     *              packed cell index
+     * @throws IllegalArgumentException in case the array is shorter than the
+     *                                  bitset
+     */
+    public void copySmallDots(long[] words) {
+        checkWords(words);
+        smallDots.copyTo(words);
+    }
+
+    /**
+     * Method used for copying the big dots in bulk, e.g. for sending them over the
+     * network
+     *
+     * @param words array the bitset of the big dots is copied into, one bit per
+     *              packed cell index
+     * @throws IllegalArgumentException in case the array is shorter than the
+     *                                  bitset
+     */
+    public void copyBigDots(long[] words) {
+        checkWords(words);
+        bigDots.copyTo(words);
+    }
+
+    /**
+     * Method used for eating the small dot in the given cell
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return true if there was a small dot in the cell, false otherwise
+     */
+    boolean removeSmallDot(int rowIndex, int columnIndex) {
+        if (smallDots.clear(rowIndex * levelWidth + columnIndex)) {
+            numOfSmallDots--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method used for eating the big dot in the given cell
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return true if there was a big dot in the cell, false otherwise
+     */
+    boolean removeBigDot(int rowIndex, int columnIndex) {
+        if (bigDots.clear(rowIndex * levelWidth + columnIndex)) {
+            numOfBigDots--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of small dots left
+     */
+    public int getNumberOfSmallDots() {
+        return numOfSmallDots;
+    }
+
+    /**
+     * @return number of big dots left
+     */
+    public int getNumberOfBigDots() {
+        return numOfBigDots;
+    }
+
+    /**
+     * @return true if all dots have been eaten, false otherwise
+     */
+    public boolean isEmpty() {
+        return numOfSmallDots == 0 && numOfBigDots == 0;
+    }
+
+    /**
+     * Method used for checking whether a small dot is left in the given cell
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return true if the cell still holds a small dot, false otherwise
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level
+     */
+    public boolean isSmallDot(int rowIndex, int columnIndex) {
+        checkCell(rowIndex, columnIndex);
+        return smallDots.get(rowIndex * levelWidth + columnIndex);
+    }
+
+    /**
+     * Method used for checking whether a big dot is left in the given cell
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return true if the cell still holds a big dot, false otherwise
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level
+     */
+    public boolean isBigDot(int rowIndex, int columnIndex) {
+        checkCell(rowIndex, columnIndex);
+        return bigDots.get(rowIndex * levelWidth + columnIndex);
+    }
+
+    /**
+     * Method that finds the remaining dot, small or big, closest to the given cell
+     * by Manhattan distance. Walls and the tunnels across the level borders are not
+     * taken into account. Rows are visited in the order of their distance from the
+     * given cell, and within a row the closest dot on either side is found by
+     * scanning whole words of the bitsets. Of equally distant dots, the one in the
+     * upper row and then the one on the left is chosen.
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return packed index (row * width + column) of the closest dot, or NO_DOT if
+     *         there are no dots left
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level
+     */
+    public int findNearestDot(int rowIndex, int columnIndex) {
+        checkCell(rowIndex, columnIndex);
+        int nearestDot = NO_DOT;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int rowDistance = 0; rowDistance < levelHeight && rowDistance < nearestDistance; rowDistance++) {
+            int upperRow = rowIndex - rowDistance;
+            int lowerRow = rowIndex + rowDistance;
+            if (upperRow >= 0) {
+                int dot = findNearestDotInRow(upperRow, columnIndex);
+                if (dot != NO_DOT && rowDistance + Math.abs(dot % levelWidth - columnIndex) < nearestDistance) {
+                    nearestDot = dot;
+                    nearestDistance = rowDistance + Math.abs(dot % levelWidth - columnIndex);
+                }
+            }
+            if (lowerRow < levelHeight && rowDistance > 0) {
+                int dot = findNearestDotInRow(lowerRow, columnIndex);
+                if (dot != NO_DOT && rowDistance + Math.abs(dot % levelWidth - columnIndex) < nearestDistance) {
+                    nearestDot = dot;
+                    nearestDistance = rowDistance + Math.abs(dot % levelWidth - columnIndex);
+                }
+            }
+        }
+        return nearestDot;
+    }
+
+    /**
+     * @return width of the level, used for unpacking the cell indices
+     */
+    public int getLevelWidth() {
+        return levelWidth;
+    }
+
+    /**
+     * Helper method that finds the remaining dot closest to the given column within
+     * a single row
+     *
+     * @param rowIndex    row that is searched
+     * @param columnIndex column the distance is measured from
+     * @return packed index of the closest dot in the row, or NO_DOT if the row has
+     *         no dots left
+     */
+    private int findNearestDotInRow(int rowIndex, int columnIndex) {
+        int rowStart = rowIndex * levelWidth;
+        int cellIndex = rowStart + columnIndex;
+        int rightDot = nextDot(cellIndex, rowStart + levelWidth);
+        if (rightDot == cellIndex) {
+            return rightDot;
+        }
+        int leftDot = previousDot(cellIndex, rowStart);
+        if (leftDot == NO_DOT) {
+            return rightDot;
+        }
+        if (rightDot == NO_DOT || cellIndex - leftDot <= rightDot - cellIndex) {
+            return leftDot;
+        }
+        return rightDot;
+    }
+
+    /**
+     * Helper method that finds the first dot at or after the given cell
+     *
+     * @param fromIndex first packed index that is searched
+     * @param toIndex   packed index at which the search stops, exclusive
+     * @return packed index of the dot, or NO_DOT if there is none in the range
+     */
+    private int nextDot(int fromIndex, int toIndex) {
+        int wordIndex = fromIndex >>> 6;
+        long word = getDotWord(wordIndex) & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int dot = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                return dot < toIndex ? dot : NO_DOT;
+            }
+            wordIndex++;
+            if (wordIndex << 6 >= toIndex) {
+                return NO_DOT;
+            }
+            word = getDotWord(wordIndex);
+        }
+    }
+
+    /**
+     * Helper method that finds the last dot at or before the given cell
+     *
+     * @param fromIndex  first packed index that is searched
+     * @param lowerIndex lowest packed index that is searched
+     * @return packed index of the dot, or NO_DOT if there is none in the range
+     */
+    private int previousDot(int fromIndex, int lowerIndex) {
+        int wordIndex = fromIndex >>> 6;
+        long word = getDotWord(wordIndex) & (-1L >>> (63 - (fromIndex & 63)));
+        while (true) {
+            if (word != 0) {
+                int dot = (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+                return dot >= lowerIndex ? dot : NO_DOT;
+            }
+            if (wordIndex << 6 <= lowerIndex) {
+                return NO_DOT;
+            }
+            wordIndex--;
+            word = getDotWord(wordIndex);
+        }
+    }
+
+    private void checkCell(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= levelHeight) {
+            throw new IndexOutOfBoundsException("rowIndex out of bounds!");
+        }
+        if (columnIndex < 0 || columnIndex >= levelWidth) {
+            throw new IndexOutOfBoundsException("columnIndex out of bounds!");
+        }
+    }
+
+    private void checkWords(long[] words) {
+        if (words == null || words.length < smallDots.getNumberOfWords()) {
+            throw new IllegalArgumentException("Provided array cannot hold the dots!");
+        }
+    }
+
+    /**
+     * @param wordIndex index of the word
+     * @return cells of the word holding a small or a big dot
+     */
+    private long getDotWord(int wordIndex) {
+        return smallDots.getWord(wordIndex) | bigDots.getWord(wordIndex);
+    }
+}
@@ -1,6 +1,5 @@
 package javacourse.pacman.model.model;
 
-import javacourse.pacman.model.level.LevelCellComponent;
 import javacourse.pacman.model.level.LevelLayout;
 
 /**
@@ -33,6 +32,16 @@ public abstract class Sprite {
      */
     private final LevelLayout levelLayout;
 
+    /**
+     * Row the sprite was located in when rememberPosition() was last called
+     */
+    private int previousRowIndex;
+
+    /**
+     * Column the sprite was located in when rememberPosition() was last called
+     */
+    private int previousColumnIndex;
+
     /**
      * MovementDirection variable denoting the direction sprite is currently moving
      * in
@@ -42,7 +51,7 @@ public abstract class Sprite {
     /**
      * There are 5 game updates per second
      */
-    static final long MILLISECONDS_PER_GAME_UPDATE = 200L;
+    public static final long MILLISECONDS_PER_GAME_UPDATE = 200L;
 
     /**
      * Constructor for Sprite class
@@ -62,14 +71,31 @@ public abstract class Sprite {
         this.spriteName = name;
         this.rowIndex = startingRowIndex;
         this.columnIndex = startingColumnIndex;
+        this.previousRowIndex = startingRowIndex;
+        this.previousColumnIndex = startingColumnIndex;
         this.levelLayout = levelLayout;
     }
 
     /**
-     * Method that is invoked by the model prior to making the game move
+     * Method that advances the timers of a sprite used on its own, once per game
+     * update prior to making the move. The timers of the sprites of a PacManModel
+     * are driven by the event scheduler of the model instead, which doesn't call
+     * this method.
      */
     public abstract void preMovementUpdate();
 
+    /**
+     * Helper method that converts the duration of a timer into the number of game
+     * updates after which it expires, i.e. the first game update that leaves no
+     * time on the timer
+     *
+     * @param timeMs duration of the timer, in milliseconds
+     * @return number of game updates, at least one
+     */
+    static long getNumberOfGameUpdates(long timeMs) {
+        return Math.max(1L, (timeMs + MILLISECONDS_PER_GAME_UPDATE - 1) / MILLISECONDS_PER_GAME_UPDATE);
+    }
+
     /**
      * Getter method for the sprite name
      *
@@ -97,6 +123,35 @@ public abstract class Sprite {
         return columnIndex;
     }
 
+    /**
+     * Getter method for the row index the sprite had at the start of the latest
+     * game update
+     *
+     * @return row sprite was located in before the latest game update
+     */
+    public int getPreviousRowIndex() {
+        return previousRowIndex;
+    }
+
+    /**
+     * Getter method for the column index the sprite had at the start of the latest
+     * game update
+     *
+     * @return column sprite was located in before the latest game update
+     */
+    public int getPreviousColumnIndex() {
+        return previousColumnIndex;
+    }
+
+    /**
+     * Method that is invoked by the model at the start of every game update, so
+     * that views can interpolate between the previous and the current position
+     */
+    public void rememberPosition() {
+        previousRowIndex = rowIndex;
+        previousColumnIndex = columnIndex;
+    }
+
     /**
      * Getter method for the current direction
      *
@@ -155,7 +210,7 @@ public abstract class Sprite {
         default:
             break;
         }
-        if (!levelLayout.getComponent(wrappedRow, wrappedColumn).equals(LevelCellComponent.WALL)) {
+        if (!levelLayout.isWall(wrappedRow, wrappedColumn)) {
             rowIndex = wrappedRow;
             columnIndex = wrappedColumn;
         }
@@ -169,6 +224,40 @@ public abstract class Sprite {
         move(direction);
     }
 
+    /**
+     * Method that puts the sprite back to the given position as if it was just
+     * created there, with no previous movement
+     *
+     * @param rowIndex    first coordinate of the position
+     * @param columnIndex second coordinate of the position
+     * @throws IllegalArgumentException if given position is out of level bounds
+     */
+    void resetPosition(int rowIndex, int columnIndex) {
+        setPosition(rowIndex, columnIndex);
+        previousRowIndex = rowIndex;
+        previousColumnIndex = columnIndex;
+        direction = null;
+    }
+
+    /**
+     * Method that puts the sprite back to a position it had before, e.g. when a
+     * snapshot of the game is restored
+     *
+     * @param rowIndex            first coordinate of the position
+     * @param columnIndex         second coordinate of the position
+     * @param previousRowIndex    first coordinate of the previous position
+     * @param previousColumnIndex second coordinate of the previous position
+     * @param direction           direction the sprite was moving in, may be null
+     * @throws IllegalArgumentException if given position is out of level bounds
+     */
+    void restorePosition(int rowIndex, int columnIndex, int previousRowIndex, int previousColumnIndex,
+            MovementDirection direction) {
+        setPosition(rowIndex, columnIndex);
+        this.previousRowIndex = previousRowIndex;
+        this.previousColumnIndex = previousColumnIndex;
+        this.direction = direction;
+    }
+
     /**
      * Setter method for the position of the sprite
      *
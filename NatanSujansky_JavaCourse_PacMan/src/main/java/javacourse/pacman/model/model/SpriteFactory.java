@@ -1,5 +1,7 @@
 package javacourse.pacman.model.model;
 
+import java.util.SplittableRandom;
+
 import javacourse.pacman.model.level.LevelLayout;
 
 /**
@@ -45,4 +47,23 @@ public class SpriteFactory {
         return new GhostSprite(name, deathTimeMs, startingRowIndex, startingColumnIndex, levelLayout);
     }
 
+    /**
+     * Static method used for the creation of new GhostSprite objects with a
+     * provided random generator
+     *
+     * @param name                name of the GhostSprite
+     * @param deathTimeMs         amount of time ghost can be dead/inactive after
+     *                            being eaten by Pac-Man (in milliseconds)
+     * @param startingRowIndex    first coordinate of the starting position
+     * @param startingColumnIndex second coordinate of the starting position
+     * @param levelLayout         LevelLayout object that describes the level where
+     *                            ghost sprite will exist
+     * @param random              random generator used only by the created ghost
+     * @return GhostSprite object
+     */
+    public static GhostSprite createGhost(String name, int deathTimeMs, int startingRowIndex, int startingColumnIndex,
+            LevelLayout levelLayout, SplittableRandom random) {
+        return new GhostSprite(name, deathTimeMs, startingRowIndex, startingColumnIndex, levelLayout, random);
+    }
+
 }
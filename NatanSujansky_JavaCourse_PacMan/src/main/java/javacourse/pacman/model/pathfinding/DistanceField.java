@@ -0,0 +1,223 @@
+package javacourse.pacman.model.pathfinding;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+
+/**
+ * Class that holds the breadth-first search distances of the level cells from
+ * a target cell. Distances are measured in moves on the wrapped level grid, so
+ * the cells on opposite level borders are neighbours.
+ *
+ * The field is a cache: it is only recomputed when the target cell changes, and
+ * a single field can be queried by any number of sprites in O(1) per query. The
+ * search stops at the maximum distance given on construction, so each
+ * recomputation only visits the cells within that distance, regardless of the
+ * level size.
+ *
+ * @author Natan
+ *
+ */
+public final class DistanceField {
+
+    private static final MovementDirection[] DIRECTIONS = { MovementDirection.UP, MovementDirection.DOWN,
+            MovementDirection.LEFT, MovementDirection.RIGHT };
+
+    private final LevelLayout levelLayout;
+
+    private final int levelHeight;
+
+    private final int levelWidth;
+
+    /**
+     * Cells farther from the target than this are treated as unreachable
+     */
+    private final int maxDistance;
+
+    /**
+     * Distance of every cell from the target, valid only where the cell's stamp
+     * equals the current stamp
+     */
+    private final int[] distances;
+
+    /**
+     * Number of the search that last reached each cell. Bumping the current stamp
+     * invalidates the whole field without clearing it.
+     */
+    private final int[] stamps;
+
+    /**
+     * Queue of packed cell indices (row * width + column) used by the search
+     */
+    private final int[] queue;
+
+    private int currentStamp;
+
+    private int targetRowIndex = -1;
+
+    private int targetColumnIndex = -1;
+
+    /**
+     * Constructor for DistanceField class. The field has no target until
+     * setTarget() is called.
+     *
+     * @param levelLayout level the distances are measured in
+     * @param maxDistance largest distance the search is carried out to
+     * @throws IllegalArgumentException if maxDistance is negative
+     */
+    public DistanceField(LevelLayout levelLayout, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Maximum distance cannot be negative!");
+        }
+        this.levelLayout = levelLayout;
+        this.levelHeight = levelLayout.getLevelHeight();
+        this.levelWidth = levelLayout.getLevelWidth();
+        this.maxDistance = maxDistance;
+        this.distances = new int[levelHeight * levelWidth];
+        this.stamps = new int[levelHeight * levelWidth];
+        this.queue = new int[levelHeight * levelWidth];
+    }
+
+    /**
+     * @return level the distances are measured in
+     */
+    public LevelLayout getLevelLayout() {
+        return levelLayout;
+    }
+
+    /**
+     * Method that moves the target of the field. The distances are recomputed only
+     * if the target cell differs from the current one.
+     *
+     * @param rowIndex    first coordinate of the target cell
+     * @param columnIndex second coordinate of the target cell
+     * @return true if the distances have been recomputed, false otherwise
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level layout
+     */
+    public boolean setTarget(int rowIndex, int columnIndex) {
+        checkBounds(rowIndex, columnIndex);
+        if (rowIndex == targetRowIndex && columnIndex == targetColumnIndex) {
+            return false;
+        }
+        targetRowIndex = rowIndex;
+        targetColumnIndex = columnIndex;
+        search();
+        return true;
+    }
+
+    /**
+     * Method used for fetching the distance of the given cell from the target
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return number of moves between the cell and the target, or -1 if the target
+     *         is unreachable or farther than the maximum distance
+     * @throws IllegalStateException     in case the target hasn't been set yet
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level layout
+     */
+    public int getDistance(int rowIndex, int columnIndex) {
+        checkBounds(rowIndex, columnIndex);
+        if (currentStamp == 0) {
+            throw new IllegalStateException("Distance field target hasn't been set yet!");
+        }
+        int cellIndex = rowIndex * levelWidth + columnIndex;
+        return stamps[cellIndex] == currentStamp ? distances[cellIndex] : -1;
+    }
+
+    /**
+     * Method that returns the first move of a shortest path from the given cell to
+     * the target. When several moves are equally short, the first one in the
+     * MovementDirection declaration order is returned.
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     * @return MovementDirection enum value, or NONE if the cell is the target or
+     *         the target is not within the maximum distance
+     * @throws IllegalStateException     in case the target hasn't been set yet
+     * @throws IndexOutOfBoundsException in case given index is out of bounds of the
+     *                                   level layout
+     */
+    public MovementDirection getDirectionTowardsTarget(int rowIndex, int columnIndex) {
+        int distance = getDistance(rowIndex, columnIndex);
+        if (distance <= 0) {
+            return MovementDirection.NONE;
+        }
+        int exitMask = levelLayout.getExitMask(rowIndex, columnIndex);
+        for (MovementDirection direction : DIRECTIONS) {
+            if ((exitMask & direction.getMask()) != 0) {
+                int neighbourIndex = getNeighbourIndex(rowIndex * levelWidth + columnIndex, direction);
+                if (stamps[neighbourIndex] == currentStamp && distances[neighbourIndex] == distance - 1) {
+                    return direction;
+                }
+            }
+        }
+        return MovementDirection.NONE;
+    }
+
+    /**
+     * Helper method that runs the breadth-first search from the current target
+     */
+    private void search() {
+        currentStamp++;
+        int targetIndex = targetRowIndex * levelWidth + targetColumnIndex;
+        stamps[targetIndex] = currentStamp;
+        distances[targetIndex] = 0;
+        queue[0] = targetIndex;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int cellIndex = queue[head++];
+            int distance = distances[cellIndex];
+            if (distance == maxDistance) {
+                continue;
+            }
+            int exitMask = levelLayout.getExitMask(cellIndex / levelWidth, cellIndex % levelWidth);
+            for (MovementDirection direction : DIRECTIONS) {
+                if ((exitMask & direction.getMask()) != 0) {
+                    int neighbourIndex = getNeighbourIndex(cellIndex, direction);
+                    if (stamps[neighbourIndex] != currentStamp) {
+                        stamps[neighbourIndex] = currentStamp;
+                        distances[neighbourIndex] = distance + 1;
+                        queue[tail++] = neighbourIndex;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method that returns the packed index of the neighbouring cell in the
+     * given direction, wrapped around the level borders
+     */
+    private int getNeighbourIndex(int cellIndex, MovementDirection direction) {
+        int rowIndex = cellIndex / levelWidth;
+        int columnIndex = cellIndex % levelWidth;
+        switch (direction) {
+        case UP:
+            rowIndex = rowIndex == 0 ? levelHeight - 1 : rowIndex - 1;
+            break;
+        case DOWN:
+            rowIndex = rowIndex == levelHeight - 1 ? 0 : rowIndex + 1;
+            break;
+        case LEFT:
+            columnIndex = columnIndex == 0 ? levelWidth - 1 : columnIndex - 1;
+            break;
+        case RIGHT:
+            columnIndex = columnIndex == levelWidth - 1 ? 0 : columnIndex + 1;
+            break;
+        default:
+            break;
+        }
+        return rowIndex * levelWidth + columnIndex;
+    }
+
+    private void checkBounds(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= levelHeight) {
+            throw new IndexOutOfBoundsException("rowIndex out of bounds!");
+        }
+        if (columnIndex < 0 || columnIndex >= levelWidth) {
+            throw new IndexOutOfBoundsException("columnIndex out of bounds!");
+        }
+    }
+}
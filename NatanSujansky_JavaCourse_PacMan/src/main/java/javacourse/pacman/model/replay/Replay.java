@@ -0,0 +1,327 @@
+package javacourse.pacman.model.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+
+/**
+ * Class that describes a recorded game: the level, the seed of the model and
+ * the input passed to PacManModel.updateGameStatus() in every game update.
+ * Given the same level, a model initialized with the seed replays the game
+ * exactly.
+ *
+ * The inputs are stored as runs of equal inputs. Every input fits into 3 bits,
+ * a MovementDirection ordinal or NO_INPUT for null, and a run is written as a
+ * single variable-length integer holding the run length above the input bits,
+ * so a player holding a direction for a second costs a single byte.
+ *
+ * A replay file starts with a header: magic number, format version, seed,
+ * level name, level height, level width, level fingerprint, number of game
+ * updates and number of runs. The header is followed by the runs.
+ *
+ * @author Natan
+ *
+ */
+public final class Replay {
+
+    /**
+     * Magic number of replay files, "PMRP" in ASCII
+     */
+    private static final int MAGIC_NUMBER = 0x504D5250;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Number of bits of an input within a run
+     */
+    static final int INPUT_BITS = 3;
+
+    /**
+     * Input code of the game updates in which null was passed as the direction
+     */
+    static final int NO_INPUT = 7;
+
+    private static final MovementDirection[] DIRECTIONS = MovementDirection.values();
+
+    private final String levelName;
+
+    private final int levelHeight;
+
+    private final int levelWidth;
+
+    private final int levelFingerprint;
+
+    private final long seed;
+
+    /**
+     * Number of game updates recorded before the end of every run
+     */
+    private final int[] runEnds;
+
+    /**
+     * Input code of every run
+     */
+    private final byte[] runInputs;
+
+    /**
+     * Constructor for Replay class
+     *
+     * @param levelName        name of the level
+     * @param levelHeight      height of the level
+     * @param levelWidth       width of the level
+     * @param levelFingerprint fingerprint of the level cells
+     * @param seed             seed of the model
+     * @param runEnds          number of game updates before the end of every run,
+     *                         which is not copied
+     * @param runInputs        input code of every run, which is not copied
+     */
+    Replay(String levelName, int levelHeight, int levelWidth, int levelFingerprint, long seed, int[] runEnds,
+            byte[] runInputs) {
+        this.levelName = levelName;
+        this.levelHeight = levelHeight;
+        this.levelWidth = levelWidth;
+        this.levelFingerprint = levelFingerprint;
+        this.seed = seed;
+        this.runEnds = runEnds;
+        this.runInputs = runInputs;
+    }
+
+    /**
+     * Getter method for the name of the level the game was played on
+     *
+     * @return level name
+     */
+    public String getLevelName() {
+        return levelName;
+    }
+
+    /**
+     * Getter method for the seed the model was initialized with
+     *
+     * @return seed of the game
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter method for the number of recorded game updates
+     *
+     * @return number of game updates
+     */
+    public int getNumberOfTicks() {
+        return runEnds.length == 0 ? 0 : runEnds[runEnds.length - 1];
+    }
+
+    /**
+     * Getter method for the number of runs of equal inputs
+     *
+     * @return number of runs
+     */
+    public int getNumberOfRuns() {
+        return runEnds.length;
+    }
+
+    /**
+     * Method that provides the input of the given game update
+     *
+     * @param tick index of the game update
+     * @return direction passed to the model in that game update, may be null
+     * @throws IndexOutOfBoundsException in case the game update wasn't recorded
+     */
+    public MovementDirection getInput(int tick) {
+        if (tick < 0 || tick >= getNumberOfTicks()) {
+            throw new IndexOutOfBoundsException("tick out of bounds!");
+        }
+        return getRunInput(findRun(tick));
+    }
+
+    /**
+     * Method that finds the run of the given game update by a binary search, used
+     * for positioning a sequential reader of the runs
+     *
+     * @param tick index of the game update
+     * @return index of the run holding the game update, or the number of runs if
+     *         the game update wasn't recorded
+     */
+    int findRun(int tick) {
+        int runIndex = Arrays.binarySearch(runEnds, tick + 1);
+        return runIndex < 0 ? -runIndex - 1 : runIndex;
+    }
+
+    /**
+     * Getter method for the end of a run of equal inputs, used for playing the
+     * inputs run by run instead of looking up every game update
+     *
+     * @param runIndex index of the run
+     * @return number of game updates recorded before the end of the run
+     */
+    public int getRunEnd(int runIndex) {
+        return runEnds[runIndex];
+    }
+
+    /**
+     * Getter method for the input of a run of equal inputs
+     *
+     * @param runIndex index of the run
+     * @return direction passed to the model in the game updates of the run, may
+     *         be null
+     */
+    public MovementDirection getRunInput(int runIndex) {
+        return decodeInput(runInputs[runIndex]);
+    }
+
+    /**
+     * Method that checks whether the game was recorded on the given level
+     *
+     * @param levelLayout level to check
+     * @return true if the level has the same dimensions and cells as the recorded
+     *         one, false otherwise
+     */
+    public boolean isRecordedOn(LevelLayout levelLayout) {
+        return levelLayout.getLevelHeight() == levelHeight && levelLayout.getLevelWidth() == levelWidth
+                && getFingerprint(levelLayout) == levelFingerprint;
+    }
+
+    /**
+     * Method that writes the replay in the replay file format
+     *
+     * @param outputStream stream the replay is written to, it is not closed
+     * @throws IOException in case there is an I/O error during writing
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream dataStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+        dataStream.writeInt(MAGIC_NUMBER);
+        dataStream.writeInt(FORMAT_VERSION);
+        dataStream.writeLong(seed);
+        dataStream.writeUTF(levelName);
+        dataStream.writeInt(levelHeight);
+        dataStream.writeInt(levelWidth);
+        dataStream.writeInt(levelFingerprint);
+        dataStream.writeInt(getNumberOfTicks());
+        dataStream.writeInt(runEnds.length);
+        int runStart = 0;
+        for (int i = 0; i < runEnds.length; i++) {
+            long run = ((long) (runEnds[i] - runStart) << INPUT_BITS) | runInputs[i];
+            while ((run & ~0x7FL) != 0) {
+                dataStream.writeByte((int) (run & 0x7F) | 0x80);
+                run >>>= 7;
+            }
+            dataStream.writeByte((int) run);
+            runStart = runEnds[i];
+        }
+        dataStream.flush();
+    }
+
+    /**
+     * Method that reads a replay in the replay file format
+     *
+     * @param inputStream stream the replay is read from, it is not closed
+     * @return replay read from the stream
+     * @throws IOException              in case there is an I/O error during reading
+     * @throws IllegalArgumentException in case the stream does not hold a valid
+     *                                  replay
+     */
+    public static Replay readFrom(InputStream inputStream) throws IOException {
+        DataInputStream dataStream = new DataInputStream(new BufferedInputStream(inputStream));
+        try {
+            if (dataStream.readInt() != MAGIC_NUMBER) {
+                throw new IllegalArgumentException("Not a replay file!");
+            }
+            if (dataStream.readInt() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported replay version!");
+            }
+            long seed = dataStream.readLong();
+            String levelName = dataStream.readUTF();
+            int levelHeight = dataStream.readInt();
+            int levelWidth = dataStream.readInt();
+            int levelFingerprint = dataStream.readInt();
+            int numOfTicks = dataStream.readInt();
+            int numOfRuns = dataStream.readInt();
+            if (numOfTicks < 0 || numOfRuns < 0 || numOfRuns > numOfTicks) {
+                throw new IllegalArgumentException("Replay header is invalid!");
+            }
+            int[] runEnds = new int[numOfRuns];
+            byte[] runInputs = new byte[numOfRuns];
+            long runEnd = 0;
+            for (int i = 0; i < numOfRuns; i++) {
+                long run = readVarLong(dataStream);
+                int input = (int) (run & ((1 << INPUT_BITS) - 1));
+                long runLength = run >>> INPUT_BITS;
+                if ((input >= DIRECTIONS.length && input != NO_INPUT) || runLength == 0) {
+                    throw new IllegalArgumentException("Replay run is invalid!");
+                }
+                runEnd += runLength;
+                if (runEnd > numOfTicks) {
+                    throw new IllegalArgumentException("Replay runs do not match its header!");
+                }
+                runEnds[i] = (int) runEnd;
+                runInputs[i] = (byte) input;
+            }
+            if (runEnd != numOfTicks) {
+                throw new IllegalArgumentException("Replay runs do not match its header!");
+            }
+            return new Replay(levelName, levelHeight, levelWidth, levelFingerprint, seed, runEnds, runInputs);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Replay file is truncated!", e);
+        }
+    }
+
+    /**
+     * Helper method that computes a fingerprint of the cells of a level, used for
+     * detecting replays played on a different level
+     *
+     * @param levelLayout level whose fingerprint is computed
+     * @return hash of the level cells
+     */
+    static int getFingerprint(LevelLayout levelLayout) {
+        int fingerprint = 1;
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                fingerprint = 31 * fingerprint + levelLayout.getComponent(i, j).ordinal();
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Helper method that converts a direction into its input code
+     *
+     * @param direction direction passed to the model, may be null
+     * @return input code of the direction
+     */
+    static int encodeInput(MovementDirection direction) {
+        return direction == null ? NO_INPUT : direction.ordinal();
+    }
+
+    /**
+     * Helper method that converts an input code back into a direction
+     *
+     * @param input input code
+     * @return direction passed to the model, may be null
+     */
+    static MovementDirection decodeInput(int input) {
+        return input == NO_INPUT ? null : DIRECTIONS[input];
+    }
+
+    private static long readVarLong(DataInputStream dataStream) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = dataStream.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Replay run is invalid!");
+    }
+}
@@ -0,0 +1,170 @@
+package javacourse.pacman.model.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.GhostStorage;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Class that plays a replay without a view, as fast as the model can be
+ * updated. While playing, a snapshot of the model is kept every keyframe
+ * interval game updates, so seeking to an already played game update restores
+ * the closest earlier keyframe and re-simulates at most one interval.
+ *
+ * @author Natan
+ *
+ */
+public final class ReplayPlayer {
+
+    private final Replay replay;
+
+    private final PacManModel model;
+
+    private final int keyframeInterval;
+
+    /**
+     * Snapshots of the model taken before game updates 0, keyframeInterval, 2 *
+     * keyframeInterval, ... as far as the replay has been played
+     */
+    private final List<PacManModel.Snapshot> keyframes;
+
+    private int tick;
+
+    /**
+     * Index of the run of equal inputs holding the next game update, advanced as
+     * the replay is played so that the runs are only searched on seeking
+     */
+    private int runIndex;
+
+    /**
+     * Constructor for ReplayPlayer class. The model is positioned before the first
+     * game update.
+     *
+     * @param replay           replay that is played
+     * @param levelLayout      level the replay was recorded on
+     * @param keyframeInterval number of game updates between two keyframes
+     * @throws IllegalArgumentException in case the replay was recorded on a
+     *                                  different level or the interval is not
+     *                                  positive
+     */
+    public ReplayPlayer(Replay replay, LevelLayout levelLayout, int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive!");
+        }
+        if (!replay.isRecordedOn(levelLayout)) {
+            throw new IllegalArgumentException("Replay was recorded on a different level!");
+        }
+        this.replay = replay;
+        this.keyframeInterval = keyframeInterval;
+        this.model = new PacManModel(GhostStorage.ARRAYS);
+        this.keyframes = new ArrayList<>();
+        model.initializeNewGame(levelLayout, replay.getSeed());
+        keyframes.add(model.snapshot());
+    }
+
+    /**
+     * Getter method for the model the replay is played in. The model must not be
+     * updated by the caller.
+     *
+     * @return model of the replayed game
+     */
+    public PacManModel getModel() {
+        return model;
+    }
+
+    /**
+     * Getter method for the number of game updates played so far
+     *
+     * @return index of the next game update
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Method that plays the next game update of the replay
+     *
+     * @return true if a game update was played, false if the replay has ended
+     */
+    public boolean step() {
+        if (tick == replay.getNumberOfTicks()) {
+            return false;
+        }
+        if (tick == replay.getRunEnd(runIndex)) {
+            runIndex++;
+        }
+        model.updateGameStatus(replay.getRunInput(runIndex));
+        tick++;
+        if (tick % keyframeInterval == 0 && tick / keyframeInterval == keyframes.size()) {
+            keyframes.add(model.snapshot());
+        }
+        return true;
+    }
+
+    /**
+     * Method that plays the rest of the replay
+     */
+    public void playToEnd() {
+        while (step()) {
+            // keep playing
+        }
+    }
+
+    /**
+     * Method that positions the model before the given game update
+     *
+     * @param targetTick number of game updates played after seeking
+     * @throws IndexOutOfBoundsException in case the replay doesn't have that many
+     *                                   game updates
+     */
+    public void seek(int targetTick) {
+        if (targetTick < 0 || targetTick > replay.getNumberOfTicks()) {
+            throw new IndexOutOfBoundsException("targetTick out of bounds!");
+        }
+        int keyframeIndex = Math.min(targetTick / keyframeInterval, keyframes.size() - 1);
+        if (targetTick < tick || keyframeIndex * keyframeInterval > tick) {
+            model.restore(keyframes.get(keyframeIndex));
+            tick = keyframeIndex * keyframeInterval;
+            runIndex = replay.findRun(tick);
+        }
+        while (tick < targetTick) {
+            step();
+        }
+    }
+
+    /**
+     * Command line entry point that plays a replay and prints its outcome. Usage:
+     * ReplayPlayer &lt;level.txt&gt; &lt;replay file&gt;
+     *
+     * @param args path to the level the replay was recorded on and path to the
+     *             replay file
+     * @throws IOException in case there is an I/O error during reading
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ReplayPlayer <level.txt> <replay file>");
+            System.exit(1);
+        }
+        LevelLayout levelLayout;
+        try (InputStream inputStream = Files.newInputStream(Paths.get(args[0]))) {
+            levelLayout = new LevelLayout(Paths.get(args[0]).getFileName().toString(), inputStream);
+        }
+        Replay replay;
+        try (InputStream inputStream = Files.newInputStream(Paths.get(args[1]))) {
+            replay = Replay.readFrom(inputStream);
+        }
+        long startNanos = System.nanoTime();
+        ReplayPlayer player = new ReplayPlayer(replay, levelLayout, Integer.MAX_VALUE);
+        player.playToEnd();
+        PacManModel model = player.getModel();
+        System.out.println("Replayed " + player.getTick() + " game updates of " + replay.getLevelName() + " in "
+                + (System.nanoTime() - startNanos) / 1_000_000 + " ms: score " + model.getGameScore() + ", "
+                + (!model.isGameOver() ? "unfinished" : model.isPlayerVictorious() ? "won" : "lost"));
+    }
+}
@@ -0,0 +1,96 @@
+package javacourse.pacman.model.replay;
+
+import java.util.Arrays;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Class that records the inputs of a game as runs of equal inputs. Recording an
+ * input only extends the current run or starts a new one, so it is cheap enough
+ * to be done in every game update.
+ *
+ * @author Natan
+ *
+ */
+public final class ReplayRecorder {
+
+    private final LevelLayout levelLayout;
+
+    private final long seed;
+
+    private int[] runEnds;
+
+    private byte[] runInputs;
+
+    private int numOfRuns;
+
+    private int numOfTicks;
+
+    /**
+     * Constructor for ReplayRecorder class that records the game the given model
+     * has just started
+     *
+     * @param model model whose game is recorded
+     * @throws IllegalStateException in case there hasn't been a level layout
+     *                               provided to the model yet
+     */
+    public ReplayRecorder(PacManModel model) {
+        this(model.getLevelLayout(), model.getSeed());
+    }
+
+    /**
+     * Constructor for ReplayRecorder class
+     *
+     * @param levelLayout level the game is played on
+     * @param seed        seed the model has been initialized with
+     */
+    public ReplayRecorder(LevelLayout levelLayout, long seed) {
+        this.levelLayout = levelLayout;
+        this.seed = seed;
+        this.runEnds = new int[16];
+        this.runInputs = new byte[16];
+    }
+
+    /**
+     * Method used for recording the input of a game update. It has to be called
+     * once for every call of PacManModel.updateGameStatus().
+     *
+     * @param direction direction passed to the model, may be null
+     */
+    public void record(MovementDirection direction) {
+        int input = Replay.encodeInput(direction);
+        if (numOfRuns > 0 && runInputs[numOfRuns - 1] == input) {
+            runEnds[numOfRuns - 1] = ++numOfTicks;
+            return;
+        }
+        if (numOfRuns == runEnds.length) {
+            runEnds = Arrays.copyOf(runEnds, numOfRuns * 2);
+            runInputs = Arrays.copyOf(runInputs, numOfRuns * 2);
+        }
+        runInputs[numOfRuns] = (byte) input;
+        runEnds[numOfRuns++] = ++numOfTicks;
+    }
+
+    /**
+     * Getter method for the number of recorded game updates
+     *
+     * @return number of game updates
+     */
+    public int getNumberOfTicks() {
+        return numOfTicks;
+    }
+
+    /**
+     * Method that creates a replay of the inputs recorded so far. Recording can
+     * continue afterwards without affecting the created replay.
+     *
+     * @return replay of the recorded game
+     */
+    public Replay toReplay() {
+        return new Replay(levelLayout.getLevelName(), levelLayout.getLevelHeight(), levelLayout.getLevelWidth(),
+                Replay.getFingerprint(levelLayout), seed, Arrays.copyOf(runEnds, numOfRuns),
+                Arrays.copyOf(runInputs, numOfRuns));
+    }
+}
@@ -0,0 +1,473 @@
+package javacourse.pacman.model.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.GhostStorage;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Agent that chooses Pac-Man's direction by Monte Carlo tree search. Every
+ * decision takes a snapshot of the game and lets each worker thread search its
+ * own tree from that snapshot until the time budget runs out (root
+ * parallelization). The visit counts of the first moves are then summed over
+ * all workers and the most visited move is chosen.
+ *
+ * Each worker owns a model it restores the snapshot into before every rollout,
+ * so cloning the game costs no more than the dot chunks changed by the rollout.
+ * The trees are kept in primitive arrays that are reused across decisions.
+ *
+ * @author Natan
+ *
+ */
+public class MctsPacManAgent implements PacManAgent, AutoCloseable {
+
+    /**
+     * Directions Pac-Man can be moved in, indexed by their MovementDirection
+     * ordinal
+     */
+    private static final MovementDirection[] DIRECTIONS = { MovementDirection.UP, MovementDirection.DOWN,
+            MovementDirection.LEFT, MovementDirection.RIGHT };
+
+    /**
+     * Exploration constant of the UCB1 formula
+     */
+    private static final double EXPLORATION = 1.4;
+
+    /**
+     * Probability that a rollout turns Pac-Man in a random direction although it
+     * could keep moving
+     */
+    private static final double TURN_PROBABILITY = 0.125;
+
+    /**
+     * Score gain at which the reward of a rollout Pac-Man survives is 0.75
+     */
+    private static final double SCORE_SCALE = 100.0;
+
+    private final ExecutorService pool;
+
+    private final Worker[] workers;
+
+    private final long timeBudgetNanos;
+
+    /**
+     * Flag denoting whether a decision is being searched for
+     */
+    private final AtomicBoolean isSearching;
+
+    private final LongAdder totalRollouts;
+
+    private final LongAdder totalSearchNanos;
+
+    private volatile long lastRollouts;
+
+    /**
+     * Constructor for MctsPacManAgent class that searches until the time budget
+     * runs out
+     *
+     * @param parallelism      number of worker threads
+     * @param timeBudgetMillis time a decision is searched for, in milliseconds
+     * @param rolloutDepth     number of game updates simulated by a rollout
+     * @param seed             seed of the random generators of the workers
+     * @throws IllegalArgumentException if parallelism, time budget or rollout
+     *                                  depth is not positive
+     */
+    public MctsPacManAgent(int parallelism, long timeBudgetMillis, int rolloutDepth, long seed) {
+        this(parallelism, timeBudgetMillis, rolloutDepth, Integer.MAX_VALUE, seed);
+    }
+
+    /**
+     * Constructor for MctsPacManAgent class. A decision is searched for until the
+     * time budget runs out or every worker has performed the given number of
+     * rollouts. A single worker limited by the number of rollouts makes the same
+     * decisions for the same seed.
+     *
+     * @param parallelism          number of worker threads
+     * @param timeBudgetMillis     time a decision is searched for, in milliseconds
+     * @param rolloutDepth         number of game updates simulated by a rollout
+     * @param maxRolloutsPerWorker largest number of rollouts of a worker per
+     *                             decision
+     * @param seed                 seed of the random generators of the workers
+     * @throws IllegalArgumentException if any of the numbers is not positive
+     */
+    public MctsPacManAgent(int parallelism, long timeBudgetMillis, int rolloutDepth, int maxRolloutsPerWorker,
+            long seed) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive!");
+        }
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive!");
+        }
+        if (rolloutDepth <= 0) {
+            throw new IllegalArgumentException("Rollout depth must be positive!");
+        }
+        if (maxRolloutsPerWorker <= 0) {
+            throw new IllegalArgumentException("Number of rollouts must be positive!");
+        }
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        this.isSearching = new AtomicBoolean();
+        this.totalRollouts = new LongAdder();
+        this.totalSearchNanos = new LongAdder();
+        SplittableRandom random = new SplittableRandom(seed);
+        workers = new Worker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(rolloutDepth, maxRolloutsPerWorker, random.split().nextLong());
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "MCTS worker " + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method that chooses the direction by searching on the worker threads and
+     * waiting for the result
+     */
+    @Override
+    public MovementDirection chooseDirection(PacManModel model) {
+        return chooseDirectionAsync(model).join();
+    }
+
+    /**
+     * Method that starts searching for the direction Pac-Man should move in during
+     * the next game update. The game is captured before the method returns, so the
+     * model may be updated while the search is running.
+     *
+     * @param model current state of the game
+     * @return future completed with the chosen direction once the time budget runs
+     *         out
+     * @throws IllegalStateException in case the agent has been closed or a
+     *                               decision is already being searched for
+     */
+    public CompletableFuture<MovementDirection> chooseDirectionAsync(PacManModel model) {
+        if (pool.isShutdown()) {
+            throw new IllegalStateException("Autopilot has already been closed!");
+        }
+        if (!isSearching.compareAndSet(false, true)) {
+            throw new IllegalStateException("Autopilot is already searching for a decision!");
+        }
+        PacManModel.Snapshot rootSnapshot = model.snapshot();
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + timeBudgetNanos;
+        CompletableFuture<?>[] searches = new CompletableFuture<?>[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            Worker worker = workers[i];
+            searches[i] = CompletableFuture.runAsync(() -> worker.search(rootSnapshot, deadlineNanos), pool);
+        }
+        return CompletableFuture.allOf(searches).handle((ignored, exception) -> {
+            isSearching.set(false);
+            if (exception != null) {
+                throw new IllegalStateException("Autopilot search failed!", exception);
+            }
+            totalSearchNanos.add(System.nanoTime() - startNanos);
+            return chooseMostVisitedDirection();
+        });
+    }
+
+    /**
+     * Getter method for the rollouts performed by all workers for the latest
+     * decision
+     *
+     * @return number of rollouts of the latest decision
+     */
+    public long getLastRollouts() {
+        return lastRollouts;
+    }
+
+    /**
+     * Getter method for the rollouts performed by all workers since the agent was
+     * created
+     *
+     * @return total number of rollouts
+     */
+    public long getTotalRollouts() {
+        return totalRollouts.sum();
+    }
+
+    /**
+     * Getter method for the search speed
+     *
+     * @return rollouts per second of search time, summed over all workers
+     */
+    public double getRolloutsPerSecond() {
+        long searchNanos = totalSearchNanos.sum();
+        return searchNanos == 0 ? 0.0 : totalRollouts.sum() * 1e9 / searchNanos;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Helper method that sums the root statistics of the workers after a search
+     *
+     * @return most visited direction, or NONE if no rollout has been performed
+     */
+    private MovementDirection chooseMostVisitedDirection() {
+        long rollouts = 0;
+        long[] visits = new long[DIRECTIONS.length];
+        double[] rewards = new double[DIRECTIONS.length];
+        for (Worker worker : workers) {
+            rollouts += worker.rollouts;
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                int child = worker.children[i];
+                if (child != Worker.NO_NODE) {
+                    visits[i] += worker.visits[child];
+                    rewards[i] += worker.rewards[child];
+                }
+            }
+        }
+        lastRollouts = rollouts;
+        totalRollouts.add(rollouts);
+        int bestIndex = -1;
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if (visits[i] > 0 && (bestIndex < 0 || visits[i] > visits[bestIndex]
+                    || (visits[i] == visits[bestIndex] && rewards[i] > rewards[bestIndex]))) {
+                bestIndex = i;
+            }
+        }
+        return bestIndex < 0 ? MovementDirection.NONE : DIRECTIONS[bestIndex];
+    }
+
+    /**
+     * Search state of one worker. A worker is used by one search task at a time,
+     * its fields are published to the deciding thread by the completion of the
+     * task.
+     */
+    private static final class Worker {
+
+        /**
+         * Child index of the moves that haven't been expanded yet. The root is never
+         * a child.
+         */
+        static final int NO_NODE = 0;
+
+        /**
+         * Valid movement mask of the nodes that haven't been visited yet
+         */
+        private static final byte UNKNOWN_MASK = -1;
+
+        private final int rolloutDepth;
+
+        private final int maxRollouts;
+
+        private final PacManModel model;
+
+        /**
+         * Child node of every node and move, at index node * 4 + move
+         */
+        private int[] children;
+
+        private int[] visits;
+
+        private double[] rewards;
+
+        /**
+         * Valid movement mask of Pac-Man in every node
+         */
+        private byte[] validMasks;
+
+        private int numOfNodes;
+
+        /**
+         * Nodes visited by the current rollout, starting with the root
+         */
+        private int[] path;
+
+        private long randomState;
+
+        private long rollouts;
+
+        Worker(int rolloutDepth, int maxRollouts, long seed) {
+            this.rolloutDepth = rolloutDepth;
+            this.maxRollouts = maxRollouts;
+            this.model = new PacManModel(GhostStorage.ARRAYS);
+            this.children = new int[1024 * DIRECTIONS.length];
+            this.visits = new int[1024];
+            this.rewards = new double[1024];
+            this.validMasks = new byte[1024];
+            this.path = new int[64];
+            this.randomState = seed;
+        }
+
+        /**
+         * Method that searches a new tree from the given snapshot until the deadline
+         * or the rollout limit
+         *
+         * @param rootSnapshot  snapshot of the game a decision is made for
+         * @param deadlineNanos System.nanoTime() value at which the search stops
+         */
+        void search(PacManModel.Snapshot rootSnapshot, long deadlineNanos) {
+            numOfNodes = 0;
+            newNode();
+            rollouts = 0;
+            while (rollouts < maxRollouts && System.nanoTime() < deadlineNanos) {
+                model.restore(rootSnapshot);
+                int pathLength = selectAndExpand();
+                double reward = rollout(rootSnapshot.getGameScore());
+                for (int i = 0; i < pathLength; i++) {
+                    visits[path[i]]++;
+                    rewards[path[i]] += reward;
+                }
+                rollouts++;
+            }
+        }
+
+        /**
+         * Helper method that walks down the tree by the UCB1 formula until it
+         * reaches a move that hasn't been expanded, expands it and plays the moves in
+         * the model
+         *
+         * @return length of the path from the root to the expanded node
+         */
+        private int selectAndExpand() {
+            int node = 0;
+            int pathLength = 0;
+            while (true) {
+                if (pathLength == path.length) {
+                    path = Arrays.copyOf(path, pathLength * 2);
+                }
+                path[pathLength++] = node;
+                if (model.isGameOver()) {
+                    return pathLength;
+                }
+                int validMask = getValidMask(node);
+                if (validMask == 0) {
+                    return pathLength;
+                }
+                int move = chooseUnexpandedMove(node, validMask);
+                if (move >= 0) {
+                    int child = newNode();
+                    children[node * DIRECTIONS.length + move] = child;
+                    model.updateGameStatus(DIRECTIONS[move]);
+                    if (pathLength == path.length) {
+                        path = Arrays.copyOf(path, pathLength * 2);
+                    }
+                    path[pathLength++] = child;
+                    return pathLength;
+                }
+                move = chooseUcbMove(node, validMask);
+                model.updateGameStatus(DIRECTIONS[move]);
+                node = children[node * DIRECTIONS.length + move];
+            }
+        }
+
+        /**
+         * Helper method that plays random moves from the current model state and
+         * evaluates the outcome
+         *
+         * @param rootScore score of the game the decision is made for
+         * @return reward between 0 (Pac-Man died) and 1 (Pac-Man won)
+         */
+        private double rollout(long rootScore) {
+            LevelLayout levelLayout = model.getLevelLayout();
+            for (int i = 0; i < rolloutDepth && !model.isGameOver(); i++) {
+                int validMask = levelLayout.getExitMask(model.getPacMan().getRowIndex(),
+                        model.getPacMan().getColumnIndex());
+                MovementDirection direction = model.getPacMan().getMovementDirection();
+                if (direction == null || (validMask & direction.getMask()) == 0
+                        || nextDouble() < TURN_PROBABILITY) {
+                    direction = validMask == 0 ? MovementDirection.NONE
+                            : DIRECTIONS[chooseRandomMove(validMask)];
+                }
+                model.updateGameStatus(direction);
+            }
+            if (model.isGameOver()) {
+                return model.isPlayerVictorious() ? 1.0 : 0.0;
+            }
+            double scoreGain = model.getGameScore() - rootScore;
+            return 0.5 + 0.5 * scoreGain / (scoreGain + SCORE_SCALE);
+        }
+
+        private int getValidMask(int node) {
+            if (validMasks[node] == UNKNOWN_MASK) {
+                validMasks[node] = (byte) model.getLevelLayout().getExitMask(model.getPacMan().getRowIndex(),
+                        model.getPacMan().getColumnIndex());
+            }
+            return validMasks[node];
+        }
+
+        /**
+         * @return random valid move whose child hasn't been expanded, or -1 if all
+         *         valid moves have been expanded
+         */
+        private int chooseUnexpandedMove(int node, int validMask) {
+            int unexpandedMask = 0;
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                if ((validMask & (1 << i)) != 0 && children[node * DIRECTIONS.length + i] == NO_NODE) {
+                    unexpandedMask |= 1 << i;
+                }
+            }
+            return unexpandedMask == 0 ? -1 : chooseRandomMove(unexpandedMask);
+        }
+
+        private int chooseUcbMove(int node, int validMask) {
+            double logVisits = Math.log(visits[node]);
+            int bestMove = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                if ((validMask & (1 << i)) != 0) {
+                    int child = children[node * DIRECTIONS.length + i];
+                    double value = rewards[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                    if (value > bestValue) {
+                        bestValue = value;
+                        bestMove = i;
+                    }
+                }
+            }
+            return bestMove;
+        }
+
+        /**
+         * @return index of a random set bit of the mask, which must not be empty
+         */
+        private int chooseRandomMove(int mask) {
+            int remainingMask = mask;
+            for (int i = (int) (nextDouble() * Integer.bitCount(mask)); i > 0; i--) {
+                remainingMask &= remainingMask - 1;
+            }
+            return Integer.numberOfTrailingZeros(remainingMask);
+        }
+
+        private int newNode() {
+            if (numOfNodes == visits.length) {
+                int capacity = numOfNodes * 2;
+                children = Arrays.copyOf(children, capacity * DIRECTIONS.length);
+                visits = Arrays.copyOf(visits, capacity);
+                rewards = Arrays.copyOf(rewards, capacity);
+                validMasks = Arrays.copyOf(validMasks, capacity);
+            }
+            int node = numOfNodes++;
+            Arrays.fill(children, node * DIRECTIONS.length, (node + 1) * DIRECTIONS.length, NO_NODE);
+            visits[node] = 0;
+            rewards[node] = 0.0;
+            validMasks[node] = UNKNOWN_MASK;
+            return node;
+        }
+
+        /**
+         * @return random value between 0 inclusive and 1 exclusive, from a SplitMix
+         *         generator kept in a single long
+         */
+        private double nextDouble() {
+            long z = (randomState += 0x9e3779b97f4a7c15L);
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return ((z ^ (z >>> 31)) >>> 11) * 0x1.0p-53;
+        }
+
+    }
+}
@@ -0,0 +1,24 @@
+package javacourse.pacman.model.simulation;
+
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Interface used for controlling Pac-Man without a player, e.g. in headless
+ * simulations
+ *
+ * @author Natan
+ *
+ */
+@FunctionalInterface
+public interface PacManAgent {
+
+    /**
+     * Method that chooses the direction Pac-Man should move in during the next
+     * game update
+     *
+     * @param model current state of the game
+     * @return MovementDirection value passed to PacManModel.updateGameStatus
+     */
+    MovementDirection chooseDirection(PacManModel model);
+}
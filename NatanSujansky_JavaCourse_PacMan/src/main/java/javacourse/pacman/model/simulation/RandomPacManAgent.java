@@ -0,0 +1,60 @@
+package javacourse.pacman.model.simulation;
+
+import java.util.SplittableRandom;
+
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Agent that keeps Pac-Man moving in its current direction and occasionally
+ * turns to a random one, similar to a player holding arrow keys
+ *
+ * @author Natan
+ *
+ */
+public class RandomPacManAgent implements PacManAgent {
+
+    /**
+     * Directions the agent can choose from
+     */
+    private static final MovementDirection[] DIRECTIONS = { MovementDirection.UP, MovementDirection.DOWN,
+            MovementDirection.LEFT, MovementDirection.RIGHT };
+
+    /**
+     * Probability that the agent changes direction in one game update
+     */
+    private static final double TURN_PROBABILITY = 0.125;
+
+    /**
+     * Random generator used for choosing the direction
+     */
+    private final SplittableRandom random;
+
+    private MovementDirection direction;
+
+    /**
+     * Constructor for RandomPacManAgent class
+     */
+    public RandomPacManAgent() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor for RandomPacManAgent class. Agents created with the same seed
+     * choose the same directions.
+     *
+     * @param seed seed of the random generator
+     */
+    public RandomPacManAgent(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+    }
+
+    @Override
+    public MovementDirection chooseDirection(PacManModel model) {
+        if (random.nextDouble() < TURN_PROBABILITY) {
+            direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        }
+        return direction;
+    }
+}
@@ -0,0 +1,84 @@
+package javacourse.pacman.model.simulation;
+
+import java.util.List;
+
+/**
+ * Class that holds the results of a simulation batch together with aggregated
+ * statistics
+ *
+ * @author Natan
+ *
+ */
+public final class SimulationReport {
+
+    private final List<SimulationResult> results;
+
+    /**
+     * Wall-clock duration of the whole batch, in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor for SimulationReport class
+     *
+     * @param results      per-game results, ordered by game index
+     * @param elapsedNanos wall-clock duration of the batch, in nanoseconds
+     */
+    public SimulationReport(List<SimulationResult> results, long elapsedNanos) {
+        this.results = List.copyOf(results);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Getter method for the per-game results
+     *
+     * @return unmodifiable list of results, ordered by game index
+     */
+    public List<SimulationResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Getter method for the duration of the batch
+     *
+     * @return wall-clock duration of the batch, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return total number of game updates performed in all games
+     */
+    public long getTotalTicks() {
+        return results.stream().mapToLong(SimulationResult::getTicks).sum();
+    }
+
+    /**
+     * @return number of games the player won
+     */
+    public long getNumOfVictories() {
+        return results.stream().filter(SimulationResult::isPlayerVictorious).count();
+    }
+
+    /**
+     * @return average final score, or 0 if there are no results
+     */
+    public double getAverageScore() {
+        return results.stream().mapToLong(SimulationResult::getScore).average().orElse(0);
+    }
+
+    /**
+     * @return number of game updates performed per second of wall-clock time
+     */
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : getTotalTicks() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return results.size() + " games, " + getNumOfVictories() + " won, average score "
+                + String.format("%.1f", getAverageScore()) + ", " + getTotalTicks() + " ticks at "
+                + String.format("%.0f", getTicksPerSecond()) + " ticks/s";
+    }
+}
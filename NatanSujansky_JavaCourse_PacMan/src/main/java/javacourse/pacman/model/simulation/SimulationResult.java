@@ -0,0 +1,112 @@
+package javacourse.pacman.model.simulation;
+
+/**
+ * Class that holds the outcome of one simulated game
+ *
+ * @author Natan
+ *
+ */
+public final class SimulationResult {
+
+    /**
+     * Index of the game within the simulation batch
+     */
+    private final int gameIndex;
+
+    /**
+     * Seed the game was played with
+     */
+    private final long seed;
+
+    private final long score;
+
+    /**
+     * Number of game updates that were performed
+     */
+    private final long ticks;
+
+    private final boolean isGameOver;
+
+    private final boolean isPlayerVictorious;
+
+    /**
+     * Constructor for SimulationResult class
+     *
+     * @param gameIndex          index of the game within the simulation batch
+     * @param seed               seed the game was played with
+     * @param score              final game score
+     * @param ticks              number of game updates that were performed
+     * @param isGameOver         false if the game was stopped by the tick limit
+     * @param isPlayerVictorious true if Pac-Man ate all the dots
+     */
+    public SimulationResult(int gameIndex, long seed, long score, long ticks, boolean isGameOver,
+            boolean isPlayerVictorious) {
+        this.gameIndex = gameIndex;
+        this.seed = seed;
+        this.score = score;
+        this.ticks = ticks;
+        this.isGameOver = isGameOver;
+        this.isPlayerVictorious = isPlayerVictorious;
+    }
+
+    /**
+     * Getter method for the game index
+     *
+     * @return index of the game within the simulation batch
+     */
+    public int getGameIndex() {
+        return gameIndex;
+    }
+
+    /**
+     * Getter method for the game seed. Passing it to SimulationRunner.playGame
+     * with the same level and agent factory replays the game.
+     *
+     * @return seed the game was played with
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter method for the game score
+     *
+     * @return final game score
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * Getter method for the number of game updates
+     *
+     * @return number of game updates that were performed
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Getter method for the isGameOver flag value
+     *
+     * @return true if the game ended, false if it was stopped by the tick limit
+     */
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    /**
+     * Getter method for the isPlayerVictorious flag value
+     *
+     * @return true if player is victorious, false otherwise
+     */
+    public boolean isPlayerVictorious() {
+        return isPlayerVictorious;
+    }
+
+    @Override
+    public String toString() {
+        return "Game " + gameIndex + ": score " + score + ", " + ticks + " ticks, "
+                + (isGameOver ? (isPlayerVictorious ? "win" : "loss") : "unfinished");
+    }
+}
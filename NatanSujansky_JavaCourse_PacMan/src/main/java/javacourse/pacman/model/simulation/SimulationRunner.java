@@ -0,0 +1,220 @@
+package javacourse.pacman.model.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongFunction;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Class that plays many independent Pac-Man games without a view. Games are
+ * updated as fast as possible, without any wall-clock pacing, and are spread
+ * over the worker threads of a ForkJoinPool. Each game has its own PacManModel
+ * and PacManAgent, only the immutable LevelLayout is shared.
+ *
+ * Every game is played with its own seed, derived from the batch seed and the
+ * game index, so a batch with the same seed produces the same results
+ * regardless of the parallelism.
+ *
+ * @author Natan
+ *
+ */
+public class SimulationRunner implements AutoCloseable {
+
+    /**
+     * Largest number of games a single task plays before it is no longer split
+     */
+    private static final int GAMES_PER_TASK = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor for SimulationRunner class that uses all available processors
+     */
+    public SimulationRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for SimulationRunner class
+     *
+     * @param parallelism number of worker threads
+     * @throws IllegalArgumentException if parallelism is not positive
+     */
+    public SimulationRunner(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive!");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Method that plays the given number of games on the given level with a
+     * random batch seed and waits until all of them are finished
+     *
+     * @param levelLayout     level every game is played on
+     * @param numOfGames      number of games to play
+     * @param maxTicksPerGame number of game updates after which an unfinished game
+     *                        is stopped
+     * @param agentFactory    creates the agent controlling Pac-Man from a seed,
+     *                        called once per game, agents that are AutoCloseable
+     *                        are closed when their game ends
+     * @return report holding the result of every game
+     * @throws IllegalArgumentException if numOfGames or maxTicksPerGame is negative
+     * @throws IllegalStateException    if the runner has already been closed
+     */
+    public SimulationReport run(LevelLayout levelLayout, int numOfGames, long maxTicksPerGame,
+            LongFunction<? extends PacManAgent> agentFactory) {
+        return run(levelLayout, numOfGames, maxTicksPerGame, new SplittableRandom().nextLong(), agentFactory);
+    }
+
+    /**
+     * Method that plays the given number of games on the given level and waits
+     * until all of them are finished. Game with index i is played with seed
+     * batchSeed + i.
+     *
+     * @param levelLayout     level every game is played on
+     * @param numOfGames      number of games to play
+     * @param maxTicksPerGame number of game updates after which an unfinished game
+     *                        is stopped
+     * @param batchSeed       seed the game seeds are derived from
+     * @param agentFactory    creates the agent controlling Pac-Man from a seed,
+     *                        called once per game, agents that are AutoCloseable
+     *                        are closed when their game ends
+     * @return report holding the result of every game
+     * @throws IllegalArgumentException if numOfGames or maxTicksPerGame is negative
+     * @throws IllegalStateException    if the runner has already been closed
+     */
+    public SimulationReport run(LevelLayout levelLayout, int numOfGames, long maxTicksPerGame, long batchSeed,
+            LongFunction<? extends PacManAgent> agentFactory) {
+        if (numOfGames < 0) {
+            throw new IllegalArgumentException("Number of games cannot be negative!");
+        }
+        if (maxTicksPerGame < 0) {
+            throw new IllegalArgumentException("Maximum number of ticks cannot be negative!");
+        }
+        if (pool.isShutdown()) {
+            throw new IllegalStateException("Simulation runner has already been closed!");
+        }
+        SimulationResult[] results = new SimulationResult[numOfGames];
+        long startNanos = System.nanoTime();
+        pool.invoke(new GameRangeTask(levelLayout, maxTicksPerGame, batchSeed, agentFactory, results, 0, numOfGames));
+        return new SimulationReport(Arrays.asList(results), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Method that plays one game on the calling thread. The model seed and the
+     * agent seed are both derived from the given game seed.
+     *
+     * @param levelLayout     level the game is played on
+     * @param gameIndex       index of the game within its batch
+     * @param maxTicksPerGame number of game updates after which an unfinished game
+     *                        is stopped
+     * @param gameSeed        seed of the game
+     * @param agentFactory    creates the agent controlling Pac-Man from a seed
+     * @return result of the game
+     */
+    public static SimulationResult playGame(LevelLayout levelLayout, int gameIndex, long maxTicksPerGame,
+            long gameSeed, LongFunction<? extends PacManAgent> agentFactory) {
+        return playGame(new PacManModel(), levelLayout, gameIndex, maxTicksPerGame, gameSeed, agentFactory);
+    }
+
+    /**
+     * Helper method that plays one game on the calling thread, reusing the given
+     * model. A model that has already played the same level only resets its
+     * state instead of creating it again.
+     *
+     * @param model           model the game is played in
+     * @param levelLayout     level the game is played on
+     * @param gameIndex       index of the game within its batch
+     * @param maxTicksPerGame number of game updates after which an unfinished game
+     *                        is stopped
+     * @param gameSeed        seed of the game
+     * @param agentFactory    creates the agent controlling Pac-Man from a seed
+     * @return result of the game
+     */
+    private static SimulationResult playGame(PacManModel model, LevelLayout levelLayout, int gameIndex,
+            long maxTicksPerGame, long gameSeed, LongFunction<? extends PacManAgent> agentFactory) {
+        SplittableRandom random = new SplittableRandom(gameSeed);
+        model.initializeNewGame(levelLayout, random.nextLong());
+        PacManAgent agent = agentFactory.apply(random.nextLong());
+        long ticks = 0;
+        try {
+            while (!model.isGameOver() && ticks < maxTicksPerGame) {
+                model.updateGameStatus(agent.chooseDirection(model));
+                ticks++;
+            }
+        } finally {
+            if (agent instanceof AutoCloseable) {
+                closeAgent((AutoCloseable) agent);
+            }
+        }
+        return new SimulationResult(gameIndex, gameSeed, model.getGameScore(), ticks, model.isGameOver(),
+                model.isPlayerVictorious());
+    }
+
+    /**
+     * Helper method that releases the resources of an agent, e.g. the worker
+     * threads of an MctsPacManAgent
+     */
+    private static void closeAgent(AutoCloseable agent) {
+        try {
+            agent.close();
+        } catch (Exception e) {
+            throw new IllegalStateException("Agent cannot be closed!", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Task that plays a range of games, splitting itself while the range is large
+     */
+    private static final class GameRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient LevelLayout levelLayout;
+        private final long maxTicksPerGame;
+        private final long batchSeed;
+        private final transient LongFunction<? extends PacManAgent> agentFactory;
+        private final SimulationResult[] results;
+        private final int fromIndex;
+        private final int toIndex;
+
+        GameRangeTask(LevelLayout levelLayout, long maxTicksPerGame, long batchSeed,
+                LongFunction<? extends PacManAgent> agentFactory, SimulationResult[] results, int fromIndex,
+                int toIndex) {
+            this.levelLayout = levelLayout;
+            this.maxTicksPerGame = maxTicksPerGame;
+            this.batchSeed = batchSeed;
+            this.agentFactory = agentFactory;
+            this.results = results;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= GAMES_PER_TASK) {
+                PacManModel model = new PacManModel();
+                for (int i = fromIndex; i < toIndex; i++) {
+                    results[i] = playGame(model, levelLayout, i, maxTicksPerGame, batchSeed + i, agentFactory);
+                }
+            } else {
+                int middleIndex = (fromIndex + toIndex) >>> 1;
+                invokeAll(
+                        new GameRangeTask(levelLayout, maxTicksPerGame, batchSeed, agentFactory, results, fromIndex,
+                                middleIndex),
+                        new GameRangeTask(levelLayout, maxTicksPerGame, batchSeed, agentFactory, results, middleIndex,
+                                toIndex));
+            }
+        }
+    }
+}
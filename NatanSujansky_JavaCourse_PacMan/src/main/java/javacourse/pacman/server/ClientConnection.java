@@ -0,0 +1,180 @@
+package javacourse.pacman.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Class that holds the state of a client connected to GameServer: its channel,
+ * the partially received frame and the frames waiting to be written. Frames
+ * are written as far as the socket accepts them without blocking, the rest is
+ * written once the selector reports the channel writable. A client that falls
+ * too far behind is disconnected instead of buffering its backlog.
+ *
+ * @author Natan
+ *
+ */
+final class ClientConnection {
+
+    /**
+     * Largest number of frames waiting to be written to a client
+     */
+    static final int MAX_QUEUED_FRAMES = 256;
+
+    private final SocketChannel channel;
+
+    private final SelectionKey selectionKey;
+
+    private final ByteBuffer readBuffer;
+
+    private final ArrayDeque<ByteBuffer> queuedFrames;
+
+    private GameSession session;
+
+    private boolean isClosing;
+
+    private boolean isSpectator;
+
+    private boolean needsKeyframe;
+
+    private boolean isAwaitingLevel;
+
+    /**
+     * Constructor for ClientConnection class
+     *
+     * @param channel      channel of the client, in non-blocking mode
+     * @param selectionKey key the channel is registered with
+     */
+    ClientConnection(SocketChannel channel, SelectionKey selectionKey) {
+        this.channel = channel;
+        this.selectionKey = selectionKey;
+        this.readBuffer = ByteBuffer.allocate(GameProtocol.LENGTH_SIZE + GameProtocol.MAX_CLIENT_FRAME_SIZE);
+        this.queuedFrames = new ArrayDeque<>();
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    SelectionKey getSelectionKey() {
+        return selectionKey;
+    }
+
+    /**
+     * @return buffer the received bytes are accumulated in
+     */
+    ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+
+    /**
+     * @return session the client has joined, or null
+     */
+    GameSession getSession() {
+        return session;
+    }
+
+    void setSession(GameSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @return true if the client watches its session instead of playing it
+     */
+    boolean isSpectator() {
+        return isSpectator;
+    }
+
+    void setSpectator(boolean isSpectator) {
+        this.isSpectator = isSpectator;
+    }
+
+    /**
+     * @return true if the spectator has skipped a game update and waits for a
+     *         keyframe
+     */
+    boolean needsKeyframe() {
+        return needsKeyframe;
+    }
+
+    void setNeedsKeyframe(boolean needsKeyframe) {
+        this.needsKeyframe = needsKeyframe;
+    }
+
+    /**
+     * @return true if the level of the session the client creates is being loaded
+     */
+    boolean isAwaitingLevel() {
+        return isAwaitingLevel;
+    }
+
+    void setAwaitingLevel(boolean isAwaitingLevel) {
+        this.isAwaitingLevel = isAwaitingLevel;
+    }
+
+    /**
+     * @return true if the connection is closed once its frames have been written
+     */
+    boolean isClosing() {
+        return isClosing;
+    }
+
+    /**
+     * Method that marks the connection to be closed once its frames have been
+     * written. Received frames are ignored from now on.
+     */
+    void closeWhenWritten() {
+        isClosing = true;
+    }
+
+    /**
+     * @return true if there are frames waiting to be written
+     */
+    boolean hasQueuedFrames() {
+        return !queuedFrames.isEmpty();
+    }
+
+    int getNumberOfQueuedFrames() {
+        return queuedFrames.size();
+    }
+
+    /**
+     * Method that queues a frame and writes as much as possible
+     *
+     * @param frame frame that is sent, its position is not changed
+     * @return false if the client has too many frames waiting and must be
+     *         disconnected, true otherwise
+     * @throws IOException in case there is an I/O error during writing
+     */
+    boolean send(ByteBuffer frame) throws IOException {
+        if (queuedFrames.size() == MAX_QUEUED_FRAMES) {
+            return false;
+        }
+        queuedFrames.add(frame.duplicate());
+        if (queuedFrames.size() == 1) {
+            flush();
+        }
+        return true;
+    }
+
+    /**
+     * Method that writes the queued frames until the socket would block, and
+     * registers interest in writability if frames remain
+     *
+     * @throws IOException in case there is an I/O error during writing
+     */
+    void flush() throws IOException {
+        while (!queuedFrames.isEmpty()) {
+            ByteBuffer frame = queuedFrames.peek();
+            channel.write(frame);
+            if (frame.hasRemaining()) {
+                selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            queuedFrames.poll();
+        }
+        selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+}
@@ -0,0 +1,83 @@
+package javacourse.pacman.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Class that splits the bytes received from the server into frames, as done by
+ * the clients of GameServer. The read buffer grows to the size of the largest
+ * frame received.
+ *
+ * @author Natan
+ *
+ */
+final class FrameReader {
+
+    private static final int INITIAL_READ_BUFFER_SIZE = 64 * 1024;
+
+    private ByteBuffer readBuffer;
+
+    /**
+     * Constructor for FrameReader class
+     */
+    FrameReader() {
+        this.readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Method that reads the available bytes and passes every complete frame to the
+     * handler. In blocking mode it waits for at least one read.
+     *
+     * @param channel channel the frames are read from
+     * @param handler handler of the frames
+     * @throws IOException in case the connection fails or is closed, the server
+     *                     sends an invalid frame or the handler fails
+     */
+    void readFrames(SocketChannel channel, FrameHandler handler) throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            throw new IOException("Server closed the connection!");
+        }
+        readBuffer.flip();
+        try {
+            while (readBuffer.remaining() >= GameProtocol.LENGTH_SIZE) {
+                int frameLength = readBuffer.getInt(readBuffer.position());
+                if (frameLength <= 0 || frameLength > GameProtocol.MAX_SERVER_FRAME_SIZE) {
+                    throw new IOException("Server sent an invalid frame!");
+                }
+                if (readBuffer.remaining() < GameProtocol.LENGTH_SIZE + frameLength) {
+                    if (readBuffer.capacity() < GameProtocol.LENGTH_SIZE + frameLength) {
+                        readBuffer = ByteBuffer.allocate(GameProtocol.LENGTH_SIZE + frameLength).put(readBuffer)
+                                .flip();
+                    }
+                    break;
+                }
+                int frameEnd = readBuffer.position() + GameProtocol.LENGTH_SIZE + frameLength;
+                ByteBuffer frame = readBuffer.duplicate();
+                frame.position(readBuffer.position() + GameProtocol.LENGTH_SIZE).limit(frameEnd);
+                readBuffer.position(frameEnd);
+                byte type = frame.get();
+                if (type == GameProtocol.ERROR) {
+                    throw new IOException(GameProtocol.readUtf(frame));
+                }
+                handler.handleFrame(type, frame);
+            }
+        } finally {
+            readBuffer.compact();
+        }
+    }
+
+    /**
+     * Handler of the received frames
+     */
+    @FunctionalInterface
+    interface FrameHandler {
+
+        /**
+         * @param type  message type
+         * @param frame payload of the frame, only valid during the call
+         * @throws IOException in case the frame is not expected
+         */
+        void handleFrame(byte type, ByteBuffer frame) throws IOException;
+    }
+}
@@ -0,0 +1,22 @@
+package javacourse.pacman.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sender of frames to the clients of GameServer. A client whose connection
+ * fails while sending is disconnected and removed from its session, so callers
+ * iterating over the clients of a session have to iterate backwards.
+ *
+ * @author Natan
+ *
+ */
+@FunctionalInterface
+interface FrameSender {
+
+    /**
+     * @param connection client the frame is sent to
+     * @param frame      frame that is sent, which may be shared by several clients
+     *                   and is not modified
+     */
+    void send(ClientConnection connection, ByteBuffer frame);
+}
@@ -0,0 +1,271 @@
+package javacourse.pacman.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import javacourse.pacman.model.level.LevelCompiler;
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.replay.Replay;
+
+/**
+ * Class that plays a game hosted by GameServer. The client keeps a mirror of
+ * the server game in a local model: the WELCOME frame provides the level, the
+ * seed and the inputs played so far, and every TICK frame the input the server
+ * applied. As the model is deterministic, the mirror follows the server game
+ * exactly, which is verified against the score, Pac-Man position and outcome
+ * sent with every game update.
+ *
+ * Apart from connecting, the client never blocks: received frames are applied
+ * by poll(), so it can be driven by a game loop or a test without a thread of
+ * its own.
+ *
+ * @author Natan
+ *
+ */
+public final class GameClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+
+    private final PacManModel model;
+
+    private final FrameReader frameReader;
+
+    private LevelLayout levelLayout;
+
+    private int sessionId;
+
+    private int tick;
+
+    private int numOfWelcomes;
+
+    /**
+     * Helper constructor that sends the first message and waits for the welcome
+     *
+     * @param address address of the server
+     * @param request CREATE or JOIN frame
+     * @throws IOException in case the connection fails or the server refuses the
+     *                     request
+     */
+    private GameClient(InetSocketAddress address, ByteBuffer request) throws IOException {
+        this.model = new PacManModel();
+        this.frameReader = new FrameReader();
+        channel = SocketChannel.open(address);
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            write(request);
+            while (numOfWelcomes == 0) {
+                frameReader.readFrames(channel, this::handleFrame);
+            }
+            channel.configureBlocking(false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Method that connects to the server and creates a new session
+     *
+     * @param address   address of the server
+     * @param levelName name of a level listed by the server
+     * @param seed      seed of the game
+     * @return client playing the new session
+     * @throws IOException in case the connection fails or the server refuses the
+     *                     request
+     */
+    public static GameClient createSession(InetSocketAddress address, String levelName, long seed)
+            throws IOException {
+        return new GameClient(address, GameProtocol.encodeFrame(GameProtocol.CREATE, dataStream -> {
+            dataStream.writeLong(seed);
+            dataStream.writeUTF(levelName);
+        }));
+    }
+
+    /**
+     * Method that connects to the server and joins a running session
+     *
+     * @param address   address of the server
+     * @param sessionId identifier of the session
+     * @return client playing the session
+     * @throws IOException in case the connection fails or the server refuses the
+     *                     request
+     */
+    public static GameClient joinSession(InetSocketAddress address, int sessionId) throws IOException {
+        return new GameClient(address,
+                GameProtocol.encodeFrame(GameProtocol.JOIN, dataStream -> dataStream.writeInt(sessionId)));
+    }
+
+    /**
+     * Getter method for the mirror of the server game. The model must not be
+     * updated by the caller.
+     *
+     * @return model of the game
+     */
+    public PacManModel getModel() {
+        return model;
+    }
+
+    /**
+     * Getter method for the identifier of the session, which other clients can
+     * join
+     *
+     * @return session identifier
+     */
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Getter method for the number of game updates applied to the model
+     *
+     * @return number of game updates since the game started
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Getter method for the number of welcomes received, which increases whenever
+     * the game is restarted
+     *
+     * @return number of welcomes
+     */
+    public int getNumberOfWelcomes() {
+        return numOfWelcomes;
+    }
+
+    /**
+     * Method that sends the direction Pac-Man should move in, which the server
+     * applies from its next game update on
+     *
+     * @param direction direction passed to the model, may be null
+     * @throws IOException in case there is an I/O error during writing
+     */
+    public void sendInput(MovementDirection direction) throws IOException {
+        write(GameProtocol.encodeFrame(GameProtocol.INPUT,
+                dataStream -> dataStream.writeByte(GameProtocol.encodeInput(direction))));
+    }
+
+    /**
+     * Method that asks the server to pause the game, which resumes with the next
+     * input
+     *
+     * @throws IOException in case there is an I/O error during writing
+     */
+    public void sendPause() throws IOException {
+        write(GameProtocol.encodeFrame(GameProtocol.PAUSE, dataStream -> {
+        }));
+    }
+
+    /**
+     * Method that asks the server to restart the game, which is announced by a new
+     * welcome
+     *
+     * @throws IOException in case there is an I/O error during writing
+     */
+    public void sendRestart() throws IOException {
+        write(GameProtocol.encodeFrame(GameProtocol.RESTART, dataStream -> {
+        }));
+    }
+
+    /**
+     * Method that applies all frames received so far to the model, without
+     * blocking
+     *
+     * @return number of game updates applied, counting the replayed ones in case
+     *         the game has been restarted
+     * @throws IOException           in case the connection fails, is closed by the
+     *                               server or the server reports an error
+     * @throws IllegalStateException in case the model doesn't match the server
+     *                               game
+     */
+    public int poll() throws IOException {
+        int previousTick = tick;
+        int previousWelcomes = numOfWelcomes;
+        frameReader.readFrames(channel, this::handleFrame);
+        return numOfWelcomes == previousWelcomes ? tick - previousTick : tick;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Helper method that writes a whole frame. The frames sent by a client are
+     * small, so a non-blocking channel accepts them at once in practice.
+     */
+    private void write(ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    private void handleFrame(byte type, ByteBuffer frame) throws IOException {
+        switch (type) {
+        case GameProtocol.WELCOME:
+            handleWelcome(frame);
+            break;
+        case GameProtocol.TICK:
+            handleTick(frame);
+            break;
+        default:
+            throw new IOException("Server sent an unknown frame!");
+        }
+    }
+
+    /**
+     * Helper method that starts the mirror game and replays the game updates
+     * performed so far
+     */
+    private void handleWelcome(ByteBuffer frame) throws IOException {
+        sessionId = frame.getInt();
+        String levelName = GameProtocol.readUtf(frame);
+        int compiledLevelLength = frame.getInt();
+        ByteBuffer compiledLevel = frame.slice().limit(compiledLevelLength);
+        frame.position(frame.position() + compiledLevelLength);
+        if (levelLayout == null || !levelLayout.getLevelName().equals(levelName)) {
+            levelLayout = LevelCompiler.load(levelName, compiledLevel);
+        }
+        byte[] replayBytes = new byte[frame.remaining()];
+        frame.get(replayBytes);
+        Replay replay = Replay.readFrom(new ByteArrayInputStream(replayBytes));
+        model.initializeNewGame(levelLayout, replay.getSeed());
+        tick = 0;
+        for (int runIndex = 0; runIndex < replay.getNumberOfRuns(); runIndex++) {
+            MovementDirection input = replay.getRunInput(runIndex);
+            for (; tick < replay.getRunEnd(runIndex); tick++) {
+                model.updateGameStatus(input);
+            }
+        }
+        numOfWelcomes++;
+    }
+
+    /**
+     * Helper method that applies a game update and verifies its outcome
+     */
+    private void handleTick(ByteBuffer frame) {
+        int frameTick = frame.getInt();
+        MovementDirection direction = GameProtocol.decodeInput(frame.get());
+        long score = frame.getLong();
+        int pacManRowIndex = frame.getInt();
+        int pacManColumnIndex = frame.getInt();
+        byte flags = frame.get();
+        if (frameTick != tick) {
+            throw new IllegalStateException("Game updates received out of order!");
+        }
+        model.updateGameStatus(direction);
+        tick++;
+        if (model.getGameScore() != score || model.getPacMan().getRowIndex() != pacManRowIndex
+                || model.getPacMan().getColumnIndex() != pacManColumnIndex
+                || GameProtocol.encodeFlags(model) != flags) {
+            throw new IllegalStateException("Game diverged from the server!");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package javacourse.pacman.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Class that defines the messages exchanged between GameServer and its clients.
+ * Every message is a frame: a big-endian integer holding the length of the rest
+ * of the frame, the message type and its payload.
+ *
+ * Client messages:
+ * <ul>
+ * <li>CREATE: seed, level name - starts a new session on a listed level</li>
+ * <li>JOIN: session id - joins a running session</li>
+ * <li>INPUT: input code - direction applied from the next game update on</li>
+ * <li>RESTART: restarts the game of the session</li>
+ * <li>WATCH: session id - joins a running session as a spectator</li>
+ * <li>PAUSE: pauses the game of the session until the next INPUT</li>
+ * </ul>
+ *
+ * Server messages:
+ * <ul>
+ * <li>WELCOME: session id, level name, compiled level, replay of the game so
+ * far - sent after joining and after every restart</li>
+ * <li>TICK: game update index, input code, score, Pac-Man row and column, game
+ * over flags - sent to all clients of a session after every game update</li>
+ * <li>KEYFRAME: game update index, score, outcome flags, Pac-Man position and
+ * power-up time, every ghost with its death time and the remaining dots - sent
+ * to spectators when they join and periodically to those that skipped
+ * deltas</li>
+ * <li>DELTA: game update index, score change, outcome and dot flags, Pac-Man
+ * position and power-up time, the ghosts that moved, died or revived - sent to
+ * spectators after every game update</li>
+ * <li>ERROR: message - sent before the server closes the connection</li>
+ * </ul>
+ *
+ * @author Natan
+ *
+ */
+final class GameProtocol {
+
+    static final byte CREATE = 1;
+    static final byte JOIN = 2;
+    static final byte INPUT = 3;
+    static final byte RESTART = 4;
+    static final byte WATCH = 5;
+    static final byte PAUSE = 6;
+
+    static final byte WELCOME = 10;
+    static final byte TICK = 11;
+    static final byte ERROR = 12;
+    static final byte KEYFRAME = 13;
+    static final byte DELTA = 14;
+
+    /**
+     * Size of the frame length prefix
+     */
+    static final int LENGTH_SIZE = Integer.BYTES;
+
+    /**
+     * Largest frame a client may send
+     */
+    static final int MAX_CLIENT_FRAME_SIZE = 1024;
+
+    /**
+     * Largest frame the server may send, enough for the welcome of a 10000 by 10000
+     * level
+     */
+    static final int MAX_SERVER_FRAME_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Input code of null directions
+     */
+    static final byte NO_INPUT = -1;
+
+    /**
+     * Size of a TICK frame including its length prefix
+     */
+    static final int TICK_FRAME_SIZE = LENGTH_SIZE + 1 + Integer.BYTES + 1 + Long.BYTES + 2 * Integer.BYTES + 1;
+
+    static final byte GAME_OVER_FLAG = 1;
+    static final byte VICTORY_FLAG = 2;
+
+    /**
+     * Spectator frame flag denoting that Pac-Man is powered-up and the remaining
+     * power-up time follows his position
+     */
+    static final byte POWER_MODE_FLAG = 4;
+
+    /**
+     * Delta flag denoting that Pac-Man has eaten a small dot at his position
+     */
+    static final byte SMALL_DOT_FLAG = 8;
+
+    /**
+     * Delta flag denoting that Pac-Man has eaten a big dot at his position
+     */
+    static final byte BIG_DOT_FLAG = 16;
+
+    private static final MovementDirection[] DIRECTIONS = MovementDirection.values();
+
+    private GameProtocol() {
+    }
+
+    /**
+     * @param direction direction passed to the model, may be null
+     * @return input code of the direction
+     */
+    static byte encodeInput(MovementDirection direction) {
+        return direction == null ? NO_INPUT : (byte) direction.ordinal();
+    }
+
+    /**
+     * @param input input code
+     * @return direction passed to the model, may be null
+     * @throws IllegalArgumentException in case the code is invalid
+     */
+    static MovementDirection decodeInput(byte input) {
+        if (input == NO_INPUT) {
+            return null;
+        }
+        if (input < 0 || input >= DIRECTIONS.length) {
+            throw new IllegalArgumentException("Input is invalid!");
+        }
+        return DIRECTIONS[input];
+    }
+
+    /**
+     * Helper method that encodes a TICK frame describing the model after a game
+     * update
+     *
+     * @param tick      number of game updates performed before this one
+     * @param direction direction passed to the model, may be null
+     * @param model     updated model
+     * @return read-only buffer holding the frame
+     */
+    static ByteBuffer encodeTick(int tick, MovementDirection direction, PacManModel model) {
+        ByteBuffer frame = ByteBuffer.allocate(TICK_FRAME_SIZE);
+        frame.putInt(TICK_FRAME_SIZE - LENGTH_SIZE).put(TICK).putInt(tick).put(encodeInput(direction))
+                .putLong(model.getGameScore()).putInt(model.getPacMan().getRowIndex())
+                .putInt(model.getPacMan().getColumnIndex()).put(encodeFlags(model));
+        return frame.flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * @param model model whose outcome is encoded
+     * @return game over flags of the model
+     */
+    static byte encodeFlags(PacManModel model) {
+        return (byte) ((model.isGameOver() ? GAME_OVER_FLAG : 0) | (model.isPlayerVictorious() ? VICTORY_FLAG : 0));
+    }
+
+    /**
+     * Helper method that encodes a frame of the given type from the content
+     * written by the writer
+     *
+     * @param type   message type
+     * @param writer writes the payload
+     * @return read-only buffer holding the frame
+     */
+    static ByteBuffer encodeFrame(byte type, PayloadWriter writer) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (DataOutputStream dataStream = new DataOutputStream(byteStream)) {
+            dataStream.writeInt(0);
+            dataStream.writeByte(type);
+            writer.write(dataStream);
+        } catch (IOException e) {
+            // Writing to memory cannot fail
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer frame = ByteBuffer.wrap(byteStream.toByteArray());
+        frame.putInt(0, frame.remaining() - LENGTH_SIZE);
+        return frame.asReadOnlyBuffer();
+    }
+
+    /**
+     * @param message error message
+     * @return read-only buffer holding the ERROR frame
+     */
+    static ByteBuffer encodeError(String message) {
+        return encodeFrame(ERROR, dataStream -> dataStream.writeUTF(message));
+    }
+
+    /**
+     * Helper method that reads a string written by DataOutputStream.writeUTF()
+     *
+     * @param buffer buffer positioned at the string
+     * @return read string
+     */
+    static String readUtf(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        // Modified UTF-8 only differs from UTF-8 for characters not used in names
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writer of the payload of a frame
+     */
+    @FunctionalInterface
+    interface PayloadWriter {
+
+        /**
+         * @param dataStream stream the payload is written to
+         * @throws IOException in case there is an I/O error during writing
+         */
+        void write(DataOutputStream dataStream) throws IOException;
+    }
+}
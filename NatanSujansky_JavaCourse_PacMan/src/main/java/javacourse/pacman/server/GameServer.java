@@ -0,0 +1,580 @@
+package javacourse.pacman.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javacourse.pacman.general.GameProperties;
+import javacourse.pacman.model.level.LevelCompiler;
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.level.LevelRepository;
+import javacourse.pacman.model.model.Sprite;
+
+/**
+ * Headless server that hosts Pac-Man games for clients connected over TCP. All
+ * sessions are driven by a single event loop thread: it waits on a selector for
+ * client messages until the next game update of any session is due, as
+ * scheduled by the GameSessionManager, then performs the due game updates and
+ * sends the resulting TICK frames to the clients of those sessions. Inputs
+ * received between two game updates only replace the held input of the
+ * session, so the server alone decides when they take effect.
+ *
+ * The messages are described by GameProtocol. Every TICK frame is encoded once
+ * per session and shared by all of its players. Spectators receive the delta
+ * frames of the SpectatorFeed of the session instead, which are also encoded
+ * once and skipped by spectators that cannot keep up.
+ *
+ * Levels are never parsed by the event loop. A level a session is created on
+ * is loaded by a worker thread, which hands it back through a queue and wakes
+ * the selector, so parsing a large level doesn't delay the other sessions.
+ *
+ * @author Natan
+ *
+ */
+public final class GameServer implements AutoCloseable {
+
+    /**
+     * Port the server listens on when started from the command line without
+     * arguments
+     */
+    public static final int DEFAULT_PORT = 7777;
+
+    private final LevelRepository levelRepository;
+
+    private final Selector selector;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final Thread eventLoopThread;
+
+    /**
+     * Worker loading the levels of the sessions being created
+     */
+    private final ExecutorService levelLoader;
+
+    /**
+     * Levels loaded by the worker, waiting for the event loop to create their
+     * sessions
+     */
+    private final Queue<LoadedLevel> loadedLevels;
+
+    /**
+     * Hosted sessions, only driven by the event loop
+     */
+    private final GameSessionManager sessionManager;
+
+    /**
+     * Levels in the compiled level format, as sent to the clients, only accessed
+     * by the level loader
+     */
+    private final Map<LevelLayout, byte[]> compiledLevels;
+
+    private volatile boolean isRunning;
+
+    private volatile int numOfConnections;
+
+    /**
+     * Constructor for GameServer class. The server socket is bound, but no client
+     * is accepted before the server is started.
+     *
+     * @param address            address the server listens on, port 0 picks a free
+     *                           port
+     * @param levelRepository    repository providing the levels sessions can be
+     *                           created on
+     * @param tickIntervalMillis interval between two game updates, in
+     *                           milliseconds
+     * @throws IOException              in case the server socket cannot be opened
+     * @throws IllegalArgumentException in case the tick interval is not positive
+     */
+    public GameServer(InetSocketAddress address, LevelRepository levelRepository, long tickIntervalMillis)
+            throws IOException {
+        if (tickIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Tick interval must be positive!");
+        }
+        this.levelRepository = levelRepository;
+        this.sessionManager = new GameSessionManager(TimeUnit.MILLISECONDS.toNanos(tickIntervalMillis),
+                System.nanoTime());
+        this.compiledLevels = new WeakHashMap<>();
+        this.loadedLevels = new ConcurrentLinkedQueue<>();
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        eventLoopThread = new Thread(this::runEventLoop, "Game server");
+        levelLoader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Game server level loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method that starts the event loop thread
+     *
+     * @throws IllegalStateException in case the server has already been started
+     */
+    public void start() {
+        if (eventLoopThread.getState() != Thread.State.NEW) {
+            throw new IllegalStateException("Server has already been started!");
+        }
+        isRunning = true;
+        eventLoopThread.start();
+    }
+
+    /**
+     * Getter method for the address the server listens on
+     *
+     * @return bound address, including the picked port
+     * @throws IOException in case the address cannot be determined
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Getter method for the number of sessions with at least one client
+     *
+     * @return number of sessions
+     */
+    public int getNumberOfSessions() {
+        return sessionManager.getNumberOfSessions();
+    }
+
+    /**
+     * Getter method for how late the latest game update of a session was
+     * performed, which grows when the event loop cannot keep up
+     *
+     * @param sessionId identifier of the session
+     * @return time between the deadline of the game update and the moment it was
+     *         performed, in nanoseconds
+     * @throws IllegalArgumentException in case there is no session with the
+     *                                  identifier
+     */
+    public long getTickLagNanos(int sessionId) {
+        return sessionManager.getTickLagNanos(sessionId);
+    }
+
+    /**
+     * Getter method for the number of connected clients
+     *
+     * @return number of connections
+     */
+    public int getNumberOfConnections() {
+        return numOfConnections;
+    }
+
+    /**
+     * Method that stops the event loop and disconnects all clients
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        levelLoader.shutdownNow();
+        selector.wakeup();
+        if (eventLoopThread.getState() == Thread.State.NEW) {
+            closeChannels();
+            return;
+        }
+        try {
+            eventLoopThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Helper method run by the event loop thread
+     */
+    private void runEventLoop() {
+        try {
+            while (isRunning) {
+                long waitNanos = sessionManager.getNanosUntilNextTick(System.nanoTime());
+                if (waitNanos < 0) {
+                    // No session is ticking, so only a client message or closing wakes the loop
+                    selector.select();
+                } else if (waitNanos > 0) {
+                    selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey selectionKey = selectedKeys.next();
+                    selectedKeys.remove();
+                    handleSelectionKey(selectionKey);
+                }
+                createLoadedSessions();
+                sessionManager.tickDueSessions(System.nanoTime());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            closeChannels();
+        }
+    }
+
+    private void handleSelectionKey(SelectionKey selectionKey) {
+        if (!selectionKey.isValid()) {
+            return;
+        }
+        if (selectionKey.isAcceptable()) {
+            acceptConnection();
+            return;
+        }
+        ClientConnection connection = (ClientConnection) selectionKey.attachment();
+        try {
+            if (selectionKey.isReadable()) {
+                readFrames(connection);
+            }
+            if (selectionKey.isValid() && selectionKey.isWritable()) {
+                connection.flush();
+                closeIfDone(connection);
+                if (connection.isSpectator() && connection.needsKeyframe() && !connection.hasQueuedFrames()
+                        && connection.getSession() != null) {
+                    connection.getSession().sendPendingKeyframe(connection);
+                }
+            }
+        } catch (IOException e) {
+            closeConnection(connection);
+        }
+    }
+
+    private void acceptConnection() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey selectionKey = channel.register(selector, SelectionKey.OP_READ);
+            selectionKey.attach(new ClientConnection(channel, selectionKey));
+            numOfConnections++;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Helper method that reads the available bytes of a client and handles every
+     * complete frame
+     *
+     * @param connection client that is read
+     * @throws IOException in case there is an I/O error during reading
+     */
+    private void readFrames(ClientConnection connection) throws IOException {
+        ByteBuffer readBuffer = connection.getReadBuffer();
+        if (connection.getChannel().read(readBuffer) < 0) {
+            closeConnection(connection);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.remaining() >= GameProtocol.LENGTH_SIZE && !connection.isClosing()
+                && connection.getSelectionKey().isValid()) {
+            int frameLength = readBuffer.getInt(readBuffer.position());
+            if (frameLength <= 0 || frameLength > GameProtocol.MAX_CLIENT_FRAME_SIZE) {
+                sendError(connection, "Message length is invalid!");
+                break;
+            }
+            if (readBuffer.remaining() < GameProtocol.LENGTH_SIZE + frameLength) {
+                break;
+            }
+            int frameEnd = readBuffer.position() + GameProtocol.LENGTH_SIZE + frameLength;
+            ByteBuffer frame = readBuffer.duplicate();
+            frame.position(readBuffer.position() + GameProtocol.LENGTH_SIZE).limit(frameEnd);
+            readBuffer.position(frameEnd);
+            try {
+                handleMessage(connection, frame);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                sendError(connection, "Message is invalid!");
+            }
+        }
+        readBuffer.compact();
+    }
+
+    /**
+     * Helper method that handles a client message
+     *
+     * @param connection client that sent the message
+     * @param frame      message type and payload
+     */
+    private void handleMessage(ClientConnection connection, ByteBuffer frame) {
+        byte type = frame.get();
+        GameSession session = connection.getSession();
+        if (type == GameProtocol.CREATE || type == GameProtocol.JOIN || type == GameProtocol.WATCH) {
+            if (session != null || connection.isAwaitingLevel()) {
+                sendError(connection, "Already joined a session!");
+            } else if (type == GameProtocol.CREATE) {
+                long seed = frame.getLong();
+                createSession(connection, GameProtocol.readUtf(frame), seed);
+            } else {
+                GameSession joinedSession = sessionManager.getSession(frame.getInt());
+                if (joinedSession == null || joinedSession.isAbandoned()) {
+                    sendError(connection, "Unknown session!");
+                } else if (type == GameProtocol.JOIN) {
+                    joinSession(connection, joinedSession);
+                } else {
+                    watchSession(connection, joinedSession);
+                }
+            }
+        } else if (type == GameProtocol.INPUT || type == GameProtocol.RESTART || type == GameProtocol.PAUSE) {
+            if (session == null) {
+                sendError(connection, "No session joined yet!");
+            } else if (connection.isSpectator()) {
+                sendError(connection, "Spectators cannot control the game!");
+            } else if (type == GameProtocol.INPUT) {
+                sessionManager.setInput(session, GameProtocol.decodeInput(frame.get()), System.nanoTime());
+            } else if (type == GameProtocol.PAUSE) {
+                sessionManager.pause(session);
+            } else {
+                sessionManager.restart(session);
+                broadcast(session, session.encodeWelcome());
+            }
+        } else {
+            sendError(connection, "Unknown message type!");
+        }
+    }
+
+    /**
+     * Helper method that starts loading and compiling the level of a new session
+     * on the worker. The session is created by the event loop once the level has
+     * been loaded.
+     */
+    private void createSession(ClientConnection connection, String levelName, long seed) {
+        if (levelRepository.getLevelPath(levelName) == null) {
+            sendError(connection, "Unknown level: " + levelName + "!");
+            return;
+        }
+        connection.setAwaitingLevel(true);
+        levelLoader.execute(() -> {
+            LevelLayout levelLayout = null;
+            byte[] compiledLevel = null;
+            try {
+                levelLayout = levelRepository.getLevel(levelName);
+                compiledLevel = getCompiledLevel(levelLayout);
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+            loadedLevels.add(new LoadedLevel(connection, levelName, seed, levelLayout, compiledLevel));
+            selector.wakeup();
+        });
+    }
+
+    /**
+     * Helper method that creates the sessions whose levels have been loaded, for
+     * the clients that are still connected
+     */
+    private void createLoadedSessions() {
+        LoadedLevel loadedLevel;
+        while ((loadedLevel = loadedLevels.poll()) != null) {
+            ClientConnection connection = loadedLevel.connection;
+            connection.setAwaitingLevel(false);
+            if (!connection.getSelectionKey().isValid() || connection.isClosing()) {
+                continue;
+            }
+            if (loadedLevel.levelLayout == null) {
+                sendError(connection, "Level cannot be loaded: " + loadedLevel.levelName + "!");
+            } else {
+                GameSession session = sessionManager.createSession(loadedLevel.levelLayout,
+                        loadedLevel.compiledLevel, loadedLevel.seed, this::send);
+                joinSession(connection, session);
+            }
+        }
+    }
+
+    private void joinSession(ClientConnection connection, GameSession session) {
+        connection.setSession(session);
+        session.getConnections().add(connection);
+        send(connection, session.encodeWelcome());
+    }
+
+    /**
+     * Helper method that adds a spectator to a session. The welcome provides the
+     * level, the keyframe that follows it the state of the game.
+     */
+    private void watchSession(ClientConnection connection, GameSession session) {
+        connection.setSession(session);
+        connection.setSpectator(true);
+        send(connection, session.encodeWelcome());
+        if (connection.getSelectionKey().isValid()) {
+            session.addSpectator(connection);
+        }
+    }
+
+    /**
+     * Helper method that provides the level in the compiled level format, which is
+     * kept for as long as the level is in use. It is only called by the level
+     * loader.
+     *
+     * @param levelLayout level that is compiled
+     * @return compiled level
+     */
+    private byte[] getCompiledLevel(LevelLayout levelLayout) {
+        return compiledLevels.computeIfAbsent(levelLayout, level -> {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try {
+                LevelCompiler.compile(level, outputStream);
+            } catch (IOException e) {
+                // Writing to memory cannot fail
+                throw new IllegalStateException(e);
+            }
+            return outputStream.toByteArray();
+        });
+    }
+
+    /**
+     * Helper method that sends the same frame to all clients of a session
+     *
+     * @param session session whose clients receive the frame
+     * @param frame   frame that is sent
+     */
+    private void broadcast(GameSession session, ByteBuffer frame) {
+        List<ClientConnection> connections = session.getConnections();
+        // Backwards, as a client that cannot keep up is removed while sending
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            send(connections.get(i), frame);
+        }
+    }
+
+    private void send(ClientConnection connection, ByteBuffer frame) {
+        try {
+            if (!connection.send(frame)) {
+                closeConnection(connection);
+                return;
+            }
+            closeIfDone(connection);
+        } catch (IOException e) {
+            closeConnection(connection);
+        }
+    }
+
+    /**
+     * Helper method that sends an error to a client and closes its connection
+     * once the error has been written
+     */
+    private void sendError(ClientConnection connection, String message) {
+        connection.closeWhenWritten();
+        send(connection, GameProtocol.encodeError(message));
+    }
+
+    private void closeIfDone(ClientConnection connection) {
+        if (connection.isClosing() && !connection.hasQueuedFrames()) {
+            closeConnection(connection);
+        }
+    }
+
+    private void closeConnection(ClientConnection connection) {
+        if (!connection.getSelectionKey().isValid()) {
+            return;
+        }
+        connection.getSelectionKey().cancel();
+        try {
+            connection.getChannel().close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        GameSession session = connection.getSession();
+        if (session != null) {
+            session.removeConnection(connection);
+            connection.setSession(null);
+            if (session.isAbandoned()) {
+                sessionManager.removeSession(session);
+            }
+        }
+        numOfConnections--;
+    }
+
+    /**
+     * Helper method that closes the server socket and all client channels
+     */
+    private void closeChannels() {
+        for (SelectionKey selectionKey : selector.keys()) {
+            try {
+                selectionKey.channel().close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        sessionManager.removeAllSessions();
+        numOfConnections = 0;
+    }
+
+    /**
+     * Command line entry point that runs a server hosting the levels of the level
+     * list. Usage: GameServer [port]
+     *
+     * @param args optional port to listen on
+     * @throws IOException in case the server socket or the level list cannot be
+     *                     opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        LevelRepository levelRepository = new LevelRepository("/level_list.txt",
+                GameProperties.getGameProperties().getLevelCacheSize());
+        GameServer server = new GameServer(new InetSocketAddress(port), levelRepository,
+                Sprite.MILLISECONDS_PER_GAME_UPDATE);
+        levelRepository.preWarm();
+        server.start();
+        System.out.println("Game server listening on " + server.getAddress());
+    }
+
+    /**
+     * Level loaded by the worker for a session requested by a client
+     */
+    private static final class LoadedLevel {
+
+        private final ClientConnection connection;
+
+        private final String levelName;
+
+        private final long seed;
+
+        /**
+         * Loaded level, or null if it cannot be loaded
+         */
+        private final LevelLayout levelLayout;
+
+        /**
+         * Loaded level in the compiled level format, or null if it cannot be loaded
+         */
+        private final byte[] compiledLevel;
+
+        private LoadedLevel(ClientConnection connection, String levelName, long seed, LevelLayout levelLayout,
+                byte[] compiledLevel) {
+            this.connection = connection;
+            this.levelName = levelName;
+            this.seed = seed;
+            this.levelLayout = levelLayout;
+            this.compiledLevel = compiledLevel;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package javacourse.pacman.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.GhostStorage;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.replay.ReplayRecorder;
+
+/**
+ * Class that represents a game hosted by GameServer. The latest input received
+ * from any of its clients is held and applied in every game update, the same
+ * way a held key moves Pac-Man in the local game. Like the local game, the
+ * session doesn't start until the first input arrives, and a paused session
+ * resumes with the next input. When the game updates are performed is decided
+ * by GameSessionManager.
+ *
+ * The inputs are recorded, so clients joining a running session can replay the
+ * game so far. Spectators don't replay the game, they follow its state through
+ * the SpectatorFeed of the session. A session is only accessed by the event
+ * loop thread of the server.
+ *
+ * @author Natan
+ *
+ */
+final class GameSession {
+
+    private final int sessionId;
+
+    private final PacManModel model;
+
+    private final List<ClientConnection> connections;
+
+    private final FrameSender frameSender;
+
+    private final SpectatorFeed spectatorFeed;
+
+    /**
+     * Part of the WELCOME frame that doesn't change during the session: session
+     * id, level name and compiled level
+     */
+    private final byte[] welcomeLevel;
+
+    private ReplayRecorder replayRecorder;
+
+    private MovementDirection input;
+
+    private boolean isStarted;
+
+    private boolean isPaused;
+
+    private int tick;
+
+    /**
+     * Constructor for GameSession class
+     *
+     * @param sessionId     identifier of the session
+     * @param levelLayout   level the game is played on
+     * @param compiledLevel level in the compiled level format, as sent to the
+     *                      clients
+     * @param seed          seed of the game
+     * @param frameSender   sender the frames of the game updates are written with
+     */
+    GameSession(int sessionId, LevelLayout levelLayout, byte[] compiledLevel, long seed, FrameSender frameSender) {
+        this.sessionId = sessionId;
+        this.model = new PacManModel(GhostStorage.ARRAYS);
+        this.connections = new ArrayList<>();
+        this.frameSender = frameSender;
+        this.spectatorFeed = new SpectatorFeed(frameSender);
+        model.initializeNewGame(levelLayout, seed);
+        replayRecorder = new ReplayRecorder(model);
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (DataOutputStream dataStream = new DataOutputStream(byteStream)) {
+            dataStream.writeInt(sessionId);
+            dataStream.writeUTF(levelLayout.getLevelName());
+            dataStream.writeInt(compiledLevel.length);
+            dataStream.write(compiledLevel);
+        } catch (IOException e) {
+            // Writing to memory cannot fail
+            throw new IllegalStateException(e);
+        }
+        welcomeLevel = byteStream.toByteArray();
+    }
+
+    int getSessionId() {
+        return sessionId;
+    }
+
+    PacManModel getModel() {
+        return model;
+    }
+
+    /**
+     * @return number of game updates performed since the game started
+     */
+    int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return clients playing the session, which may be modified by the server
+     */
+    List<ClientConnection> getConnections() {
+        return connections;
+    }
+
+    SpectatorFeed getSpectatorFeed() {
+        return spectatorFeed;
+    }
+
+    /**
+     * @return true if all players and spectators have left the session
+     */
+    boolean isAbandoned() {
+        return connections.isEmpty() && spectatorFeed.getSpectators().isEmpty();
+    }
+
+    /**
+     * Method that adds a spectator, which receives the keyframe of the current
+     * game update
+     *
+     * @param spectator spectator that is added, after its welcome has been sent
+     */
+    void addSpectator(ClientConnection spectator) {
+        spectatorFeed.addSpectator(spectator, model, tick);
+    }
+
+    /**
+     * Method that sends a keyframe to a spectator whose frames have all been
+     * written, if the game is not running. A running game sends it with the next
+     * keyframe game update instead.
+     *
+     * @param spectator spectator that waits for a keyframe
+     */
+    void sendPendingKeyframe(ClientConnection spectator) {
+        if (!isTicking()) {
+            spectatorFeed.sendKeyframe(spectator, model, tick);
+        }
+    }
+
+    /**
+     * @param connection player or spectator that has left the session
+     */
+    void removeConnection(ClientConnection connection) {
+        if (connection.isSpectator()) {
+            spectatorFeed.getSpectators().remove(connection);
+        } else {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * @return true if the session performs game updates: it has started, isn't
+     *         paused and the game isn't over
+     */
+    boolean isTicking() {
+        return isStarted && !isPaused && !model.isGameOver();
+    }
+
+    boolean isPaused() {
+        return isPaused;
+    }
+
+    /**
+     * Method that sets the input applied from the next game update on, which
+     * starts or resumes the session
+     *
+     * @param direction direction passed to the model, may be null
+     */
+    void setInput(MovementDirection direction) {
+        input = direction;
+        isStarted = true;
+        isPaused = false;
+    }
+
+    /**
+     * Method that pauses the session until the next input
+     */
+    void pause() {
+        isPaused = true;
+    }
+
+    /**
+     * Method that restarts the game and sends its keyframe to the spectators. The
+     * session waits for an input again.
+     */
+    void restart() {
+        model.restartGame();
+        replayRecorder = new ReplayRecorder(model);
+        input = null;
+        isStarted = false;
+        isPaused = false;
+        tick = 0;
+        spectatorFeed.restart(model);
+    }
+
+    /**
+     * Method that performs a game update with the held input, unless the session
+     * is not ticking, sends its TICK frame to the players and streams it to the
+     * spectators
+     *
+     * @return true if a game update was performed, false otherwise
+     */
+    boolean tick() {
+        if (!isTicking()) {
+            return false;
+        }
+        replayRecorder.record(input);
+        model.updateGameStatus(input);
+        model.clearChangedCells();
+        ByteBuffer tickFrame = GameProtocol.encodeTick(tick++, input, model);
+        // Backwards, as a player that cannot keep up is removed while sending
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            frameSender.send(connections.get(i), tickFrame);
+        }
+        spectatorFeed.publish(model, tick);
+        return true;
+    }
+
+    /**
+     * Method that encodes the WELCOME frame of the game so far. Only the replay is
+     * encoded, the level part is written once when the session is created.
+     *
+     * @return WELCOME frame, which can be shared by all clients
+     */
+    ByteBuffer encodeWelcome() {
+        return GameProtocol.encodeFrame(GameProtocol.WELCOME, dataStream -> {
+            dataStream.write(welcomeLevel);
+            replayRecorder.toReplay().writeTo(dataStream);
+        });
+    }
+}
@@ -0,0 +1,355 @@
+package javacourse.pacman.server;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+
+/**
+ * Class that hosts the sessions of GameServer and decides when each of them
+ * performs its game updates, without a thread or a timer per session. Every
+ * ticking session is scheduled on a hashed timing wheel: an array of slots, one
+ * per millisecond, which the session is linked into by the deadline of its next
+ * game update. Advancing the wheel only visits the slots that have become due,
+ * so the cost of a tick boundary is proportional to the number of sessions due
+ * rather than the number of sessions hosted.
+ *
+ * Sessions are only scheduled while they are ticking. Sessions waiting for
+ * their first input, paused or over are not on the wheel and cost nothing
+ * until an input arrives. Every session keeps its own tick phase, from the
+ * input that started or resumed it, so the game updates of many sessions are
+ * spread over the tick interval instead of all falling on one boundary.
+ *
+ * The manager is only driven by the event loop thread of the server, apart from
+ * the number of sessions and the tick lags, which can be read by any thread.
+ *
+ * @author Natan
+ *
+ */
+final class GameSessionManager {
+
+    /**
+     * Time span of a slot of the timing wheel
+     */
+    private static final long RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int MIN_NUM_OF_SLOTS = 64;
+
+    /**
+     * Number of tick intervals a session may fall behind before it skips the
+     * missed game updates
+     */
+    private static final int MAX_TICK_LAG = 5;
+
+    private final long tickIntervalNanos;
+
+    /**
+     * Hosted sessions by their identifiers
+     */
+    private final Map<Integer, SessionEntry> sessions;
+
+    /**
+     * First scheduled session of every slot, or null
+     */
+    private final SessionEntry[] slots;
+
+    private final int slotMask;
+
+    /**
+     * Time wheel ticks are counted from
+     */
+    private final long originNanos;
+
+    /**
+     * Latest wheel tick whose slot has been advanced over
+     */
+    private long processedWheelTick;
+
+    private int numOfScheduledSessions;
+
+    private int nextSessionId;
+
+    /**
+     * Constructor for GameSessionManager class
+     *
+     * @param tickIntervalNanos interval between two game updates of a session, in
+     *                          nanoseconds
+     * @param nowNanos          current time as given by System.nanoTime()
+     * @throws IllegalArgumentException in case the tick interval is not positive
+     */
+    GameSessionManager(long tickIntervalNanos, long nowNanos) {
+        if (tickIntervalNanos <= 0) {
+            throw new IllegalArgumentException("Tick interval must be positive!");
+        }
+        this.tickIntervalNanos = tickIntervalNanos;
+        this.sessions = new ConcurrentHashMap<>();
+        // A session is always scheduled less than one wheel revolution ahead
+        long numOfSlots = Math.max(MIN_NUM_OF_SLOTS, 2 * (tickIntervalNanos / RESOLUTION_NANOS + 1));
+        this.slots = new SessionEntry[Integer.highestOneBit((int) Math.min(numOfSlots, 1 << 30) - 1) << 1];
+        this.slotMask = slots.length - 1;
+        this.originNanos = nowNanos;
+        this.nextSessionId = 1;
+    }
+
+    /**
+     * Method that creates a session, which waits for its first input
+     *
+     * @param levelLayout   level the game is played on
+     * @param compiledLevel level in the compiled level format, as sent to the
+     *                      clients
+     * @param seed          seed of the game
+     * @param frameSender   sender the frames of the session are written with
+     * @return created session
+     */
+    GameSession createSession(LevelLayout levelLayout, byte[] compiledLevel, long seed, FrameSender frameSender) {
+        GameSession session = new GameSession(nextSessionId++, levelLayout, compiledLevel, seed, frameSender);
+        sessions.put(session.getSessionId(), new SessionEntry(session));
+        return session;
+    }
+
+    /**
+     * @param sessionId identifier of the session
+     * @return hosted session, or null if there is none with the identifier
+     */
+    GameSession getSession(int sessionId) {
+        SessionEntry entry = sessions.get(sessionId);
+        return entry == null ? null : entry.session;
+    }
+
+    /**
+     * Method that stops hosting a session
+     *
+     * @param session session that is removed
+     */
+    void removeSession(GameSession session) {
+        SessionEntry entry = sessions.remove(session.getSessionId());
+        if (entry != null) {
+            unschedule(entry);
+        }
+    }
+
+    /**
+     * Method that stops hosting all sessions
+     */
+    void removeAllSessions() {
+        sessions.clear();
+        Arrays.fill(slots, null);
+        numOfScheduledSessions = 0;
+    }
+
+    /**
+     * Getter method for the number of hosted sessions, which can be called from
+     * any thread
+     *
+     * @return number of sessions
+     */
+    int getNumberOfSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * @return number of sessions waiting for their next game update
+     */
+    int getNumberOfScheduledSessions() {
+        return numOfScheduledSessions;
+    }
+
+    /**
+     * Getter method for the tick lag of a session, which can be called from any
+     * thread
+     *
+     * @param sessionId identifier of the session
+     * @return time between the deadline of the latest game update of the session
+     *         and the moment it was performed, in nanoseconds
+     * @throws IllegalArgumentException in case there is no session with the
+     *                                  identifier
+     */
+    long getTickLagNanos(int sessionId) {
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown session!");
+        }
+        return entry.tickLagNanos;
+    }
+
+    /**
+     * Method that sets the input of a session and schedules its next game update
+     * if the input has started or resumed it
+     *
+     * @param session   session the input is received for
+     * @param direction direction passed to the model, may be null
+     * @param nowNanos  current time as given by System.nanoTime()
+     */
+    void setInput(GameSession session, MovementDirection direction, long nowNanos) {
+        session.setInput(direction);
+        SessionEntry entry = sessions.get(session.getSessionId());
+        if (entry != null && !entry.isScheduled && session.isTicking()) {
+            schedule(entry, nowNanos + tickIntervalNanos);
+        }
+    }
+
+    /**
+     * Method that pauses a session until its next input
+     *
+     * @param session session that is paused
+     */
+    void pause(GameSession session) {
+        session.pause();
+        SessionEntry entry = sessions.get(session.getSessionId());
+        if (entry != null) {
+            unschedule(entry);
+        }
+    }
+
+    /**
+     * Method that restarts the game of a session, which waits for an input again
+     *
+     * @param session session that is restarted
+     */
+    void restart(GameSession session) {
+        session.restart();
+        SessionEntry entry = sessions.get(session.getSessionId());
+        if (entry != null) {
+            unschedule(entry);
+        }
+    }
+
+    /**
+     * Method that computes how long the event loop may wait before the next game
+     * update is due
+     *
+     * @param nowNanos current time as given by System.nanoTime()
+     * @return time until the next game update in nanoseconds, 0 if one is due, or
+     *         -1 if no session is scheduled
+     */
+    long getNanosUntilNextTick(long nowNanos) {
+        if (numOfScheduledSessions == 0) {
+            return -1;
+        }
+        for (long wheelTick = processedWheelTick + 1; wheelTick <= processedWheelTick + slots.length; wheelTick++) {
+            for (SessionEntry entry = slots[(int) wheelTick & slotMask]; entry != null; entry = entry.next) {
+                if (entry.wheelTick == wheelTick) {
+                    return Math.max(0, originNanos + wheelTick * RESOLUTION_NANOS - nowNanos);
+                }
+            }
+        }
+        // Only sessions scheduled more than a revolution ahead, which never happens
+        return RESOLUTION_NANOS;
+    }
+
+    /**
+     * Method that advances the timing wheel to the current time and performs a
+     * game update in every session that has become due. Sessions that are still
+     * ticking afterwards are scheduled one tick interval after their deadline,
+     * unless they have fallen too far behind.
+     *
+     * @param nowNanos current time as given by System.nanoTime()
+     * @return number of game updates performed
+     */
+    int tickDueSessions(long nowNanos) {
+        long targetWheelTick = Math.floorDiv(nowNanos - originNanos, RESOLUTION_NANOS);
+        if (targetWheelTick <= processedWheelTick) {
+            return 0;
+        }
+        // Sessions due are unlinked first, so a rescheduled session is not due again
+        SessionEntry dueEntries = null;
+        long numOfSteps = Math.min(targetWheelTick - processedWheelTick, slots.length);
+        for (long step = 1; step <= numOfSteps && numOfScheduledSessions > 0; step++) {
+            int slotIndex = (int) (processedWheelTick + step) & slotMask;
+            SessionEntry entry = slots[slotIndex];
+            while (entry != null) {
+                SessionEntry next = entry.next;
+                if (entry.wheelTick <= targetWheelTick) {
+                    unschedule(entry);
+                    entry.next = dueEntries;
+                    dueEntries = entry;
+                }
+                entry = next;
+            }
+        }
+        processedWheelTick = targetWheelTick;
+
+        int numOfGameUpdates = 0;
+        while (dueEntries != null) {
+            SessionEntry entry = dueEntries;
+            dueEntries = entry.next;
+            entry.next = null;
+            entry.tickLagNanos = nowNanos - entry.deadlineNanos;
+            if (entry.session.tick()) {
+                numOfGameUpdates++;
+            }
+            if (entry.session.isTicking() && sessions.containsKey(entry.session.getSessionId())) {
+                long nextDeadlineNanos = entry.deadlineNanos + tickIntervalNanos;
+                if (nowNanos - nextDeadlineNanos > MAX_TICK_LAG * tickIntervalNanos) {
+                    nextDeadlineNanos = nowNanos + tickIntervalNanos;
+                }
+                schedule(entry, nextDeadlineNanos);
+            }
+        }
+        return numOfGameUpdates;
+    }
+
+    /**
+     * Helper method that links a session into the slot of its deadline, rounded
+     * up so the session is never performed early
+     */
+    private void schedule(SessionEntry entry, long deadlineNanos) {
+        long deadlineWheelTick = Math.floorDiv(deadlineNanos - originNanos + RESOLUTION_NANOS - 1, RESOLUTION_NANOS);
+        entry.deadlineNanos = deadlineNanos;
+        entry.wheelTick = Math.max(deadlineWheelTick, processedWheelTick + 1);
+        int slotIndex = (int) entry.wheelTick & slotMask;
+        entry.previous = null;
+        entry.next = slots[slotIndex];
+        if (entry.next != null) {
+            entry.next.previous = entry;
+        }
+        slots[slotIndex] = entry;
+        entry.isScheduled = true;
+        numOfScheduledSessions++;
+    }
+
+    private void unschedule(SessionEntry entry) {
+        if (!entry.isScheduled) {
+            return;
+        }
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            slots[(int) entry.wheelTick & slotMask] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.next = null;
+        entry.previous = null;
+        entry.isScheduled = false;
+        numOfScheduledSessions--;
+    }
+
+    /**
+     * Hosted session together with its links in the timing wheel
+     */
+    private static final class SessionEntry {
+
+        private final GameSession session;
+
+        private SessionEntry next;
+
+        private SessionEntry previous;
+
+        private boolean isScheduled;
+
+        private long wheelTick;
+
+        private long deadlineNanos;
+
+        private volatile long tickLagNanos;
+
+        private SessionEntry(GameSession session) {
+            this.session = session;
+        }
+    }
+}
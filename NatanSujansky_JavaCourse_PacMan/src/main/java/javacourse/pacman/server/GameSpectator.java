@@ -0,0 +1,326 @@
+package javacourse.pacman.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.BitSet;
+
+import javacourse.pacman.model.level.LevelCompiler;
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.Sprite;
+
+/**
+ * Class that watches a game hosted by GameServer. Unlike GameClient it doesn't
+ * run a model: the state of the game is taken from the KEYFRAME frames and
+ * updated by the DELTA frames the server streams to its spectators. A spectator
+ * that falls behind skips game updates until the next keyframe, so its state
+ * can jump, but it is never older than the frames the server has sent.
+ *
+ * Apart from connecting, the spectator never blocks: received frames are
+ * applied by poll().
+ *
+ * @author Natan
+ *
+ */
+public final class GameSpectator implements AutoCloseable {
+
+    private final SocketChannel channel;
+
+    private final FrameReader frameReader;
+
+    private LevelLayout levelLayout;
+
+    private int sessionId;
+
+    private boolean hasKeyframe;
+
+    private int tick;
+
+    private long gameScore;
+
+    private byte flags;
+
+    private int pacManRowIndex;
+
+    private int pacManColumnIndex;
+
+    private long remainingGhostEatingTime;
+
+    private int[] ghostRowIndices;
+
+    private int[] ghostColumnIndices;
+
+    private boolean[] ghostDeadFlags;
+
+    private long[] ghostDeathTimes;
+
+    private BitSet smallDots;
+
+    private BitSet bigDots;
+
+    private int numOfKeyframes;
+
+    private int numOfDeltas;
+
+    /**
+     * Helper constructor that sends the WATCH message and waits for the first
+     * keyframe
+     *
+     * @param address address of the server
+     * @param request WATCH frame
+     * @throws IOException in case the connection fails or the server refuses the
+     *                     request
+     */
+    private GameSpectator(InetSocketAddress address, ByteBuffer request) throws IOException {
+        this.frameReader = new FrameReader();
+        channel = SocketChannel.open(address);
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            while (!hasKeyframe) {
+                frameReader.readFrames(channel, this::handleFrame);
+            }
+            channel.configureBlocking(false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Method that connects to the server and watches a running session
+     *
+     * @param address   address of the server
+     * @param sessionId identifier of the session
+     * @return spectator of the session
+     * @throws IOException in case the connection fails or the server refuses the
+     *                     request
+     */
+    public static GameSpectator watch(InetSocketAddress address, int sessionId) throws IOException {
+        return new GameSpectator(address,
+                GameProtocol.encodeFrame(GameProtocol.WATCH, dataStream -> dataStream.writeInt(sessionId)));
+    }
+
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    public LevelLayout getLevelLayout() {
+        return levelLayout;
+    }
+
+    /**
+     * Getter method for the number of game updates the state corresponds to
+     *
+     * @return number of game updates since the game started
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    public long getGameScore() {
+        return gameScore;
+    }
+
+    public boolean isGameOver() {
+        return (flags & GameProtocol.GAME_OVER_FLAG) != 0;
+    }
+
+    public boolean isPlayerVictorious() {
+        return (flags & GameProtocol.VICTORY_FLAG) != 0;
+    }
+
+    public int getPacManRowIndex() {
+        return pacManRowIndex;
+    }
+
+    public int getPacManColumnIndex() {
+        return pacManColumnIndex;
+    }
+
+    public boolean isGhostEatingActive() {
+        return (flags & GameProtocol.POWER_MODE_FLAG) != 0;
+    }
+
+    /**
+     * @return time left in ghost eating mode, in milliseconds, or 0 if the mode is
+     *         not active
+     */
+    public long getRemainingGhostEatingTime() {
+        return remainingGhostEatingTime;
+    }
+
+    public int getNumberOfGhosts() {
+        return ghostRowIndices.length;
+    }
+
+    public int getGhostRowIndex(int index) {
+        return ghostRowIndices[index];
+    }
+
+    public int getGhostColumnIndex(int index) {
+        return ghostColumnIndices[index];
+    }
+
+    public boolean isGhostDead(int index) {
+        return ghostDeadFlags[index];
+    }
+
+    /**
+     * @param index index of the ghost
+     * @return time left in dead state, in milliseconds, or 0 if the ghost is
+     *         alive
+     */
+    public long getRemainingDeathTime(int index) {
+        return ghostDeathTimes[index];
+    }
+
+    public boolean isSmallDot(int rowIndex, int columnIndex) {
+        return smallDots.get(rowIndex * levelLayout.getLevelWidth() + columnIndex);
+    }
+
+    public boolean isBigDot(int rowIndex, int columnIndex) {
+        return bigDots.get(rowIndex * levelLayout.getLevelWidth() + columnIndex);
+    }
+
+    public int getNumberOfSmallDots() {
+        return smallDots.cardinality();
+    }
+
+    public int getNumberOfBigDots() {
+        return bigDots.cardinality();
+    }
+
+    /**
+     * @return number of keyframes received, including the one received when
+     *         connecting
+     */
+    public int getNumberOfKeyframes() {
+        return numOfKeyframes;
+    }
+
+    /**
+     * @return number of deltas received
+     */
+    public int getNumberOfDeltas() {
+        return numOfDeltas;
+    }
+
+    /**
+     * Method that applies all frames received so far, without blocking
+     *
+     * @return number of keyframes and deltas applied
+     * @throws IOException           in case the connection fails, is closed by the
+     *                               server or the server reports an error
+     * @throws IllegalStateException in case a delta doesn't follow the state
+     */
+    public int poll() throws IOException {
+        int previousFrames = numOfKeyframes + numOfDeltas;
+        frameReader.readFrames(channel, this::handleFrame);
+        return numOfKeyframes + numOfDeltas - previousFrames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void handleFrame(byte type, ByteBuffer frame) throws IOException {
+        switch (type) {
+        case GameProtocol.WELCOME:
+            handleWelcome(frame);
+            break;
+        case GameProtocol.KEYFRAME:
+            handleKeyframe(frame);
+            break;
+        case GameProtocol.DELTA:
+            handleDelta(frame);
+            break;
+        default:
+            throw new IOException("Server sent an unknown frame!");
+        }
+    }
+
+    /**
+     * Helper method that loads the level, the rest of the welcome is meant for
+     * players
+     */
+    private void handleWelcome(ByteBuffer frame) {
+        sessionId = frame.getInt();
+        String levelName = GameProtocol.readUtf(frame);
+        int compiledLevelLength = frame.getInt();
+        levelLayout = LevelCompiler.load(levelName, frame.slice().limit(compiledLevelLength));
+    }
+
+    private void handleKeyframe(ByteBuffer frame) throws IOException {
+        if (levelLayout == null) {
+            throw new IOException("Server sent a keyframe before the welcome!");
+        }
+        tick = frame.getInt();
+        gameScore = frame.getLong();
+        readPacMan(frame);
+        int numOfGhosts = frame.getInt();
+        ghostRowIndices = new int[numOfGhosts];
+        ghostColumnIndices = new int[numOfGhosts];
+        ghostDeadFlags = new boolean[numOfGhosts];
+        ghostDeathTimes = new long[numOfGhosts];
+        for (int i = 0; i < numOfGhosts; i++) {
+            readGhost(frame, i);
+        }
+        int numOfWords = (levelLayout.getLevelHeight() * levelLayout.getLevelWidth() + Long.SIZE - 1) / Long.SIZE;
+        long[] words = new long[numOfWords];
+        frame.asLongBuffer().get(words);
+        smallDots = BitSet.valueOf(words);
+        frame.position(frame.position() + numOfWords * Long.BYTES);
+        frame.asLongBuffer().get(words);
+        bigDots = BitSet.valueOf(words);
+        hasKeyframe = true;
+        numOfKeyframes++;
+    }
+
+    private void handleDelta(ByteBuffer frame) {
+        int frameTick = frame.getInt();
+        if (!hasKeyframe || frameTick != tick + 1) {
+            throw new IllegalStateException("Game updates received out of order!");
+        }
+        tick = frameTick;
+        gameScore += frame.getLong();
+        readPacMan(frame);
+        int pacManCellIndex = pacManRowIndex * levelLayout.getLevelWidth() + pacManColumnIndex;
+        if ((flags & GameProtocol.SMALL_DOT_FLAG) != 0) {
+            smallDots.clear(pacManCellIndex);
+        }
+        if ((flags & GameProtocol.BIG_DOT_FLAG) != 0) {
+            bigDots.clear(pacManCellIndex);
+        }
+        // Ghosts that stay dead count down, the others are part of the delta
+        for (int i = 0; i < ghostDeathTimes.length; i++) {
+            if (ghostDeadFlags[i]) {
+                ghostDeathTimes[i] -= Sprite.MILLISECONDS_PER_GAME_UPDATE;
+            }
+        }
+        int numOfChanges = frame.getInt();
+        for (int i = 0; i < numOfChanges; i++) {
+            readGhost(frame, frame.getInt());
+        }
+        numOfDeltas++;
+    }
+
+    private void readPacMan(ByteBuffer frame) {
+        flags = frame.get();
+        pacManRowIndex = frame.getInt();
+        pacManColumnIndex = frame.getInt();
+        remainingGhostEatingTime = isGhostEatingActive() ? frame.getInt() : 0L;
+    }
+
+    private void readGhost(ByteBuffer frame, int index) {
+        ghostRowIndices[index] = frame.getInt();
+        ghostColumnIndices[index] = frame.getInt();
+        ghostDeadFlags[index] = frame.get() != 0;
+        ghostDeathTimes[index] = ghostDeadFlags[index] ? frame.getInt() : 0L;
+    }
+}
@@ -0,0 +1,329 @@
+package javacourse.pacman.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javacourse.pacman.model.model.GhostTable;
+import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.model.PacManSprite;
+import javacourse.pacman.model.model.RemainingDots;
+import javacourse.pacman.model.model.Sprite;
+
+/**
+ * Class that streams a session to its spectators. After every game update the
+ * changes since the previous one are encoded once into a DELTA frame: score
+ * change, Pac-Man's position, the dot he has eaten and his power-up time, and
+ * the ghosts that moved, died or revived. The frame is copied into a read-only
+ * buffer of its own, so the very same bytes are written to every spectator
+ * channel without a copy per spectator.
+ *
+ * A spectator whose previous frames haven't been written yet skips the delta
+ * instead of queueing it, and waits for a KEYFRAME holding the whole game
+ * state, which is sent every KEYFRAME_INTERVAL game updates. Slow spectators
+ * therefore never cause a backlog on the server. A keyframe is encoded at most
+ * once per game update, however many spectators need it.
+ *
+ * @author Natan
+ *
+ */
+final class SpectatorFeed {
+
+    /**
+     * Number of game updates between two keyframes for spectators that skipped
+     * deltas
+     */
+    static final int KEYFRAME_INTERVAL = 25;
+
+    /**
+     * Size of a changed ghost in a frame: index or row, column, dead flag and
+     * death time
+     */
+    private static final int GHOST_SIZE = 3 * Integer.BYTES + 1 + Integer.BYTES;
+
+    /**
+     * Size of the fixed part of a frame: length, type, game update index, score,
+     * flags, Pac-Man position, power-up time and number of ghosts
+     */
+    private static final int HEADER_SIZE = GameProtocol.LENGTH_SIZE + 1 + Integer.BYTES + Long.BYTES + 1
+            + 3 * Integer.BYTES + Integer.BYTES;
+
+    private static final int INITIAL_ENCODE_BUFFER_SIZE = 1024;
+
+    private final FrameSender frameSender;
+
+    private final List<ClientConnection> spectators;
+
+    /**
+     * Score, dot counts and ghost states the next delta is encoded against
+     */
+    private long score;
+    private int numOfSmallDots;
+    private int numOfBigDots;
+    private int[] ghostRowIndices;
+    private int[] ghostColumnIndices;
+    private boolean[] ghostDeadFlags;
+    private long[] ghostDeathTimes;
+
+    /**
+     * Buffer the frames are encoded into before they are copied into a shared
+     * buffer, allocated once the session has spectators
+     */
+    private ByteBuffer encodeBuffer;
+
+    /**
+     * Words the dot bitsets are copied into when a keyframe is encoded
+     */
+    private long[] dotWords;
+
+    /**
+     * Keyframe of the latest game update, or null if it hasn't been encoded
+     */
+    private ByteBuffer keyframe;
+
+    private int keyframeTick;
+
+    private long numOfEncodedFrames;
+
+    /**
+     * Constructor for SpectatorFeed class
+     *
+     * @param frameSender sender the frames are written with
+     */
+    SpectatorFeed(FrameSender frameSender) {
+        this.frameSender = frameSender;
+        this.spectators = new ArrayList<>();
+        this.ghostRowIndices = new int[0];
+        this.ghostColumnIndices = new int[0];
+        this.ghostDeadFlags = new boolean[0];
+        this.ghostDeathTimes = new long[0];
+    }
+
+    /**
+     * @return spectators of the session, which may be modified by the server
+     */
+    List<ClientConnection> getSpectators() {
+        return spectators;
+    }
+
+    /**
+     * @return number of DELTA and KEYFRAME frames encoded so far
+     */
+    long getNumberOfEncodedFrames() {
+        return numOfEncodedFrames;
+    }
+
+    /**
+     * Method that adds a spectator and sends it the keyframe of the current game
+     * update
+     *
+     * @param spectator spectator that is added
+     * @param model     model of the session
+     * @param tick      number of game updates performed
+     */
+    void addSpectator(ClientConnection spectator, PacManModel model, int tick) {
+        spectators.add(spectator);
+        sendKeyframe(spectator, model, tick);
+    }
+
+    /**
+     * Method that sends the keyframe of the current game update to a spectator
+     * that needs one
+     *
+     * @param spectator spectator the keyframe is sent to
+     * @param model     model of the session
+     * @param tick      number of game updates performed
+     */
+    void sendKeyframe(ClientConnection spectator, PacManModel model, int tick) {
+        if (keyframe == null || keyframeTick != tick) {
+            keyframe = encodeKeyframe(model, tick);
+            keyframeTick = tick;
+        }
+        spectator.setNeedsKeyframe(false);
+        frameSender.send(spectator, keyframe);
+    }
+
+    /**
+     * Method that sends the keyframe of a restarted game to all spectators
+     *
+     * @param model model of the session
+     */
+    void restart(PacManModel model) {
+        keyframe = null;
+        for (int i = spectators.size() - 1; i >= 0; i--) {
+            sendKeyframe(spectators.get(i), model, 0);
+        }
+    }
+
+    /**
+     * Method that streams a game update to the spectators. Spectators that are
+     * still being written to skip it, those waiting for a keyframe get one if it
+     * is a keyframe game update.
+     *
+     * @param model model of the session after the game update
+     * @param tick  number of game updates performed
+     */
+    void publish(PacManModel model, int tick) {
+        if (spectators.isEmpty()) {
+            return;
+        }
+        ByteBuffer delta = encodeDelta(model, tick);
+        keyframe = null;
+        boolean isKeyframeTick = tick % KEYFRAME_INTERVAL == 0;
+        for (int i = spectators.size() - 1; i >= 0; i--) {
+            ClientConnection spectator = spectators.get(i);
+            if (spectator.hasQueuedFrames()) {
+                spectator.setNeedsKeyframe(true);
+            } else if (!spectator.needsKeyframe()) {
+                frameSender.send(spectator, delta);
+            } else if (isKeyframeTick) {
+                sendKeyframe(spectator, model, tick);
+            }
+        }
+    }
+
+    /**
+     * Helper method that encodes the changes since the previous frame
+     */
+    private ByteBuffer encodeDelta(PacManModel model, int tick) {
+        GhostTable ghosts = model.getGhostTable();
+        ByteBuffer buffer = prepareEncodeBuffer(HEADER_SIZE + ghosts.size() * GHOST_SIZE);
+        buffer.putInt(0).put(GameProtocol.DELTA).putInt(tick).putLong(model.getGameScore() - score);
+        RemainingDots remainingDots = model.getRemainingDots();
+        byte flags = 0;
+        if (remainingDots.getNumberOfSmallDots() < numOfSmallDots) {
+            flags |= GameProtocol.SMALL_DOT_FLAG;
+        }
+        if (remainingDots.getNumberOfBigDots() < numOfBigDots) {
+            flags |= GameProtocol.BIG_DOT_FLAG;
+        }
+        putPacMan(buffer, model, flags);
+        int numOfChangesPosition = buffer.position();
+        buffer.putInt(0);
+        int numOfChanges = 0;
+        for (int i = 0; i < ghosts.size(); i++) {
+            if (isGhostChanged(ghosts, i)) {
+                buffer.putInt(i);
+                putGhost(buffer, ghosts, i);
+                numOfChanges++;
+            }
+        }
+        buffer.putInt(numOfChangesPosition, numOfChanges);
+        rememberState(model);
+        return share(buffer);
+    }
+
+    /**
+     * Helper method that encodes the whole game state
+     */
+    private ByteBuffer encodeKeyframe(PacManModel model, int tick) {
+        GhostTable ghosts = model.getGhostTable();
+        RemainingDots remainingDots = model.getRemainingDots();
+        int levelHeight = model.getLevelLayout().getLevelHeight();
+        int levelWidth = model.getLevelLayout().getLevelWidth();
+        int numOfWords = (levelHeight * levelWidth + Long.SIZE - 1) / Long.SIZE;
+        ByteBuffer buffer = prepareEncodeBuffer(
+                HEADER_SIZE + ghosts.size() * GHOST_SIZE + 2 * numOfWords * Long.BYTES);
+        buffer.putInt(0).put(GameProtocol.KEYFRAME).putInt(tick).putLong(model.getGameScore());
+        putPacMan(buffer, model, (byte) 0);
+        buffer.putInt(ghosts.size());
+        for (int i = 0; i < ghosts.size(); i++) {
+            putGhost(buffer, ghosts, i);
+        }
+        if (dotWords == null || dotWords.length != numOfWords) {
+            dotWords = new long[numOfWords];
+        }
+        remainingDots.copySmallDots(dotWords);
+        putWords(buffer, dotWords);
+        remainingDots.copyBigDots(dotWords);
+        putWords(buffer, dotWords);
+        rememberState(model);
+        return share(buffer);
+    }
+
+    /**
+     * Helper method that checks whether a ghost has to be part of a delta. The
+     * death time of a ghost that stays dead counts down by one game update on
+     * the spectator side, so it is only sent when the ghost has been killed
+     * again.
+     */
+    private boolean isGhostChanged(GhostTable ghosts, int index) {
+        if (ghosts.getRowIndex(index) != ghostRowIndices[index]
+                || ghosts.getColumnIndex(index) != ghostColumnIndices[index]
+                || ghosts.isGhostDead(index) != ghostDeadFlags[index]) {
+            return true;
+        }
+        return ghostDeadFlags[index]
+                && ghosts.getRemainingDeathTime(index) != ghostDeathTimes[index] - Sprite.MILLISECONDS_PER_GAME_UPDATE;
+    }
+
+    private void putPacMan(ByteBuffer buffer, PacManModel model, byte flags) {
+        PacManSprite pacMan = model.getPacMan();
+        boolean isPowerModeActive = pacMan.isGhostEatingActive();
+        if (isPowerModeActive) {
+            flags |= GameProtocol.POWER_MODE_FLAG;
+        }
+        buffer.put((byte) (flags | GameProtocol.encodeFlags(model))).putInt(pacMan.getRowIndex())
+                .putInt(pacMan.getColumnIndex());
+        if (isPowerModeActive) {
+            buffer.putInt((int) pacMan.getRemainingGhostEatingTime());
+        }
+    }
+
+    private static void putGhost(ByteBuffer buffer, GhostTable ghosts, int index) {
+        boolean isDead = ghosts.isGhostDead(index);
+        buffer.putInt(ghosts.getRowIndex(index)).putInt(ghosts.getColumnIndex(index)).put((byte) (isDead ? 1 : 0));
+        if (isDead) {
+            buffer.putInt((int) ghosts.getRemainingDeathTime(index));
+        }
+    }
+
+    /**
+     * Helper method that remembers the state the next delta is encoded against
+     */
+    private void rememberState(PacManModel model) {
+        score = model.getGameScore();
+        numOfSmallDots = model.getRemainingDots().getNumberOfSmallDots();
+        numOfBigDots = model.getRemainingDots().getNumberOfBigDots();
+        GhostTable ghosts = model.getGhostTable();
+        if (ghostRowIndices.length != ghosts.size()) {
+            ghostRowIndices = new int[ghosts.size()];
+            ghostColumnIndices = new int[ghosts.size()];
+            ghostDeadFlags = new boolean[ghosts.size()];
+            ghostDeathTimes = new long[ghosts.size()];
+        }
+        for (int i = 0; i < ghosts.size(); i++) {
+            ghostRowIndices[i] = ghosts.getRowIndex(i);
+            ghostColumnIndices[i] = ghosts.getColumnIndex(i);
+            ghostDeadFlags[i] = ghosts.isGhostDead(i);
+            ghostDeathTimes[i] = ghostDeadFlags[i] ? ghosts.getRemainingDeathTime(i) : 0L;
+        }
+    }
+
+    private static void putWords(ByteBuffer buffer, long[] words) {
+        buffer.asLongBuffer().put(words);
+        buffer.position(buffer.position() + words.length * Long.BYTES);
+    }
+
+    private ByteBuffer prepareEncodeBuffer(int maxFrameSize) {
+        if (encodeBuffer == null) {
+            encodeBuffer = ByteBuffer.allocate(Math.max(maxFrameSize, INITIAL_ENCODE_BUFFER_SIZE));
+        } else if (encodeBuffer.capacity() < maxFrameSize) {
+            encodeBuffer = ByteBuffer.allocate(Math.max(maxFrameSize, encodeBuffer.capacity() * 2));
+        }
+        return encodeBuffer.clear();
+    }
+
+    /**
+     * Helper method that copies an encoded frame into a read-only heap buffer
+     * shared by all spectators. Direct buffers are not used, as they are costly
+     * to allocate once per frame and the channels copy heap buffers into a
+     * cached direct one.
+     */
+    private ByteBuffer share(ByteBuffer buffer) {
+        buffer.putInt(0, buffer.position() - GameProtocol.LENGTH_SIZE);
+        numOfEncodedFrames++;
+        return ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.position())).asReadOnlyBuffer();
+    }
+}
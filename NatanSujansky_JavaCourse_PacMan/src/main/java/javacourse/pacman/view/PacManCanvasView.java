@@ -0,0 +1,228 @@
+package javacourse.pacman.view;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.CellChangeSet;
+import javacourse.pacman.model.model.GhostTable;
+import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.model.PacManSprite;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * View that renders the Pac-Man game on a single Canvas, which scales to levels
+ * far larger than one node per cell allows. Walls never change, so they are
+ * drawn once into an offscreen image. The canvas keeps its content between
+ * frames, so each update only repaints the cells reported as changed by the
+ * model and the cells sprites were drawn on, and then draws the sprites on top.
+ *
+ * @author Natan
+ *
+ */
+public class PacManCanvasView extends Canvas implements PacManView {
+
+    /**
+     * Upper bound of the canvas width and height in pixels. Cells of large levels
+     * are shrunk to fit.
+     */
+    private static final int MAX_CANVAS_DIMENSION = 4096;
+
+    private static final String[] GHOST_IMAGE_NAMES = { "ghost_1.gif", "ghost_2.gif" };
+
+    /**
+     * Preferred cell dimension in pixels
+     */
+    private final int preferredCellDimension;
+
+    private PacManModel model;
+
+    private Map<String, Image> imageMap;
+
+    /**
+     * Cell dimension used for the current level, in pixels
+     */
+    private int cellDimension;
+
+    /**
+     * Offscreen image with the walls of the whole level, transparent elsewhere
+     */
+    private WritableImage wallLayer;
+
+    /**
+     * Packed indices (row * width + column) of the cells sprites were drawn on in
+     * the last frame
+     */
+    private List<Integer> spriteCells;
+
+    /**
+     * Constructor for PacManCanvasView class
+     *
+     * @param preferredCellDimension cell dimension in pixels used unless the level
+     *                               is too large to fit
+     */
+    public PacManCanvasView(int preferredCellDimension) {
+        this.preferredCellDimension = preferredCellDimension;
+    }
+
+    /**
+     * Method that is used for reinitializing the view with the new model that has
+     * been provided. It sizes the canvas, renders the wall layer and draws the
+     * whole level once.
+     *
+     * @param pacManModel object defining the model for PacMan game
+     * @throws IllegalStateException in case image resources cannot be loaded
+     */
+    @Override
+    public void initializeGrid(PacManModel pacManModel) {
+        this.model = pacManModel;
+        LevelLayout levelLayout = model.getLevelLayout();
+        int levelHeight = levelLayout.getLevelHeight();
+        int levelWidth = levelLayout.getLevelWidth();
+        int largestDimension = Math.max(levelHeight, levelWidth);
+        int newCellDimension = Math.max(1, Math.min(preferredCellDimension, MAX_CANVAS_DIMENSION / largestDimension));
+        if (imageMap == null || newCellDimension != cellDimension) {
+            cellDimension = newCellDimension;
+            try {
+                imageMap = SpriteImages.load(cellDimension);
+            } catch (IOException e) {
+                throw new IllegalStateException("Game images cannot be loaded!", e);
+            }
+        }
+        setWidth(levelWidth * cellDimension);
+        setHeight(levelHeight * cellDimension);
+
+        wallLayer = new WritableImage(levelWidth * cellDimension, levelHeight * cellDimension);
+        PixelWriter pixelWriter = wallLayer.getPixelWriter();
+        PixelReader wallReader = imageMap.get("wall.png").getPixelReader();
+        for (int i = 0; i < levelHeight; i++) {
+            for (int j = 0; j < levelWidth; j++) {
+                if (levelLayout.isWall(i, j)) {
+                    pixelWriter.setPixels(j * cellDimension, i * cellDimension, cellDimension, cellDimension,
+                            wallReader, 0, 0);
+                }
+            }
+        }
+
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, getWidth(), getHeight());
+        gc.drawImage(wallLayer, 0, 0);
+        for (int i = 0; i < levelHeight; i++) {
+            for (int j = 0; j < levelWidth; j++) {
+                drawDot(gc, i, j);
+            }
+        }
+        spriteCells = new ArrayList<>();
+        model.clearChangedCells();
+        drawSprites(gc, 1.0);
+    }
+
+    /**
+     * Method used for updating the view to reflect the updated Pac-Man game model
+     *
+     * @param interpolation fraction of the game update interval that has passed
+     *                      since the latest game update
+     */
+    @Override
+    public void update(double interpolation) {
+        if (this.model == null) {
+            throw new IllegalStateException("CanvasView hasn't been initialized yet!");
+        }
+        GraphicsContext gc = getGraphicsContext2D();
+        int levelWidth = model.getLevelLayout().getLevelWidth();
+        for (int cellIndex : spriteCells) {
+            repaintCell(gc, cellIndex / levelWidth, cellIndex % levelWidth);
+        }
+        CellChangeSet changedCells = model.getChangedCells();
+        for (int i = 0; i < changedCells.size(); i++) {
+            repaintCell(gc, changedCells.getRowIndex(i), changedCells.getColumnIndex(i));
+        }
+        model.clearChangedCells();
+        drawSprites(gc, interpolation);
+    }
+
+    @Override
+    public Node getNode() {
+        return this;
+    }
+
+    /**
+     * Helper method that restores the static content of one cell: background,
+     * wall and dot
+     */
+    private void repaintCell(GraphicsContext gc, int rowIndex, int columnIndex) {
+        double x = columnIndex * cellDimension;
+        double y = rowIndex * cellDimension;
+        gc.setFill(Color.BLACK);
+        gc.fillRect(x, y, cellDimension, cellDimension);
+        gc.drawImage(wallLayer, x, y, cellDimension, cellDimension, x, y, cellDimension, cellDimension);
+        drawDot(gc, rowIndex, columnIndex);
+    }
+
+    /**
+     * Helper method that draws the dot of the given cell, if there is one
+     */
+    private void drawDot(GraphicsContext gc, int rowIndex, int columnIndex) {
+        switch (model.componentAt(rowIndex, columnIndex)) {
+        case SMALL_DOT:
+            drawCellImage(gc, "small_dot.png", rowIndex, columnIndex);
+            break;
+        case BIG_DOT:
+            drawCellImage(gc, "big_dot.png", rowIndex, columnIndex);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Helper method that draws Pac-Man and the visible ghosts, and remembers the
+     * cells they were drawn on
+     */
+    private void drawSprites(GraphicsContext gc, double interpolation) {
+        spriteCells.clear();
+        PacManSprite pacMan = model.getPacMan();
+        drawSpriteImage(gc, SpriteImages.getPacManImageName(pacMan), pacMan.getPreviousRowIndex(),
+                pacMan.getPreviousColumnIndex(), pacMan.getRowIndex(), pacMan.getColumnIndex(), interpolation);
+        GhostTable ghosts = model.getGhostTable();
+        for (int i = 0; i < ghosts.size(); i++) {
+            if (SpriteImages.isGhostVisible(ghosts, i, pacMan)) {
+                String imageName = SpriteImages.isGhostBlue(ghosts, i, pacMan) ? "blue_ghost.gif"
+                        : GHOST_IMAGE_NAMES[i % GHOST_IMAGE_NAMES.length];
+                drawSpriteImage(gc, imageName, ghosts.getPreviousRowIndex(i), ghosts.getPreviousColumnIndex(i),
+                        ghosts.getRowIndex(i), ghosts.getColumnIndex(i), interpolation);
+            }
+        }
+    }
+
+    /**
+     * Helper method that draws a sprite, shifted towards its previous cell while
+     * the move is interpolated. Both cells the sprite overlaps are remembered.
+     */
+    private void drawSpriteImage(GraphicsContext gc, String imageName, int previousRowIndex,
+            int previousColumnIndex, int rowIndex, int columnIndex, double interpolation) {
+        double rowOffset = SpriteImages.getOffset(previousRowIndex, rowIndex, interpolation);
+        double columnOffset = SpriteImages.getOffset(previousColumnIndex, columnIndex, interpolation);
+        gc.drawImage(imageMap.get(imageName), (columnIndex + columnOffset) * cellDimension,
+                (rowIndex + rowOffset) * cellDimension);
+        int levelWidth = model.getLevelLayout().getLevelWidth();
+        spriteCells.add(rowIndex * levelWidth + columnIndex);
+        if (rowOffset != 0 || columnOffset != 0) {
+            spriteCells.add(previousRowIndex * levelWidth + previousColumnIndex);
+        }
+    }
+
+    private void drawCellImage(GraphicsContext gc, String imageName, int rowIndex, int columnIndex) {
+        gc.drawImage(imageMap.get(imageName), columnIndex * cellDimension, rowIndex * cellDimension);
+    }
+}
@@ -1,32 +1,48 @@
 package javacourse.pacman.view;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
 
-import javacourse.pacman.model.model.GhostSprite;
+import javacourse.pacman.model.model.CellChangeSet;
+import javacourse.pacman.model.model.GhostTable;
 import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.model.PacManSprite;
+import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
 
-public class PacManGridView extends GridPane {
+/**
+ * View that renders the Pac-Man game as a GridPane with one ImageView node per
+ * level cell and per sprite
+ *
+ * @author Natan
+ *
+ */
+public class PacManGridView extends GridPane implements PacManView {
 
     private static final double CELL_DIMENSION = 30.0;
 
-    private static final int GHOST_BLINKING_TIME_MS = 3_000;
-
-    private static final String[] IMAGE_FILE_NAMES = { "big_dot.png", "blue_ghost.gif", "ghost_1.gif", "ghost_2.gif",
-            "pacman_down.gif", "pacman_left.gif", "pacman_right.gif", "pacman_up.gif", "small_dot.png", "wall.png" };
-
     private PacManModel model;
 
     private Map<String, Image> imageMap;
 
     private ImageView pacManImage;
 
-    private Map<GhostSprite, ImageView> ghostImageMap;
+    /**
+     * Nodes of the ghosts, indexed the same way as the model's ghost table
+     */
+    private ImageView[] ghostImages;
+
+    /**
+     * Image each ghost is drawn with while it is not blue
+     */
+    private Image[] ghostNormalImages;
+
+    /**
+     * Nodes of the static level cells, created once per model
+     */
+    private ImageView[][] cellImages;
 
     private boolean isRedGhostImageLastUsed;
 
@@ -37,34 +53,39 @@ public class PacManGridView extends GridPane {
      *                     resource file
      */
     public PacManGridView() throws IOException {
-        imageMap = new HashMap<>();
-        Image image;
-        for (String imageName : IMAGE_FILE_NAMES) {
-            try (InputStream inputStream = getClass().getResourceAsStream("/graphics/" + imageName)) {
-                if (inputStream == null) {
-                    throw new IllegalArgumentException(
-                            "No resource found on the provided path: /graphics/" + imageName);
-                }
-                image = new Image(inputStream, CELL_DIMENSION, CELL_DIMENSION, false, false);
-                imageMap.put(imageName, image);
-            } catch (IOException e) {
-                e.printStackTrace();
-                throw e;
-            }
-        }
+        imageMap = SpriteImages.load(CELL_DIMENSION);
     }
 
     /**
      * Method that is used for reinitializing the view with the new model that has
-     * been provided
+     * been provided. It creates the nodes of all level cells and sprites, which
+     * are then reused by every update.
      *
      * @param pacManModel object defining the model for PacMan game
      */
+    @Override
     public void initializeGrid(PacManModel pacManModel) {
         this.model = pacManModel;
-        ghostImageMap = new HashMap<>();
+        this.getChildren().clear();
+        int levelHeight = model.getLevelLayout().getLevelHeight();
+        int levelWidth = model.getLevelLayout().getLevelWidth();
+        cellImages = new ImageView[levelHeight][levelWidth];
+        for (int i = 0; i < levelHeight; i++) {
+            for (int j = 0; j < levelWidth; j++) {
+                ImageView iv = new ImageView();
+                cellImages[i][j] = iv;
+                updateCell(i, j);
+                this.getChildren().add(iv);
+                GridPane.setConstraints(iv, j, i);
+            }
+        }
+
         pacManImage = new ImageView();
-        for (GhostSprite ghost : model.getGhosts()) {
+        this.getChildren().add(pacManImage);
+        GhostTable ghosts = model.getGhostTable();
+        ghostImages = new ImageView[ghosts.size()];
+        ghostNormalImages = new Image[ghosts.size()];
+        for (int i = 0; i < ghosts.size(); i++) {
             ImageView iv = new ImageView();
             if (!isRedGhostImageLastUsed) {
                 iv.setImage(imageMap.get("ghost_1.gif"));
@@ -73,87 +94,94 @@ public class PacManGridView extends GridPane {
                 iv.setImage(imageMap.get("ghost_2.gif"));
                 isRedGhostImageLastUsed = false;
             }
-            ghostImageMap.put(ghost, iv);
+            ghostImages[i] = iv;
+            ghostNormalImages[i] = iv.getImage();
+            this.getChildren().add(iv);
         }
-        update();
+        model.clearChangedCells();
+        updateSprites(1.0);
     }
 
     /**
-     * Method used for updating the view to reflect the updated Pac-Man game model
+     * Method used for updating the view to reflect the updated Pac-Man game model.
+     * Only the cells reported as changed by the model are refreshed.
+     *
+     * @param interpolation fraction of the game update interval that has passed
+     *                      since the latest game update
      */
-    public void update() {
+    @Override
+    public void update(double interpolation) {
         if (this.model == null) {
             throw new IllegalStateException("GridView hasn't been initialized yet!");
         }
-        this.getChildren().clear();
-        for (int i = 0; i < model.getLevelLayout().getLevelHeight(); i++) {
-            for (int j = 0; j < model.getLevelLayout().getLevelWidth(); j++) {
-                ImageView iv = new ImageView();
-                switch (model.componentAt(i, j)) {
-                case WALL:
-                    iv.setImage(imageMap.get("wall.png"));
-                    break;
-                case SMALL_DOT:
-                    iv.setImage(imageMap.get("small_dot.png"));
-                    break;
-                case BIG_DOT:
-                    iv.setImage(imageMap.get("big_dot.png"));
-                    break;
-                default:
-                    break;
-                }
-                this.getChildren().add(iv);
-                GridPane.setConstraints(iv, j, i);
-            }
+        CellChangeSet changedCells = model.getChangedCells();
+        for (int i = 0; i < changedCells.size(); i++) {
+            updateCell(changedCells.getRowIndex(i), changedCells.getColumnIndex(i));
         }
-        if (model.getPacMan().getMovementDirection() == null) {
-            pacManImage.setImage(imageMap.get("pacman_left.gif"));
-        } else {
-            switch (model.getPacMan().getMovementDirection()) {
-            case UP:
-                pacManImage.setImage(imageMap.get("pacman_up.gif"));
-                break;
-            case DOWN:
-                pacManImage.setImage(imageMap.get("pacman_down.gif"));
-                break;
-            case RIGHT:
-                pacManImage.setImage(imageMap.get("pacman_right.gif"));
-                break;
-            case LEFT:
-                pacManImage.setImage(imageMap.get("pacman_left.gif"));
-                break;
-            default:
-                break;
-            }
+        model.clearChangedCells();
+        updateSprites(interpolation);
+    }
+
+    @Override
+    public Node getNode() {
+        return this;
+    }
+
+    /**
+     * Helper method that sets the image of the given cell according to its current
+     * component in the model
+     *
+     * @param rowIndex    first coordinate of the cell
+     * @param columnIndex second coordinate of the cell
+     */
+    private void updateCell(int rowIndex, int columnIndex) {
+        Image image;
+        switch (model.componentAt(rowIndex, columnIndex)) {
+        case WALL:
+            image = imageMap.get("wall.png");
+            break;
+        case SMALL_DOT:
+            image = imageMap.get("small_dot.png");
+            break;
+        case BIG_DOT:
+            image = imageMap.get("big_dot.png");
+            break;
+        default:
+            image = null;
+            break;
         }
-        this.getChildren().add(pacManImage);
-        GridPane.setConstraints(pacManImage, model.getPacMan().getColumnIndex(), model.getPacMan().getRowIndex());
+        cellImages[rowIndex][columnIndex].setImage(image);
+    }
 
-        for (int i = 0; i < ghostImageMap.size(); i++) {
-            ImageView iv = new ImageView();
-            if (model.getGhosts().get(i).isGhostDead()) {
-                if (model.getGhosts().get(i).getRemainingDeathTime() <= GHOST_BLINKING_TIME_MS) {
-                    if (model.getGhosts().get(i).getGhostDeathUpdateCounter() % 2 == 0) {
-                        iv = ghostImageMap.get(model.getGhosts().get(i));
-                    } else {
-                        continue;
-                    }
-                }
-            } else if (model.getPacMan().isGhostEatingActive()) {
+    /**
+     * Helper method that moves the sprite nodes to the current sprite positions
+     * and updates their images. Nodes of sprites that just moved are translated
+     * back towards their previous cell according to the interpolation.
+     */
+    private void updateSprites(double interpolation) {
+        PacManSprite pacMan = model.getPacMan();
+        pacManImage.setImage(imageMap.get(SpriteImages.getPacManImageName(pacMan)));
+        placeSprite(pacManImage, pacMan.getPreviousRowIndex(), pacMan.getPreviousColumnIndex(), pacMan.getRowIndex(),
+                pacMan.getColumnIndex(), interpolation);
+
+        GhostTable ghosts = model.getGhostTable();
+        for (int i = 0; i < ghostImages.length; i++) {
+            ImageView iv = ghostImages[i];
+            if (SpriteImages.isGhostBlue(ghosts, i, pacMan)) {
                 iv.setImage(imageMap.get("blue_ghost.gif"));
-                if (model.getPacMan().getRemainingGhostEatingTime() <= GHOST_BLINKING_TIME_MS) {
-                    if (model.getPacMan().getGhostEatingUpdatesCounter() % 2 == 0) {
-                        iv.setVisible(true);
-                    } else {
-                        iv.setVisible(false);
-                    }
-                }
             } else {
-                iv = ghostImageMap.get(model.getGhosts().get(i));
+                iv.setImage(ghostNormalImages[i]);
             }
-            this.getChildren().add(iv);
-            GridPane.setConstraints(iv, model.getGhosts().get(i).getColumnIndex(),
-                    model.getGhosts().get(i).getRowIndex());
+            iv.setVisible(SpriteImages.isGhostVisible(ghosts, i, pacMan));
+            placeSprite(iv, ghosts.getPreviousRowIndex(i), ghosts.getPreviousColumnIndex(i), ghosts.getRowIndex(i),
+                    ghosts.getColumnIndex(i), interpolation);
         }
     }
+
+    private void placeSprite(ImageView iv, int previousRowIndex, int previousColumnIndex, int rowIndex,
+            int columnIndex, double interpolation) {
+        GridPane.setConstraints(iv, columnIndex, rowIndex);
+        iv.setTranslateX(SpriteImages.getOffset(previousColumnIndex, columnIndex, interpolation) * CELL_DIMENSION);
+        iv.setTranslateY(SpriteImages.getOffset(previousRowIndex, rowIndex, interpolation) * CELL_DIMENSION);
+    }
 }
@@ -0,0 +1,48 @@
+package javacourse.pacman.view;
+
+import javacourse.pacman.model.model.PacManModel;
+import javafx.scene.Node;
+
+/**
+ * Interface implemented by the views that render the Pac-Man game model
+ *
+ * @author Natan
+ *
+ */
+public interface PacManView {
+
+    /**
+     * Method that is used for reinitializing the view with the new model that has
+     * been provided
+     *
+     * @param pacManModel object defining the model for PacMan game
+     */
+    void initializeGrid(PacManModel pacManModel);
+
+    /**
+     * Method used for updating the view to reflect the updated Pac-Man game model,
+     * with sprites drawn at their current positions
+     *
+     * @throws IllegalStateException in case the view hasn't been initialized yet
+     */
+    default void update() {
+        update(1.0);
+    }
+
+    /**
+     * Method used for updating the view to reflect the updated Pac-Man game model.
+     * Sprites that moved by one cell in the latest game update are drawn between
+     * their previous and current positions.
+     *
+     * @param interpolation fraction of the game update interval that has passed
+     *                      since the latest game update, from 0 (previous
+     *                      position) to 1 (current position)
+     * @throws IllegalStateException in case the view hasn't been initialized yet
+     */
+    void update(double interpolation);
+
+    /**
+     * @return scene graph node displaying the view
+     */
+    Node getNode();
+}
@@ -0,0 +1,123 @@
+package javacourse.pacman.view;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javacourse.pacman.model.model.GhostTable;
+import javacourse.pacman.model.model.PacManSprite;
+import javafx.scene.image.Image;
+
+/**
+ * Helper class with the image resources and sprite appearance rules shared by
+ * the Pac-Man views
+ *
+ * @author Natan
+ *
+ */
+final class SpriteImages {
+
+    static final int GHOST_BLINKING_TIME_MS = 3_000;
+
+    private static final String[] IMAGE_FILE_NAMES = { "big_dot.png", "blue_ghost.gif", "ghost_1.gif", "ghost_2.gif",
+            "pacman_down.gif", "pacman_left.gif", "pacman_right.gif", "pacman_up.gif", "small_dot.png", "wall.png" };
+
+    private SpriteImages() {
+    }
+
+    /**
+     * Method that loads all game images at the given size
+     *
+     * @param cellDimension width and height of the loaded images
+     * @return map of image file names to the loaded images
+     * @throws IOException in case there is and I/O error during reading of image
+     *                     resource file
+     */
+    static Map<String, Image> load(double cellDimension) throws IOException {
+        Map<String, Image> imageMap = new HashMap<>();
+        Image image;
+        for (String imageName : IMAGE_FILE_NAMES) {
+            try (InputStream inputStream = SpriteImages.class.getResourceAsStream("/graphics/" + imageName)) {
+                if (inputStream == null) {
+                    throw new IllegalArgumentException(
+                            "No resource found on the provided path: /graphics/" + imageName);
+                }
+                image = new Image(inputStream, cellDimension, cellDimension, false, false);
+                imageMap.put(imageName, image);
+            } catch (IOException e) {
+                e.printStackTrace();
+                throw e;
+            }
+        }
+        return imageMap;
+    }
+
+    /**
+     * @param pacMan Pac-Man sprite
+     * @return name of the image matching Pac-Man's movement direction
+     */
+    static String getPacManImageName(PacManSprite pacMan) {
+        if (pacMan.getMovementDirection() == null) {
+            return "pacman_left.gif";
+        }
+        switch (pacMan.getMovementDirection()) {
+        case UP:
+            return "pacman_up.gif";
+        case DOWN:
+            return "pacman_down.gif";
+        case RIGHT:
+            return "pacman_right.gif";
+        default:
+            return "pacman_left.gif";
+        }
+    }
+
+    /**
+     * @param ghosts     view of the ghosts
+     * @param ghostIndex index of the ghost
+     * @param pacMan     Pac-Man sprite
+     * @return true if the ghost should be drawn blue, i.e. it is alive while
+     *         Pac-Man is powered-up
+     */
+    static boolean isGhostBlue(GhostTable ghosts, int ghostIndex, PacManSprite pacMan) {
+        return !ghosts.isGhostDead(ghostIndex) && pacMan.isGhostEatingActive();
+    }
+
+    /**
+     * Method that decides whether the ghost is drawn in the current frame. Dead
+     * ghosts are hidden and blink shortly before respawning, blue ghosts blink
+     * shortly before Pac-Man's power-up runs out.
+     *
+     * @param ghosts     view of the ghosts
+     * @param ghostIndex index of the ghost
+     * @param pacMan     Pac-Man sprite
+     * @return true if the ghost should be drawn
+     */
+    static boolean isGhostVisible(GhostTable ghosts, int ghostIndex, PacManSprite pacMan) {
+        if (ghosts.isGhostDead(ghostIndex)) {
+            return ghosts.getRemainingDeathTime(ghostIndex) <= GHOST_BLINKING_TIME_MS
+                    && ghosts.getGhostDeathUpdateCounter(ghostIndex) % 2 == 0;
+        } else if (pacMan.isGhostEatingActive() && pacMan.getRemainingGhostEatingTime() <= GHOST_BLINKING_TIME_MS) {
+            return pacMan.getGhostEatingUpdatesCounter() % 2 == 0;
+        }
+        return true;
+    }
+
+    /**
+     * Method that calculates how far, in cells, a sprite has to be drawn from its
+     * current row or column. Moves longer than one cell (respawns, tunnel
+     * wrap-arounds) are not interpolated.
+     *
+     * @param previousIndex row or column before the latest game update
+     * @param currentIndex  current row or column
+     * @param interpolation fraction of the game update interval that has passed
+     * @return offset in cells, between -1 and 1
+     */
+    static double getOffset(int previousIndex, int currentIndex, double interpolation) {
+        if (Math.abs(currentIndex - previousIndex) != 1) {
+            return 0;
+        }
+        return (previousIndex - currentIndex) * (1 - Math.min(1, Math.max(0, interpolation)));
+    }
+}
@@ -0,0 +1,97 @@
+package javacourse.pacman.model.level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit test class for LevelCompiler class
+ *
+ * @author Natan
+ *
+ */
+public class LevelCompilerTest {
+
+    /**
+     * Test for compiling a level file and loading it back through a memory
+     * mapping
+     *
+     * @param tempDirectory temporary directory for the level files
+     * @throws IOException in case the level cannot be read or written
+     */
+    @Test
+    public void compileAndLoadTest(@TempDir Path tempDirectory) throws IOException {
+        Path levelFile = tempDirectory.resolve("level1.txt");
+        try (InputStream inputStream = getClass().getResourceAsStream("/levels/level1.txt")) {
+            Files.copy(inputStream, levelFile);
+        }
+        Path compiledFile = tempDirectory.resolve("level1.pml");
+        LevelCompiler.compile(levelFile, compiledFile);
+        // 28 bytes of header and 399 cells packed two per byte
+        assertEquals(28 + 200, Files.size(compiledFile), "Compiled level size not as expected!");
+
+        LevelLayout expectedLayout = new LevelLayout("Level", "/levels/level1.txt");
+        LevelLayout testLayout = LevelCompiler.load("Compiled level", compiledFile);
+        assertEquals("Compiled level", testLayout.getLevelName(), "Level name not as expected!");
+        assertEquals(expectedLayout.getLevelHeight(), testLayout.getLevelHeight(), "Level height not as expected!");
+        assertEquals(expectedLayout.getLevelWidth(), testLayout.getLevelWidth(), "Level width not as expected!");
+        assertEquals(expectedLayout.getNumberOfGhosts(), testLayout.getNumberOfGhosts(),
+                "Number of ghosts not as expected!");
+        assertEquals(expectedLayout.getNumberOfSmallDots(), testLayout.getNumberOfSmallDots(),
+                "Number of small dots not as expected!");
+        assertEquals(expectedLayout.getNumberOfBigDots(), testLayout.getNumberOfBigDots(),
+                "Number of big dots not as expected!");
+        for (int i = 0; i < expectedLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < expectedLayout.getLevelWidth(); j++) {
+                assertEquals(expectedLayout.getComponent(i, j), testLayout.getComponent(i, j),
+                        "Cell component not as expected!");
+                assertEquals(expectedLayout.getExitMask(i, j), testLayout.getExitMask(i, j),
+                        "Exit mask not as expected!");
+            }
+        }
+    }
+
+    /**
+     * Test for loading invalid compiled levels
+     *
+     * @throws IOException in case the level cannot be read
+     */
+    @Test
+    public void loadTestNegative() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        LevelCompiler.compile(new LevelLayout("Level", "/levels/level1.txt"), outputStream);
+        byte[] compiledLevel = outputStream.toByteArray();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> LevelCompiler.load("Level", ByteBuffer.wrap("W W W".getBytes())));
+        assertEquals("Not a compiled level file!", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> LevelCompiler.load("Level",
+                ByteBuffer.wrap(Arrays.copyOf(compiledLevel, compiledLevel.length - 1))));
+        assertEquals("Compiled level file is truncated!", exception.getMessage());
+
+        byte[] corruptedLevel = compiledLevel.clone();
+        // number of small dots in the header
+        corruptedLevel[23]++;
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> LevelCompiler.load("Level", ByteBuffer.wrap(corruptedLevel)));
+        assertEquals("Compiled level header does not match its cells!", exception.getMessage());
+
+        corruptedLevel[23]--;
+        // first cell set to an unknown component
+        corruptedLevel[28] = (byte) 0xF3;
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> LevelCompiler.load("Level", ByteBuffer.wrap(corruptedLevel)));
+        assertEquals("Unknown level cell component: 15", exception.getMessage());
+    }
+}
@@ -0,0 +1,176 @@
+package javacourse.pacman.model.level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test class for LevelGenerator class
+ *
+ * @author Natan
+ *
+ */
+public class LevelGeneratorTest {
+
+    /**
+     * Test that generated levels of various sizes, including sizes spanning many
+     * tiles, are valid, symmetric, connected and have tunnels
+     */
+    @Test
+    public void generateTest() {
+        int[][] dimensions = { { 10, 10 }, { 11, 11 }, { 21, 19 }, { 19, 20 }, { 300, 257 }, { 131, 1000 } };
+        for (int[] dimension : dimensions) {
+            int levelHeight = dimension[0];
+            int levelWidth = dimension[1];
+            LevelLayout levelLayout = LevelGenerator.generate("Maze", levelHeight, levelWidth, 4, 7L);
+            assertEquals(levelHeight, levelLayout.getLevelHeight(), "Level height not as expected!");
+            assertEquals(levelWidth, levelLayout.getLevelWidth(), "Level width not as expected!");
+            assertEquals(4, levelLayout.getNumberOfGhosts(), "Number of ghosts not as expected!");
+            assertTrue(levelLayout.getNumberOfBigDots() > 0, "No big dots generated!");
+
+            boolean hasTunnel = false;
+            for (int i = 0; i < levelHeight; i++) {
+                for (int j = 0; j < levelWidth; j++) {
+                    assertEquals(levelLayout.isWall(i, j), levelLayout.isWall(i, levelWidth - 1 - j),
+                            "Level not symmetric!");
+                    boolean isBorder = i == 0 || j == 0 || i == levelHeight - 1 || j == levelWidth - 1;
+                    if (isBorder && !levelLayout.isWall(i, j)) {
+                        assertEquals(LevelCellComponent.EMPTY, levelLayout.getComponent(i, j),
+                                "Tunnel cell not as expected!");
+                        hasTunnel = true;
+                    }
+                    // The right half is a mirror image, so checking the left half suffices
+                    if (i % 2 == 0 && j % 2 == 0 && j <= (levelWidth - 1) / 2) {
+                        assertTrue(levelLayout.isWall(i, j), "Corridor wider than one cell!");
+                    }
+                }
+            }
+            assertTrue(hasTunnel, "No tunnel generated!");
+            assertEquals(countOpenCells(levelLayout), countReachableCells(levelLayout),
+                    "Level not connected in " + levelHeight + "x" + levelWidth + "!");
+        }
+    }
+
+    /**
+     * Test that the same seed gives the same level regardless of the number of
+     * threads, and that another seed gives another level
+     *
+     * @throws InterruptedException in case the test is interrupted
+     * @throws ExecutionException   in case the generation fails
+     */
+    @Test
+    public void reproducibilityTest() throws InterruptedException, ExecutionException {
+        LevelLayout expectedLayout = LevelGenerator.generate("Maze", 600, 555, 10, 3L);
+        ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+        try {
+            LevelLayout testLayout = singleThreadPool.submit(() -> LevelGenerator.generate("Maze", 600, 555, 10, 3L))
+                    .get();
+            assertTrue(isSameLevel(expectedLayout, testLayout), "Level not reproduced!");
+        } finally {
+            singleThreadPool.shutdown();
+        }
+        assertFalse(isSameLevel(expectedLayout, LevelGenerator.generate("Maze", 600, 555, 10, 4L)),
+                "Different seeds gave the same level!");
+    }
+
+    /**
+     * Test that a generated level written in the text format is read back
+     * unchanged
+     *
+     * @throws IOException in case the level cannot be written or read
+     */
+    @Test
+    public void writeTest() throws IOException {
+        LevelLayout expectedLayout = LevelGenerator.generate("Maze", 40, 33, 3, 11L);
+        StringWriter writer = new StringWriter();
+        LevelGenerator.write(expectedLayout, writer);
+        LevelLayout testLayout = new LevelLayout("Maze", new StringReader(writer.toString()));
+        assertTrue(isSameLevel(expectedLayout, testLayout), "Written level not as expected!");
+    }
+
+    /**
+     * Test for the validation of the generation parameters
+     */
+    @Test
+    public void invalidParametersTest() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> LevelGenerator.generate("Maze", 9, 20, 4, 1L));
+        assertEquals("Level height cannot be less than 10!", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> LevelGenerator.generate("Maze", 20, 20, 0, 1L));
+        assertEquals("Level must define at least one ghost!", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> LevelGenerator.generate("Maze", 100_000, 100_000, 4, 1L));
+        assertEquals("Level is too large!", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> LevelGenerator.generate("Maze", 10, 10, 100, 1L));
+        assertEquals("100 ghosts do not fit into the level!", exception.getMessage());
+    }
+
+    private static boolean isSameLevel(LevelLayout expectedLayout, LevelLayout testLayout) {
+        if (expectedLayout.getLevelHeight() != testLayout.getLevelHeight()
+                || expectedLayout.getLevelWidth() != testLayout.getLevelWidth()) {
+            return false;
+        }
+        for (int i = 0; i < expectedLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < expectedLayout.getLevelWidth(); j++) {
+                if (expectedLayout.getComponent(i, j) != testLayout.getComponent(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int countOpenCells(LevelLayout levelLayout) {
+        int numOfOpenCells = 0;
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                numOfOpenCells += levelLayout.isWall(i, j) ? 0 : 1;
+            }
+        }
+        return numOfOpenCells;
+    }
+
+    /**
+     * Helper method that counts the cells reachable from the first open cell,
+     * moving across the level borders like the sprites do
+     */
+    private static int countReachableCells(LevelLayout levelLayout) {
+        int levelHeight = levelLayout.getLevelHeight();
+        int levelWidth = levelLayout.getLevelWidth();
+        boolean[] visited = new boolean[levelHeight * levelWidth];
+        int[] queue = new int[levelHeight * levelWidth];
+        int head = 0;
+        int tail = 0;
+        for (int cellIndex = 0; tail == 0; cellIndex++) {
+            if (!levelLayout.isWall(cellIndex / levelWidth, cellIndex % levelWidth)) {
+                visited[cellIndex] = true;
+                queue[tail++] = cellIndex;
+            }
+        }
+        int[][] moves = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+        while (head < tail) {
+            int rowIndex = queue[head] / levelWidth;
+            int columnIndex = queue[head++] % levelWidth;
+            for (int[] move : moves) {
+                int nextRowIndex = Math.floorMod(rowIndex + move[0], levelHeight);
+                int nextColumnIndex = Math.floorMod(columnIndex + move[1], levelWidth);
+                int nextCellIndex = nextRowIndex * levelWidth + nextColumnIndex;
+                if (!visited[nextCellIndex] && !levelLayout.isWall(nextRowIndex, nextColumnIndex)) {
+                    visited[nextCellIndex] = true;
+                    queue[tail++] = nextCellIndex;
+                }
+            }
+        }
+        return tail;
+    }
+}
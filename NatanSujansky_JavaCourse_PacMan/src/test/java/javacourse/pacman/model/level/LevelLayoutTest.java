@@ -1,14 +1,19 @@
 package javacourse.pacman.model.level;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 
 import org.junit.jupiter.api.Test;
 
 import javacourse.pacman.model.level.LevelCellComponent;
 import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
 
 /**
  * Unit test class for LevelLayout class
@@ -47,6 +52,217 @@ public class LevelLayoutTest {
         assertEquals("columnIndex out of bounds!", exception.getMessage());
     }
 
+    /**
+     * Test for the constructor method reading the level from a stream
+     */
+    @Test
+    public void streamConstructorTest() {
+        try (InputStream inputStream = getClass().getResourceAsStream("/levels/level1.txt")) {
+            testLayout = new LevelLayout("Stream level", inputStream);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        assertEquals("Stream level", testLayout.getLevelName(), "Level name not as expected!");
+        assertEquals(21, testLayout.getLevelHeight(), "Level height not as expected!");
+        assertEquals(19, testLayout.getLevelWidth(), "Level width not as expected!");
+        assertEquals(LevelCellComponent.PACMAN_START, testLayout.getComponent(15, 9),
+                "Cell component not as expected!");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new LevelLayout("Level", new ByteArrayInputStream("W W W\nW P W".getBytes())));
+        assertEquals("Level height cannot be less than 10!", exception.getMessage());
+    }
+
+    /**
+     * Test for the constructor method parsing the level from a reader, with
+     * comments, blank lines, Windows line endings and no final line break
+     */
+    @Test
+    public void readerConstructorTest() {
+        String level = String.join("\r\n", "# test level", "W W W W W W W W W W  # top wall", "", "W P S S S S S S G W",
+                "W S W W W W W W S W", "W S W W W W W W S W", "  S S W W W W W W S S", "W S W W W W W W S W",
+                "W S W W W W W W S W", "W S W W W W W W S W", "#", "W S S S S S S S B W", "W W W W W W W W W W");
+        try {
+            testLayout = new LevelLayout("Reader level", new StringReader(level));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        assertEquals(10, testLayout.getLevelHeight(), "Level height not as expected!");
+        assertEquals(10, testLayout.getLevelWidth(), "Level width not as expected!");
+        assertEquals(1, testLayout.getNumberOfGhosts(), "Number of ghosts not as expected!");
+        assertEquals(27, testLayout.getNumberOfSmallDots(), "Number of small dots not as expected!");
+        assertEquals(1, testLayout.getNumberOfBigDots(), "Number of big dots not as expected!");
+        assertEquals(LevelCellComponent.PACMAN_START, testLayout.getComponent(1, 1),
+                "Cell component not as expected!");
+        assertEquals(LevelCellComponent.SMALL_DOT, testLayout.getComponent(4, 0), "Cell component not as expected!");
+        assertEquals(LevelCellComponent.WALL, testLayout.getComponent(9, 9), "Cell component not as expected!");
+
+        // the height is checked before the malformed rows, as the level is too short
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new LevelLayout("Level", new StringReader("W W W\nW X W\nW W")));
+        assertEquals("Level height cannot be less than 10!", exception.getMessage());
+
+        String invalidLevel = level.replace("W P S S S S S S G W", "W P S S X S S S G W");
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new LevelLayout("Level", new StringReader(invalidLevel)));
+        assertEquals("X is not a valid level cell component value.", exception.getMessage());
+
+        // whitespace other than spaces is only ignored at the ends of a line
+        String tabbedLevel = level.replace("W P S S S S S S G W", "\tW P S S S S S S G W\t");
+        assertDoesNotThrow(() -> new LevelLayout("Level", new StringReader(tabbedLevel)));
+        String innerTabLevel = level.replace("W P S S S S S S G W", "W P S \t S S S S G W");
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new LevelLayout("Level", new StringReader(innerTabLevel)));
+        assertEquals("\t is not a valid level cell component value.", exception.getMessage());
+
+        // a second Pac-Man is reported before the malformed rows that follow it
+        String twoPacMenLevel = level.replace("W P S S S S S S G W", "W P S S P S S S G W")
+                .replace("W S S S S S S S B W", "W S S S S S S S B");
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new LevelLayout("Level", new StringReader(twoPacMenLevel)));
+        assertEquals("There can only be one Pac-Man!", exception.getMessage());
+    }
+
+    /**
+     * Test for the isWall method
+     */
+    @Test
+    public void isWallTest() {
+        try {
+            testLayout = new LevelLayout("Level", "/levels/level1.txt");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        for (int i = 0; i < testLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < testLayout.getLevelWidth(); j++) {
+                assertEquals(testLayout.getComponent(i, j) == LevelCellComponent.WALL, testLayout.isWall(i, j),
+                        "Wall flag not as expected!");
+            }
+        }
+
+        IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class,
+                () -> testLayout.isWall(21, 0));
+        assertEquals("rowIndex out of bounds!", exception.getMessage());
+
+        exception = assertThrows(IndexOutOfBoundsException.class, () -> testLayout.isWall(0, -1));
+        assertEquals("columnIndex out of bounds!", exception.getMessage());
+    }
+
+    /**
+     * Test for the getExitMask method, including wrapping across the level border
+     */
+    @Test
+    public void getExitMaskTest() {
+        try {
+            testLayout = new LevelLayout("Level", "/levels/level1.txt");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        assertEquals(MovementDirection.LEFT.getMask() | MovementDirection.RIGHT.getMask(),
+                testLayout.getExitMask(15, 9), "Exit mask not as expected!");
+        assertEquals(MovementDirection.DOWN.getMask() | MovementDirection.RIGHT.getMask(),
+                testLayout.getExitMask(1, 1), "Exit mask not as expected!");
+        // tunnel cell on the left border leads to the right border
+        assertEquals(MovementDirection.LEFT.getMask() | MovementDirection.RIGHT.getMask(),
+                testLayout.getExitMask(9, 0), "Exit mask not as expected!");
+
+        IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class,
+                () -> testLayout.getExitMask(0, 19));
+        assertEquals("columnIndex out of bounds!", exception.getMessage());
+    }
+
+    /**
+     * Test for the getLineOfSightDirection method, including sight through the
+     * tunnel across the level border
+     */
+    @Test
+    public void getLineOfSightDirectionTest() {
+        try {
+            testLayout = new LevelLayout("Level", "/levels/level1.txt");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        assertEquals(MovementDirection.RIGHT, testLayout.getLineOfSightDirection(9, 8, 9, 10),
+                "Line of sight direction not as expected!");
+        assertEquals(MovementDirection.LEFT, testLayout.getLineOfSightDirection(9, 10, 9, 8),
+                "Line of sight direction not as expected!");
+        assertEquals(MovementDirection.NONE, testLayout.getLineOfSightDirection(9, 8, 9, 2),
+                "Target behind a wall is visible!");
+        assertEquals(MovementDirection.NONE, testLayout.getLineOfSightDirection(9, 8, 9, 8),
+                "Line of sight direction not as expected!");
+        assertEquals(MovementDirection.UP, testLayout.getLineOfSightDirection(15, 4, 1, 4),
+                "Line of sight direction not as expected!");
+        assertEquals(MovementDirection.NONE, testLayout.getLineOfSightDirection(15, 9, 1, 9),
+                "Target behind a wall is visible!");
+        // the tunnel in row 9 connects the left and right border
+        assertEquals(MovementDirection.RIGHT, testLayout.getLineOfSightDirection(9, 16, 9, 2),
+                "Line of sight direction not as expected!");
+        assertEquals(MovementDirection.LEFT, testLayout.getLineOfSightDirection(9, 2, 9, 16),
+                "Line of sight direction not as expected!");
+        assertEquals(MovementDirection.LEFT, testLayout.getLineOfSightDirection(9, 5, 9, 0),
+                "Line of sight direction not as expected!");
+
+        // every pair of cells in a row or column agrees with walking along the line
+        int height = testLayout.getLevelHeight();
+        int width = testLayout.getLevelWidth();
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                for (int k = 0; k < width; k++) {
+                    assertEquals(walkLineOfSight(i, j, i, k), testLayout.getLineOfSightDirection(i, j, i, k),
+                            "Line of sight direction not as expected!");
+                }
+                for (int k = 0; k < height; k++) {
+                    assertEquals(walkLineOfSight(i, j, k, j), testLayout.getLineOfSightDirection(i, j, k, j),
+                            "Line of sight direction not as expected!");
+                }
+            }
+        }
+
+        IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class,
+                () -> testLayout.getLineOfSightDirection(0, 0, 21, 0));
+        assertEquals("rowIndex out of bounds!", exception.getMessage());
+    }
+
+    /**
+     * Helper method that finds the line of sight direction by walking from the
+     * source cell in every direction, wrapping around the level borders, until a
+     * wall or the source cell is reached
+     *
+     * @param fromRowIndex    first coordinate of the source cell
+     * @param fromColumnIndex second coordinate of the source cell
+     * @param toRowIndex      first coordinate of the target cell
+     * @param toColumnIndex   second coordinate of the target cell
+     * @return direction of the first walk that reaches the target, NONE otherwise
+     */
+    private MovementDirection walkLineOfSight(int fromRowIndex, int fromColumnIndex, int toRowIndex,
+            int toColumnIndex) {
+        int height = testLayout.getLevelHeight();
+        int width = testLayout.getLevelWidth();
+        if (testLayout.isWall(fromRowIndex, fromColumnIndex)
+                || fromRowIndex == toRowIndex && fromColumnIndex == toColumnIndex) {
+            return MovementDirection.NONE;
+        }
+        for (MovementDirection direction : new MovementDirection[] { MovementDirection.RIGHT, MovementDirection.LEFT,
+                MovementDirection.DOWN, MovementDirection.UP }) {
+            int rowIndex = fromRowIndex;
+            int columnIndex = fromColumnIndex;
+            while (true) {
+                rowIndex = Math.floorMod(rowIndex + (direction == MovementDirection.DOWN ? 1
+                        : direction == MovementDirection.UP ? -1 : 0), height);
+                columnIndex = Math.floorMod(columnIndex + (direction == MovementDirection.RIGHT ? 1
+                        : direction == MovementDirection.LEFT ? -1 : 0), width);
+                if (testLayout.isWall(rowIndex, columnIndex)
+                        || rowIndex == fromRowIndex && columnIndex == fromColumnIndex) {
+                    break;
+                }
+                if (rowIndex == toRowIndex && columnIndex == toColumnIndex) {
+                    return direction;
+                }
+            }
+        }
+        return MovementDirection.NONE;
+    }
+
     /**
      * Test for constructor method when given level is incorrectly defined
      */
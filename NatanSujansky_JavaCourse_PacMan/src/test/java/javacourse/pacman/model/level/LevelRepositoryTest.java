@@ -0,0 +1,89 @@
+package javacourse.pacman.model.level;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test class for LevelRepository class
+ *
+ * @author Natan
+ *
+ */
+public class LevelRepositoryTest {
+
+    /**
+     * Test for reading the level list and caching the parsed levels
+     *
+     * @throws IOException in case the level resources cannot be read
+     */
+    @Test
+    public void getLevelTest() throws IOException {
+        LevelRepository testRepository = new LevelRepository("/levels/levelList.txt", 1);
+        assertEquals(List.of("Level one", "Level two", "Broken level"), testRepository.getLevelNames(),
+                "Level names not as expected!");
+        assertEquals("/levels/level2.txt", testRepository.getLevelPath("Level two"), "Level path not as expected!");
+        assertFalse(testRepository.isCached("Level one"), "Level parsed before it was requested!");
+
+        LevelLayout levelOne = testRepository.getLevel("Level one");
+        assertEquals("Level one", levelOne.getLevelName(), "Level name not as expected!");
+        assertEquals(21, levelOne.getLevelHeight(), "Level height not as expected!");
+        assertSame(levelOne, testRepository.getLevel("Level one"), "Cached level parsed again!");
+
+        // the cache holds a single level, so the first level is evicted
+        LevelLayout levelTwo = testRepository.getLevel("Level two");
+        assertTrue(testRepository.isCached("Level two"), "Level not cached!");
+        assertFalse(testRepository.isCached("Level one"), "Least recently used level not evicted!");
+        assertSame(levelTwo, testRepository.getLevel("Level two"), "Cached level parsed again!");
+        assertNotSame(levelOne, testRepository.getLevel("Level one"), "Evicted level not parsed again!");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> testRepository.getLevel("Broken level"));
+        assertEquals("Level must be rectangular!", exception.getMessage());
+        assertFalse(testRepository.isCached("Broken level"), "Invalid level cached!");
+
+        exception = assertThrows(IllegalArgumentException.class, () -> testRepository.getLevel("Level three"));
+        assertEquals("Level not found in the level list: Level three", exception.getMessage());
+    }
+
+    /**
+     * Test for parsing the levels in the background
+     *
+     * @throws IOException          in case the level list cannot be read
+     * @throws InterruptedException in case the test is interrupted
+     */
+    @Test
+    public void preWarmTest() throws IOException, InterruptedException {
+        LevelRepository testRepository = new LevelRepository("/levels/levelList.txt", 2);
+        testRepository.preWarm().join();
+        assertTrue(testRepository.isCached("Level one"), "Level not pre-warmed!");
+        assertTrue(testRepository.isCached("Level two"), "Level not pre-warmed!");
+        assertFalse(testRepository.isCached("Broken level"), "Level over the cache capacity pre-warmed!");
+    }
+
+    /**
+     * Test for constructor method when given level list is incorrectly defined
+     */
+    @Test
+    public void constructorTestNegative() {
+        IllegalStateException stateException = assertThrows(IllegalStateException.class,
+                () -> new LevelRepository("/levels/errorLevelList.txt", 1));
+        assertEquals("Level list resource file not in correct format!", stateException.getMessage());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new LevelRepository("/levels/levelList.txt", 0));
+        assertEquals("Level cache capacity must be positive!", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new LevelRepository("/levels/noLevelList.txt", 1));
+        assertEquals("No resource found on the provided path: /levels/noLevelList.txt", exception.getMessage());
+    }
+}
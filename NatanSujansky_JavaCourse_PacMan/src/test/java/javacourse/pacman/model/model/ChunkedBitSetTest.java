@@ -0,0 +1,101 @@
+package javacourse.pacman.model.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test class for ChunkedBitSet class
+ *
+ * @author Natan
+ *
+ */
+public class ChunkedBitSetTest {
+
+    /**
+     * Test that shared pages and chunks are never modified and that only the
+     * written ones are copied
+     */
+    @Test
+    public void copyOnWriteTest() {
+        int numOfChunks = ChunkedBitSet.CHUNKS_PER_PAGE + 2;
+        ChunkedBitSet testBitSet = new ChunkedBitSet(numOfChunks * ChunkedBitSet.WORDS_PER_CHUNK);
+        assertTrue(testBitSet.set(5), "Bit not set!");
+        assertFalse(testBitSet.set(5), "Bit set twice!");
+        long[][][] firstPages = testBitSet.share();
+        assertSame(firstPages, testBitSet.share(), "Unchanged pages copied!");
+
+        assertFalse(testBitSet.clear(6), "Cleared bit cleared!");
+        long[][][] secondPages = testBitSet.share();
+        assertSame(firstPages, secondPages, "Pages copied without a change!");
+
+        int lastBit = numOfChunks * ChunkedBitSet.WORDS_PER_CHUNK * 64 - 1;
+        assertTrue(testBitSet.set(lastBit), "Bit not set!");
+        assertTrue(testBitSet.clear(5), "Bit not cleared!");
+        long[][][] thirdPages = testBitSet.share();
+        assertNotSame(firstPages, thirdPages, "Root table not copied!");
+        assertNotSame(firstPages[0], thirdPages[0], "Written page not copied!");
+        assertNotSame(firstPages[0][0], thirdPages[0][0], "Written chunk not copied!");
+        assertSame(firstPages[0][1], thirdPages[0][1], "Unchanged chunk copied!");
+        assertSame(firstPages[1][0], thirdPages[1][0], "Unchanged chunk copied!");
+        assertNotSame(firstPages[1][1], thirdPages[1][1], "Written chunk not copied!");
+        assertEquals(1L << 5, firstPages[0][0][0], "Shared chunk modified!");
+        assertEquals(0L, firstPages[1][1][ChunkedBitSet.WORDS_PER_CHUNK - 1], "Shared chunk modified!");
+
+        testBitSet.restore(firstPages);
+        assertTrue(testBitSet.get(5), "Restored bit not as expected!");
+        assertFalse(testBitSet.get(lastBit), "Restored bit not as expected!");
+        assertEquals(1, testBitSet.cardinality(), "Number of set bits not as expected!");
+        testBitSet.set(6);
+        assertEquals(1L << 5, firstPages[0][0][0], "Restored chunk modified!");
+        assertEquals(1L << 5 | 1L << 6, testBitSet.getWord(0), "Word not as expected!");
+    }
+
+    /**
+     * Test for finding the bits that differ from shared pages
+     */
+    @Test
+    public void nextDifferenceTest() {
+        int numOfWords = (ChunkedBitSet.CHUNKS_PER_PAGE + 1) * ChunkedBitSet.WORDS_PER_CHUNK + 1;
+        ChunkedBitSet testBitSet = new ChunkedBitSet(numOfWords);
+        long[][][] emptyPages = testBitSet.share();
+        assertEquals(-1, testBitSet.nextDifference(emptyPages, 0), "Difference not as expected!");
+
+        int lastBit = numOfWords * 64 - 1;
+        testBitSet.set(70);
+        testBitSet.set(lastBit);
+        assertEquals(70, testBitSet.nextDifference(emptyPages, 0), "Difference not as expected!");
+        assertEquals(lastBit, testBitSet.nextDifference(emptyPages, 71), "Difference not as expected!");
+        assertEquals(-1, testBitSet.nextDifference(emptyPages, lastBit + 1), "Difference not as expected!");
+        assertEquals(-1, testBitSet.nextDifference(testBitSet.share(), 0), "Difference not as expected!");
+
+        testBitSet.copyFrom(null);
+        assertEquals(0, testBitSet.cardinality(), "Number of set bits not as expected!");
+        assertEquals(-1, testBitSet.nextDifference(emptyPages, 0), "Difference not as expected!");
+    }
+
+    /**
+     * Test that all bits are copied out, including those of a partially used last
+     * chunk and of shared chunks
+     */
+    @Test
+    public void copyToTest() {
+        int numOfWords = ChunkedBitSet.CHUNKS_PER_PAGE * ChunkedBitSet.WORDS_PER_CHUNK + 3;
+        ChunkedBitSet testBitSet = new ChunkedBitSet(numOfWords);
+        int lastBit = numOfWords * 64 - 1;
+        testBitSet.set(70);
+        testBitSet.share();
+        testBitSet.set(lastBit);
+        long[] testWords = new long[numOfWords];
+        testBitSet.copyTo(testWords);
+        long[] expectedWords = new long[numOfWords];
+        expectedWords[1] = 1L << 6;
+        expectedWords[numOfWords - 1] = 1L << 63;
+        assertArrayEquals(expectedWords, testWords, "Copied words not as expected!");
+    }
+}
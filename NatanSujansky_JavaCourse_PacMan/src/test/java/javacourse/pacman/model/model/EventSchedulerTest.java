@@ -0,0 +1,113 @@
+package javacourse.pacman.model.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Unit test class for EventScheduler class and the sprite timers driven by it
+ *
+ * @author Natan
+ *
+ */
+public class EventSchedulerTest {
+
+    /**
+     * Test that events fire exactly in the game update they are due in, including
+     * events due more than one wheel revolution ahead, and that cancelled events
+     * don't fire
+     */
+    @Test
+    public void scheduleTest() {
+        EventScheduler eventScheduler = new EventScheduler(2);
+        List<String> firedEvents = new ArrayList<>();
+        eventScheduler.schedule(0, 3);
+        eventScheduler.schedule(1, 3);
+        eventScheduler.schedule(2, 200);
+        eventScheduler.schedule(3, 5);
+        eventScheduler.schedule(4, 4);
+        eventScheduler.cancel(4);
+        eventScheduler.schedule(1, 67);
+        assertTrue(eventScheduler.isScheduled(2), "Event not scheduled!");
+        assertEquals(200, eventScheduler.getDeadline(2), "Deadline not as expected!");
+        assertFalse(eventScheduler.isScheduled(4), "Event not cancelled!");
+
+        for (int i = 0; i < 250; i++) {
+            eventScheduler.advance(eventId -> firedEvents.add(eventId + "@" + eventScheduler.getCurrentTick()));
+        }
+        assertEquals(List.of("0@3", "3@5", "1@67", "2@200"), firedEvents, "Fired events not as expected!");
+        assertFalse(eventScheduler.isScheduled(2), "Fired event still scheduled!");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> eventScheduler.schedule(0, eventScheduler.getCurrentTick()));
+        assertEquals("Event deadline must be in the future!", exception.getMessage());
+        IllegalStateException stateException = assertThrows(IllegalStateException.class,
+                () -> eventScheduler.getDeadline(0));
+        assertEquals("Event is not scheduled!", stateException.getMessage());
+
+        eventScheduler.schedule(0, 260);
+        eventScheduler.reset();
+        assertEquals(0, eventScheduler.getCurrentTick(), "Game update count not reset!");
+        assertFalse(eventScheduler.isScheduled(0), "Event not cancelled on reset!");
+    }
+
+    /**
+     * Test that all due events fire even if a handler grows the scheduler by
+     * scheduling an event beyond its capacity
+     */
+    @Test
+    public void growInHandlerTest() {
+        EventScheduler eventScheduler = new EventScheduler(5);
+        List<Integer> firedEvents = new ArrayList<>();
+        eventScheduler.schedule(3, 1);
+        eventScheduler.schedule(4, 1);
+        eventScheduler.advance(eventId -> {
+            firedEvents.add(eventId);
+            if (eventId == firedEvents.get(0)) {
+                eventScheduler.schedule(100, 2);
+            }
+        });
+        assertEquals(2, firedEvents.size(), "Fired events not as expected!");
+        assertTrue(firedEvents.containsAll(List.of(3, 4)), "Fired events not as expected!");
+        eventScheduler.advance(firedEvents::add);
+        assertEquals(100, firedEvents.get(2), "Event scheduled by the handler not fired!");
+    }
+
+    /**
+     * Test that the power-up of a Pac-Man sprite used on its own expires in the
+     * same game update as before the scheduler, is not extended by another big
+     * dot and reports no remaining time when inactive
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void powerUpTimerTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManSprite pacMan = new PacManSprite("Pac-Man", 1_000, 1, 1, levelLayout);
+        assertEquals(0L, pacMan.getRemainingGhostEatingTime(), "Remaining time not as expected!");
+        assertEquals(0L, pacMan.getGhostEatingUpdatesCounter(), "Power-up counter not as expected!");
+
+        pacMan.toggleGhostEatingMode();
+        assertEquals(1_000, pacMan.getRemainingGhostEatingTime(), "Remaining time not as expected!");
+        for (int i = 1; i <= 4; i++) {
+            pacMan.preMovementUpdate();
+            pacMan.toggleGhostEatingMode();
+            assertTrue(pacMan.isGhostEatingActive(), "Power-up ended too early!");
+            assertEquals(i, pacMan.getGhostEatingUpdatesCounter(), "Power-up counter not as expected!");
+            assertEquals(1_000 - i * Sprite.MILLISECONDS_PER_GAME_UPDATE, pacMan.getRemainingGhostEatingTime(),
+                    "Remaining time not as expected!");
+        }
+        pacMan.preMovementUpdate();
+        assertFalse(pacMan.isGhostEatingActive(), "Power-up not ended!");
+        assertEquals(0L, pacMan.getRemainingGhostEatingTime(), "Remaining time not as expected!");
+    }
+}
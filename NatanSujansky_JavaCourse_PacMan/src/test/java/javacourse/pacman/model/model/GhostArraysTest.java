@@ -0,0 +1,122 @@
+package javacourse.pacman.model.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Unit test class for the array based ghost storage of PacManModel
+ *
+ * @author Natan
+ *
+ */
+public class GhostArraysTest {
+
+    private static final MovementDirection[] DIRECTIONS = { MovementDirection.UP, MovementDirection.DOWN,
+            MovementDirection.LEFT, MovementDirection.RIGHT };
+
+    /**
+     * Test that games with ghosts stored in arrays are identical to the games with
+     * ghost sprites
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void sameGameTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        for (long seed = 0; seed < 20; seed++) {
+            PacManModel spriteModel = new PacManModel();
+            PacManModel arrayModel = new PacManModel(GhostStorage.ARRAYS);
+            spriteModel.initializeNewGame(levelLayout, seed);
+            arrayModel.initializeNewGame(levelLayout, seed);
+            SplittableRandom inputRandom = new SplittableRandom(seed);
+            MovementDirection input = MovementDirection.LEFT;
+            for (int tick = 0; tick < 500 && !spriteModel.isGameOver(); tick++) {
+                if (tick % 8 == 0) {
+                    input = DIRECTIONS[inputRandom.nextInt(DIRECTIONS.length)];
+                }
+                spriteModel.updateGameStatus(input);
+                arrayModel.updateGameStatus(input);
+                assertSameGhosts(spriteModel.getGhostTable(), arrayModel.getGhostTable());
+                assertEquals(spriteModel.getGameScore(), arrayModel.getGameScore(), "Score not as expected!");
+                assertEquals(spriteModel.isGameOver(), arrayModel.isGameOver(), "Game over flag not as expected!");
+            }
+        }
+    }
+
+    /**
+     * Test for the ghost table of the model
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void ghostTableTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel testModel = new PacManModel(GhostStorage.ARRAYS);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> testModel.getGhostTable());
+        assertEquals("No ghosts defined yet!", exception.getMessage());
+
+        testModel.initializeNewGame(levelLayout, 1L);
+        assertEquals(GhostStorage.ARRAYS, testModel.getGhostStorage());
+        GhostTable ghosts = testModel.getGhostTable();
+        assertSame(ghosts, testModel.getGhostTable(), "Ghost table copied!");
+        assertEquals(levelLayout.getNumberOfGhosts(), ghosts.size(), "Number of ghosts not as expected!");
+        assertEquals(9, ghosts.getRowIndex(0), "Ghost position not as expected!");
+        assertEquals(8, ghosts.getColumnIndex(0), "Ghost position not as expected!");
+
+        assertEquals(0L, ghosts.getRemainingDeathTime(0), "Remaining death time of a living ghost not as expected!");
+        assertEquals(0L, ghosts.getGhostDeathUpdateCounter(0), "Death counter of a living ghost not as expected!");
+        exception = assertThrows(IllegalStateException.class, () -> testModel.getGhosts());
+        assertEquals("Ghosts are not stored as sprites!", exception.getMessage());
+        IndexOutOfBoundsException indexException = assertThrows(IndexOutOfBoundsException.class,
+                () -> ghosts.getRowIndex(ghosts.size()));
+        assertEquals("Ghost index out of bounds!", indexException.getMessage());
+    }
+
+    /**
+     * Test for the death timer of the ghosts stored in arrays
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void killGhostTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        EventScheduler eventScheduler = new EventScheduler(1);
+        GhostArrays ghosts = new GhostArrays(levelLayout, 1_000, 1, eventScheduler, 0);
+        ghosts.add(9, 8, new SplittableRandom(1L));
+        ghosts.add(9, 10, new SplittableRandom(2L));
+        ghosts.ghostMove(1, levelLayout.getExitMask(9, 10), MovementDirection.UP, false);
+        assertEquals(8, ghosts.getRowIndex(1), "Ghost position not as expected!");
+
+        ghosts.killGhost(1);
+        assertEquals(9, ghosts.getRowIndex(1), "Ghost not moved to its starting position!");
+        assertEquals(1_000, ghosts.getRemainingDeathTime(1), "Remaining death time not as expected!");
+        assertTrue(eventScheduler.isScheduled(1), "Respawn not scheduled!");
+        for (int i = 1; i <= 4; i++) {
+            eventScheduler.advance(ghosts::respawnGhost);
+            assertEquals(i, ghosts.getGhostDeathUpdateCounter(1), "Death counter not as expected!");
+        }
+        eventScheduler.advance(ghosts::respawnGhost);
+        assertEquals(false, ghosts.isGhostDead(1), "Ghost not respawned!");
+        assertEquals(false, ghosts.isGhostDead(0), "Ghost killed!");
+    }
+
+    private static void assertSameGhosts(GhostTable expected, GhostTable actual) {
+        assertEquals(expected.size(), actual.size(), "Number of ghosts not as expected!");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getRowIndex(i), actual.getRowIndex(i), "Ghost position not as expected!");
+            assertEquals(expected.getColumnIndex(i), actual.getColumnIndex(i), "Ghost position not as expected!");
+            assertEquals(expected.getPreviousRowIndex(i), actual.getPreviousRowIndex(i),
+                    "Previous ghost position not as expected!");
+            assertEquals(expected.isGhostDead(i), actual.isGhostDead(i), "Ghost death flag not as expected!");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package javacourse.pacman.model.model;
+
+import java.util.SplittableRandom;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Test helper shared by the tests that compare games played in different
+ * models: reproducible Pac-Man inputs and a description of everything that can
+ * be observed in a model. It is public only because the replay and server tests
+ * live in other packages.
+ *
+ * @author Natan
+ *
+ */
+public final class ModelStates {
+
+    /**
+     * Number of game updates an input is held for
+     */
+    private static final int INPUT_UPDATES = 8;
+
+    private static final MovementDirection[] DIRECTIONS = { MovementDirection.UP, MovementDirection.DOWN,
+            MovementDirection.LEFT, MovementDirection.RIGHT };
+
+    private ModelStates() {
+    }
+
+    /**
+     * Method that provides the Pac-Man input of a game update, held for a few game
+     * updates so that Pac-Man gets around the level
+     *
+     * @param seed seed of the game
+     * @param tick index of the game update
+     * @return input that is the same for the same seed and tick
+     */
+    public static MovementDirection getInput(long seed, int tick) {
+        return DIRECTIONS[new SplittableRandom((seed << 32) + tick / INPUT_UPDATES).nextInt(DIRECTIONS.length)];
+    }
+
+    /**
+     * Method that describes everything that can be observed in a model
+     *
+     * @param model model that is described
+     * @return description of the sprites, timers, score and level map
+     */
+    public static String describe(PacManModel model) {
+        StringBuilder state = new StringBuilder();
+        PacManSprite pacMan = model.getPacMan();
+        state.append(pacMan.getRowIndex()).append(',').append(pacMan.getColumnIndex()).append(',')
+                .append(pacMan.getPreviousRowIndex()).append(',').append(pacMan.getPreviousColumnIndex()).append(',')
+                .append(pacMan.getMovementDirection()).append(',')
+                .append(pacMan.isGhostEatingActive() ? pacMan.getRemainingGhostEatingTime() : -1L);
+        GhostTable ghosts = model.getGhostTable();
+        for (int i = 0; i < ghosts.size(); i++) {
+            state.append(';').append(ghosts.getRowIndex(i)).append(',').append(ghosts.getColumnIndex(i)).append(',')
+                    .append(ghosts.getPreviousRowIndex(i)).append(',').append(ghosts.getPreviousColumnIndex(i))
+                    .append(',').append(ghosts.isGhostDead(i) ? ghosts.getRemainingDeathTime(i) : -1L);
+        }
+        state.append('|').append(model.getGameScore()).append(model.isGameOver()).append(model.isPlayerVictorious())
+                .append(model.getRemainingDots().getNumberOfSmallDots()).append(',')
+                .append(model.getRemainingDots().getNumberOfBigDots()).append('|');
+        LevelLayout levelLayout = model.getLevelLayout();
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                state.append(model.componentAt(i, j).ordinal());
+                state.append(model.getRemainingDots().isSmallDot(i, j) ? 's' : '.');
+                state.append(model.getRemainingDots().isBigDot(i, j) ? 'b' : '.');
+            }
+        }
+        return state.toString();
+    }
+}
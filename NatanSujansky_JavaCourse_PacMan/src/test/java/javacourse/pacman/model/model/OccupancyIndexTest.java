@@ -0,0 +1,102 @@
+package javacourse.pacman.model.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Unit test class for OccupancyIndex class
+ *
+ * @author Natan
+ *
+ */
+public class OccupancyIndexTest {
+
+    /**
+     * Test for recording and moving ghosts
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void moveGhostTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        GhostArrays ghosts = new GhostArrays(levelLayout, 1_000, 3, new EventScheduler(3), 0);
+        ghosts.add(9, 8, new SplittableRandom(1L));
+        ghosts.add(9, 8, new SplittableRandom(2L));
+        ghosts.add(9, 10, new SplittableRandom(3L));
+        OccupancyIndex testIndex = new OccupancyIndex(levelLayout.getLevelHeight(), levelLayout.getLevelWidth());
+        testIndex.rebuild(ghosts);
+        assertEquals(Set.of(0, 1), getGhostsAt(testIndex, 9, 8), "Ghosts in the cell not as expected!");
+        assertEquals(Set.of(2), getGhostsAt(testIndex, 9, 10), "Ghosts in the cell not as expected!");
+
+        testIndex.moveGhost(1, 9, 10);
+        assertEquals(Set.of(0), getGhostsAt(testIndex, 9, 8), "Ghosts in the cell not as expected!");
+        assertEquals(Set.of(1, 2), getGhostsAt(testIndex, 9, 10), "Ghosts in the cell not as expected!");
+
+        testIndex.moveGhost(2, 9, 9);
+        testIndex.moveGhost(0, 9, 9);
+        assertEquals(Set.of(), getGhostsAt(testIndex, 9, 8), "Ghosts in the cell not as expected!");
+        assertEquals(Set.of(1), getGhostsAt(testIndex, 9, 10), "Ghosts in the cell not as expected!");
+        assertEquals(Set.of(0, 2), getGhostsAt(testIndex, 9, 9), "Ghosts in the cell not as expected!");
+
+        testIndex.rebuild(ghosts);
+        assertEquals(Set.of(), getGhostsAt(testIndex, 9, 9), "Ghosts in the cell not as expected!");
+        assertEquals(Set.of(0, 1), getGhostsAt(testIndex, 9, 8), "Ghosts in the cell not as expected!");
+    }
+
+    /**
+     * Test for counting the ghosts in a cell of the model
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void getNumberOfGhostsAtTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel testModel = new PacManModel(GhostStorage.ARRAYS);
+        IllegalStateException stateException = assertThrows(IllegalStateException.class,
+                () -> testModel.getNumberOfGhostsAt(0, 0));
+        assertEquals("No level layout defined yet!", stateException.getMessage());
+
+        testModel.initializeNewGame(levelLayout, 1L);
+        assertEquals(1, testModel.getNumberOfGhostsAt(9, 8), "Number of ghosts not as expected!");
+        assertEquals(1, testModel.getNumberOfGhostsAt(9, 10), "Number of ghosts not as expected!");
+        assertEquals(0, testModel.getNumberOfGhostsAt(15, 9), "Number of ghosts not as expected!");
+        for (int tick = 0; tick < 50 && !testModel.isGameOver(); tick++) {
+            testModel.updateGameStatus(MovementDirection.LEFT);
+            GhostTable ghosts = testModel.getGhostTable();
+            for (int i = 0; i < ghosts.size(); i++) {
+                int expectedNumOfGhosts = 0;
+                for (int j = 0; j < ghosts.size(); j++) {
+                    if (!ghosts.isGhostDead(j) && ghosts.getRowIndex(j) == ghosts.getRowIndex(i)
+                            && ghosts.getColumnIndex(j) == ghosts.getColumnIndex(i)) {
+                        expectedNumOfGhosts++;
+                    }
+                }
+                assertEquals(expectedNumOfGhosts,
+                        testModel.getNumberOfGhostsAt(ghosts.getRowIndex(i), ghosts.getColumnIndex(i)),
+                        "Number of ghosts not as expected!");
+            }
+        }
+
+        IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class,
+                () -> testModel.getNumberOfGhostsAt(21, 0));
+        assertEquals("rowIndex out of bounds!", exception.getMessage());
+    }
+
+    private static Set<Integer> getGhostsAt(OccupancyIndex index, int rowIndex, int columnIndex) {
+        Set<Integer> ghostIndices = new HashSet<>();
+        for (int i = index.getFirstGhost(rowIndex, columnIndex); i != OccupancyIndex.NO_GHOST; i = index
+                .getNextGhost(i)) {
+            ghostIndices.add(i);
+        }
+        return ghostIndices;
+    }
+}
@@ -0,0 +1,90 @@
+package javacourse.pacman.model.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Unit test class for restarting the games of PacManModel from the cached level
+ * start state
+ *
+ * @author Natan
+ *
+ */
+public class PacManModelRestartTest {
+
+    /**
+     * Test that restarted games, including games with a new seed, are identical to
+     * the games of a new model
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void restartGameTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        for (GhostStorage ghostStorage : GhostStorage.values()) {
+            PacManModel reusedModel = new PacManModel(ghostStorage);
+            reusedModel.initializeNewGame(levelLayout, 0L);
+            PacManSprite pacMan = reusedModel.getPacMan();
+            for (long seed = 0; seed < 10; seed++) {
+                playGame(reusedModel, seed);
+                reusedModel.initializeNewGame(levelLayout, seed + 1);
+                assertSame(pacMan, reusedModel.getPacMan(), "Pac-Man created again on restart!");
+                assertEquals(0, reusedModel.getGameScore(), "Score not reset!");
+                assertEquals(0, reusedModel.getChangedCells().size(), "Changed cells not cleared!");
+
+                PacManModel newModel = new PacManModel(ghostStorage);
+                newModel.initializeNewGame(levelLayout, seed + 1);
+                for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+                    for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                        assertEquals(newModel.componentAt(i, j), reusedModel.componentAt(i, j),
+                                "Level map not reset!");
+                    }
+                }
+                assertEquals(playGame(newModel, seed), playGame(reusedModel, seed), "Restarted game not as expected!");
+                reusedModel.restartGame();
+            }
+        }
+    }
+
+    /**
+     * Test that a game restarted with a new seed is identical to a new game with
+     * that seed
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void restartWithSeedTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel reusedModel = new PacManModel();
+        reusedModel.initializeNewGame(levelLayout, 1L);
+        playGame(reusedModel, 1L);
+        assertSame(levelLayout, reusedModel.restartGame(2L), "Level layout not as expected!");
+        assertEquals(2L, reusedModel.getSeed(), "Seed not as expected!");
+
+        PacManModel newModel = new PacManModel();
+        newModel.initializeNewGame(levelLayout, 2L);
+        assertEquals(playGame(newModel, 1L), playGame(reusedModel, 1L), "Restarted game not as expected!");
+    }
+
+    /**
+     * Helper method that plays a game and describes its course
+     *
+     * @param model model the game is played in
+     * @param seed  seed of the inputs
+     * @return state of the model after every update
+     */
+    private static String playGame(PacManModel model, long seed) {
+        StringBuilder course = new StringBuilder();
+        for (int tick = 0; tick < 300 && !model.isGameOver(); tick++) {
+            model.updateGameStatus(ModelStates.getInput(seed, tick));
+            course.append(ModelStates.describe(model)).append('\n');
+        }
+        return course.toString();
+    }
+}
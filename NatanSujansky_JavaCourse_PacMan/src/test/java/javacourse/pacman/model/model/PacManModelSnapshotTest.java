@@ -0,0 +1,134 @@
+package javacourse.pacman.model.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Unit test class for taking and restoring snapshots of PacManModel
+ *
+ * @author Natan
+ *
+ */
+public class PacManModelSnapshotTest {
+
+    private static final int NUM_OF_TICKS = 300;
+
+    /**
+     * Test that games continued from a snapshot taken at any game update, in the
+     * same model and in a new model with either ghost storage, are identical to
+     * the original game
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void restoreTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        for (GhostStorage ghostStorage : GhostStorage.values()) {
+            for (long seed = 0; seed < 5; seed++) {
+                PacManModel testModel = new PacManModel(ghostStorage);
+                testModel.initializeNewGame(levelLayout, seed);
+                List<PacManModel.Snapshot> snapshots = new ArrayList<>();
+                List<String> states = new ArrayList<>();
+                for (int tick = 0; tick < NUM_OF_TICKS && !testModel.isGameOver(); tick++) {
+                    snapshots.add(testModel.snapshot());
+                    states.add(ModelStates.describe(testModel));
+                    testModel.updateGameStatus(ModelStates.getInput(seed, tick));
+                }
+                String expectedState = ModelStates.describe(testModel);
+
+                for (int tick = snapshots.size() - 1; tick >= 0; tick -= 7) {
+                    testModel.restore(snapshots.get(tick));
+                    assertEquals(states.get(tick), ModelStates.describe(testModel), "Restored state not as expected!");
+                    assertEquals(expectedState, playGame(testModel, seed, tick), "Restored game not as expected!");
+
+                    for (GhostStorage otherStorage : GhostStorage.values()) {
+                        PacManModel newModel = new PacManModel(otherStorage);
+                        newModel.restore(snapshots.get(tick));
+                        assertEquals(states.get(tick), ModelStates.describe(newModel), "Restored state not as expected!");
+                        assertEquals(expectedState, playGame(newModel, seed, tick), "Restored game not as expected!");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that restoring a snapshot records the cells that look different as
+     * changed
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void restoreChangedCellsTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel testModel = new PacManModel();
+        testModel.initializeNewGame(levelLayout, 1L);
+        PacManModel.Snapshot snapshot = testModel.snapshot();
+        for (int tick = 0; tick < 20 && !testModel.isGameOver(); tick++) {
+            testModel.updateGameStatus(ModelStates.getInput(1L, tick));
+        }
+        List<Integer> clearedCells = new ArrayList<>();
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                if (testModel.componentAt(i, j) != levelLayout.getComponent(i, j)) {
+                    clearedCells.add(i * levelLayout.getLevelWidth() + j);
+                }
+            }
+        }
+        assertTrue(!clearedCells.isEmpty(), "No cells cleared by Pac-Man!");
+
+        testModel.clearChangedCells();
+        testModel.restore(snapshot);
+        CellChangeSet changedCells = testModel.getChangedCells();
+        List<Integer> recordedCells = new ArrayList<>();
+        for (int i = 0; i < changedCells.size(); i++) {
+            recordedCells.add(
+                    changedCells.getRowIndex(i) * levelLayout.getLevelWidth() + changedCells.getColumnIndex(i));
+        }
+        assertTrue(recordedCells.containsAll(clearedCells), "Changed cells not as expected!");
+        for (int cellIndex : clearedCells) {
+            int rowIndex = cellIndex / levelLayout.getLevelWidth();
+            int columnIndex = cellIndex % levelLayout.getLevelWidth();
+            assertEquals(levelLayout.getComponent(rowIndex, columnIndex),
+                    testModel.componentAt(rowIndex, columnIndex), "Restored cell not as expected!");
+        }
+        assertEquals(0L, testModel.getGameScore(), "Restored score not as expected!");
+    }
+
+    /**
+     * Test for snapshot and restore methods with invalid arguments
+     */
+    @Test
+    public void snapshotTestNegative() {
+        PacManModel testModel = new PacManModel();
+        IllegalStateException stateException = assertThrows(IllegalStateException.class, testModel::snapshot);
+        assertEquals("No level layout defined yet!", stateException.getMessage());
+        IllegalArgumentException argumentException = assertThrows(IllegalArgumentException.class,
+                () -> testModel.restore(null));
+        assertEquals("Provided snapshot cannot be null!", argumentException.getMessage());
+    }
+
+    /**
+     * Helper method that plays the rest of a game and describes its outcome
+     *
+     * @param model     model the game is played in
+     * @param seed      seed of the game
+     * @param firstTick index of the first game update that is played
+     * @return state of the model at the end of the game
+     */
+    private static String playGame(PacManModel model, long seed, int firstTick) {
+        for (int tick = firstTick; tick < NUM_OF_TICKS && !model.isGameOver(); tick++) {
+            model.updateGameStatus(ModelStates.getInput(seed, tick));
+        }
+        return ModelStates.describe(model);
+    }
+}
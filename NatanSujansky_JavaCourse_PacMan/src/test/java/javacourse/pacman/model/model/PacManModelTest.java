@@ -8,16 +8,19 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import javacourse.pacman.model.level.LevelCellComponent;
 import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.CellChangeSet;
 import javacourse.pacman.model.model.GhostSprite;
 import javacourse.pacman.model.model.MovementDirection;
 import javacourse.pacman.model.model.PacManModel;
@@ -67,11 +70,19 @@ public class PacManModelTest {
         Mockito.when(layoutMock.getComponent(2, 0)).thenReturn(LevelCellComponent.WALL);
         Mockito.when(layoutMock.getComponent(2, 1)).thenReturn(LevelCellComponent.GHOST_START);
         Mockito.when(layoutMock.getComponent(2, 2)).thenReturn(LevelCellComponent.WALL);
+        Mockito.when(layoutMock.getExitMask(0, 1))
+                .thenReturn(MovementDirection.UP.getMask() | MovementDirection.DOWN.getMask());
+        Mockito.when(layoutMock.getExitMask(1, 1)).thenReturn(MovementDirection.UP.getMask()
+                | MovementDirection.DOWN.getMask() | MovementDirection.LEFT.getMask() | MovementDirection.RIGHT.getMask());
+        Mockito.when(layoutMock.getExitMask(2, 1))
+                .thenReturn(MovementDirection.UP.getMask() | MovementDirection.DOWN.getMask());
 
         pacManMock = Mockito.mock(PacManSprite.class);
         ghostMock = Mockito.mock(GhostSprite.class);
         Mockito.when(SpriteFactory.createPacMan("Pac-Man", 8_000, 0, 1, layoutMock)).thenReturn(pacManMock);
-        Mockito.when(SpriteFactory.createGhost("Ghost", 12_000, 2, 1, layoutMock)).thenReturn(ghostMock);
+        Mockito.when(SpriteFactory.createGhost(ArgumentMatchers.eq("Ghost"), ArgumentMatchers.eq(12_000),
+                ArgumentMatchers.eq(2), ArgumentMatchers.eq(1), ArgumentMatchers.eq(layoutMock),
+                ArgumentMatchers.any(SplittableRandom.class))).thenReturn(ghostMock);
     }
 
     /**
@@ -96,6 +107,9 @@ public class PacManModelTest {
 
         exception = assertThrows(IllegalStateException.class, () -> testModel.updateGameStatus(MovementDirection.DOWN));
         assertEquals("No level layout defined yet!", exception.getMessage());
+
+        exception = assertThrows(IllegalStateException.class, () -> testModel.getChangedCells());
+        assertEquals("No level layout defined yet!", exception.getMessage());
     }
 
     /**
@@ -131,6 +145,18 @@ public class PacManModelTest {
         assertEquals(testList, testModel.getGhosts());
     }
 
+    /**
+     * Test for the game initialization with a provided seed
+     */
+    @Test
+    public void startWithSeed() {
+        testModel.initializeNewGame(layoutMock, 42L);
+        assertEquals(42L, testModel.getSeed());
+        testModel.restartGame();
+        assertEquals(42L, testModel.getSeed());
+        assertEquals(List.of(ghostMock), testModel.getGhosts());
+    }
+
     /**
      * Test for updateGameStatus method
      */
@@ -146,19 +172,31 @@ public class PacManModelTest {
         Mockito.doAnswer(invocation -> {
             pacManMock.setPosition(1, 1);
             return null;
-        }).when(pacManMock).pacmanMove(MovementDirection.DOWN, movementSet);
+        }).when(pacManMock).pacmanMove(MovementDirection.DOWN, MovementDirection.toMask(movementSet));
         Mockito.when(pacManMock.hasSameCoordinates(ghostMock)).thenReturn(false);
         Mockito.when(ghostMock.getRowIndex()).thenReturn(2);
         Mockito.when(ghostMock.getColumnIndex()).thenReturn(1);
         Mockito.when(ghostMock.hasSameCoordinates(pacManMock)).thenReturn(false);
+        Mockito.when(layoutMock.getLineOfSightDirection(2, 1, 1, 1)).thenReturn(MovementDirection.UP);
         testModel.updateGameStatus(MovementDirection.DOWN);
 
-        Mockito.verify(pacManMock).preMovementUpdate();
-        Mockito.verify(ghostMock).preMovementUpdate();
+        Mockito.verify(pacManMock).rememberPosition();
+        Mockito.verify(ghostMock).rememberPosition();
+        Mockito.verify(pacManMock, Mockito.never()).preMovementUpdate();
+        Mockito.verify(ghostMock, Mockito.never()).preMovementUpdate();
         Mockito.verify(pacManMock).toggleGhostEatingMode();
-        Mockito.verify(ghostMock).ghostMove(movementSet, MovementDirection.UP, false);
+        Mockito.verify(ghostMock).ghostMove(MovementDirection.toMask(movementSet), MovementDirection.UP, false);
 
         assertEquals(LevelCellComponent.EMPTY, testModel.componentAt(0, 1));
         assertEquals(LevelCellComponent.BIG_DOT, testModel.componentAt(1, 1));
+
+        CellChangeSet changedCells = testModel.getChangedCells();
+        assertEquals(3, changedCells.size());
+        assertEquals(0, changedCells.getRowIndex(0));
+        assertEquals(1, changedCells.getColumnIndex(0));
+        assertEquals(1, changedCells.getRowIndex(1));
+        assertEquals(2, changedCells.getRowIndex(2));
+        testModel.clearChangedCells();
+        assertEquals(0, testModel.getChangedCells().size());
     }
 }
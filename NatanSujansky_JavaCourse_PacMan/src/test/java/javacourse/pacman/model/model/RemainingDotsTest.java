@@ -0,0 +1,108 @@
+package javacourse.pacman.model.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelCellComponent;
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Unit test class for RemainingDots class
+ *
+ * @author Natan
+ *
+ */
+public class RemainingDotsTest {
+
+    /**
+     * Test for the dots of a new game and for eating them
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void eatDotsTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel testModel = new PacManModel();
+        testModel.initializeNewGame(levelLayout, 1L);
+        RemainingDots testDots = testModel.getRemainingDots();
+        assertEquals(142, testDots.getNumberOfSmallDots(), "Number of small dots not as expected!");
+        assertEquals(4, testDots.getNumberOfBigDots(), "Number of big dots not as expected!");
+        for (int i = 0; i < levelLayout.getLevelHeight(); i++) {
+            for (int j = 0; j < levelLayout.getLevelWidth(); j++) {
+                assertEquals(levelLayout.getComponent(i, j) == LevelCellComponent.SMALL_DOT,
+                        testDots.isSmallDot(i, j), "Small dot not as expected!");
+                assertEquals(levelLayout.getComponent(i, j) == LevelCellComponent.BIG_DOT, testDots.isBigDot(i, j),
+                        "Big dot not as expected!");
+            }
+        }
+
+        // Pac-Man starts at (15, 9) between two small dots
+        testModel.updateGameStatus(MovementDirection.LEFT);
+        assertEquals(141, testDots.getNumberOfSmallDots(), "Number of small dots not as expected!");
+        assertFalse(testDots.isSmallDot(15, 8), "Eaten dot still remaining!");
+        assertEquals(LevelCellComponent.SMALL_DOT, testModel.componentAt(15, 8), "Dot under Pac-Man not shown!");
+        assertEquals(10, testModel.getGameScore(), "Score not as expected!");
+        assertFalse(testDots.isEmpty(), "Dots not remaining!");
+
+        testModel.restartGame();
+        assertEquals(142, testDots.getNumberOfSmallDots(), "Dots not reset!");
+        assertTrue(testDots.isSmallDot(15, 8), "Dots not reset!");
+        assertEquals(LevelCellComponent.PACMAN_START, testModel.componentAt(15, 9), "Cleared cells not reset!");
+    }
+
+    /**
+     * Test for finding the nearest dot, compared with checking every cell
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void findNearestDotTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        int levelHeight = levelLayout.getLevelHeight();
+        int levelWidth = levelLayout.getLevelWidth();
+        RemainingDots testDots = new RemainingDots(levelHeight, levelWidth);
+        LevelStartState.of(levelLayout).copyDots(testDots);
+        assertEquals(1 * levelWidth + 1, testDots.findNearestDot(0, 0), "Nearest dot not as expected!");
+
+        SplittableRandom random = new SplittableRandom(7L);
+        while (!testDots.isEmpty()) {
+            for (int k = 0; k < 20; k++) {
+                int rowIndex = random.nextInt(levelHeight);
+                int columnIndex = random.nextInt(levelWidth);
+                int expectedDistance = Integer.MAX_VALUE;
+                for (int i = 0; i < levelHeight; i++) {
+                    for (int j = 0; j < levelWidth; j++) {
+                        if (testDots.isSmallDot(i, j) || testDots.isBigDot(i, j)) {
+                            expectedDistance = Math.min(expectedDistance,
+                                    Math.abs(i - rowIndex) + Math.abs(j - columnIndex));
+                        }
+                    }
+                }
+                int nearestDot = testDots.findNearestDot(rowIndex, columnIndex);
+                int nearestRow = nearestDot / testDots.getLevelWidth();
+                int nearestColumn = nearestDot % testDots.getLevelWidth();
+                assertTrue(testDots.isSmallDot(nearestRow, nearestColumn) || testDots.isBigDot(nearestRow,
+                        nearestColumn), "Nearest dot not remaining!");
+                assertEquals(expectedDistance, Math.abs(nearestRow - rowIndex) + Math.abs(nearestColumn - columnIndex),
+                        "Distance of the nearest dot not as expected!");
+            }
+            int eatenDot = testDots.findNearestDot(random.nextInt(levelHeight), random.nextInt(levelWidth));
+            int eatenRow = eatenDot / levelWidth;
+            int eatenColumn = eatenDot % levelWidth;
+            assertTrue(testDots.removeSmallDot(eatenRow, eatenColumn) || testDots.removeBigDot(eatenRow, eatenColumn),
+                    "Dot not removed!");
+        }
+        assertEquals(RemainingDots.NO_DOT, testDots.findNearestDot(10, 10), "Dot found in an empty level!");
+
+        IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class,
+                () -> testDots.findNearestDot(levelHeight, 0));
+        assertEquals("rowIndex out of bounds!", exception.getMessage());
+    }
+}
@@ -0,0 +1,108 @@
+package javacourse.pacman.model.pathfinding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+
+public class DistanceFieldTest {
+
+    /**
+     * Level with a corridor in row 1 and a tunnel in row 4 that wraps around the
+     * left and right border
+     */
+    private static final String LEVEL = String.join("\n",
+            "W W W W W W W W W W",
+            "W P S S S S S S G W",
+            "W S W W W W W W S W",
+            "W S W W W W W W S W",
+            "S S W W W W W W S S",
+            "W S W W W W W W S W",
+            "W S W W W W W W S W",
+            "W S W W W W W W S W",
+            "W S S S S S S S S W",
+            "W W W W W W W W W W");
+
+    private LevelLayout testLayout;
+
+    /**
+     * Initialize the test level
+     */
+    @BeforeEach
+    public void initLevel() {
+        try {
+            testLayout = new LevelLayout("Level", new ByteArrayInputStream(LEVEL.getBytes()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Test for the distances and directions on the wrapped level grid
+     */
+    @Test
+    public void distanceTest() {
+        DistanceField testField = new DistanceField(testLayout, 100);
+        assertTrue(testField.setTarget(1, 1));
+        assertFalse(testField.setTarget(1, 1), "Distance field recomputed for an unchanged target!");
+
+        assertEquals(0, testField.getDistance(1, 1));
+        assertEquals(7, testField.getDistance(1, 8));
+        assertEquals(-1, testField.getDistance(0, 0), "Wall reached by the search!");
+        assertEquals(MovementDirection.NONE, testField.getDirectionTowardsTarget(1, 1));
+        assertEquals(MovementDirection.LEFT, testField.getDirectionTowardsTarget(1, 8));
+        assertEquals(MovementDirection.UP, testField.getDirectionTowardsTarget(4, 1));
+
+        // (4, 9) is reached faster through the tunnel than along the right column
+        assertEquals(5, testField.getDistance(4, 9));
+        assertEquals(MovementDirection.RIGHT, testField.getDirectionTowardsTarget(4, 9));
+
+        assertTrue(testField.setTarget(8, 8));
+        assertEquals(0, testField.getDistance(8, 8));
+        assertEquals(MovementDirection.DOWN, testField.getDirectionTowardsTarget(1, 8));
+    }
+
+    /**
+     * Test for the search limited by the maximum distance
+     */
+    @Test
+    public void maxDistanceTest() {
+        DistanceField testField = new DistanceField(testLayout, 3);
+        testField.setTarget(1, 1);
+        assertEquals(3, testField.getDistance(1, 4));
+        assertEquals(-1, testField.getDistance(1, 5));
+        assertEquals(MovementDirection.LEFT, testField.getDirectionTowardsTarget(1, 4));
+        assertEquals(MovementDirection.NONE, testField.getDirectionTowardsTarget(1, 5));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new DistanceField(testLayout, -1));
+        assertEquals("Maximum distance cannot be negative!", exception.getMessage());
+    }
+
+    /**
+     * Test for the calls with invalid state or arguments
+     */
+    @Test
+    public void invalidCallsTest() {
+        DistanceField testField = new DistanceField(testLayout, 10);
+        IllegalStateException stateException = assertThrows(IllegalStateException.class,
+                () -> testField.getDistance(1, 1));
+        assertEquals("Distance field target hasn't been set yet!", stateException.getMessage());
+
+        IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class,
+                () -> testField.setTarget(10, 1));
+        assertEquals("rowIndex out of bounds!", exception.getMessage());
+
+        exception = assertThrows(IndexOutOfBoundsException.class, () -> testField.setTarget(1, -1));
+        assertEquals("columnIndex out of bounds!", exception.getMessage());
+    }
+}
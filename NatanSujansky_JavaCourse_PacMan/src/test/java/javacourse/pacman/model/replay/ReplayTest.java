@@ -0,0 +1,132 @@
+package javacourse.pacman.model.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.ModelStates;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Unit test class for recording and playing replays
+ *
+ * @author Natan
+ *
+ */
+public class ReplayTest {
+
+    private static final MovementDirection[] INPUTS = { MovementDirection.UP, MovementDirection.DOWN,
+            MovementDirection.LEFT, MovementDirection.RIGHT, null };
+
+    /**
+     * Test that recorded games survive writing and reading and are played back
+     * identically, including seeking backwards and forwards
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void recordAndPlayTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        for (long seed = 0; seed < 10; seed++) {
+            PacManModel recordedModel = new PacManModel();
+            recordedModel.initializeNewGame(levelLayout, seed);
+            ReplayRecorder recorder = new ReplayRecorder(recordedModel);
+            List<String> states = new ArrayList<>();
+            states.add(ModelStates.describe(recordedModel));
+            SplittableRandom inputRandom = new SplittableRandom(seed);
+            MovementDirection input = null;
+            for (int tick = 0; tick < 500 && !recordedModel.isGameOver(); tick++) {
+                if (inputRandom.nextInt(6) == 0) {
+                    input = INPUTS[inputRandom.nextInt(INPUTS.length)];
+                }
+                recorder.record(input);
+                recordedModel.updateGameStatus(input);
+                states.add(ModelStates.describe(recordedModel));
+            }
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            recorder.toReplay().writeTo(outputStream);
+            Replay replay = Replay.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+            assertEquals(states.size() - 1, replay.getNumberOfTicks(), "Number of ticks not as expected!");
+            assertEquals(seed, replay.getSeed(), "Seed not as expected!");
+            assertEquals("Level", replay.getLevelName(), "Level name not as expected!");
+            // 43 bytes of header for a five character level name, runs shorter than 2048
+            // updates take at most two bytes
+            assertTrue(outputStream.size() <= 43 + 2 * replay.getNumberOfRuns(), "Replay size not as expected!");
+
+            ReplayPlayer player = new ReplayPlayer(replay, levelLayout, 16);
+            player.playToEnd();
+            assertEquals(states.get(states.size() - 1), ModelStates.describe(player.getModel()),
+                    "Replayed game not as expected!");
+            for (int targetTick : new int[] { 0, states.size() - 1, 17, 16, 3, states.size() / 2, 40 }) {
+                int tick = Math.min(targetTick, states.size() - 1);
+                player.seek(tick);
+                assertEquals(tick, player.getTick(), "Tick not as expected!");
+                assertEquals(states.get(tick), ModelStates.describe(player.getModel()), "Seeked game not as expected!");
+            }
+        }
+    }
+
+    /**
+     * Test that runs of equal inputs are stored once
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void runLengthTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        ReplayRecorder recorder = new ReplayRecorder(levelLayout, 5L);
+        for (int i = 0; i < 1000; i++) {
+            recorder.record(MovementDirection.LEFT);
+        }
+        recorder.record(null);
+        recorder.record(MovementDirection.NONE);
+        recorder.record(MovementDirection.NONE);
+        Replay replay = recorder.toReplay();
+        assertEquals(3, replay.getNumberOfRuns(), "Number of runs not as expected!");
+        assertEquals(1003, replay.getNumberOfTicks(), "Number of ticks not as expected!");
+        assertEquals(MovementDirection.LEFT, replay.getInput(999), "Input not as expected!");
+        assertEquals(null, replay.getInput(1000), "Input not as expected!");
+        assertEquals(MovementDirection.NONE, replay.getInput(1002), "Input not as expected!");
+        assertThrows(IndexOutOfBoundsException.class, () -> replay.getInput(1003));
+    }
+
+    /**
+     * Test for reading invalid replays and playing replays on a different level
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void replayTestNegative() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        ReplayRecorder recorder = new ReplayRecorder(levelLayout, 5L);
+        recorder.record(MovementDirection.UP);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        recorder.toReplay().writeTo(outputStream);
+        byte[] replayBytes = outputStream.toByteArray();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> Replay.readFrom(new ByteArrayInputStream("W W W W W".getBytes())));
+        assertEquals("Not a replay file!", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> Replay
+                .readFrom(new ByteArrayInputStream(Arrays.copyOf(replayBytes, replayBytes.length - 1))));
+        assertEquals("Replay file is truncated!", exception.getMessage());
+
+        LevelLayout otherLevelLayout = new LevelLayout("Level", "/levels/level2.txt");
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> new ReplayPlayer(recorder.toReplay(), otherLevelLayout, 10));
+        assertEquals("Replay was recorded on a different level!", exception.getMessage());
+    }
+}
@@ -0,0 +1,122 @@
+package javacourse.pacman.model.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Unit test class for MctsPacManAgent class
+ *
+ * @author Natan
+ *
+ */
+public class MctsPacManAgentTest {
+
+    /**
+     * Test that the agent chooses valid directions without changing the game it
+     * decides for, and that its decisions are reproducible with a single worker
+     * limited by the number of rollouts
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void chooseDirectionTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel model = new PacManModel();
+        model.initializeNewGame(levelLayout, 7L);
+        PacManModel otherModel = new PacManModel();
+        otherModel.initializeNewGame(levelLayout, 7L);
+        try (MctsPacManAgent agent = new MctsPacManAgent(1, 60_000, 20, 100, 3L);
+                MctsPacManAgent otherAgent = new MctsPacManAgent(1, 60_000, 20, 100, 3L)) {
+            for (int tick = 0; tick < 60 && !model.isGameOver(); tick++) {
+                int rowIndex = model.getPacMan().getRowIndex();
+                int columnIndex = model.getPacMan().getColumnIndex();
+                long score = model.getGameScore();
+                MovementDirection direction = agent.chooseDirection(model);
+                assertEquals(rowIndex, model.getPacMan().getRowIndex(), "Pac-Man moved during the search!");
+                assertEquals(columnIndex, model.getPacMan().getColumnIndex(), "Pac-Man moved during the search!");
+                assertEquals(score, model.getGameScore(), "Score changed during the search!");
+                assertTrue((levelLayout.getExitMask(rowIndex, columnIndex) & direction.getMask()) != 0,
+                        "Direction not as expected!");
+                assertEquals(100, agent.getLastRollouts(), "Number of rollouts not as expected!");
+                assertEquals(direction, otherAgent.chooseDirection(otherModel),
+                        "Decisions of equally seeded agents differ!");
+                model.updateGameStatus(direction);
+                otherModel.updateGameStatus(direction);
+            }
+            assertTrue(agent.getTotalRollouts() >= 100, "Total number of rollouts not as expected!");
+            assertTrue(agent.getRolloutsPerSecond() > 0, "Rollouts per second not as expected!");
+        }
+    }
+
+    /**
+     * Test that searching on several workers stops at the time budget and the
+     * model can be updated while the search is running
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void chooseDirectionAsyncTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel model = new PacManModel();
+        model.initializeNewGame(levelLayout, 11L);
+        try (MctsPacManAgent agent = new MctsPacManAgent(4, 20, 30, 11L)) {
+            for (int tick = 0; tick < 10 && !model.isGameOver(); tick++) {
+                int rowIndex = model.getPacMan().getRowIndex();
+                int columnIndex = model.getPacMan().getColumnIndex();
+                long startNanos = System.nanoTime();
+                CompletableFuture<MovementDirection> move = agent.chooseDirectionAsync(model);
+                MovementDirection direction = move.join();
+                assertTrue(System.nanoTime() - startNanos < 5_000_000_000L, "Search exceeded its time budget!");
+                assertTrue(agent.getLastRollouts() > 0, "Number of rollouts not as expected!");
+                assertTrue((levelLayout.getExitMask(rowIndex, columnIndex) & direction.getMask()) != 0,
+                        "Direction not as expected!");
+                model.updateGameStatus(direction);
+            }
+        }
+        try (MctsPacManAgent agent = new MctsPacManAgent(2, 500, 30, 11L)) {
+            CompletableFuture<MovementDirection> move = agent.chooseDirectionAsync(model);
+            model.updateGameStatus(MovementDirection.LEFT);
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    () -> agent.chooseDirectionAsync(model));
+            assertEquals("Autopilot is already searching for a decision!", exception.getMessage());
+            assertTrue(move.join() != MovementDirection.NONE || model.isGameOver(), "Direction not as expected!");
+        }
+    }
+
+    /**
+     * Test for invalid arguments and use after close
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void mctsPacManAgentTestNegative() throws IOException {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new MctsPacManAgent(0, 100, 10, 1L));
+        assertEquals("Parallelism must be positive!", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> new MctsPacManAgent(1, 0, 10, 1L));
+        assertEquals("Time budget must be positive!", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> new MctsPacManAgent(1, 100, 0, 1L));
+        assertEquals("Rollout depth must be positive!", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> new MctsPacManAgent(1, 100, 10, 0, 1L));
+        assertEquals("Number of rollouts must be positive!", exception.getMessage());
+
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        PacManModel model = new PacManModel();
+        model.initializeNewGame(levelLayout, 1L);
+        MctsPacManAgent agent = new MctsPacManAgent(1, 100, 10, 1L);
+        agent.close();
+        IllegalStateException stateException = assertThrows(IllegalStateException.class,
+                () -> agent.chooseDirection(model));
+        assertEquals("Autopilot has already been closed!", stateException.getMessage());
+    }
+}
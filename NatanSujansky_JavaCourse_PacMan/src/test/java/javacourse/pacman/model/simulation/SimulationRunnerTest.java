@@ -0,0 +1,134 @@
+package javacourse.pacman.model.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+
+/**
+ * Unit test class for SimulationRunner class
+ *
+ * @author Natan
+ *
+ */
+public class SimulationRunnerTest {
+
+    /**
+     * Test for running a batch of games in parallel
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void runTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        try (SimulationRunner runner = new SimulationRunner(4)) {
+            SimulationReport report = runner.run(levelLayout, 50, 300, RandomPacManAgent::new);
+            assertEquals(50, report.getResults().size(), "Number of results not as expected!");
+            for (int i = 0; i < 50; i++) {
+                SimulationResult result = report.getResults().get(i);
+                assertEquals(i, result.getGameIndex(), "Game index not as expected!");
+                assertTrue(result.getTicks() > 0 && result.getTicks() <= 300, "Number of ticks not as expected!");
+                assertTrue(result.isGameOver() || result.getTicks() == 300, "Game stopped too early!");
+                assertTrue(result.getScore() >= 0, "Score cannot be negative!");
+            }
+            assertEquals(report.getResults().stream().mapToLong(SimulationResult::getTicks).sum(),
+                    report.getTotalTicks(), "Total number of ticks not as expected!");
+        }
+    }
+
+    /**
+     * Test that batches with the same seed give the same results regardless of the
+     * number of worker threads
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void runTestDeterministic() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        SimulationReport firstReport;
+        SimulationReport secondReport;
+        try (SimulationRunner runner = new SimulationRunner(1)) {
+            firstReport = runner.run(levelLayout, 20, 500, 1234L, RandomPacManAgent::new);
+        }
+        try (SimulationRunner runner = new SimulationRunner(4)) {
+            secondReport = runner.run(levelLayout, 20, 500, 1234L, RandomPacManAgent::new);
+        }
+        for (int i = 0; i < 20; i++) {
+            SimulationResult first = firstReport.getResults().get(i);
+            SimulationResult second = secondReport.getResults().get(i);
+            assertEquals(1234L + i, first.getSeed(), "Game seed not as expected!");
+            assertEquals(first.getSeed(), second.getSeed(), "Game seed not as expected!");
+            assertEquals(first.getScore(), second.getScore(), "Score of equally seeded games differs!");
+            assertEquals(first.getTicks(), second.getTicks(), "Ticks of equally seeded games differ!");
+            assertEquals(first.isPlayerVictorious(), second.isPlayerVictorious(),
+                    "Outcome of equally seeded games differs!");
+
+            SimulationResult replayed = SimulationRunner.playGame(levelLayout, i, 500, first.getSeed(),
+                    RandomPacManAgent::new);
+            assertEquals(first.getScore(), replayed.getScore(), "Score of replayed game differs!");
+            assertEquals(first.getTicks(), replayed.getTicks(), "Ticks of replayed game differ!");
+        }
+    }
+
+    /**
+     * Test that agents holding resources are closed after their game
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void closeAgentsTest() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        AtomicInteger numOfClosedAgents = new AtomicInteger();
+        try (SimulationRunner runner = new SimulationRunner(4)) {
+            runner.run(levelLayout, 10, 50, 1L, seed -> new ClosingAgent(seed, numOfClosedAgents));
+        }
+        assertEquals(10, numOfClosedAgents.get(), "Number of closed agents not as expected!");
+    }
+
+    /**
+     * Test for invalid arguments and use after close
+     *
+     * @throws IOException in case the level resource cannot be read
+     */
+    @Test
+    public void runTestNegative() throws IOException {
+        LevelLayout levelLayout = new LevelLayout("Level", "/levels/level1.txt");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new SimulationRunner(0));
+        assertEquals("Parallelism must be positive!", exception.getMessage());
+
+        SimulationRunner runner = new SimulationRunner(1);
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> runner.run(levelLayout, -1, 10, RandomPacManAgent::new));
+        assertEquals("Number of games cannot be negative!", exception.getMessage());
+
+        runner.close();
+        IllegalStateException stateException = assertThrows(IllegalStateException.class,
+                () -> runner.run(levelLayout, 1, 10, RandomPacManAgent::new));
+        assertEquals("Simulation runner has already been closed!", stateException.getMessage());
+    }
+
+    /**
+     * Agent that counts how many of its instances have been closed
+     */
+    private static final class ClosingAgent extends RandomPacManAgent implements AutoCloseable {
+
+        private final AtomicInteger numOfClosedAgents;
+
+        private ClosingAgent(long seed, AtomicInteger numOfClosedAgents) {
+            super(seed);
+            this.numOfClosedAgents = numOfClosedAgents;
+        }
+
+        @Override
+        public void close() {
+            numOfClosedAgents.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package javacourse.pacman.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.level.LevelRepository;
+import javacourse.pacman.model.model.GhostTable;
+import javacourse.pacman.model.model.ModelStates;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+import javacourse.pacman.model.model.RemainingDots;
+
+/**
+ * Unit test class for GameServer and GameClient classes, using clients
+ * connected over the loopback interface
+ *
+ * @author Natan
+ *
+ */
+public class GameServerTest {
+
+    private static final String LEVEL_NAME = "First level";
+
+    private static final long TIMEOUT_NANOS = 30_000_000_000L;
+
+    /**
+     * Test that the games of the clients follow the server game, including a
+     * client joining a running session and a restart
+     *
+     * @throws IOException in case the level list cannot be read or the connection
+     *                     fails
+     */
+    @Test
+    public void playTest() throws IOException {
+        try (GameServer server = startServer();
+                GameClient player = GameClient.createSession(server.getAddress(), LEVEL_NAME, 42L)) {
+            assertEquals(0, player.getTick(), "Game started before the first input!");
+            player.sendInput(MovementDirection.LEFT);
+            pollUntil(player, 10);
+            player.sendInput(MovementDirection.UP);
+            pollUntil(player, 20);
+
+            try (GameClient viewer = GameClient.joinSession(server.getAddress(), player.getSessionId())) {
+                assertEquals(player.getSessionId(), viewer.getSessionId(), "Session not as expected!");
+                assertTrue(viewer.getTick() >= 20, "Game so far not replayed!");
+                pollUntil(player, viewer.getTick() + 5);
+                pollUntil(viewer, player.getTick());
+                assertEquals(ModelStates.describe(player.getModel()), ModelStates.describe(viewer.getModel()),
+                        "Games of the clients differ!");
+                assertEquals(1, server.getNumberOfSessions(), "Number of sessions not as expected!");
+                assertEquals(2, server.getNumberOfConnections(), "Number of connections not as expected!");
+
+                viewer.sendRestart();
+                long deadlineNanos = System.nanoTime() + TIMEOUT_NANOS;
+                while (player.getNumberOfWelcomes() < 2 || viewer.getNumberOfWelcomes() < 2) {
+                    player.poll();
+                    viewer.poll();
+                    assertTrue(System.nanoTime() < deadlineNanos, "Restart not received in time!");
+                }
+                assertEquals(0, player.getTick(), "Restarted game not as expected!");
+                assertEquals(0, player.getModel().getGameScore(), "Restarted game not as expected!");
+            }
+        }
+    }
+
+    /**
+     * Test that a single server thread hosts hundreds of sessions
+     *
+     * @throws IOException in case the level list cannot be read or the connection
+     *                     fails
+     */
+    @Test
+    public void manySessionsTest() throws IOException {
+        List<GameClient> clients = new ArrayList<>();
+        try (GameServer server = startServer()) {
+            try {
+                for (int i = 0; i < 300; i++) {
+                    GameClient client = GameClient.createSession(server.getAddress(), LEVEL_NAME, i);
+                    client.sendInput(MovementDirection.values()[i % 4]);
+                    clients.add(client);
+                }
+                for (GameClient client : clients) {
+                    pollUntil(client, 5);
+                }
+                assertEquals(300, server.getNumberOfSessions(), "Number of sessions not as expected!");
+            } finally {
+                for (GameClient client : clients) {
+                    client.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that hundreds of spectators of a session end up with the state of the
+     * player game, whether they have followed every delta or skipped some
+     *
+     * @throws IOException in case the level list cannot be read or the connection
+     *                     fails
+     */
+    @Test
+    public void spectateTest() throws IOException {
+        List<GameSpectator> spectators = new ArrayList<>();
+        try (GameServer server = startServer();
+                GameClient player = GameClient.createSession(server.getAddress(), LEVEL_NAME, 7L)) {
+            try {
+                for (int i = 0; i < 500; i++) {
+                    spectators.add(GameSpectator.watch(server.getAddress(), player.getSessionId()));
+                }
+                MovementDirection[] directions = { MovementDirection.LEFT, MovementDirection.UP,
+                        MovementDirection.RIGHT, MovementDirection.DOWN };
+                long deadlineNanos = System.nanoTime() + TIMEOUT_NANOS;
+                for (int i = 0; !player.getModel().isGameOver(); i++) {
+                    assertTrue(System.nanoTime() < deadlineNanos, "Game not over in time!");
+                    player.sendInput(directions[i % directions.length]);
+                    pollUntil(player, player.getTick() + 7);
+                    for (GameSpectator spectator : spectators) {
+                        spectator.poll();
+                    }
+                }
+                PacManModel model = player.getModel();
+                for (GameSpectator spectator : spectators) {
+                    deadlineNanos = System.nanoTime() + TIMEOUT_NANOS;
+                    while (spectator.getTick() != player.getTick()) {
+                        spectator.poll();
+                        assertTrue(System.nanoTime() < deadlineNanos, "Spectator not updated in time!");
+                    }
+                    assertSpectatorState(model, spectator);
+                }
+                assertTrue(spectators.stream().anyMatch(spectator -> spectator.getNumberOfDeltas() > 0),
+                        "No deltas received!");
+            } finally {
+                for (GameSpectator spectator : spectators) {
+                    spectator.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Test for requests the server refuses
+     *
+     * @throws IOException in case the level list cannot be read or the connection
+     *                     fails
+     */
+    @Test
+    public void gameServerTestNegative() throws IOException {
+        try (GameServer server = startServer()) {
+            InetSocketAddress address = server.getAddress();
+            IOException exception = assertThrows(IOException.class,
+                    () -> GameClient.createSession(address, "No level", 1L));
+            assertEquals("Unknown level: No level!", exception.getMessage());
+            exception = assertThrows(IOException.class, () -> GameClient.joinSession(address, 1234));
+            assertEquals("Unknown session!", exception.getMessage());
+            exception = assertThrows(IOException.class, () -> GameSpectator.watch(address, 1234));
+            assertEquals("Unknown session!", exception.getMessage());
+        }
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new GameServer(new InetSocketAddress("localhost", 0), null, 0));
+        assertEquals("Tick interval must be positive!", exception.getMessage());
+    }
+
+    /**
+     * Helper method that starts a server on a free loopback port with a short tick
+     * interval
+     */
+    private static GameServer startServer() throws IOException {
+        GameServer server = new GameServer(new InetSocketAddress("localhost", 0),
+                new LevelRepository("/level_list.txt", 3), 5);
+        server.start();
+        return server;
+    }
+
+    /**
+     * Helper method that polls a client until it has applied the given number of
+     * game updates or its game is over
+     */
+    private static void pollUntil(GameClient client, int tick) throws IOException {
+        long deadlineNanos = System.nanoTime() + TIMEOUT_NANOS;
+        while (client.getTick() < tick && !client.getModel().isGameOver()) {
+            client.poll();
+            assertTrue(System.nanoTime() < deadlineNanos, "Game updates not received in time!");
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Helper method that asserts that a spectator sees the whole state of the
+     * player game: Pac-Man, the ghosts, the score and the remaining dots
+     */
+    private static void assertSpectatorState(PacManModel model, GameSpectator spectator) {
+        assertEquals(model.getPacMan().getRowIndex(), spectator.getPacManRowIndex(), "Pac-Man not as expected!");
+        assertEquals(model.getPacMan().getColumnIndex(), spectator.getPacManColumnIndex(), "Pac-Man not as expected!");
+        assertEquals(model.getGameScore(), spectator.getGameScore(), "Score not as expected!");
+        assertEquals(model.isGameOver(), spectator.isGameOver(), "Game over flag not as expected!");
+        RemainingDots remainingDots = model.getRemainingDots();
+        assertEquals(remainingDots.getNumberOfSmallDots(), spectator.getNumberOfSmallDots(),
+                "Number of small dots not as expected!");
+        assertEquals(remainingDots.getNumberOfBigDots(), spectator.getNumberOfBigDots(),
+                "Number of big dots not as expected!");
+        GhostTable ghosts = model.getGhostTable();
+        assertEquals(ghosts.size(), spectator.getNumberOfGhosts(), "Number of ghosts not as expected!");
+        for (int i = 0; i < ghosts.size(); i++) {
+            assertEquals(ghosts.getRowIndex(i), spectator.getGhostRowIndex(i), "Ghost not as expected!");
+            assertEquals(ghosts.getColumnIndex(i), spectator.getGhostColumnIndex(i), "Ghost not as expected!");
+            assertEquals(ghosts.isGhostDead(i), spectator.isGhostDead(i), "Ghost not as expected!");
+            assertEquals(ghosts.getRemainingDeathTime(i), spectator.getRemainingDeathTime(i),
+                    "Ghost death time not as expected!");
+        }
+        LevelLayout levelLayout = model.getLevelLayout();
+        for (int rowIndex = 0; rowIndex < levelLayout.getLevelHeight(); rowIndex++) {
+            for (int columnIndex = 0; columnIndex < levelLayout.getLevelWidth(); columnIndex++) {
+                assertEquals(remainingDots.isSmallDot(rowIndex, columnIndex),
+                        spectator.isSmallDot(rowIndex, columnIndex), "Small dot not as expected!");
+                assertEquals(remainingDots.isBigDot(rowIndex, columnIndex), spectator.isBigDot(rowIndex, columnIndex),
+                        "Big dot not as expected!");
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package javacourse.pacman.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelLayout;
+import javacourse.pacman.model.level.LevelRepository;
+import javacourse.pacman.model.model.MovementDirection;
+
+/**
+ * Unit test class for GameSessionManager class, driven by a simulated clock
+ *
+ * @author Natan
+ *
+ */
+public class GameSessionManagerTest {
+
+    private static final long TICK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final long MILLISECOND_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Compiled level of the sessions, which is only sent in the WELCOME frames
+     * that these tests don't encode
+     */
+    private static final byte[] COMPILED_LEVEL = new byte[0];
+
+    /**
+     * Test that ten thousand sessions are hosted, of which only the ticking ones
+     * are performed, each in its own phase
+     *
+     * @throws IOException in case the level cannot be loaded
+     */
+    @Test
+    public void manySessionsTest() throws IOException {
+        LevelLayout levelLayout = new LevelRepository("/level_list.txt", 1).getLevel("First level");
+        long nowNanos = 1_000_000_000L;
+        GameSessionManager sessionManager = new GameSessionManager(TICK_INTERVAL_NANOS, nowNanos);
+        List<GameSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            sessions.add(sessionManager.createSession(levelLayout, COMPILED_LEVEL, i, (connection, frame) -> {
+            }));
+        }
+        assertEquals(10_000, sessionManager.getNumberOfSessions(), "Number of sessions not as expected!");
+        assertEquals(-1, sessionManager.getNanosUntilNextTick(nowNanos), "Idle sessions scheduled!");
+
+        // Every tenth session starts, a tenth of a millisecond after the previous one
+        for (int i = 0; i < sessions.size(); i += 10) {
+            nowNanos += MILLISECOND_NANOS / 10;
+            sessionManager.setInput(sessions.get(i), MovementDirection.values()[i % 4], nowNanos);
+        }
+        assertEquals(1000, sessionManager.getNumberOfScheduledSessions(),
+                "Number of ticking sessions not as expected!");
+        // The first session is due 200.1 ms after the start, rounded up to the next slot
+        assertEquals(101 * MILLISECOND_NANOS, sessionManager.getNanosUntilNextTick(nowNanos),
+                "Time until the first game update not as expected!");
+
+        long endNanos = nowNanos + 10 * TICK_INTERVAL_NANOS;
+        while (nowNanos < endNanos) {
+            nowNanos += MILLISECOND_NANOS;
+            int numOfGameUpdates = sessionManager.tickDueSessions(nowNanos);
+            assertTrue(numOfGameUpdates <= 10, "Game updates not spread over the tick interval!");
+        }
+        for (int i = 0; i < sessions.size(); i++) {
+            GameSession session = sessions.get(i);
+            if (i % 10 != 0) {
+                assertEquals(0, session.getTick(), "Idle session performed!");
+            } else if (!session.getModel().isGameOver()) {
+                assertTrue(session.getTick() >= 9, "Ticking session not performed!");
+                assertTrue(sessionManager.getTickLagNanos(session.getSessionId()) < MILLISECOND_NANOS,
+                        "Tick lag not as expected!");
+            }
+        }
+    }
+
+    /**
+     * Test for pausing, resuming, restarting and removing a session, and for the
+     * tick lag of a late event loop
+     *
+     * @throws IOException in case the level cannot be loaded
+     */
+    @Test
+    public void pauseTest() throws IOException {
+        LevelLayout levelLayout = new LevelRepository("/level_list.txt", 1).getLevel("First level");
+        long nowNanos = 0;
+        GameSessionManager sessionManager = new GameSessionManager(TICK_INTERVAL_NANOS, nowNanos);
+        GameSession session = sessionManager.createSession(levelLayout, COMPILED_LEVEL, 5L, (connection, frame) -> {
+        });
+        sessionManager.setInput(session, MovementDirection.LEFT, nowNanos);
+        nowNanos += TICK_INTERVAL_NANOS + 3 * MILLISECOND_NANOS;
+        assertEquals(1, sessionManager.tickDueSessions(nowNanos), "Number of game updates not as expected!");
+        assertEquals(3 * MILLISECOND_NANOS, sessionManager.getTickLagNanos(session.getSessionId()),
+                "Tick lag not as expected!");
+
+        sessionManager.pause(session);
+        assertTrue(session.isPaused(), "Session not paused!");
+        nowNanos += 5 * TICK_INTERVAL_NANOS;
+        assertEquals(0, sessionManager.tickDueSessions(nowNanos), "Paused session performed!");
+        sessionManager.setInput(session, MovementDirection.UP, nowNanos);
+        assertFalse(session.isPaused(), "Session not resumed!");
+        assertEquals(TICK_INTERVAL_NANOS, sessionManager.getNanosUntilNextTick(nowNanos),
+                "Time until the next game update not as expected!");
+
+        // An event loop stalled for longer than the allowed lag skips the missed game updates
+        nowNanos += 20 * TICK_INTERVAL_NANOS;
+        assertEquals(1, sessionManager.tickDueSessions(nowNanos), "Number of game updates not as expected!");
+        assertEquals(19 * TICK_INTERVAL_NANOS, sessionManager.getTickLagNanos(session.getSessionId()),
+                "Tick lag not as expected!");
+        assertEquals(TICK_INTERVAL_NANOS, sessionManager.getNanosUntilNextTick(nowNanos),
+                "Missed game updates not skipped!");
+
+        sessionManager.restart(session);
+        assertEquals(0, session.getTick(), "Session not restarted!");
+        assertEquals(-1, sessionManager.getNanosUntilNextTick(nowNanos), "Restarted session scheduled!");
+        sessionManager.setInput(session, MovementDirection.UP, nowNanos);
+        sessionManager.removeSession(session);
+        assertEquals(0, sessionManager.getNumberOfScheduledSessions(), "Removed session scheduled!");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> sessionManager.getTickLagNanos(session.getSessionId()));
+        assertEquals("Unknown session!", exception.getMessage());
+    }
+}
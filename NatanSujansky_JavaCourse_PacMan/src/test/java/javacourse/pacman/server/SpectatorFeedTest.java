@@ -0,0 +1,114 @@
+package javacourse.pacman.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import javacourse.pacman.model.level.LevelRepository;
+import javacourse.pacman.model.model.GhostStorage;
+import javacourse.pacman.model.model.MovementDirection;
+import javacourse.pacman.model.model.PacManModel;
+
+/**
+ * Unit test class for SpectatorFeed class, using a spectator connected over
+ * the loopback interface that stops reading
+ *
+ * @author Natan
+ *
+ */
+public class SpectatorFeedTest {
+
+    private static final int JUNK_FRAME_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Test that a spectator that cannot keep up skips deltas instead of queueing
+     * them, and continues with the next keyframe once it has caught up
+     *
+     * @throws IOException in case the level list cannot be read or the connection
+     *                     fails
+     */
+    @Test
+    public void slowSpectatorTest() throws IOException {
+        PacManModel model = new PacManModel(GhostStorage.ARRAYS);
+        model.initializeNewGame(new LevelRepository("/level_list.txt", 1).getLevel("First level"), 3L);
+        try (Selector selector = Selector.open();
+                ServerSocketChannel serverChannel = ServerSocketChannel.open()
+                        .bind(new InetSocketAddress("localhost", 0));
+                SocketChannel clientChannel = SocketChannel.open(serverChannel.getLocalAddress());
+                SocketChannel channel = serverChannel.accept()) {
+            channel.configureBlocking(false);
+            SelectionKey selectionKey = channel.register(selector, SelectionKey.OP_READ);
+            ClientConnection spectator = new ClientConnection(channel, selectionKey);
+            spectator.setSpectator(true);
+            SpectatorFeed spectatorFeed = new SpectatorFeed((connection, frame) -> {
+                try {
+                    assertTrue(connection.send(frame), "Spectator disconnected!");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            spectatorFeed.addSpectator(spectator, model, 0);
+            int tick = 0;
+            model.updateGameStatus(MovementDirection.LEFT);
+            spectatorFeed.publish(model, ++tick);
+            assertFalse(spectator.hasQueuedFrames(), "Frames not written!");
+
+            // Junk larger than the socket buffers keeps the spectator behind
+            ByteBuffer junkFrame = ByteBuffer.allocate(JUNK_FRAME_SIZE);
+            junkFrame.putInt(0, JUNK_FRAME_SIZE - GameProtocol.LENGTH_SIZE);
+            assertTrue(spectator.send(junkFrame), "Junk not sent!");
+            for (int i = 0; i < 3 * SpectatorFeed.KEYFRAME_INTERVAL; i++) {
+                model.updateGameStatus(MovementDirection.LEFT);
+                spectatorFeed.publish(model, ++tick);
+                assertEquals(1, spectator.getNumberOfQueuedFrames(), "Frames queued behind the junk!");
+            }
+            assertTrue(spectator.needsKeyframe(), "Skipped deltas not noticed!");
+
+            List<Byte> types = new ArrayList<>();
+            List<Integer> ticks = new ArrayList<>();
+            FrameReader frameReader = new FrameReader();
+            clientChannel.setOption(StandardSocketOptions.SO_RCVBUF, 64 * 1024);
+            clientChannel.configureBlocking(false);
+            while (spectator.hasQueuedFrames() || types.isEmpty()) {
+                spectator.flush();
+                frameReader.readFrames(clientChannel, (type, frame) -> {
+                    types.add(type);
+                    ticks.add(type == 0 ? -1 : frame.getInt());
+                });
+            }
+            int numOfDrainTicks = SpectatorFeed.KEYFRAME_INTERVAL - tick % SpectatorFeed.KEYFRAME_INTERVAL;
+            for (int i = 0; i < numOfDrainTicks; i++) {
+                model.updateGameStatus(MovementDirection.LEFT);
+                spectatorFeed.publish(model, ++tick);
+            }
+            model.updateGameStatus(MovementDirection.LEFT);
+            spectatorFeed.publish(model, ++tick);
+            long deadlineNanos = System.nanoTime() + 30_000_000_000L;
+            while (ticks.isEmpty() || ticks.get(ticks.size() - 1) != tick) {
+                frameReader.readFrames(clientChannel, (type, frame) -> {
+                    types.add(type);
+                    ticks.add(type == 0 ? -1 : frame.getInt());
+                });
+                assertTrue(System.nanoTime() < deadlineNanos, "Frames not received in time!");
+            }
+
+            assertEquals(List.of(GameProtocol.KEYFRAME, GameProtocol.DELTA, (byte) 0, GameProtocol.KEYFRAME,
+                    GameProtocol.DELTA), types, "Frames received not as expected!");
+            assertEquals(List.of(0, 1, -1, tick - 1, tick), ticks, "Game updates received not as expected!");
+            assertEquals(0, (tick - 1) % SpectatorFeed.KEYFRAME_INTERVAL, "Keyframe not sent on time!");
+        }
+    }
+}